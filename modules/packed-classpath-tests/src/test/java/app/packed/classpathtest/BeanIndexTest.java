@@ -0,0 +1,143 @@
+/*
+ * Copyright (c) 2026 Kasper Nielsen.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package app.packed.classpathtest;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.ToolProvider;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import app.packed.application.App;
+import app.packed.assembly.BaseAssembly;
+import app.packed.lifecycle.Initialize;
+import internal.app.packed.processor.BeanIndexProcessor;
+
+/** Tests that bean classes are introspected from the index written by {@link BeanIndexProcessor}. */
+public class BeanIndexTest {
+
+    /** The location of index files. */
+    static final String INDEX_LOCATION = "META-INF/app.packed/bean-index/";
+
+    /** The initialize methods that have been invoked. */
+    public static final List<String> EVENTS = Collections.synchronizedList(new ArrayList<>());
+
+    static final String BEAN = """
+            package test;
+            import app.packed.lifecycle.Initialize;
+            public class IndexedBean {
+                @Initialize public void a() { app.packed.classpathtest.BeanIndexTest.EVENTS.add("a"); }
+                @Initialize public void b() { app.packed.classpathtest.BeanIndexTest.EVENTS.add("b"); }
+            }
+            """;
+
+    @BeforeEach
+    public void clear() {
+        EVENTS.clear();
+    }
+
+    /** The build runs the processor on the test classes. */
+    @Test
+    public void indexWrittenByBuild() throws IOException {
+        URL url = BeanIndexTest.class.getClassLoader().getResource(INDEX_LOCATION + TestBean.class.getName());
+        assertNotNull(url, "The build did not run BeanIndexProcessor");
+        try (InputStream is = url.openStream()) {
+            assertEquals("M init ()V\n", new String(is.readAllBytes(), StandardCharsets.UTF_8));
+        }
+
+        run(TestBean.class);
+        assertEquals(List.of("init"), EVENTS);
+    }
+
+    /**
+     * Removes a method from a generated index. As the index is trusted, the method is not invoked, which shows that the
+     * bean class was introspected from the index and not by reflection.
+     */
+    @Test
+    public void generatedIndexIsUsed(@TempDir Path dir) throws Exception {
+        Path original = compile(dir.resolve("original"));
+        run(load(original));
+        assertEquals(Set.of("a", "b"), Set.copyOf(EVENTS));
+
+        EVENTS.clear();
+        Path edited = compile(dir.resolve("edited"));
+        Path index = edited.resolve(INDEX_LOCATION + "test.IndexedBean");
+        assertTrue(Files.readAllLines(index).contains("M b ()V"));
+        Files.writeString(index, "M a ()V\n");
+        run(load(edited));
+        assertEquals(List.of("a"), EVENTS);
+    }
+
+    private static Path compile(Path out) throws IOException {
+        Files.createDirectories(out);
+        JavaFileObject source = new SimpleJavaFileObject(URI.create("string:///test/IndexedBean.java"), JavaFileObject.Kind.SOURCE) {
+
+            @Override
+            public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+                return BEAN;
+            }
+        };
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        List<String> options = List.of("-d", out.toString(), "-classpath", System.getProperty("java.class.path"));
+        JavaCompiler.CompilationTask task = compiler.getTask(null, null, null, options, null, List.of(source));
+        task.setProcessors(List.of(new BeanIndexProcessor()));
+        assertTrue(task.call());
+        return out;
+    }
+
+    @SuppressWarnings("resource") // The class loader must stay open while the application runs
+    private static Class<?> load(Path dir) throws Exception {
+        URLClassLoader loader = new URLClassLoader(new URL[] { dir.toUri().toURL() }, BeanIndexTest.class.getClassLoader());
+        return loader.loadClass("test.IndexedBean");
+    }
+
+    private static void run(Class<?> beanClass) {
+        App.run(new BaseAssembly() {
+            @Override
+            protected void build() {
+                install(beanClass);
+            }
+        });
+    }
+
+    public static class TestBean {
+
+        @Initialize
+        public void init() {
+            EVENTS.add("init");
+        }
+    }
+}
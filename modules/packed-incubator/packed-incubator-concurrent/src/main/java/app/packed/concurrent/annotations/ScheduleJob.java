@@ -20,16 +20,23 @@ import java.lang.annotation.ElementType;
 import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
 import java.lang.annotation.Target;
-import java.time.Duration;
 import java.util.concurrent.TimeUnit;
 
 import app.packed.bean.BeanIntrospector;
 import app.packed.bean.BeanTrigger.OnAnnotatedMethod;
 import app.packed.concurrent.job2.impl.ScheduledOperationHandle;
 import app.packed.extension.BaseExtension;
-import internal.app.packed.concurrent.old.ScheduleImpl;
 
 /**
+ * Schedules the annotated method to run periodically while its bean is running.
+ * <p>
+ * Exactly one of {@link #atFixedRate()}, {@link #atFixedRateExpression()}, {@link #withFixedDelay()} or
+ * {@link #withFixedDelayExpression()} must be specified. Otherwise a {@link app.packed.bean.BeanInstallationException}
+ * is thrown when the bean is installed. Expressions are parsed using {@link java.time.Duration#parse(CharSequence)}.
+ * For example, {@code "PT30S"} for 30 seconds.
+ * <p>
+ * The operation is scheduled when its bean is started and cancelled when its bean is stopped. All scheduled operations
+ * in an application share a single timing wheel.
  * <p>
  * Operations created from this annotations are always duration based and never takes timezones or Daylight saving times
  * into considation.
@@ -43,6 +50,7 @@ public @interface ScheduleJob {
 
     long initialDelay() default 0;
 
+    /** {@return the initial delay as an ISO-8601 duration, cannot be combined with {@link #initialDelay()}} */
     String initialDelayExpression() default "";
 
     /**
@@ -52,6 +60,7 @@ public @interface ScheduleJob {
      */
     long atFixedRate() default 0;
 
+    /** {@return the fixed rate as an ISO-8601 duration, cannot be combined with {@link #atFixedRate()}} */
     String atFixedRateExpression() default "";
 
     /**
@@ -60,6 +69,7 @@ public @interface ScheduleJob {
      */
     long withFixedDelay() default 0;
 
+    /** {@return the fixed delay as an ISO-8601 duration, cannot be combined with {@link #withFixedDelay()}} */
     String withFixedDelayExpression() default "";
 
     TimeUnit timeUnit() default TimeUnit.MILLISECONDS;
@@ -70,17 +80,9 @@ final class JobExtensionBeanIntrospector extends BeanIntrospector<BaseExtension>
     @Override
     public void onAnnotatedMethod(Annotation hook, BeanIntrospector.OnMethod on) {
         if (hook instanceof ScheduleJob schedule) {
-            // Parse the schedule
-            ScheduleImpl s = new ScheduleImpl(Duration.ofMillis(schedule.withFixedDelay()));
-
-            // Install the operation
-            ScheduledOperationHandle h = on.newOperation().install(
-                    ScheduledOperationHandle::new);
-
-            // Configure the handle
-            h.s = s;
+            ScheduledOperationHandle.onScheduleJobAnnotation(this, on, schedule);
         } else {
             super.onAnnotatedMethod(hook, on);
         }
     }
-}
\ No newline at end of file
+}
@@ -4,8 +4,13 @@ import static java.util.Objects.requireNonNull;
 
 import java.time.DayOfWeek;
 import java.time.LocalDate;
+import java.time.Instant;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
 import java.time.ZonedDateTime;
+import java.time.chrono.IsoChronology;
+import java.time.zone.ZoneRules;
 import java.util.Objects;
 import java.util.function.Function;
 import java.util.stream.Stream;
@@ -13,6 +18,9 @@ import java.util.stream.Stream;
 /**
  * A bitmask-based Standard Cron expression evaluator.
  *
+ * <p>The next execution time is found by jumping directly to the next set bit of each field mask, carrying into the next
+ * field on overflow, instead of testing one candidate time at a time.
+ *
  * <p>Format: [seconds] [minutes] [hours] [day of month] [month] [day of week] [year]
  *
  * <p>Standard Cron rules:
@@ -33,6 +41,11 @@ public final class CronExpression {
     private static final int[] LOWER_BOUNDS = {0, 0, 0, 1, 1, 1, MIN_YEAR};
     private static final int[] UPPER_BOUNDS = {59, 59, 23, 31, 12, 7, MAX_YEAR};
 
+    /** The days 0, 7, 14, 21 and 28, shifting it by a day gives every day in the month with the same day of week. */
+    private static final long WEEKLY = 1L | 1L << 7 | 1L << 14 | 1L << 21 | 1L << 28;
+    private static final long DAYS_0000_TO_1970 = 719_528L;
+    private static final long NO_MATCH = Long.MIN_VALUE;
+
     private static final String[] MONTH_NAMES = {"JAN", "FEB", "MAR", "APR", "MAY", "JUN", "JUL", "AUG", "SEP", "OCT", "NOV", "DEC"};
     private static final String[] DAY_NAMES = {"MON", "TUE", "WED", "THU", "FRI", "SAT", "SUN"};
 
@@ -144,33 +157,216 @@ public final class CronExpression {
 
     /** Returns the next execution time after current. */
     public LocalDateTime next(LocalDateTime current) {
-        LocalDateTime candidate = current.plusSeconds(1).withNano(0);
-        for (int i = 0; i < 100_000; i++) {
-            if (isValid(candidate)) return candidate;
-            candidate = findNextPotential(candidate);
+        long match = nextMatch(current.getYear(), current.getMonthValue(), current.getDayOfMonth(), current.getHour(), current.getMinute(),
+                current.getSecond() + 1);
+        if (match == NO_MATCH) throw new IllegalStateException("No match found in supported range");
+        return LocalDateTime.of(year(match), month(match), day(match), hour(match), minute(match), second(match));
+    }
+
+    /**
+     * Returns the next execution time after the specified time.
+     *
+     * @param epochMillis the time in milliseconds since the epoch
+     * @param zone the time zone the expression is evaluated in
+     * @return the next execution time in milliseconds since the epoch, or -1 if there are no more execution times
+     */
+    public long next(long epochMillis, ZoneId zone) {
+        long[] result = new long[1];
+        return next(epochMillis, zone, result) == 0 ? -1 : result[0];
+    }
+
+    /**
+     * Writes the next execution times after the specified time into the specified array, in milliseconds since the epoch.
+     *
+     * <p>No objects are created per execution time if the zone has a fixed offset.
+     *
+     * @param epochMillis the time in milliseconds since the epoch
+     * @param zone the time zone the expression is evaluated in
+     * @param fireTimes the array to write the execution times into
+     * @return the number of execution times written, less than the length of the array if there are no more execution times
+     */
+    public int next(long epochMillis, ZoneId zone, long[] fireTimes) {
+        ZoneRules rules = zone.getRules();
+        ZoneOffset fixed = rules.isFixedOffset() ? rules.getOffset(Instant.EPOCH) : null;
+        Instant instant = Instant.ofEpochMilli(epochMillis);
+        LocalDateTime start = LocalDateTime.ofEpochSecond(instant.getEpochSecond(), 0, fixed == null ? rules.getOffset(instant) : fixed);
+
+        long match = nextMatch(start.getYear(), start.getMonthValue(), start.getDayOfMonth(), start.getHour(), start.getMinute(), start.getSecond() + 1);
+        int count = 0;
+        while (count < fireTimes.length && match != NO_MATCH) {
+            int y = year(match), mo = month(match), d = day(match), h = hour(match), mi = minute(match), sec = second(match);
+            if (fixed != null) {
+                fireTimes[count++] = (epochDay(y, mo, d) * 86_400 + h * 3_600 + mi * 60 + sec - fixed.getTotalSeconds()) * 1000;
+                match = nextMatch(y, mo, d, h, mi, sec + 1);
+            } else {
+                // Times in a gap are moved forward, continue from the adjusted time like nextInZone does
+                ZonedDateTime z = ZonedDateTime.of(y, mo, d, h, mi, sec, 0, zone);
+                fireTimes[count++] = z.toEpochSecond() * 1000;
+                match = nextMatch(z.getYear(), z.getMonthValue(), z.getDayOfMonth(), z.getHour(), z.getMinute(), z.getSecond() + 1);
+            }
         }
-        throw new IllegalStateException("No match found in supported range");
+        return count;
     }
 
-    private LocalDateTime findNextPotential(LocalDateTime curr) {
-        if (!isValidYear(curr.getYear())) {
-            return curr.withMonth(1).withDayOfMonth(1).withHour(0).withMinute(0).withSecond(0).plusYears(1);
+    /**
+     * Finds the first matching time at or after the specified time. Each field jumps directly to its next set bit, and
+     * overflows carry into the next field. Fields may be one past their maximum value (or day past the end of the month),
+     * in which case they carry immediately.
+     *
+     * @return the packed matching time, or {@link #NO_MATCH}
+     */
+    private long nextMatch(int year, int month, int day, int hour, int minute, int second) {
+        // The calendar repeats every 400 years, so if nothing matches within that there are no more matches
+        int lastYear = years == null ? year + 400 : MAX_YEAR;
+        while (year <= lastYear) {
+            int y = nextYear(year);
+            if (y < 0 || y > lastYear) return NO_MATCH;
+            if (y != year) {
+                year = y;
+                month = day = 1;
+                hour = minute = second = 0;
+            }
+            int mo = nextSetBit(this.month, month);
+            if (mo < 0) {
+                year++;
+                month = day = 1;
+                hour = minute = second = 0;
+                continue;
+            }
+            if (mo != month) {
+                month = mo;
+                day = 1;
+                hour = minute = second = 0;
+            }
+            int d = nextSetBit(dayMask(year, month), day);
+            if (d < 0) {
+                month++;
+                day = 1;
+                hour = minute = second = 0;
+                continue;
+            }
+            if (d != day) {
+                day = d;
+                hour = minute = second = 0;
+            }
+            int h = nextSetBit(hours, hour);
+            if (h < 0) {
+                day++;
+                hour = minute = second = 0;
+                continue;
+            }
+            if (h != hour) {
+                hour = h;
+                minute = second = 0;
+            }
+            int mi = nextSetBit(minutes, minute);
+            if (mi < 0) {
+                hour++;
+                minute = second = 0;
+                continue;
+            }
+            if (mi != minute) {
+                minute = mi;
+                second = 0;
+            }
+            int sec = nextSetBit(seconds, second);
+            if (sec < 0) {
+                minute++;
+                second = 0;
+                continue;
+            }
+            return ((long) year << 26) | (month << 22) | (day << 17) | (hour << 12) | (minute << 6) | sec;
         }
-        if (!isSet(month, curr.getMonthValue())) {
-            return curr.withDayOfMonth(1).withHour(0).withMinute(0).withSecond(0).plusMonths(1);
+        return NO_MATCH;
+    }
+
+    /** Returns the first year at or after the specified year that is valid, or -1. */
+    private int nextYear(int year) {
+        if (years == null) return year;
+        int offset = Math.max(0, year - MIN_YEAR);
+        for (int i = offset / BITS_PER_LONG; i < YEARS_ARRAY_SIZE; i++) {
+            long bits = i == offset / BITS_PER_LONG ? years[i] & (-1L << (offset % BITS_PER_LONG)) : years[i];
+            if (bits != 0) return MIN_YEAR + i * BITS_PER_LONG + Long.numberOfTrailingZeros(bits);
         }
-        if (!isValidDay(curr.toLocalDate())) {
-            return curr.withHour(0).withMinute(0).withSecond(0).plusDays(1);
+        return -1;
+    }
+
+    /** Returns a mask of the valid days of the specified month, using the same rules as {@link #isValidDay(LocalDate)}. */
+    private long dayMask(int year, int month) {
+        int length = lengthOfMonth(year, month);
+        long valid = (1L << (length + 1)) - 2; // days 1..length
+        if (domWildcard && dowWildcard) return valid;
+        int firstDow = (int) Math.floorMod(epochDay(year, month, 1) + 3, 7) + 1; // 1970-01-01 was a Thursday
+
+        long dom = dayOfMonth;
+        if (lastDom && length - lastDomOffset >= 1) dom |= 1L << (length - lastDomOffset);
+        if (lastWeekdayDom) dom |= 1L << nearestWeekday(length, firstDow, length);
+        if (nearestWeekdayDom > 0 && nearestWeekdayDom <= length) dom |= 1L << nearestWeekday(nearestWeekdayDom, firstDow, length);
+
+        long dow = 0;
+        for (int d = 1; d <= 7; d++) { // d is the first day of the month with a given day of week
+            int w = (firstDow + d - 2) % 7 + 1;
+            if (isSet(dayOfWeek, w)) dow |= WEEKLY << d;
+            if (w == lastDow) dow |= 1L << (d + (length - d) / 7 * 7);
+            if (nthDowMask != 0) {
+                for (int week = 0; week < 5; week++) {
+                    if ((nthDowMask & (1L << (week * 7 + (w - 1)))) != 0) dow |= 1L << (d + week * 7);
+                }
+            }
         }
-        if (!isSet(hours, curr.getHour())) {
-            return curr.withMinute(0).withSecond(0).plusHours(1);
+        dom &= valid;
+        dow &= valid;
+        if (domWildcard) return dow;
+        if (dowWildcard) return dom;
+        return dom | dow;
+    }
+
+    /** Returns the weekday nearest to the target day, within the same month. */
+    private static int nearestWeekday(int targetDay, int firstDow, int length) {
+        int dow = (firstDow + targetDay - 2) % 7 + 1;
+        if (dow < 6) return targetDay;
+        if (dow == 6) return (targetDay == 1) ? 3 : targetDay - 1;
+        return (targetDay == length) ? targetDay - 2 : targetDay + 1;
+    }
+
+    /** Returns the first set bit in the mask at or after the specified bit, or -1. */
+    private static int nextSetBit(long mask, int from) {
+        if (from >= BITS_PER_LONG) return -1;
+        long bits = mask & (-1L << from);
+        return bits == 0 ? -1 : Long.numberOfTrailingZeros(bits);
+    }
+
+    private static int lengthOfMonth(int year, int month) {
+        return switch (month) {
+            case 2 -> IsoChronology.INSTANCE.isLeapYear(year) ? 29 : 28;
+            case 4, 6, 9, 11 -> 30;
+            default -> 31;
+        };
+    }
+
+    /** Same as {@link LocalDate#toEpochDay()}, without creating a date. */
+    private static long epochDay(long year, long month, long day) {
+        long total = 365 * year;
+        if (year >= 0) {
+            total += (year + 3) / 4 - (year + 99) / 100 + (year + 399) / 400;
+        } else {
+            total -= year / -4 - year / -100 + year / -400;
         }
-        if (!isSet(minutes, curr.getMinute())) {
-            return curr.withSecond(0).plusMinutes(1);
+        total += (367 * month - 362) / 12 + day - 1;
+        if (month > 2) {
+            total--;
+            if (!IsoChronology.INSTANCE.isLeapYear(year)) total--;
         }
-        return curr.plusSeconds(1);
+        return total - DAYS_0000_TO_1970;
     }
 
+    private static int year(long match) { return (int) (match >> 26); }
+    private static int month(long match) { return (int) (match >> 22) & 0xF; }
+    private static int day(long match) { return (int) (match >> 17) & 0x1F; }
+    private static int hour(long match) { return (int) (match >> 12) & 0x1F; }
+    private static int minute(long match) { return (int) (match >> 6) & 0x3F; }
+    private static int second(long match) { return (int) match & 0x3F; }
+
     public ZonedDateTime nextInZone(ZonedDateTime current) {
         return next(current.toLocalDateTime()).atZone(current.getZone());
     }
@@ -0,0 +1,847 @@
+/*
+ * Copyright (c) 2026 Kasper Nielsen.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package app.packed.concurrent.cron.impl;
+
+import static java.util.Objects.requireNonNull;
+
+import java.time.Duration;
+import java.time.ZoneId;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+import org.jspecify.annotations.Nullable;
+
+/**
+ * A scheduler that owns all the scheduled jobs of an application, and keeps them in a single hierarchical timing wheel.
+ * <p>
+ * The wheel has {@value #LEVELS} levels of {@value #SLOTS} slots each, level {@code n} spanning {@code 64^(n+1)} ticks.
+ * Scheduling or cancelling a job is therefore a constant time operation, no matter how far into the future the job
+ * fires. Jobs in the higher levels are cascaded into the lower levels as time advances, and fired when they are due.
+ * Each level keeps a bitmap of its non-empty slots, so the single ticker thread sleeps until the next non-empty slot
+ * instead of waking up on every tick.
+ * <p>
+ * The ticker thread never runs any jobs, due jobs are handed to the executor of the job. By default a new virtual
+ * thread for each execution. The next fire time of a job is always calculated from its previous scheduled fire time,
+ * never from the current time. So schedules do not drift when the scheduler is under load.
+ * <p>
+ * A fire is a misfire if it is later than the misfire threshold of the scheduler, or if the previous execution of the
+ * job is still running. How a job handles misfires is controlled by its {@link MisfirePolicy}.
+ */
+public final class TimingWheelScheduler implements AutoCloseable {
+
+    /** The number of bits used for the slots of a single level. */
+    private static final int SLOT_BITS = 6;
+
+    /** The number of slots in each level. */
+    static final int SLOTS = 1 << SLOT_BITS;
+
+    /** The number of levels needed to cover every non-negative tick. */
+    static final int LEVELS = (63 + SLOT_BITS - 1) / SLOT_BITS;
+
+    /** Guards all mutable state of the scheduler and its jobs. */
+    private final ReentrantLock lock = new ReentrantLock();
+
+    /** Signalled when a job is scheduled before the tick the ticker is waiting for, or when the scheduler is closed. */
+    private final Condition wakeUp = lock.newCondition();
+
+    /** The first job of each slot, jobs in a slot are kept in a doubly linked list. */
+    private final Job<?>[][] wheel = new Job<?>[LEVELS][SLOTS];
+
+    /** For each level, a bitmap of the slots that contain at least one job. */
+    private final long[] occupied = new long[LEVELS];
+
+    /** Jobs that are due, but have not yet been fired. */
+    private final ArrayDeque<Job<?>> due = new ArrayDeque<>();
+
+    /** All jobs that have not yet completed. */
+    private final HashSet<Job<?>> jobs = new HashSet<>();
+
+    /** The time (epoch millis) of tick 0. */
+    private final long origin;
+
+    /** The length of a tick in milliseconds. */
+    private final long tickMillis;
+
+    /** A fire that is later than this number of milliseconds is a misfire. */
+    private final long misfireThresholdMillis;
+
+    /** The current time (epoch millis) of the scheduler. */
+    private final LongSupplier clock;
+
+    /** The default executor of jobs. */
+    private final ExecutorService executor;
+
+    /** The tick the wheel has advanced to. */
+    private long currentTick;
+
+    /** The tick the ticker is sleeping until, or {@link Long#MAX_VALUE} if it is waiting for a job to be scheduled. */
+    private long wakeUpTick = Long.MAX_VALUE;
+
+    /** Whether or not the scheduler has been closed. */
+    private boolean closed;
+
+    /** The number of jobs in the wheel. */
+    private int queueDepth;
+
+    /** The number of executions currently running. */
+    private int running;
+
+    /** The total number of executions started. */
+    private long fired;
+
+    /** The total number of misfires. */
+    private long misfired;
+
+    /** The lag of the most recent fire. */
+    private long lastLagMillis;
+
+    /** The maximum lag of any fire. */
+    private long maxLagMillis;
+
+    /**
+     * Creates a new scheduler with a tick of 1 millisecond and a misfire threshold of 1 second.
+     *
+     * @param name
+     *            the name of the scheduler, used for naming its threads
+     */
+    public TimingWheelScheduler(String name) {
+        this(name, Duration.ofMillis(1), Duration.ofSeconds(1));
+    }
+
+    /**
+     * Creates a new scheduler.
+     *
+     * @param name
+     *            the name of the scheduler, used for naming its threads
+     * @param tick
+     *            the resolution of the wheel, must be at least 1 millisecond
+     * @param misfireThreshold
+     *            how late a fire can be before it is considered a misfire
+     * @throws IllegalArgumentException
+     *             if the tick is less than 1 millisecond, or the misfire threshold is negative
+     */
+    public TimingWheelScheduler(String name, Duration tick, Duration misfireThreshold) {
+        this(name, tick, misfireThreshold, System::currentTimeMillis);
+    }
+
+    /**
+     * Creates a new scheduler that reads the time from the specified clock, used for testing.
+     *
+     * @param name
+     *            the name of the scheduler, used for naming its threads
+     * @param tick
+     *            the resolution of the wheel, must be at least 1 millisecond
+     * @param misfireThreshold
+     *            how late a fire can be before it is considered a misfire
+     * @param clock
+     *            the clock of the scheduler, in milliseconds since the epoch
+     */
+    TimingWheelScheduler(String name, Duration tick, Duration misfireThreshold, LongSupplier clock) {
+        requireNonNull(name, "name is null");
+        this.clock = requireNonNull(clock, "clock is null");
+        this.tickMillis = tick.toMillis();
+        if (tickMillis < 1) {
+            throw new IllegalArgumentException("Tick must be at least 1 millisecond, was " + tick);
+        }
+        this.misfireThresholdMillis = misfireThreshold.toMillis();
+        if (misfireThresholdMillis < 0) {
+            throw new IllegalArgumentException("Misfire threshold cannot be negative, was " + misfireThreshold);
+        }
+        this.origin = clock.getAsLong();
+        this.executor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name(name + "-job-", 0).factory());
+        Thread.ofPlatform().daemon().name(name + "-ticker").start(this::tick);
+    }
+
+    /**
+     * Schedules a job that is run on a new virtual thread every time it fires.
+     *
+     * @param <T>
+     *            the result type of the job
+     * @param trigger
+     *            the trigger of the job
+     * @param policy
+     *            how misfires of the job are handled
+     * @param callable
+     *            the job
+     * @return a future representing the job
+     * @throws RejectedExecutionException
+     *             if the scheduler has been closed
+     */
+    public <T> ScheduledFuture<T> schedule(Trigger trigger, MisfirePolicy policy, Callable<T> callable) {
+        return schedule(trigger, policy, callable, executor);
+    }
+
+    /**
+     * Schedules a job that is run by the specified executor every time it fires.
+     *
+     * @param <T>
+     *            the result type of the job
+     * @param trigger
+     *            the trigger of the job
+     * @param policy
+     *            how misfires of the job are handled
+     * @param callable
+     *            the job
+     * @param executor
+     *            the executor that runs the job
+     * @return a future representing the job
+     * @throws RejectedExecutionException
+     *             if the scheduler has been closed
+     */
+    public <T> ScheduledFuture<T> schedule(Trigger trigger, MisfirePolicy policy, Callable<T> callable, Executor executor) {
+        Job<T> job = new Job<>(requireNonNull(trigger, "trigger is null"), requireNonNull(policy, "policy is null"),
+                requireNonNull(callable, "callable is null"), requireNonNull(executor, "executor is null"));
+        lock.lock();
+        try {
+            if (closed) {
+                throw new RejectedExecutionException("Scheduler has been closed");
+            }
+            jobs.add(job);
+            long now = clock.getAsLong();
+            reschedule(job, trigger.first(now));
+            fireDue(now);
+        } finally {
+            lock.unlock();
+        }
+        return job;
+    }
+
+    /** {@return a snapshot of the metrics of this scheduler} */
+    public Metrics metrics() {
+        lock.lock();
+        try {
+            return new Metrics(queueDepth, running, fired, misfired, Duration.ofMillis(lastLagMillis), Duration.ofMillis(maxLagMillis));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Closes the scheduler, cancelling all jobs. Running executions are not interrupted.
+     */
+    @Override
+    public void close() {
+        lock.lock();
+        try {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            for (Job<?> job : new ArrayList<>(jobs)) {
+                job.cancel(false);
+            }
+            wakeUp.signal();
+        } finally {
+            lock.unlock();
+        }
+        executor.shutdown();
+    }
+
+    /** Runs the ticker until the scheduler is closed. */
+    private void tick() {
+        lock.lock();
+        try {
+            while (!closed) {
+                long now = clock.getAsLong();
+                advance(Math.floorDiv(now - origin, tickMillis), now);
+                long next = nextEventTick();
+                wakeUpTick = next;
+                if (next == Long.MAX_VALUE) {
+                    wakeUp.await();
+                } else {
+                    long delay = origin + next * tickMillis - clock.getAsLong();
+                    if (delay > 0) {
+                        wakeUp.awaitNanos(TimeUnit.MILLISECONDS.toNanos(delay));
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            // The ticker is only interrupted if somebody is tearing down the JVM
+        } finally {
+            wakeUpTick = Long.MAX_VALUE;
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Advances the wheel to the specified tick, cascading and firing every slot that is passed on the way.
+     *
+     * @param target
+     *            the tick to advance to
+     * @param now
+     *            the current time
+     */
+    private void advance(long target, long now) {
+        while (true) {
+            long next = nextEventTick();
+            if (next > target) {
+                currentTick = Math.max(currentTick, target);
+                return;
+            }
+            currentTick = next;
+            // Cascade slots in the higher levels down, from the highest level to the lowest
+            for (int level = LEVELS - 1; level > 0; level--) {
+                int shift = level * SLOT_BITS;
+                if ((next & ((1L << shift) - 1)) == 0) {
+                    int slot = (int) (next >>> shift) & (SLOTS - 1);
+                    for (Job<?> job = unlinkSlot(level, slot); job != null;) {
+                        Job<?> n = job.next;
+                        job.next = null;
+                        insert(job);
+                        job = n;
+                    }
+                }
+            }
+            for (Job<?> job = unlinkSlot(0, (int) next & (SLOTS - 1)); job != null;) {
+                Job<?> n = job.next;
+                job.next = null;
+                due.add(job);
+                job = n;
+            }
+            fireDue(now);
+        }
+    }
+
+    /** {@return the next tick at which a slot must be cascaded or fired, or Long.MAX_VALUE if the wheel is empty} */
+    private long nextEventTick() {
+        long result = Long.MAX_VALUE;
+        for (int level = 0; level < LEVELS; level++) {
+            long bits = occupied[level];
+            if (bits != 0) {
+                int shift = level * SLOT_BITS;
+                int current = (int) (currentTick >>> shift) & (SLOTS - 1);
+                // Jobs in level 0 are never behind the current slot, jobs in higher levels are always ahead of it
+                long ahead = bits & (level == 0 ? -1L << current : -2L << current);
+                if (ahead != 0) {
+                    int upper = shift + SLOT_BITS;
+                    long base = upper >= Long.SIZE ? 0 : (currentTick >>> upper) << upper;
+                    result = Math.min(result, base | (long) Long.numberOfTrailingZeros(ahead) << shift);
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Schedules the next fire of the specified job.
+     *
+     * @param job
+     *            the job
+     * @param fireTime
+     *            the time of the next fire, or {@link Trigger#NEVER}
+     */
+    private void reschedule(Job<?> job, long fireTime) {
+        if (fireTime == Trigger.NEVER) {
+            job.exhausted = true;
+            if (!job.running) {
+                job.complete();
+            }
+            return;
+        }
+        job.fireTime = fireTime;
+        job.tick = Math.max(0, Math.ceilDiv(fireTime - origin, tickMillis));
+        insert(job);
+        if (job.level >= 0 && job.tick < wakeUpTick) {
+            wakeUp.signal();
+        }
+    }
+
+    /** Inserts a job into the wheel, or into the due queue if it is due. */
+    private void insert(Job<?> job) {
+        long tick = job.tick;
+        if (tick <= currentTick) {
+            due.add(job);
+            return;
+        }
+        // The level is determined by the highest group of bits where the tick differs from the current tick
+        int level = (63 - Long.numberOfLeadingZeros(tick ^ currentTick)) / SLOT_BITS;
+        int slot = (int) (tick >>> (level * SLOT_BITS)) & (SLOTS - 1);
+        Job<?> head = wheel[level][slot];
+        job.next = head;
+        job.prev = null;
+        if (head != null) {
+            head.prev = job;
+        }
+        wheel[level][slot] = job;
+        occupied[level] |= 1L << slot;
+        job.level = level;
+        job.slot = slot;
+        queueDepth++;
+    }
+
+    /** Removes a single job from the wheel. */
+    private void unlink(Job<?> job) {
+        if (job.prev == null) {
+            wheel[job.level][job.slot] = job.next;
+            if (job.next == null) {
+                occupied[job.level] &= ~(1L << job.slot);
+            }
+        } else {
+            job.prev.next = job.next;
+        }
+        if (job.next != null) {
+            job.next.prev = job.prev;
+        }
+        job.next = job.prev = null;
+        job.level = -1;
+        queueDepth--;
+    }
+
+    /** Removes all jobs from a slot, returning them as a singly linked list (using {@code next}). */
+    private @Nullable Job<?> unlinkSlot(int level, int slot) {
+        Job<?> head = wheel[level][slot];
+        if (head != null) {
+            wheel[level][slot] = null;
+            occupied[level] &= ~(1L << slot);
+            for (Job<?> job = head; job != null; job = job.next) {
+                job.prev = null;
+                job.level = -1;
+                queueDepth--;
+            }
+        }
+        return head;
+    }
+
+    /** Fires all due jobs. Firing a job may add more jobs to the queue, if it needs to catch up on missed fires. */
+    private void fireDue(long now) {
+        for (Job<?> job; (job = due.poll()) != null;) {
+            if (!job.cancelled) {
+                fire(job, now);
+            }
+        }
+    }
+
+    /** Fires a single job, applying its misfire policy, and schedules its next fire. */
+    private void fire(Job<?> job, long now) {
+        long lag = now - job.fireTime;
+        boolean late = lag > misfireThresholdMillis;
+        boolean overlapping = job.running;
+        MisfirePolicy policy = job.policy;
+        if (late || overlapping) {
+            misfired++;
+        }
+        if (overlapping) {
+            if (policy == MisfirePolicy.FIRE_ALL) {
+                job.pending++;
+            } else if (policy == MisfirePolicy.COALESCE) {
+                job.pending = 1;
+            }
+        } else if (!late || policy != MisfirePolicy.SKIP) {
+            lastLagMillis = Math.max(0, lag);
+            maxLagMillis = Math.max(maxLagMillis, lastLagMillis);
+            start(job);
+        }
+
+        // Fixed delay jobs are rescheduled once the execution has completed, or now if the fire was skipped
+        Trigger trigger = job.trigger;
+        if (trigger.isFixedDelay()) {
+            if (!job.running && !job.done) {
+                reschedule(job, trigger.next(now));
+            }
+        } else if (!job.exhausted && !job.cancelled) {
+            long next = trigger.next(job.fireTime);
+            if (late && policy != MisfirePolicy.FIRE_ALL) {
+                while (next != Trigger.NEVER && next <= now) {
+                    next = trigger.next(next);
+                }
+            }
+            reschedule(job, next);
+        }
+    }
+
+    /** Starts an execution of the specified job. */
+    private void start(Job<?> job) {
+        job.running = true;
+        running++;
+        fired++;
+        try {
+            job.executor.execute(job::run);
+        } catch (RejectedExecutionException e) {
+            job.running = false;
+            running--;
+            job.failure = e;
+            job.complete();
+        }
+    }
+
+    /** Called by a job when an execution has completed. */
+    private void onCompleted(Job<?> job) {
+        lock.lock();
+        try {
+            running--;
+            job.running = false;
+            if (job.cancelled) {
+                return;
+            }
+            if (job.pending > 0) {
+                job.pending--;
+                start(job);
+            } else if (job.trigger.isFixedDelay() && !closed) {
+                long now = clock.getAsLong();
+                reschedule(job, job.trigger.next(now));
+                fireDue(now);
+            } else if (job.exhausted) {
+                job.complete();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Determines how a job handles misfires. */
+    public enum MisfirePolicy {
+
+        /** All missed fires are collapsed into a single execution, and the job then continues from its next fire time. */
+        COALESCE,
+
+        /** The job is executed once for every missed fire, until it has caught up. */
+        FIRE_ALL,
+
+        /** Missed fires are dropped, and the job continues from its next fire time. */
+        SKIP;
+    }
+
+    /**
+     * A snapshot of the metrics of a scheduler.
+     *
+     * @param queueDepth
+     *            the number of jobs waiting in the wheel
+     * @param running
+     *            the number of executions currently running
+     * @param fired
+     *            the total number of executions started
+     * @param misfired
+     *            the total number of misfires
+     * @param lastLag
+     *            how late the most recent execution was started
+     * @param maxLag
+     *            how late the latest execution ever was started
+     */
+    public record Metrics(int queueDepth, int running, long fired, long misfired, Duration lastLag, Duration maxLag) {}
+
+    /**
+     * Calculates the fire times of a job. All times are in milliseconds since the epoch.
+     */
+    public interface Trigger {
+
+        /** Returned by a trigger, if it does not fire again. */
+        long NEVER = Long.MIN_VALUE;
+
+        /**
+         * Returns the first fire time.
+         *
+         * @param now
+         *            the time the job is scheduled
+         * @return the first fire time, or {@link #NEVER}
+         */
+        long first(long now);
+
+        /**
+         * Returns the next fire time.
+         *
+         * @param previous
+         *            the previous fire time, or the time the previous execution completed if this is a
+         *            {@link #isFixedDelay() fixed delay} trigger
+         * @return the next fire time, or {@link #NEVER}
+         */
+        long next(long previous);
+
+        /** {@return whether or not the next fire time is calculated from the completion time of the previous execution} */
+        default boolean isFixedDelay() {
+            return false;
+        }
+
+        /**
+         * Returns a trigger that fires at the times matched by a cron expression.
+         *
+         * @param expression
+         *            the cron expression
+         * @param zone
+         *            the time zone the expression is evaluated in
+         * @return the trigger
+         */
+        static Trigger cron(CronExpression expression, ZoneId zone) {
+            requireNonNull(expression, "expression is null");
+            requireNonNull(zone, "zone is null");
+            return new Trigger() {
+
+                @Override
+                public long first(long now) {
+                    return next(now);
+                }
+
+                @Override
+                public long next(long previous) {
+                    long next = expression.next(previous, zone);
+                    return next < 0 ? NEVER : next;
+                }
+            };
+        }
+
+        /**
+         * Returns a trigger that fires at a fixed rate.
+         *
+         * @param initialDelay
+         *            the delay before the first fire
+         * @param period
+         *            the time between fires
+         * @return the trigger
+         * @throws IllegalArgumentException
+         *             if the initial delay is negative or the period is not positive
+         * @see java.util.concurrent.ScheduledExecutorService#scheduleAtFixedRate(Runnable, long, long, TimeUnit)
+         */
+        static Trigger fixedRate(Duration initialDelay, Duration period) {
+            long delay = checkDelay(initialDelay);
+            long p = checkPeriod(period);
+            return new Trigger() {
+
+                @Override
+                public long first(long now) {
+                    return now + delay;
+                }
+
+                @Override
+                public long next(long previous) {
+                    return previous + p;
+                }
+            };
+        }
+
+        /**
+         * Returns a trigger that fires with a fixed delay between the completion of one execution and the start of the
+         * next.
+         *
+         * @param initialDelay
+         *            the delay before the first fire
+         * @param delay
+         *            the delay between executions
+         * @return the trigger
+         * @throws IllegalArgumentException
+         *             if the initial delay is negative or the delay is not positive
+         * @see java.util.concurrent.ScheduledExecutorService#scheduleWithFixedDelay(Runnable, long, long, TimeUnit)
+         */
+        static Trigger fixedDelay(Duration initialDelay, Duration delay) {
+            long initial = checkDelay(initialDelay);
+            long d = checkPeriod(delay);
+            return new Trigger() {
+
+                @Override
+                public long first(long now) {
+                    return now + initial;
+                }
+
+                @Override
+                public long next(long completed) {
+                    return completed + d;
+                }
+
+                @Override
+                public boolean isFixedDelay() {
+                    return true;
+                }
+            };
+        }
+
+        private static long checkDelay(Duration delay) {
+            if (delay.isNegative()) {
+                throw new IllegalArgumentException("Initial delay cannot be negative, was " + delay);
+            }
+            return delay.toMillis();
+        }
+
+        private static long checkPeriod(Duration period) {
+            if (period.toMillis() < 1) {
+                throw new IllegalArgumentException("Period must be at least 1 millisecond, was " + period);
+            }
+            return period.toMillis();
+        }
+    }
+
+    /** A scheduled job. */
+    private final class Job<T> implements ScheduledFuture<T> {
+
+        final Trigger trigger;
+
+        final MisfirePolicy policy;
+
+        final Callable<T> callable;
+
+        final Executor executor;
+
+        /** Counted down when the job has completed. */
+        final CountDownLatch completed = new CountDownLatch(1);
+
+        /** The next (or current) fire time. */
+        long fireTime;
+
+        /** The tick of the fire time. */
+        long tick;
+
+        /** The level of the wheel the job is in, or -1 if it is not in the wheel. */
+        int level = -1;
+
+        /** The slot of the wheel the job is in. */
+        int slot;
+
+        @Nullable
+        Job<?> prev, next;
+
+        /** Whether or not an execution is running. */
+        boolean running;
+
+        /** The number of executions to start once the running execution completes. */
+        int pending;
+
+        /** Whether or not the trigger of the job has no more fire times. */
+        boolean exhausted;
+
+        volatile boolean cancelled;
+
+        volatile boolean done;
+
+        @Nullable
+        volatile Thread runner;
+
+        @Nullable
+        volatile T result;
+
+        @Nullable
+        volatile Throwable failure;
+
+        Job(Trigger trigger, MisfirePolicy policy, Callable<T> callable, Executor executor) {
+            this.trigger = trigger;
+            this.policy = policy;
+            this.callable = callable;
+            this.executor = executor;
+        }
+
+        /** Runs a single execution of the job. */
+        void run() {
+            runner = Thread.currentThread();
+            try {
+                result = callable.call();
+                failure = null;
+            } catch (Throwable t) {
+                failure = t;
+            } finally {
+                runner = null;
+                onCompleted(this);
+            }
+        }
+
+        /** Completes the job, must be called while holding the lock. */
+        void complete() {
+            if (level >= 0) {
+                unlink(this);
+            }
+            jobs.remove(this);
+            done = true;
+            completed.countDown();
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public boolean cancel(boolean mayInterruptIfRunning) {
+            lock.lock();
+            try {
+                if (done) {
+                    return false;
+                }
+                cancelled = true;
+                pending = 0;
+                complete();
+            } finally {
+                lock.unlock();
+            }
+            Thread t = runner;
+            if (mayInterruptIfRunning && t != null) {
+                t.interrupt();
+            }
+            return true;
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public int compareTo(Delayed o) {
+            return Long.compare(getDelay(TimeUnit.MILLISECONDS), o.getDelay(TimeUnit.MILLISECONDS));
+        }
+
+        /**
+         * Waits until the job has completed, because it was cancelled or its trigger has no more fire times.
+         *
+         * @return the result of the last execution
+         */
+        @Override
+        public T get() throws InterruptedException, ExecutionException {
+            completed.await();
+            return report();
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public T get(long timeout, TimeUnit unit) throws InterruptedException, ExecutionException, TimeoutException {
+            if (!completed.await(timeout, unit)) {
+                throw new TimeoutException();
+            }
+            return report();
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(fireTime - clock.getAsLong(), TimeUnit.MILLISECONDS);
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public boolean isCancelled() {
+            return cancelled;
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public boolean isDone() {
+            return done;
+        }
+
+        private T report() throws ExecutionException {
+            if (cancelled) {
+                throw new CancellationException("Job was cancelled");
+            }
+            Throwable f = failure;
+            if (f != null) {
+                throw new ExecutionException(f);
+            }
+            return result;
+        }
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright (c) 2026 Kasper Nielsen.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package app.packed.concurrent.job2.impl;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+
+import org.jspecify.annotations.Nullable;
+
+import app.packed.binding.Key;
+import app.packed.binding.Qualifier;
+import app.packed.concurrent.cron.impl.TimingWheelScheduler;
+import app.packed.concurrent.cron.impl.TimingWheelScheduler.Metrics;
+import app.packed.concurrent.cron.impl.TimingWheelScheduler.MisfirePolicy;
+import app.packed.concurrent.cron.impl.TimingWheelScheduler.Trigger;
+import app.packed.lifecycle.Stop;
+
+/**
+ * An application scoped bean that owns the {@link TimingWheelScheduler} that runs every scheduled operation of the
+ * application.
+ * <p>
+ * The scheduler is created when the first operation is scheduled, and closed when the application stops. Closing the
+ * scheduler cancels any operation that is still scheduled.
+ */
+public final class ScheduledJobRuntimeManager {
+
+    /**
+     * The key the manager is provided under. The qualifier is not accessible outside of this package, so application
+     * beans can neither inject the manager nor provide a service that collides with it.
+     */
+    static final Key<ScheduledJobRuntimeManager> KEY = new Key<@Internal ScheduledJobRuntimeManager>() {};
+
+    /** The scheduler, or null if no operations have been scheduled yet. */
+    @Nullable
+    private TimingWheelScheduler scheduler;
+
+    /** Whether or not the application has been stopped. */
+    private boolean stopped;
+
+    /**
+     * Schedules an operation.
+     *
+     * @param trigger
+     *            the trigger of the operation
+     * @param policy
+     *            how misfires of the operation are handled
+     * @param operation
+     *            the operation to run
+     * @return a future representing the scheduled operation
+     * @throws RejectedExecutionException
+     *             if the application has been stopped
+     */
+    synchronized ScheduledFuture<?> schedule(Trigger trigger, MisfirePolicy policy, Runnable operation) {
+        if (stopped) {
+            throw new RejectedExecutionException("Cannot schedule operations after the application has been stopped");
+        }
+        TimingWheelScheduler s = scheduler;
+        if (s == null) {
+            s = scheduler = new TimingWheelScheduler("ScheduledJob");
+        }
+        return s.schedule(trigger, policy, Executors.callable(operation));
+    }
+
+    /** {@return a snapshot of the metrics of the scheduler, or null if no operations have been scheduled} */
+    @Nullable
+    public synchronized Metrics metrics() {
+        TimingWheelScheduler s = scheduler;
+        return s == null ? null : s.metrics();
+    }
+
+    @Stop
+    public synchronized void onStop() {
+        stopped = true;
+        TimingWheelScheduler s = scheduler;
+        if (s != null) {
+            s.close();
+        }
+    }
+
+    /** A qualifier for services that are only used by the scheduling implementation. */
+    @Qualifier
+    @Retention(RetentionPolicy.RUNTIME)
+    @Target({ ElementType.TYPE_USE, ElementType.PARAMETER })
+    @interface Internal {}
+}
@@ -0,0 +1,78 @@
+/*
+ * Copyright (c) 2026 Kasper Nielsen.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package app.packed.concurrent.job2.impl;
+
+import static java.util.Objects.requireNonNull;
+
+import java.util.concurrent.ScheduledFuture;
+
+import org.jspecify.annotations.Nullable;
+
+import app.packed.concurrent.cron.impl.TimingWheelScheduler.MisfirePolicy;
+import app.packed.concurrent.cron.impl.TimingWheelScheduler.Trigger;
+import app.packed.extension.SidehandleBinding;
+import app.packed.extension.SidehandleBinding.Kind;
+import app.packed.lifecycle.Start;
+import app.packed.lifecycle.Stop;
+
+/**
+ * A sidehandle for a single scheduled operation. Schedules the operation with the application's
+ * {@link ScheduledJobRuntimeManager} when the bean of the operation starts, and cancels it when the bean stops.
+ */
+public final class ScheduledJobSidehandle {
+
+    /** The trigger of the operation. */
+    private final Trigger trigger;
+
+    /** How misfires of the operation are handled. */
+    private final MisfirePolicy misfirePolicy;
+
+    /** Invokes the operation. */
+    private final ScheduledOperationInvoker invoker;
+
+    /** The runtime manager of the application. */
+    private final ScheduledJobRuntimeManager manager;
+
+    /** The scheduled operation, or null if it has not been started. */
+    @Nullable
+    private volatile ScheduledFuture<?> future;
+
+    public ScheduledJobSidehandle(@SidehandleBinding(Kind.CONSTANT) Trigger trigger, @SidehandleBinding(Kind.CONSTANT) MisfirePolicy misfirePolicy,
+            @SidehandleBinding(Kind.OPERATION_INVOKER) ScheduledOperationInvoker invoker,
+            @ScheduledJobRuntimeManager.Internal ScheduledJobRuntimeManager manager) {
+        this.trigger = requireNonNull(trigger);
+        this.misfirePolicy = requireNonNull(misfirePolicy);
+        this.invoker = requireNonNull(invoker);
+        this.manager = requireNonNull(manager);
+    }
+
+    @Start
+    protected void onStart() {
+        future = manager.schedule(trigger, misfirePolicy, invoker::invoke);
+    }
+
+    @Stop
+    protected void onStop() {
+        ScheduledFuture<?> f = future;
+        if (f != null) {
+            f.cancel(false);
+        }
+    }
+
+    interface ScheduledOperationInvoker {
+        void invoke();
+    }
+}
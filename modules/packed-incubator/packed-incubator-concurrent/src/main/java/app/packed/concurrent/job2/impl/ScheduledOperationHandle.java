@@ -15,22 +15,39 @@
  */
 package app.packed.concurrent.job2.impl;
 
+import java.time.Duration;
+import java.time.format.DateTimeParseException;
+import java.util.concurrent.TimeUnit;
+
 import org.jspecify.annotations.Nullable;
 
+import app.packed.bean.BeanInstallationException;
+import app.packed.bean.BeanIntrospector;
+import app.packed.concurrent.annotations.ScheduleJob;
+import app.packed.concurrent.cron.impl.TimingWheelScheduler.MisfirePolicy;
+import app.packed.concurrent.cron.impl.TimingWheelScheduler.Trigger;
 import app.packed.concurrent.oldscheduling.ScheduledOperationConfiguration;
 import app.packed.concurrent.oldscheduling.ScheduledOperationMirror;
-import app.packed.lifecycle.Initialize;
+import app.packed.extension.BaseExtension;
+import app.packed.extension.SidehandleBeanConfiguration;
+import app.packed.extension.SidehandleTargetKind;
 import app.packed.operation.OperationInstaller;
 import internal.app.packed.concurrent.ThreadedOperationHandle;
-import internal.app.packed.concurrent.old.ScheduleImpl;
 
 /**
- *
+ * An operation handle for a scheduled operation.
+ * <p>
+ * Every scheduled operation is attached to a {@link ScheduledJobSidehandle}, that schedules the operation with the
+ * application's {@link ScheduledJobRuntimeManager} when the bean of the operation is started.
  */
 public final class ScheduledOperationHandle extends ThreadedOperationHandle<ScheduledOperationConfiguration> {
 
+    /** The trigger of the operation. */
     @Nullable
-    public ScheduleImpl s;
+    public Trigger trigger;
+
+    /** How misfires of the operation are handled. */
+    public MisfirePolicy misfirePolicy = MisfirePolicy.COALESCE;
 
     /**
      * @param installer
@@ -50,17 +67,78 @@ public final class ScheduledOperationHandle extends ThreadedOperationHandle<Sche
     }
 
     @Override
-    protected void onFinalized() {
-        /// Called from a code generation thread
-        if (s == null) {
+    protected void onConfigured() {
+        Trigger t = trigger;
+        if (t == null) {
             throw new IllegalStateException("Operation " + this + " was never scheduled");
         }
+        sidehandle().bindConstant(Trigger.class, t);
+        sidehandle().bindConstant(MisfirePolicy.class, misfirePolicy);
     }
 
-    static class ScheduledOperationSideBean {
+    public static void onScheduleJobAnnotation(BeanIntrospector<BaseExtension> introspector, BeanIntrospector.OnMethod method, ScheduleJob annotation) {
+        // Parse the schedule before installing anything
+        Trigger trigger = parseTrigger(annotation);
 
-        @Initialize
-        public void init() {}
+        // Lazy install the sidehandle and runtime manager
+        SidehandleBeanConfiguration<ScheduledJobSidehandle> sideBean = introspector.applicationBase().installSidebeanIfAbsent(ScheduledJobSidehandle.class,
+                SidehandleTargetKind.OPERATION, _ -> {
+                    introspector.applicationBase().install(ScheduledJobRuntimeManager.class).provideAs(ScheduledJobRuntimeManager.KEY);
+                });
+
+        ScheduledOperationHandle handle = method.newOperation().attachToSidebean(sideBean).install(ScheduledOperationHandle::new);
+        handle.trigger = trigger;
+    }
 
+    /**
+     * Creates a trigger from a {@link ScheduleJob} annotation.
+     *
+     * @param schedule
+     *            the annotation
+     * @return the trigger
+     * @throws BeanInstallationException
+     *             if the annotation does not specify exactly one of a fixed rate or a fixed delay, or if any attribute
+     *             is invalid
+     */
+    static Trigger parseTrigger(ScheduleJob schedule) {
+        TimeUnit unit = schedule.timeUnit();
+        Duration initialDelay = parse(schedule.initialDelay(), schedule.initialDelayExpression(), unit, "initialDelay");
+        Duration rate = parse(schedule.atFixedRate(), schedule.atFixedRateExpression(), unit, "atFixedRate");
+        Duration delay = parse(schedule.withFixedDelay(), schedule.withFixedDelayExpression(), unit, "withFixedDelay");
+        if ((rate == null) == (delay == null)) {
+            throw new BeanInstallationException(
+                    "@ScheduleJob must specify exactly one of atFixedRate, atFixedRateExpression, withFixedDelay or withFixedDelayExpression");
+        }
+        Duration period = rate == null ? delay : rate;
+        if (period.toMillis() < 1) {
+            throw new BeanInstallationException("@ScheduleJob period must be at least 1 millisecond, was " + period);
+        }
+        if (initialDelay == null) {
+            initialDelay = Duration.ZERO;
+        }
+        return rate == null ? Trigger.fixedDelay(initialDelay, delay) : Trigger.fixedRate(initialDelay, rate);
+    }
+
+    /** Parses a duration that can either be specified as a value or as an ISO-8601 expression. */
+    @Nullable
+    private static Duration parse(long value, String expression, TimeUnit unit, String attribute) {
+        if (value < 0) {
+            throw new BeanInstallationException("@ScheduleJob." + attribute + " cannot be negative, was " + value);
+        }
+        if (expression.isEmpty()) {
+            return value == 0 ? null : Duration.of(value, unit.toChronoUnit());
+        } else if (value != 0) {
+            throw new BeanInstallationException("@ScheduleJob cannot specify both " + attribute + " and " + attribute + "Expression");
+        }
+        Duration d;
+        try {
+            d = Duration.parse(expression);
+        } catch (DateTimeParseException e) {
+            throw new BeanInstallationException("Invalid @ScheduleJob." + attribute + "Expression '" + expression + "'", e);
+        }
+        if (d.isNegative()) {
+            throw new BeanInstallationException("@ScheduleJob." + attribute + "Expression cannot be negative, was " + expression);
+        }
+        return d;
     }
 }
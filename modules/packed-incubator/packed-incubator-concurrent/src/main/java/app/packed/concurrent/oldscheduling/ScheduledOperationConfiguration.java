@@ -15,12 +15,15 @@ x * Copyright (c) 2026 Kasper Nielsen.
  */
 package app.packed.concurrent.oldscheduling;
 
+import static java.util.Objects.requireNonNull;
+
 import java.time.Duration;
 
+import app.packed.concurrent.cron.impl.TimingWheelScheduler.MisfirePolicy;
+import app.packed.concurrent.cron.impl.TimingWheelScheduler.Trigger;
 import app.packed.concurrent.job2.impl.ScheduledOperationHandle;
 import app.packed.operation.OperationConfiguration;
 import app.packed.operation.OperationHandle;
-import internal.app.packed.concurrent.old.ScheduleImpl;
 
 /**
  *
@@ -41,12 +44,26 @@ public final class ScheduledOperationConfiguration extends OperationConfiguratio
     }
 
     public boolean isScheduled() {
-        return handle.s != null;
+        return handle.trigger != null;
     }
 
     public void setMillies(int millies) {
         checkIsConfigurable();
-        handle.s = new ScheduleImpl(Duration.ofMillis(millies));
+        handle.trigger = Trigger.fixedDelay(Duration.ZERO, Duration.ofMillis(millies));
+    }
+
+    /**
+     * Sets how misfires of the operation are handled. The default is {@link MisfirePolicy#COALESCE}.
+     *
+     * @param policy
+     *            the misfire policy
+     * @return this configuration
+     */
+    public ScheduledOperationConfiguration misfirePolicy(MisfirePolicy policy) {
+        requireNonNull(policy, "policy is null");
+        checkIsConfigurable();
+        handle.misfirePolicy = policy;
+        return this;
     }
 
 }
@@ -39,6 +39,6 @@ public class ScheduledOperationMirror extends OperationMirror {
     }
 
     public String schedule() {
-        return Objects.toString(handle.s);
+        return Objects.toString(handle.trigger);
     }
 }
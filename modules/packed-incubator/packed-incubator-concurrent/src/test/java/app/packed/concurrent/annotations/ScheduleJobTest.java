@@ -0,0 +1,182 @@
+/*
+ * Copyright (c) 2026 Kasper Nielsen.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package app.packed.concurrent.annotations;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import app.packed.application.App;
+import app.packed.assembly.BaseAssembly;
+import app.packed.bean.BeanInstallationException;
+import app.packed.concurrent.job2.impl.ScheduledJobRuntimeManager;
+
+/** Tests {@link ScheduleJob}. */
+public class ScheduleJobTest {
+
+    /** Runs an application with a single bean until the bean has been invoked a number of times. */
+    private static void runUntil(Class<?> beanClass, CountDownLatch latch, AtomicInteger counter) throws InterruptedException {
+        App app = App.start(new BaseAssembly() {
+            @Override
+            protected void build() {
+                install(beanClass);
+            }
+        });
+        try {
+            assertThat(latch.await(5, TimeUnit.SECONDS)).isTrue();
+        } finally {
+            app.stop();
+        }
+
+        // The operation is no longer invoked once the application has stopped
+        Thread.sleep(20);
+        int invocations = counter.get();
+        Thread.sleep(100);
+        assertThat(counter.get()).isEqualTo(invocations);
+    }
+
+    @Test
+    public void atFixedRate() throws InterruptedException {
+        runUntil(FixedRate.class, FixedRate.LATCH, FixedRate.COUNT);
+    }
+
+    @Test
+    public void withFixedDelayExpression() throws InterruptedException {
+        runUntil(FixedDelayExpression.class, FixedDelayExpression.LATCH, FixedDelayExpression.COUNT);
+    }
+
+    /** The operation is not invoked before the application has been started. */
+    @Test
+    public void notStartedBeforeRunning() throws InterruptedException {
+        App.verify(new BaseAssembly() {
+            @Override
+            protected void build() {
+                install(NotStarted.class);
+            }
+        });
+        Thread.sleep(50);
+        assertThat(NotStarted.COUNT).hasValue(0);
+    }
+
+    /** The runtime manager is not provided as a service, so it does not collide with services of the application. */
+    @Test
+    public void managerIsNotAService() {
+        App.verify(new BaseAssembly() {
+            @Override
+            protected void build() {
+                install(NotStarted.class);
+                provide(ScheduledJobRuntimeManager.class);
+            }
+        });
+    }
+
+    @Test
+    public void noSchedule() {
+        assertThatThrownBy(() -> verify(NoSchedule.class)).isInstanceOf(BeanInstallationException.class).hasMessageContaining("exactly one");
+    }
+
+    @Test
+    public void rateAndDelay() {
+        assertThatThrownBy(() -> verify(RateAndDelay.class)).isInstanceOf(BeanInstallationException.class).hasMessageContaining("exactly one");
+    }
+
+    @Test
+    public void valueAndExpression() {
+        assertThatThrownBy(() -> verify(ValueAndExpression.class)).isInstanceOf(BeanInstallationException.class)
+                .hasMessageContaining("atFixedRateExpression");
+    }
+
+    @Test
+    public void invalidExpression() {
+        assertThatThrownBy(() -> verify(InvalidExpression.class)).isInstanceOf(BeanInstallationException.class)
+                .hasMessageContaining("Invalid @ScheduleJob.withFixedDelayExpression");
+    }
+
+    @Test
+    public void negative() {
+        assertThatThrownBy(() -> verify(Negative.class)).isInstanceOf(BeanInstallationException.class).hasMessageContaining("negative");
+    }
+
+    private static void verify(Class<?> beanClass) {
+        App.verify(new BaseAssembly() {
+            @Override
+            protected void build() {
+                install(beanClass);
+            }
+        });
+    }
+
+    public static class FixedRate {
+        static final AtomicInteger COUNT = new AtomicInteger();
+        static final CountDownLatch LATCH = new CountDownLatch(3);
+
+        @ScheduleJob(atFixedRate = 10)
+        public void tick() {
+            COUNT.incrementAndGet();
+            LATCH.countDown();
+        }
+    }
+
+    public static class FixedDelayExpression {
+        static final AtomicInteger COUNT = new AtomicInteger();
+        static final CountDownLatch LATCH = new CountDownLatch(3);
+
+        @ScheduleJob(withFixedDelayExpression = "PT0.01S")
+        public void tick() {
+            COUNT.incrementAndGet();
+            LATCH.countDown();
+        }
+    }
+
+    public static class NotStarted {
+        static final AtomicInteger COUNT = new AtomicInteger();
+
+        @ScheduleJob(atFixedRate = 1)
+        public void tick() {
+            COUNT.incrementAndGet();
+        }
+    }
+
+    public static class NoSchedule {
+        @ScheduleJob
+        public void tick() {}
+    }
+
+    public static class RateAndDelay {
+        @ScheduleJob(atFixedRate = 10, withFixedDelay = 10)
+        public void tick() {}
+    }
+
+    public static class ValueAndExpression {
+        @ScheduleJob(atFixedRate = 10, atFixedRateExpression = "PT1S")
+        public void tick() {}
+    }
+
+    public static class InvalidExpression {
+        @ScheduleJob(withFixedDelayExpression = "10 seconds")
+        public void tick() {}
+    }
+
+    public static class Negative {
+        @ScheduleJob(atFixedRate = 10, initialDelay = -1)
+        public void tick() {}
+    }
+}
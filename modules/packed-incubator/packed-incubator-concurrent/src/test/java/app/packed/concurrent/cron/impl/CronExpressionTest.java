@@ -4,6 +4,11 @@ import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+
 import org.junit.jupiter.api.Test;
 
 class CronExpressionTest {
@@ -58,6 +63,44 @@ class CronExpressionTest {
         assertThat(expr.toString()).contains(cronStr);
     }
 
+    @Test
+    void testNext() {
+        LocalDateTime start = LocalDateTime.of(2024, 1, 31, 23, 59, 59, 500_000_000);
+        assertThat(CronExpression.of("* * * * * ?").next(start)).isEqualTo(LocalDateTime.of(2024, 2, 1, 0, 0, 0));
+        assertThat(CronExpression.of("0 0 12 * * ?").next(start)).isEqualTo(LocalDateTime.of(2024, 2, 1, 12, 0, 0));
+        assertThat(CronExpression.of("0 0 0 29 2 ?").next(start)).isEqualTo(LocalDateTime.of(2024, 2, 29, 0, 0, 0));
+        assertThat(CronExpression.of("0 0 0 29 2 ?").next(LocalDateTime.of(2024, 3, 1, 0, 0))).isEqualTo(LocalDateTime.of(2028, 2, 29, 0, 0, 0));
+        assertThat(CronExpression.of("0 0 0 L * ?").next(start)).isEqualTo(LocalDateTime.of(2024, 2, 29, 0, 0, 0));
+        assertThat(CronExpression.of("0 0 0 LW * ?").next(LocalDateTime.of(2024, 3, 1, 0, 0))).isEqualTo(LocalDateTime.of(2024, 3, 29, 0, 0, 0));
+        assertThat(CronExpression.of("0 0 12 ? * MON#1").next(start)).isEqualTo(LocalDateTime.of(2024, 2, 5, 12, 0, 0));
+        assertThat(CronExpression.of("0 0 12 ? * 5L").next(start)).isEqualTo(LocalDateTime.of(2024, 2, 23, 12, 0, 0));
+        assertThat(CronExpression.of("0 15 10 ? * MON-FRI").next(LocalDateTime.of(2024, 2, 2, 11, 0))).isEqualTo(LocalDateTime.of(2024, 2, 5, 10, 15, 0));
+        assertThat(CronExpression.of("0 0 12 * * ? 2030").next(start)).isEqualTo(LocalDateTime.of(2030, 1, 1, 12, 0, 0));
+        assertThatThrownBy(() -> CronExpression.of("0 0 12 * * ? 2020").next(start)).isInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(() -> CronExpression.of("0 0 0 30 2 ?").next(start)).isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void testNextBatch() {
+        for (ZoneId zone : new ZoneId[] { ZoneOffset.UTC, ZoneOffset.ofHours(5), ZoneId.of("Europe/Copenhagen") }) {
+            CronExpression expr = CronExpression.of("*/20 30 1-3 ? * SUN");
+            long start = ZonedDateTime.of(2024, 3, 1, 0, 0, 0, 0, zone).toInstant().toEpochMilli();
+            long[] fireTimes = new long[50];
+            assertThat(expr.next(start, zone, fireTimes)).isEqualTo(50);
+
+            ZonedDateTime current = ZonedDateTime.of(2024, 3, 1, 0, 0, 0, 0, zone);
+            for (long fireTime : fireTimes) {
+                current = expr.nextInZone(current);
+                assertThat(fireTime).isEqualTo(current.toInstant().toEpochMilli());
+            }
+            assertThat(expr.next(start, zone)).isEqualTo(fireTimes[0]);
+        }
+
+        long[] fireTimes = new long[5];
+        long start = ZonedDateTime.of(2025, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC).toInstant().toEpochMilli();
+        assertThat(CronExpression.of("0 0 0 1 1 ? 2026-2027").next(start, ZoneOffset.UTC, fireTimes)).isEqualTo(2);
+    }
+
     @Test
     void testCronExpressions() {
         // Basic expressions
@@ -0,0 +1,118 @@
+package app.packed.concurrent.cron.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.Duration;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+
+import app.packed.concurrent.cron.impl.TimingWheelScheduler.MisfirePolicy;
+import app.packed.concurrent.cron.impl.TimingWheelScheduler.Trigger;
+
+class TimingWheelSchedulerTest {
+
+    /** A trigger that fires once after the specified delay. */
+    static Trigger once(long delayMillis) {
+        return new Trigger() {
+
+            @Override
+            public long first(long now) {
+                return now + delayMillis;
+            }
+
+            @Override
+            public long next(long previous) {
+                return NEVER;
+            }
+        };
+    }
+
+    @Test
+    void firesOnceNotEarly() throws Exception {
+        try (TimingWheelScheduler s = new TimingWheelScheduler("test")) {
+            long start = System.currentTimeMillis();
+            ScheduledFuture<Long> f = s.schedule(once(100), MisfirePolicy.COALESCE, System::currentTimeMillis);
+            assertThat(f.get(5, TimeUnit.SECONDS)).isGreaterThanOrEqualTo(start + 100);
+            assertThat(f.isDone()).isTrue();
+            assertThat(s.metrics().queueDepth()).isZero();
+        }
+    }
+
+    @Test
+    void fixedRate() throws Exception {
+        try (TimingWheelScheduler s = new TimingWheelScheduler("test")) {
+            AtomicInteger count = new AtomicInteger();
+            ScheduledFuture<Integer> f = s.schedule(Trigger.fixedRate(Duration.ZERO, Duration.ofMillis(10)), MisfirePolicy.SKIP, count::incrementAndGet);
+            Thread.sleep(200);
+            f.cancel(false);
+            assertThat(count.get()).isBetween(5, 30);
+            assertThatThrownBy(() -> f.get()).isInstanceOf(CancellationException.class);
+        }
+    }
+
+    @Test
+    void farFutureJobsAreQueued() {
+        try (TimingWheelScheduler s = new TimingWheelScheduler("test")) {
+            ScheduledFuture<?> a = s.schedule(Trigger.fixedRate(Duration.ofDays(1000), Duration.ofDays(1)), MisfirePolicy.COALESCE, () -> null);
+            s.schedule(Trigger.fixedDelay(Duration.ofHours(1), Duration.ofHours(1)), MisfirePolicy.COALESCE, () -> null);
+            assertThat(s.metrics().queueDepth()).isEqualTo(2);
+            assertThat(a.getDelay(TimeUnit.DAYS)).isBetween(999L, 1000L);
+
+            a.cancel(false);
+            assertThat(s.metrics().queueDepth()).isEqualTo(1);
+        }
+    }
+
+    /** A fixed delay job whose fire is skipped, because the scheduler was stalled, keeps running. */
+    @Test
+    void fixedDelaySkippedAfterStall() throws Exception {
+        AtomicLong clock = new AtomicLong(1_000_000);
+        try (TimingWheelScheduler s = new TimingWheelScheduler("test", Duration.ofMillis(1), Duration.ofMillis(100), clock::get)) {
+            AtomicInteger count = new AtomicInteger();
+            s.schedule(Trigger.fixedDelay(Duration.ofMillis(10), Duration.ofMillis(10)), MisfirePolicy.SKIP, count::incrementAndGet);
+
+            // The wheel clock stalls for a second, so the first fire is late and skipped
+            clock.addAndGet(1_000);
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (s.metrics().misfired() == 0 && System.nanoTime() < deadline) {
+                Thread.sleep(5);
+            }
+            assertThat(s.metrics().misfired()).isEqualTo(1L);
+            assertThat(count.get()).isZero();
+
+            // The job was rescheduled from the time of the skipped fire, and fires once the clock moves on
+            clock.addAndGet(20);
+            while (count.get() == 0 && System.nanoTime() < deadline) {
+                Thread.sleep(5);
+            }
+            assertThat(count.get()).isEqualTo(1);
+        }
+    }
+
+    @Test
+    void failure() {
+        try (TimingWheelScheduler s = new TimingWheelScheduler("test")) {
+            ScheduledFuture<?> f = s.schedule(once(0), MisfirePolicy.COALESCE, () -> {
+                throw new IllegalStateException("fail");
+            });
+            assertThatThrownBy(() -> f.get(5, TimeUnit.SECONDS)).isInstanceOf(ExecutionException.class).hasCauseInstanceOf(IllegalStateException.class);
+        }
+    }
+
+    @Test
+    void closed() {
+        TimingWheelScheduler s = new TimingWheelScheduler("test");
+        ScheduledFuture<?> f = s.schedule(once(10_000), MisfirePolicy.COALESCE, () -> null);
+        s.close();
+        assertThat(f.isCancelled()).isTrue();
+        assertThatThrownBy(() -> s.schedule(once(0), MisfirePolicy.COALESCE, () -> null)).isInstanceOf(RejectedExecutionException.class);
+    }
+}
@@ -15,16 +15,88 @@
  */
 package app.packed.telemetry;
 
+import java.lang.annotation.Annotation;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import java.util.ArrayList;
+
+import app.packed.bean.BeanIntrospector;
+import app.packed.bean.BeanTrigger.OnAnnotatedMethod;
+import app.packed.operation.OperationMirror;
+import app.packed.telemetry.span.impl.PackedTracer;
+import app.packed.telemetry.span.impl.SpanWeaver;
+
 /**
- *
+ * Indicates that every invocation of the annotated method should run in a new span.
+ * <p>
+ * The name of the span and its attributes are resolved once when the application is built. If tracing has not been
+ * enabled using {@link TelemetryExtension#enableTracing(app.packed.telemetry.span.impl.SpanExporter)}, the method is
+ * invoked without any overhead.
  */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@OnAnnotatedMethod(introspector = NewSpanBeanIntrospector.class)
 public @interface NewSpan {
 
+    /**
+     * {@return the name of the span}
+     * <p>
+     * The name may contain the placeholders {@code ${operation#name}} and {@code ${bean#name}}, which are replaced with the
+     * name of the invoked operation and the name of the bean respectively.
+     */
     String spanName() default "${operation#name}";
 
+    /**
+     * {@return attributes of the span, each on the form {@code key=value}}
+     * <p>
+     * Attributes are constant and are included in the recorded name of the span.
+     */
     // ville vaere saa fraekt at kunne sige "invocationCount=job#invocationCount"
     String[] attributes() default "";
 
     // I don't think we can say onFork unfortunately
 //    @Span(always = true, onFork=true, attributes = "request")
 }
+
+final class NewSpanBeanIntrospector extends BeanIntrospector<TelemetryExtension> {
+
+    /** {@inheritDoc} */
+    @Override
+    public void onAnnotatedMethod(Annotation annotation, BeanIntrospector.OnMethod method) {
+        NewSpan ns = (NewSpan) annotation;
+
+        // Validate the template and attributes, so any errors are reported at introspection time
+        String template = ns.spanName();
+        String rest = template.replace("${operation#name}", "").replace("${bean#name}", "");
+        if (template.isBlank()) {
+            method.failWith("@NewSpan requires a non-blank span name, on " + method.method().orElse(null));
+        } else if (rest.contains("${")) {
+            method.failWith("@NewSpan has an unknown placeholder in span name '" + template + "', on " + method.method().orElse(null));
+        }
+        ArrayList<String> attributes = new ArrayList<>();
+        for (String a : ns.attributes()) {
+            if (!a.isBlank()) {
+                int i = a.indexOf('=');
+                if (i <= 0) {
+                    method.failWith("@NewSpan attributes must be on the form key=value, was '" + a + "', on " + method.method().orElse(null));
+                }
+                attributes.add(a.substring(0, i).strip() + "=" + a.substring(i + 1).strip());
+            }
+        }
+        String suffix = attributes.isEmpty() ? "" : " " + String.join(" ", attributes);
+
+        TelemetryExtension extension = extension();
+        method.intercept((operation, invoker) -> {
+            PackedTracer tracer = extension.tracer();
+            // Leave the invoker untouched if tracing is disabled
+            return tracer == null ? invoker : SpanWeaver.weave(tracer, spanName(template, operation) + suffix, invoker);
+        });
+    }
+
+    /** {@return the name of the span created for the specified operation} */
+    private static String spanName(String template, OperationMirror operation) {
+        return template.replace("${operation#name}", operation.name()).replace("${bean#name}", operation.bean().name());
+    }
+}
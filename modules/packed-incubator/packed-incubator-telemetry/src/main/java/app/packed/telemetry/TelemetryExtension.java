@@ -0,0 +1,79 @@
+/*
+ * Copyright (c) 2026 Kasper Nielsen.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package app.packed.telemetry;
+
+import static java.util.Objects.requireNonNull;
+
+import org.jspecify.annotations.Nullable;
+
+import app.packed.extension.Extension;
+import app.packed.extension.ExtensionHandle;
+import app.packed.telemetry.span.impl.PackedTracer;
+import app.packed.telemetry.span.impl.SpanExporter;
+import app.packed.telemetry.span.impl.SpanRecorder;
+import app.packed.telemetry.span.impl.SpanRecorderManager;
+
+/**
+ * An extension for tracing.
+ * <p>
+ * Tracing is disabled by default. In which case methods annotated with {@link NewSpan} are invoked exactly as if the
+ * annotation was not present.
+ */
+public final class TelemetryExtension extends Extension<TelemetryExtension> {
+
+    /** The tracer, or null if tracing is disabled. Only used by the application root extension. */
+    @Nullable
+    private PackedTracer tracer;
+
+    /**
+     * @param handle
+     *            the extension's handle
+     */
+    TelemetryExtension(ExtensionHandle<TelemetryExtension> handle) {
+        super(handle);
+    }
+
+    /**
+     * Enables tracing for the whole application. Spans are recorded without blocking the traced threads, and exported
+     * asynchronously to the specified exporter while the application is running. Every recorded span has been exported,
+     * and the exporter flushed, when the application has stopped.
+     *
+     * @param exporter
+     *            the exporter to export spans to
+     * @return this extension
+     * @throws IllegalStateException
+     *             if tracing has already been enabled
+     */
+    public TelemetryExtension enableTracing(SpanExporter exporter) {
+        requireNonNull(exporter, "exporter is null");
+        checkIsConfigurable();
+        TelemetryExtension root = applicationRoot();
+        if (root.tracer != null) {
+            throw new IllegalStateException("Tracing has already been enabled");
+        }
+        // No threads are started until the application starts
+        SpanRecorder recorder = new SpanRecorder(exporter);
+        root.tracer = new PackedTracer(recorder);
+        root.base().installIfAbsent(SpanRecorderManager.class, c -> c.bindConstant(SpanRecorder.class, recorder));
+        return this;
+    }
+
+    /** {@return the tracer of the application, or null if tracing is disabled} */
+    @Nullable
+    PackedTracer tracer() {
+        return applicationRoot().tracer;
+    }
+}
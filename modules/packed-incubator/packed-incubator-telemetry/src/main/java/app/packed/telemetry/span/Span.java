@@ -48,12 +48,12 @@ public interface Span {
 
     // I think the noop thing is
     static Span current() {
-        return PackedTracer.SPAN.orElse(null);
+        return PackedTracer.current();
     }
 
     /** {@return the current active span if one is present} */
     static Optional<Span> currentOptional() {
-        return PackedTracer.SPAN.isBound() ? Optional.of(PackedTracer.SPAN.get()) : Optional.empty();
+        return Optional.ofNullable(PackedTracer.current());
     }
 
     static Span noop() {
@@ -62,7 +62,7 @@ public interface Span {
 
     // Altsaa noop, betyder jo at vi ikke kan bruge attributer til logging.
     static Span spawn() {
-        return PackedTracer.SPAN.orElse(null);
+        return PackedTracer.current();
     }
 
     /**
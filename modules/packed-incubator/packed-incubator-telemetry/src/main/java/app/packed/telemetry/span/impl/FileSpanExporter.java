@@ -0,0 +1,95 @@
+/*
+ * Copyright (c) 2026 Kasper Nielsen.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package app.packed.telemetry.span.impl;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * A span exporter that writes events to a local file, one event per line.
+ * <p>
+ * The first line of the file contains the wall clock time, in nanoseconds since the epoch, together with the value of
+ * {@link System#nanoTime()} at the same instant. This allows the timestamps of the events to be converted to wall clock
+ * time. Every following line has the format:
+ *
+ * <pre>
+ * {@code <kind> <trace id> <span id> <parent span id> <nanoTime> <name>}
+ * </pre>
+ *
+ * where kind is one of {@code start}, {@code end} or {@code failed}, and ids are written as 16 digit hexadecimal
+ * numbers.
+ */
+public final class FileSpanExporter implements SpanExporter {
+
+    /** The writer of the file. */
+    private final Writer writer;
+
+    /**
+     * Creates a new exporter, creating or truncating the specified file.
+     *
+     * @param file
+     *            the file to write events to
+     * @throws IOException
+     *             if the file could not be opened
+     */
+    public FileSpanExporter(Path file) throws IOException {
+        this.writer = Files.newBufferedWriter(file);
+        long nanoTime = System.nanoTime();
+        long epochNanos = ChronoUnit.NANOS.between(Instant.EPOCH, Instant.now());
+        writer.write("# epochNanos=" + epochNanos + " nanoTime=" + nanoTime + "\n");
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void close() throws IOException {
+        writer.close();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void export(int kind, String name, long traceId, long spanId, long parentSpanId, long nanoTime) throws IOException {
+        Writer w = writer;
+        w.write(switch (kind) {
+        case SpanRecorder.START -> "start ";
+        case SpanRecorder.END -> "end ";
+        default -> "failed ";
+        });
+        writeId(w, traceId);
+        writeId(w, spanId);
+        writeId(w, parentSpanId);
+        w.write(Long.toString(nanoTime));
+        w.write(' ');
+        w.write(name);
+        w.write('\n');
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void flush() throws IOException {
+        writer.flush();
+    }
+
+    private static void writeId(Writer w, long id) throws IOException {
+        for (int shift = 60; shift >= 0; shift -= 4) {
+            w.write(Character.forDigit((int) (id >>> shift) & 0xF, 16));
+        }
+        w.write(' ');
+    }
+}
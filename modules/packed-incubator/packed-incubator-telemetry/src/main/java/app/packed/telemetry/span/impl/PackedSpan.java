@@ -15,29 +15,87 @@
  */
 package app.packed.telemetry.span.impl;
 
-import static java.util.Objects.requireNonNull;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
 
 import org.jspecify.annotations.Nullable;
 
 import app.packed.telemetry.span.Span;
 
 /**
- * Uhh
+ * A span that is recorded by a {@link PackedTracer}.
+ * <p>
+ * A span only holds the ids that are needed to record its end, and to start child spans. All other information about
+ * the span is kept by the recorder. Ending a span more than once has no effect.
  */
 // https://github.com/open-telemetry/opentelemetry-java/blob/main/sdk/trace/src/main/java/io/opentelemetry/sdk/trace/SdkSpan.java
 public final class PackedSpan implements Span {
-    volatile boolean isActive;
 
+    private static final VarHandle IS_ACTIVE;
+
+    static {
+        try {
+            IS_ACTIVE = MethodHandles.lookup().findVarHandle(PackedSpan.class, "isActive", boolean.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    /** Whether or not the span has not yet ended, cleared with a compare-and-set so the end is only recorded once. */
+    private volatile boolean isActive = true;
+
+    /** The name of the span. */
     final String name;
 
+    /** The interned name of the span. */
+    final int nameIndex;
+
+    /** The tracer that created the span. */
     final PackedTracer tracer;
+
+    /** The parent span, or null if this span is a root span. */
     @Nullable
     final PackedSpan parent;
 
-    PackedSpan(PackedTracer tracer, @Nullable PackedSpan parent, String name) {
-        this.name = requireNonNull(name);
-        this.tracer = requireNonNull(tracer);
+    /** The id of the trace the span belongs to. */
+    final long traceId;
+
+    /** The id of the span. */
+    final long spanId;
+
+    /** The number of ancestors of the span. */
+    final int depth;
+
+    /** The woven span that was active when this span was woven into an invocation, only accessed by that thread. */
+    @Nullable
+    PackedSpan outer;
+
+    PackedSpan(PackedTracer tracer, @Nullable PackedSpan parent, String name, int nameIndex, long traceId, long spanId) {
+        this.tracer = tracer;
         this.parent = parent;
+        this.name = name;
+        this.nameIndex = nameIndex;
+        this.traceId = traceId;
+        this.spanId = spanId;
+        this.depth = parent == null ? 0 : parent.depth + 1;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void end() {
+        end(false);
+    }
+
+    private void end(boolean failed) {
+        if (IS_ACTIVE.compareAndSet(this, true, false)) {
+            tracer.recorder.end(nameIndex, traceId, spanId, failed);
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void endFailed(Throwable cause) {
+        end(true);
     }
 
     /** {@inheritDoc} */
@@ -55,12 +113,12 @@ public final class PackedSpan implements Span {
     /** {@inheritDoc} */
     @Override
     public Span newSpan(String name) {
-        return null;
+        return tracer.start(this, name);
     }
 
     /** {@inheritDoc} */
     @Override
     public Builder newSpanBuilder(String name) {
-        return null;
+        return new PackedSpanBuilder(tracer, this, name);
     }
 }
@@ -17,34 +17,52 @@ package app.packed.telemetry.span.impl;
 
 import java.lang.ScopedValue.CallableOp;
 
-import app.packed.telemetry.span.Span;
+import org.jspecify.annotations.Nullable;
 
 /**
- *
+ * A builder of spans created by a {@link PackedTracer}. Spans created by {@link #run(Runnable)} or
+ * {@link #call(CallableOp)} are bound to {@link PackedTracer#SPAN} while the action runs, so spans created within the
+ * action becomes children of the span.
  */
 public final class PackedSpanBuilder extends AbstractSpanBuilder {
 
+    /** The tracer that creates the span. */
+    private final PackedTracer tracer;
+
+    /** The parent of the span, or null if the span is a root span. */
+    @Nullable
+    private final PackedSpan parent;
+
+    /** The name of the span. */
+    private final String name;
+
+    PackedSpanBuilder(PackedTracer tracer, @Nullable PackedSpan parent, String name) {
+        this.tracer = tracer;
+        this.parent = parent;
+        this.name = name;
+    }
+
     /** {@inheritDoc} */
     @Override
     public <R, X extends Throwable> R call(CallableOp<? extends R, X> op) throws X {
-        Span s = start(); // Assume this initializes and starts a span for tracing
+        PackedSpan s = start();
         R result;
         try {
-            result = op.call(); // Execute the operation
+            result = ScopedValue.where(PackedTracer.SPAN, s).call(op);
         } catch (Throwable throwable) {
             s.endFailed(throwable); // Mark the span as failed
             throw throwable;
         }
         s.end(); // Mark the span as successful
-        return result; // Return the result of the operation
+        return result;
     }
 
     /** {@inheritDoc} */
     @Override
     public void run(Runnable action) {
-        Span s = start(); // Assume this initializes and starts a span for tracing
+        PackedSpan s = start();
         try {
-            action.run();
+            ScopedValue.where(PackedTracer.SPAN, s).run(action);
         } catch (Throwable throwable) {
             s.endFailed(throwable); // Mark the span as failed
             throw throwable;
@@ -54,7 +72,7 @@ public final class PackedSpanBuilder extends AbstractSpanBuilder {
 
     /** {@inheritDoc} */
     @Override
-    public Span start() {
-        return null;
+    public PackedSpan start() {
+        return tracer.start(parent, name);
     }
 }
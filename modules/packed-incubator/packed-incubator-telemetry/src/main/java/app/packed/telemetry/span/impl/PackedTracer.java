@@ -15,18 +15,97 @@
  */
 package app.packed.telemetry.span.impl;
 
+import static java.util.Objects.requireNonNull;
+
+import org.jspecify.annotations.Nullable;
+
 import app.packed.telemetry.span.Span.Builder;
 
 /**
- *
+ * A tracer that records spans using a {@link SpanRecorder}.
  */
 public final class PackedTracer extends AbstractTracer {
 
+    /** The span of the innermost {@link PackedSpanBuilder#run(Runnable)} or {@link PackedSpanBuilder#call} action. */
     public static final ScopedValue<PackedSpan> SPAN = ScopedValue.newInstance();
 
+    /**
+     * The span of the innermost woven method invocation on the current thread. A thread local is used instead of
+     * {@link #SPAN}, as binding a scoped value would require capturing the arguments of the method in a lambda for every
+     * invocation.
+     */
+    static final ThreadLocal<PackedSpan> WOVEN = new ThreadLocal<>();
+
+    /** The recorder that spans are recorded to. */
+    final SpanRecorder recorder;
+
+    /**
+     * Creates a new tracer.
+     *
+     * @param recorder
+     *            the recorder to record spans to
+     */
+    public PackedTracer(SpanRecorder recorder) {
+        this.recorder = requireNonNull(recorder, "recorder is null");
+    }
+
     /** {@inheritDoc} */
     @Override
     public Builder newSpan(String name) {
-        return null;
+        requireNonNull(name, "name is null");
+        return new PackedSpanBuilder(this, current(), name);
+    }
+
+    /** {@return the innermost active span of the current thread, or null if there are no active spans} */
+    @Nullable
+    public static PackedSpan current() {
+        return current(WOVEN.get());
+    }
+
+    /**
+     * Returns the innermost of the specified woven span and the span bound to {@link #SPAN}. All active spans of a thread
+     * are ancestors of each other, so the deepest of them is the innermost.
+     */
+    @Nullable
+    static PackedSpan current(@Nullable PackedSpan woven) {
+        PackedSpan bound = SPAN.isBound() ? SPAN.get() : null;
+        return woven == null || (bound != null && bound.depth > woven.depth) ? bound : woven;
+    }
+
+    /** {@return the recorder that spans are recorded to} */
+    public SpanRecorder recorder() {
+        return recorder;
+    }
+
+    /**
+     * Starts a new span.
+     *
+     * @param parent
+     *            the parent span, or null if the new span is the root of a new trace
+     * @param name
+     *            the name of the span
+     * @return the new span
+     */
+    PackedSpan start(@Nullable PackedSpan parent, String name) {
+        return start(parent, name, recorder.intern(name));
+    }
+
+    /**
+     * Starts a new span with a name that has already been interned.
+     *
+     * @param parent
+     *            the parent span, or null if the new span is the root of a new trace
+     * @param name
+     *            the name of the span
+     * @param nameIndex
+     *            the interned name of the span
+     * @return the new span
+     */
+    PackedSpan start(@Nullable PackedSpan parent, String name, int nameIndex) {
+        if (parent == null) {
+            long traceId = SpanRecorder.newId();
+            return new PackedSpan(this, null, name, nameIndex, traceId, recorder.start(nameIndex, traceId, 0));
+        }
+        return new PackedSpan(this, parent, name, nameIndex, parent.traceId, recorder.start(nameIndex, parent.traceId, parent.spanId));
     }
 }
@@ -0,0 +1,61 @@
+/*
+ * Copyright (c) 2026 Kasper Nielsen.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package app.packed.telemetry.span.impl;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Receives span events that have been drained from a {@link SpanRecorder}.
+ * <p>
+ * An exporter is only ever invoked from the drainer thread of the recorder it is attached to, and never from the
+ * threads recording spans. So it does not need to be thread-safe, and it may block.
+ */
+public interface SpanExporter extends Closeable {
+
+    /**
+     * Exports a single event.
+     *
+     * @param kind
+     *            the kind of event, one of {@link SpanRecorder#START}, {@link SpanRecorder#END} or
+     *            {@link SpanRecorder#END_FAILED}
+     * @param name
+     *            the name of the span
+     * @param traceId
+     *            the id of the trace the span belongs to
+     * @param spanId
+     *            the id of the span
+     * @param parentSpanId
+     *            the id of the parent span, or 0 if the span is a root span or the event is not a start event
+     * @param nanoTime
+     *            the time of the event as returned by {@link System#nanoTime()}
+     * @throws IOException
+     *             if the event could not be exported
+     */
+    void export(int kind, String name, long traceId, long spanId, long parentSpanId, long nanoTime) throws IOException;
+
+    /**
+     * Invoked whenever the recorder has no more events to export for the moment.
+     *
+     * @throws IOException
+     *             if the events could not be flushed
+     */
+    default void flush() throws IOException {}
+
+    /** {@inheritDoc} */
+    @Override
+    default void close() throws IOException {}
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright (c) 2026 Kasper Nielsen.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package app.packed.telemetry.span.impl;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Interns span names, so events can refer to the name of a span by an index instead of a reference.
+ * <p>
+ * Looking up a name that has already been interned is a single lookup in a concurrent map that does not allocate. The
+ * number of names is bounded. Index 0 is reserved for {@link SpanRecorder#OVERFLOW_NAME}, which is returned for new
+ * names once the limit has been reached.
+ */
+final class SpanNames {
+
+    /** The index of {@link SpanRecorder#OVERFLOW_NAME}. */
+    static final int OVERFLOW = 0;
+
+    /** The maximum number of names, not including the overflow name. */
+    private final int maxNames;
+
+    /** The index of every interned name. */
+    private final ConcurrentHashMap<String, Integer> indexes = new ConcurrentHashMap<>();
+
+    /** The interned names, indexed by their index. */
+    private volatile String[] names = new String[16];
+
+    /** The number of interned names including the overflow name, guarded by this. */
+    private int size = 1;
+
+    /** Whether or not the maximum number of names has been reached, so new names can be rejected without locking. */
+    private volatile boolean full;
+
+    SpanNames(int maxNames) {
+        this.maxNames = maxNames;
+        names[OVERFLOW] = SpanRecorder.OVERFLOW_NAME;
+    }
+
+    /**
+     * Interns the specified name.
+     *
+     * @param name
+     *            the name to intern
+     * @return the index of the name, or {@link #OVERFLOW} if the maximum number of names has been reached
+     */
+    int intern(String name) {
+        Integer index = indexes.get(name);
+        if (index != null) {
+            return index;
+        }
+        return full ? OVERFLOW : add(name);
+    }
+
+    /** {@return the name with the specified index} */
+    String name(int index) {
+        return names[index];
+    }
+
+    private synchronized int add(String name) {
+        Integer index = indexes.get(name);
+        if (index != null) {
+            return index;
+        } else if (size > maxNames) {
+            full = true;
+            return OVERFLOW;
+        }
+        String[] n = names;
+        if (size == n.length) {
+            n = Arrays.copyOf(n, size * 2);
+        }
+        n[size] = name;
+        names = n; // Publishes the name before it is made available below
+        indexes.put(name, size);
+        return size++;
+    }
+}
@@ -0,0 +1,334 @@
+/*
+ * Copyright (c) 2026 Kasper Nielsen.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package app.packed.telemetry.span.impl;
+
+import static java.util.Objects.requireNonNull;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import org.jspecify.annotations.Nullable;
+
+/**
+ * Records the start and end of spans into preallocated ring buffers, that are drained asynchronously to a
+ * {@link SpanExporter}.
+ * <p>
+ * Recording an event is allocation free. The event is written as primitive fields (ids, a timestamp and the interned
+ * name of the span) into one of a number of rings. The ring is selected by the id of the recording thread, so threads
+ * rarely compete for the same ring. A single drainer thread, which runs between {@link #start()} and {@link #stop()},
+ * reads the rings and hands the events to the exporter. Events recorded while the drainer is not running are kept in
+ * the rings until it is started again, or the recorder is closed.
+ * <p>
+ * If a ring is full, because the exporter cannot keep up, events are dropped instead of blocking the recording
+ * thread. The number of dropped events is available from {@link #dropped()}. Every event that is recorded before
+ * {@link #close()} returns is either exported or counted as dropped. Events recorded after that are ignored.
+ * <p>
+ * At most {@link #DEFAULT_MAX_NAMES} distinct span names are interned by default. Spans with names beyond the limit are
+ * exported with the name {@link #OVERFLOW_NAME}, so spans named from unbounded input cannot exhaust memory.
+ */
+public final class SpanRecorder implements AutoCloseable {
+
+    /** The kind of event recorded when a span is started. */
+    public static final int START = 1;
+
+    /** The kind of event recorded when a span ends successfully. */
+    public static final int END = 2;
+
+    /** The kind of event recorded when a span ends with a failure. */
+    public static final int END_FAILED = 3;
+
+    /** The default number of events each ring can hold. */
+    private static final int DEFAULT_CAPACITY = 4096;
+
+    /** The default maximum number of distinct span names. */
+    public static final int DEFAULT_MAX_NAMES = 4096;
+
+    /** The name that spans are exported with, once the maximum number of distinct span names has been reached. */
+    public static final String OVERFLOW_NAME = "<overflow>";
+
+    /** How long the drainer sleeps when there are no events to drain. */
+    private static final long DRAIN_INTERVAL_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+
+    /** The exporter that events are drained to. */
+    private final SpanExporter exporter;
+
+    /** The names of spans. */
+    private final SpanNames names;
+
+    /** The rings, selected by thread id. */
+    private final SpanRing[] rings;
+
+    /** The number of rings minus one. */
+    private final int mask;
+
+    /** The drainer thread, or null if the drainer is not running. Guarded by this. */
+    @Nullable
+    private Thread drainer;
+
+    /** Whether or not the drainer has been asked to terminate after a final pass over the rings. */
+    private volatile boolean stopping;
+
+    /** Whether or not the recorder has been closed. */
+    private volatile boolean closed;
+
+    /** The first exception thrown by the exporter, only accessed by a single drainer at a time. Guarded by this otherwise. */
+    @Nullable
+    private IOException failure;
+
+    /**
+     * Creates a new recorder with a ring for every 2 available processors and a default capacity.
+     *
+     * @param exporter
+     *            the exporter to drain events to
+     */
+    public SpanRecorder(SpanExporter exporter) {
+        this(exporter, 2 * Runtime.getRuntime().availableProcessors(), DEFAULT_CAPACITY, DEFAULT_MAX_NAMES);
+    }
+
+    /**
+     * Creates a new recorder.
+     *
+     * @param exporter
+     *            the exporter to drain events to
+     * @param rings
+     *            the number of rings, rounded up to a power of 2
+     * @param capacity
+     *            the number of events each ring can hold, rounded up to a power of 2
+     * @param maxNames
+     *            the maximum number of distinct span names
+     * @throws IllegalArgumentException
+     *             if rings, capacity or maxNames is less than 1
+     */
+    public SpanRecorder(SpanExporter exporter, int rings, int capacity, int maxNames) {
+        this.exporter = requireNonNull(exporter, "exporter is null");
+        if (rings < 1) {
+            throw new IllegalArgumentException("rings must be at least 1, was " + rings);
+        } else if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be at least 1, was " + capacity);
+        } else if (maxNames < 1) {
+            throw new IllegalArgumentException("maxNames must be at least 1, was " + maxNames);
+        }
+        this.names = new SpanNames(maxNames);
+        this.rings = new SpanRing[powerOfTwo(rings)];
+        for (int i = 0; i < this.rings.length; i++) {
+            this.rings[i] = new SpanRing(powerOfTwo(capacity));
+        }
+        this.mask = this.rings.length - 1;
+    }
+
+    /** {@return the total number of events that have been dropped because a ring was full} */
+    public long dropped() {
+        long total = 0;
+        for (SpanRing r : rings) {
+            total += r.dropped();
+        }
+        return total;
+    }
+
+    /**
+     * Interns the specified span name. Spans that are created repeatedly should intern their name once, and use the
+     * returned index when recording. If the maximum number of distinct names has been reached, the index of
+     * {@link #OVERFLOW_NAME} is returned for any name that has not already been interned.
+     *
+     * @param name
+     *            the name of the span
+     * @return the index of the name
+     */
+    public int intern(String name) {
+        return names.intern(requireNonNull(name, "name is null"));
+    }
+
+    /**
+     * Records the start of a new span.
+     *
+     * @param name
+     *            the interned name of the span
+     * @param traceId
+     *            the id of the trace
+     * @param parentSpanId
+     *            the id of the parent span, or 0 if it is a root span
+     * @return the id of the new span
+     */
+    public long start(int name, long traceId, long parentSpanId) {
+        long spanId = newId();
+        record(START, name, traceId, spanId, parentSpanId);
+        return spanId;
+    }
+
+    /**
+     * Records the end of a span.
+     *
+     * @param name
+     *            the interned name of the span
+     * @param traceId
+     *            the id of the trace
+     * @param spanId
+     *            the id of the span
+     * @param failed
+     *            whether or not the span failed
+     */
+    public void end(int name, long traceId, long spanId, boolean failed) {
+        record(failed ? END_FAILED : END, name, traceId, spanId, 0);
+    }
+
+    private void record(int kind, int name, long traceId, long spanId, long parentSpanId) {
+        long nanoTime = System.nanoTime();
+        rings[(int) Thread.currentThread().threadId() & mask].offer((long) kind << 32 | name, traceId, spanId, parentSpanId, nanoTime);
+    }
+
+    /**
+     * Starts the drainer thread, if it is not already running.
+     *
+     * @throws IllegalStateException
+     *             if the recorder has been closed
+     */
+    public synchronized void start() {
+        if (closed) {
+            throw new IllegalStateException("The recorder has been closed");
+        } else if (drainer == null) {
+            stopping = false;
+            drainer = Thread.ofPlatform().daemon().name("packed-span-drainer").start(this::drain);
+        }
+    }
+
+    /**
+     * Stops the drainer thread, after it has exported every event recorded before this method was invoked and flushed the
+     * exporter. Recording is not affected, events recorded after this method returns are exported when the drainer is
+     * started again.
+     *
+     * @throws UncheckedIOException
+     *             if the exporter has failed
+     */
+    public synchronized void stop() {
+        if (drainer != null) {
+            terminateDrainer();
+        }
+        if (failure != null) {
+            throw new UncheckedIOException("Failed to export spans", failure);
+        }
+    }
+
+    /**
+     * Stops recording, exports all remaining events and closes the exporter. Events recorded after this method has
+     * returned are ignored.
+     *
+     * @throws UncheckedIOException
+     *             if the exporter failed
+     */
+    @Override
+    public synchronized void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        if (drainer == null) {
+            drain(); // The final pass closes the rings
+        } else {
+            terminateDrainer();
+        }
+        try {
+            exporter.close();
+        } catch (IOException e) {
+            if (failure == null) {
+                failure = e;
+            } else {
+                failure.addSuppressed(e);
+            }
+        }
+        if (failure != null) {
+            throw new UncheckedIOException("Failed to export spans", failure);
+        }
+    }
+
+    /** Asks the drainer to terminate after a final pass over the rings, and waits for it. Must hold the lock of this. */
+    private void terminateDrainer() {
+        Thread t = drainer;
+        stopping = true;
+        LockSupport.unpark(t);
+        boolean interrupted = false;
+        while (t.isAlive()) {
+            try {
+                t.join();
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+        drainer = null;
+    }
+
+    /** Dispatches a single event read from a ring to the exporter. */
+    void dispatch(long meta, long traceId, long spanId, long parentSpanId, long nanoTime) {
+        if (failure == null) {
+            try {
+                exporter.export((int) (meta >>> 32), names.name((int) meta), traceId, spanId, parentSpanId, nanoTime);
+            } catch (IOException e) {
+                // Keep draining the rings, so recording threads do not start dropping events
+                failure = e;
+            }
+        }
+    }
+
+    /** The body of the drainer thread. */
+    private void drain() {
+        boolean dirty = false;
+        for (;;) {
+            // Read stopping before closed, as close() sets closed before stopping
+            boolean done = stopping;
+            boolean closing = closed;
+            done |= closing;
+            int count = 0;
+            for (SpanRing r : rings) {
+                // The last pass of close closes the rings, and waits for events that have been accepted but not yet published
+                count += closing ? r.closeAndDrain(this) : r.drain(this);
+            }
+            if (count > 0) {
+                dirty = true;
+            } else {
+                if (dirty && failure == null) {
+                    try {
+                        exporter.flush();
+                    } catch (IOException e) {
+                        failure = e;
+                    }
+                    dirty = false;
+                }
+                if (done) {
+                    return;
+                }
+                LockSupport.parkNanos(this, DRAIN_INTERVAL_NANOS);
+            }
+        }
+    }
+
+    /** {@return a new random non-zero id} */
+    static long newId() {
+        long id;
+        do {
+            id = ThreadLocalRandom.current().nextLong();
+        } while (id == 0);
+        return id;
+    }
+
+    private static int powerOfTwo(int n) {
+        return n == 1 ? 1 : Integer.highestOneBit(n - 1) << 1;
+    }
+}
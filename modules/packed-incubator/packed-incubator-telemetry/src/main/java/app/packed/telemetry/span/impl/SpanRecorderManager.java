@@ -0,0 +1,45 @@
+/*
+ * Copyright (c) 2026 Kasper Nielsen.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package app.packed.telemetry.span.impl;
+
+import app.packed.lifecycle.Start;
+import app.packed.lifecycle.Stop;
+
+/**
+ * Starts and stops the drainer of the span recorder of an application, together with the application.
+ * <p>
+ * The recorder is created when the application is built, but no thread is started until the application starts. When
+ * the application stops, every span recorded so far is exported and the exporter is flushed.
+ */
+public final class SpanRecorderManager {
+
+    /** The recorder of the application. */
+    private final SpanRecorder recorder;
+
+    public SpanRecorderManager(SpanRecorder recorder) {
+        this.recorder = recorder;
+    }
+
+    @Start
+    public void onStart() {
+        recorder.start();
+    }
+
+    @Stop
+    public void onStop() {
+        recorder.stop();
+    }
+}
@@ -0,0 +1,180 @@
+/*
+ * Copyright (c) 2026 Kasper Nielsen.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package app.packed.telemetry.span.impl;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+/**
+ * A bounded, lock-free ring buffer of span events that supports multiple producers and a single consumer.
+ * <p>
+ * Events are stored as primitive fields in a preallocated array, so recording an event never allocates. Every slot has
+ * a sequence number that tells producers whether the slot is free and tells the consumer whether the event in the slot
+ * has been fully written. Producers claim a slot with a single compare-and-set on the tail. If the ring is full the
+ * event is dropped, instead of blocking the recording thread.
+ * <p>
+ * Closing the ring sets a bit in the tail with the same compare-and-set. So a producer either claims its slot before
+ * the ring is closed, in which case the consumer waits for the event when it drains the ring for the last time, or it
+ * sees the ring closed and discards the event. No event that has been accepted is lost.
+ */
+final class SpanRing {
+
+    /** The number of longs used for each event: meta, trace id, span id, parent span id and the timestamp. */
+    static final int STRIDE = 5;
+
+    private static final VarHandle SEQUENCES = MethodHandles.arrayElementVarHandle(long[].class);
+
+    private static final VarHandle TAIL;
+
+    private static final VarHandle DROPPED;
+
+    /** The bit set in the tail when the ring has been closed. */
+    private static final long CLOSED = Long.MIN_VALUE;
+
+    static {
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            TAIL = lookup.findVarHandle(SpanRing.class, "tail", long.class);
+            DROPPED = lookup.findVarHandle(SpanRing.class, "dropped", long.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    /** The events, {@link #STRIDE} longs per slot. */
+    private final long[] events;
+
+    /** The sequence number of each slot. */
+    private final long[] sequences;
+
+    /** The capacity of the ring minus one. */
+    private final int mask;
+
+    /** The position of the next event to read, only accessed by the consumer. */
+    private long head;
+
+    /** The position of the next event to write, with {@link #CLOSED} set if the ring has been closed. */
+    @SuppressWarnings("unused")
+    private volatile long tail;
+
+    /** The number of events that has been dropped because the ring was full. */
+    @SuppressWarnings("unused")
+    private volatile long dropped;
+
+    /**
+     * Creates a new ring.
+     *
+     * @param capacity
+     *            the maximum number of events in the ring, must be a power of 2
+     */
+    SpanRing(int capacity) {
+        this.events = new long[capacity * STRIDE];
+        this.sequences = new long[capacity];
+        this.mask = capacity - 1;
+        for (int i = 0; i < capacity; i++) {
+            sequences[i] = i;
+        }
+    }
+
+    /** {@return the number of events that has been dropped} */
+    long dropped() {
+        return (long) DROPPED.getOpaque(this);
+    }
+
+    /**
+     * Reads all events that have been written to the ring.
+     *
+     * @param recorder
+     *            the recorder to dispatch the events to
+     * @return the number of events read
+     */
+    int drain(SpanRecorder recorder) {
+        long[] e = events;
+        int count = 0;
+        for (;;) {
+            long pos = head;
+            int index = (int) pos & mask;
+            if ((long) SEQUENCES.getAcquire(sequences, index) != pos + 1) {
+                return count;
+            }
+            int i = index * STRIDE;
+            recorder.dispatch(e[i], e[i + 1], e[i + 2], e[i + 3], e[i + 4]);
+            // Hand the slot back to producers for the next lap of the ring
+            SEQUENCES.setRelease(sequences, index, pos + mask + 1);
+            head = pos + 1;
+            count++;
+        }
+    }
+
+    /**
+     * Closes the ring, so no more events can be written, and reads all events that were accepted before it was closed.
+     * Waits for producers that have claimed a slot, but not yet published their event.
+     *
+     * @param recorder
+     *            the recorder to dispatch the events to
+     * @return the number of events read
+     */
+    int closeAndDrain(SpanRecorder recorder) {
+        long end;
+        do {
+            end = (long) TAIL.getVolatile(this);
+        } while (end >= 0 && !TAIL.compareAndSet(this, end, end | CLOSED));
+        end &= ~CLOSED;
+        int count = 0;
+        while (head < end) {
+            count += drain(recorder);
+            if (head < end) {
+                Thread.onSpinWait();
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Writes an event to the ring.
+     *
+     * @return true if the event was written, false if the ring was full or closed and the event was dropped
+     */
+    boolean offer(long meta, long traceId, long spanId, long parentSpanId, long nanoTime) {
+        long pos = (long) TAIL.getOpaque(this);
+        for (;;) {
+            if (pos < 0) {
+                return false; // closed
+            }
+            int index = (int) pos & mask;
+            long diff = (long) SEQUENCES.getAcquire(sequences, index) - pos;
+            if (diff == 0) {
+                if (TAIL.weakCompareAndSet(this, pos, pos + 1)) {
+                    int i = index * STRIDE;
+                    long[] e = events;
+                    e[i] = meta;
+                    e[i + 1] = traceId;
+                    e[i + 2] = spanId;
+                    e[i + 3] = parentSpanId;
+                    e[i + 4] = nanoTime;
+                    // Publish the event to the consumer
+                    SEQUENCES.setRelease(sequences, index, pos + 1);
+                    return true;
+                }
+            } else if (diff < 0) {
+                // The consumer has not yet read the event from the previous lap
+                DROPPED.getAndAdd(this, 1L);
+                return false;
+            }
+            pos = (long) TAIL.getOpaque(this);
+        }
+    }
+}
@@ -0,0 +1,119 @@
+/*
+ * Copyright (c) 2026 Kasper Nielsen.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package app.packed.telemetry.span.impl;
+
+import static java.util.Objects.requireNonNull;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+
+import org.jspecify.annotations.Nullable;
+
+/**
+ * Wraps method handles, so every invocation runs in a new span.
+ * <p>
+ * The name of the span is interned when the method handle is woven, so nothing about the span is computed per
+ * invocation. The woven method handle has the exact type of the target, and is composed with
+ * {@link MethodHandles#foldArguments(MethodHandle, MethodHandle)} and
+ * {@link MethodHandles#tryFinally(MethodHandle, MethodHandle)}. So arguments and return values are neither boxed nor
+ * collected into arrays. The new span is the current span of the thread while the target runs, so spans created by the
+ * invoked code become children of it.
+ */
+public final class SpanWeaver {
+
+    /** A method handle for {@link #enter(SpanWeaver)}. */
+    private static final MethodHandle MH_ENTER;
+
+    /** A method handle for {@link #exit(Throwable, PackedSpan)}. */
+    private static final MethodHandle MH_EXIT;
+
+    static {
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            MH_ENTER = lookup.findStatic(SpanWeaver.class, "enter", MethodType.methodType(PackedSpan.class, SpanWeaver.class));
+            MH_EXIT = lookup.findStatic(SpanWeaver.class, "exit", MethodType.methodType(void.class, Throwable.class, PackedSpan.class));
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    /** The tracer that records the spans. */
+    private final PackedTracer tracer;
+
+    /** The name of the spans. */
+    private final String name;
+
+    /** The interned name of the spans. */
+    private final int nameIndex;
+
+    private SpanWeaver(PackedTracer tracer, String name) {
+        this.tracer = tracer;
+        this.name = name;
+        this.nameIndex = tracer.recorder.intern(name);
+    }
+
+    /**
+     * Wraps the specified method handle, so every invocation of it runs in a new span.
+     *
+     * @param tracer
+     *            the tracer that records the spans
+     * @param name
+     *            the name of the spans
+     * @param target
+     *            the method handle to wrap
+     * @return a method handle with the same type as the target
+     */
+    public static MethodHandle weave(PackedTracer tracer, String name, MethodHandle target) {
+        requireNonNull(target, "target is null");
+        SpanWeaver weaver = new SpanWeaver(requireNonNull(tracer, "tracer is null"), requireNonNull(name, "name is null"));
+        Class<?> returnType = target.type().returnType();
+
+        // (Throwable, [R], PackedSpan)R ends the span, and returns the result of the target unchanged
+        MethodHandle cleanup = MH_EXIT;
+        if (returnType != void.class) {
+            MethodHandle identity = MethodHandles.dropArguments(MethodHandles.identity(returnType), 0, Throwable.class);
+            identity = MethodHandles.dropArguments(identity, 2, PackedSpan.class);
+            cleanup = MethodHandles.foldArguments(identity, MethodHandles.dropArguments(MH_EXIT, 1, returnType));
+        }
+
+        // (PackedSpan, A...)R invokes the target and always ends the span
+        MethodHandle traced = MethodHandles.tryFinally(MethodHandles.dropArguments(target, 0, PackedSpan.class), cleanup);
+
+        // (A...)R starts the span before invoking the target
+        return MethodHandles.foldArguments(traced, MH_ENTER.bindTo(weaver));
+    }
+
+    /** Starts a new span, and makes it the current span of the thread. */
+    private static PackedSpan enter(SpanWeaver weaver) {
+        PackedSpan outer = PackedTracer.WOVEN.get();
+        PackedSpan span = weaver.tracer.start(PackedTracer.current(outer), weaver.name, weaver.nameIndex);
+        span.outer = outer;
+        PackedTracer.WOVEN.set(span);
+        return span;
+    }
+
+    /** Ends the span, and restores the current span of the thread to the span that was current before it started. */
+    private static void exit(@Nullable Throwable failure, PackedSpan span) {
+        PackedTracer.WOVEN.set(span.outer);
+        span.outer = null;
+        if (failure == null) {
+            span.end();
+        } else {
+            span.endFailed(failure);
+        }
+    }
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright (c) 2026 Kasper Nielsen.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package app.packed.telemetry;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import app.packed.application.App;
+import app.packed.assembly.BaseAssembly;
+import app.packed.lifecycle.Start;
+import app.packed.telemetry.span.impl.SpanExporter;
+import app.packed.telemetry.span.impl.SpanRecorder;
+
+/** Tests {@link NewSpan}. */
+public class NewSpanTest {
+
+    static volatile int invocations;
+
+    /** An exporter that remembers the kind and name of every event. */
+    static final class ListExporter implements SpanExporter {
+
+        final List<String> events = new ArrayList<>();
+
+        @Override
+        public void export(int kind, String name, long traceId, long spanId, long parentSpanId, long nanoTime) {
+            events.add(kind + " " + name);
+        }
+    }
+
+    /** Every span recorded while the application runs has been exported when it has stopped. */
+    @Test
+    public void traced() {
+        ListExporter exporter = new ListExporter();
+        invocations = 0;
+        App.run(new BaseAssembly() {
+            @Override
+            protected void build() {
+                use(TelemetryExtension.class).enableTracing(exporter);
+                install(Traced.class);
+            }
+        });
+        assertThat(invocations).isEqualTo(1);
+        assertThat(exporter.events).containsExactly(SpanRecorder.START + " boot k=v", SpanRecorder.END + " boot k=v");
+    }
+
+    /** Without tracing, the method is invoked as if it was not annotated. */
+    @Test
+    public void disabled() {
+        invocations = 0;
+        App.run(new BaseAssembly() {
+            @Override
+            protected void build() {
+                use(TelemetryExtension.class);
+                install(Traced.class);
+            }
+        });
+        assertThat(invocations).isEqualTo(1);
+    }
+
+    public static class Traced {
+
+        @Start
+        @NewSpan(spanName = "boot", attributes = " k = v ")
+        public void onStart() {
+            invocations++;
+        }
+    }
+}
@@ -0,0 +1,148 @@
+/*
+ * Copyright (c) 2026 Kasper Nielsen.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package app.packed.telemetry.span.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import org.junit.jupiter.api.Test;
+
+/** Tests {@link SpanRecorder}. */
+public class SpanRecorderTest {
+
+    /** An exporter that remembers the kind and name of every event. */
+    static final class ListExporter implements SpanExporter {
+
+        final List<String> events = new ArrayList<>();
+
+        @Override
+        public void export(int kind, String name, long traceId, long spanId, long parentSpanId, long nanoTime) {
+            events.add(kind + " " + name);
+        }
+    }
+
+    @Test
+    public void recordsNestedSpans() {
+        ListExporter exporter = new ListExporter();
+        SpanRecorder recorder = new SpanRecorder(exporter);
+        PackedTracer tracer = new PackedTracer(recorder);
+        PackedSpan parent = tracer.start(null, "parent");
+        PackedSpan child = tracer.start(parent, "child");
+        assertThat(child.traceId).isEqualTo(parent.traceId);
+        child.endFailed(new RuntimeException());
+        parent.end();
+        recorder.close();
+
+        // A thread selects its ring by id, so all events of a single thread are exported in order
+        assertThat(exporter.events).containsExactly(SpanRecorder.START + " parent", SpanRecorder.START + " child",
+                SpanRecorder.END_FAILED + " child", SpanRecorder.END + " parent");
+    }
+
+    /** A span that is ended concurrently by multiple threads records a single end event. */
+    @Test
+    public void concurrentEndIsRecordedOnce() throws Exception {
+        ListExporter exporter = new ListExporter();
+        SpanRecorder recorder = new SpanRecorder(exporter, 1, 1024, 16);
+        PackedTracer tracer = new PackedTracer(recorder);
+        for (int i = 0; i < 100; i++) {
+            PackedSpan span = tracer.start(null, "s");
+            CountDownLatch go = new CountDownLatch(1);
+            List<Thread> threads = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                threads.add(Thread.ofPlatform().start(() -> {
+                    try {
+                        go.await();
+                    } catch (InterruptedException e) {
+                        throw new AssertionError(e);
+                    }
+                    span.end();
+                }));
+            }
+            go.countDown();
+            for (Thread t : threads) {
+                t.join();
+            }
+            assertThat(span.isActive()).isFalse();
+        }
+        recorder.close();
+        assertThat(exporter.events.stream().filter(e -> e.startsWith(SpanRecorder.END + " ")).count()).isEqualTo(100L);
+        assertThat(recorder.dropped()).isEqualTo(0L);
+    }
+
+    /** Names beyond the maximum are exported with the overflow name. */
+    @Test
+    public void namesAreBounded() {
+        ListExporter exporter = new ListExporter();
+        SpanRecorder recorder = new SpanRecorder(exporter, 1, 16, 2);
+        int a = recorder.intern("a");
+        assertThat(recorder.intern("b")).isNotEqualTo(a);
+        assertThat(recorder.intern("a")).isEqualTo(a);
+        int c = recorder.intern("c");
+        assertThat(recorder.intern("d")).isEqualTo(c);
+        new PackedTracer(recorder).start(null, "e").end();
+        recorder.close();
+        assertThat(exporter.events).containsExactly(SpanRecorder.START + " " + SpanRecorder.OVERFLOW_NAME,
+                SpanRecorder.END + " " + SpanRecorder.OVERFLOW_NAME);
+    }
+
+    /** Events recorded after the recorder has been closed are ignored. */
+    @Test
+    public void eventsAfterCloseAreIgnored() {
+        ListExporter exporter = new ListExporter();
+        SpanRecorder recorder = new SpanRecorder(exporter);
+        PackedSpan span = new PackedTracer(recorder).start(null, "s");
+        recorder.close();
+        span.end();
+        assertThat(exporter.events).containsExactly(SpanRecorder.START + " s");
+        assertThat(recorder.dropped()).isEqualTo(0L);
+    }
+
+    /** Stopping the drainer exports and flushes every recorded event, and events recorded while stopped are kept. */
+    @Test
+    public void startAndStop() {
+        ListExporter exporter = new ListExporter();
+        SpanRecorder recorder = new SpanRecorder(exporter);
+        PackedTracer tracer = new PackedTracer(recorder);
+        recorder.start();
+        tracer.start(null, "a").end();
+        recorder.stop();
+        assertThat(exporter.events).containsExactly(SpanRecorder.START + " a", SpanRecorder.END + " a");
+
+        tracer.start(null, "b").end();
+        assertThat(exporter.events).hasSize(2);
+        recorder.start();
+        recorder.stop();
+        assertThat(exporter.events).hasSize(4);
+
+        recorder.close();
+        assertThatThrownBy(recorder::start).isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    public void exporterFailureIsThrownOnClose() {
+        SpanRecorder recorder = new SpanRecorder((_, _, _, _, _, _) -> {
+            throw new IOException("disk full");
+        });
+        new PackedTracer(recorder).start(null, "s");
+        assertThatThrownBy(recorder::close).isInstanceOf(UncheckedIOException.class).hasRootCauseMessage("disk full");
+    }
+}
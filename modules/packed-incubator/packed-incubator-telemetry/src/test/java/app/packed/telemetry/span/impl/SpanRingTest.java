@@ -0,0 +1,128 @@
+/*
+ * Copyright (c) 2026 Kasper Nielsen.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package app.packed.telemetry.span.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+
+/** Tests {@link SpanRing}. */
+public class SpanRingTest {
+
+    /** An exporter that counts the events it receives. Events may be dispatched from more than one thread in tests. */
+    static final class CountingExporter implements SpanExporter {
+
+        final AtomicLong count = new AtomicLong();
+
+        final List<Long> spanIds = new ArrayList<>();
+
+        @Override
+        public synchronized void export(int kind, String name, long traceId, long spanId, long parentSpanId, long nanoTime) {
+            count.incrementAndGet();
+            spanIds.add(spanId);
+        }
+    }
+
+    @Test
+    public void fifo() {
+        CountingExporter exporter = new CountingExporter();
+        try (SpanRecorder recorder = new SpanRecorder(exporter, 1, 16, 16)) {
+            SpanRing ring = new SpanRing(8);
+            for (int i = 1; i <= 5; i++) {
+                assertThat(ring.offer(0, 0, i, 0, 0)).isTrue();
+            }
+            assertThat(ring.drain(recorder)).isEqualTo(5);
+            assertThat(ring.drain(recorder)).isEqualTo(0);
+            assertThat(exporter.spanIds).containsExactly(1L, 2L, 3L, 4L, 5L);
+        }
+    }
+
+    /** A full ring drops events instead of blocking, and accepts events again once it has been drained. */
+    @Test
+    public void dropsWhenFull() {
+        CountingExporter exporter = new CountingExporter();
+        try (SpanRecorder recorder = new SpanRecorder(exporter, 1, 16, 16)) {
+            SpanRing ring = new SpanRing(4);
+            for (int i = 0; i < 4; i++) {
+                assertThat(ring.offer(0, 0, i, 0, 0)).isTrue();
+            }
+            assertThat(ring.offer(0, 0, 4, 0, 0)).isFalse();
+            assertThat(ring.dropped()).isEqualTo(1L);
+            assertThat(ring.drain(recorder)).isEqualTo(4);
+            for (int lap = 0; lap < 3; lap++) {
+                for (int i = 0; i < 4; i++) {
+                    assertThat(ring.offer(0, 0, i, 0, 0)).isTrue();
+                }
+                assertThat(ring.drain(recorder)).isEqualTo(4);
+            }
+            assertThat(ring.dropped()).isEqualTo(1L);
+        }
+    }
+
+    @Test
+    public void closedRingRejectsEvents() {
+        CountingExporter exporter = new CountingExporter();
+        try (SpanRecorder recorder = new SpanRecorder(exporter, 1, 16, 16)) {
+            SpanRing ring = new SpanRing(4);
+            assertThat(ring.offer(0, 0, 1, 0, 0)).isTrue();
+            assertThat(ring.closeAndDrain(recorder)).isEqualTo(1);
+            assertThat(ring.offer(0, 0, 2, 0, 0)).isFalse();
+            assertThat(ring.closeAndDrain(recorder)).isEqualTo(0);
+            assertThat(exporter.spanIds).containsExactly(1L);
+        }
+    }
+
+    /** Every event accepted by the ring is read, also when the ring is closed while producers are writing to it. */
+    @Test
+    public void concurrentProducersAndClose() throws Exception {
+        CountingExporter exporter = new CountingExporter();
+        try (SpanRecorder recorder = new SpanRecorder(exporter, 1, 16, 16)) {
+            SpanRing ring = new SpanRing(1024);
+            AtomicLong accepted = new AtomicLong();
+            AtomicBoolean closed = new AtomicBoolean();
+            CountDownLatch started = new CountDownLatch(4);
+            List<Thread> producers = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                producers.add(Thread.ofPlatform().start(() -> {
+                    started.countDown();
+                    while (!closed.get()) {
+                        if (ring.offer(0, 0, 1, 0, 0)) {
+                            accepted.incrementAndGet();
+                        }
+                    }
+                }));
+            }
+            started.await();
+            long read = 0;
+            for (int i = 0; i < 1000; i++) {
+                read += ring.drain(recorder);
+            }
+            read += ring.closeAndDrain(recorder);
+            closed.set(true);
+            for (Thread t : producers) {
+                t.join();
+            }
+            assertThat(read).isEqualTo(accepted.get());
+            assertThat(exporter.count.get()).isEqualTo(read);
+        }
+    }
+}
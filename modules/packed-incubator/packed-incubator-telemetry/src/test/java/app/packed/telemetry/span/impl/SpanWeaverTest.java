@@ -0,0 +1,107 @@
+/*
+ * Copyright (c) 2026 Kasper Nielsen.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package app.packed.telemetry.span.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+
+import org.junit.jupiter.api.Test;
+
+import app.packed.telemetry.span.impl.SpanRecorderTest.ListExporter;
+
+/** Tests {@link SpanWeaver}. */
+public class SpanWeaverTest {
+
+    static PackedSpan innerCurrent;
+
+    static PackedSpan builderCurrent;
+
+    static int add(int a, int b) {
+        return a + b;
+    }
+
+    static void fail(String message) {
+        throw new IllegalStateException(message);
+    }
+
+    static void inner() {
+        innerCurrent = PackedTracer.current();
+    }
+
+    static long outer(MethodHandle inner, PackedTracer tracer) throws Throwable {
+        inner.invokeExact();
+        tracer.newSpan("builder").run(() -> builderCurrent = PackedTracer.current());
+        return 42L;
+    }
+
+    static MethodHandle find(String name, MethodType type) throws ReflectiveOperationException {
+        return MethodHandles.lookup().findStatic(SpanWeaverTest.class, name, type);
+    }
+
+    /** The woven method handle has the exact type of the target, and records a span for every invocation. */
+    @Test
+    public void exactType() throws Throwable {
+        ListExporter exporter = new ListExporter();
+        SpanRecorder recorder = new SpanRecorder(exporter);
+        MethodHandle target = find("add", MethodType.methodType(int.class, int.class, int.class));
+        MethodHandle woven = SpanWeaver.weave(new PackedTracer(recorder), "add", target);
+        assertThat(woven.type()).isEqualTo(target.type());
+        assertThat((int) woven.invokeExact(1, 2)).isEqualTo(3);
+        assertThat((int) woven.invokeExact(3, 4)).isEqualTo(7);
+        assertThat(PackedTracer.current()).isNull();
+        recorder.close();
+        assertThat(exporter.events).containsExactly(SpanRecorder.START + " add", SpanRecorder.END + " add", SpanRecorder.START + " add",
+                SpanRecorder.END + " add");
+    }
+
+    @Test
+    public void failure() throws Throwable {
+        ListExporter exporter = new ListExporter();
+        SpanRecorder recorder = new SpanRecorder(exporter);
+        MethodHandle woven = SpanWeaver.weave(new PackedTracer(recorder), "fail", find("fail", MethodType.methodType(void.class, String.class)));
+        assertThatThrownBy(() -> {
+            woven.invokeExact("boom");
+        }).isInstanceOf(IllegalStateException.class).hasMessage("boom");
+        assertThat(PackedTracer.current()).isNull();
+        recorder.close();
+        assertThat(exporter.events).containsExactly(SpanRecorder.START + " fail", SpanRecorder.END_FAILED + " fail");
+    }
+
+    /** Spans created while a woven method runs, woven or not, are children of its span. */
+    @Test
+    public void nested() throws Throwable {
+        ListExporter exporter = new ListExporter();
+        SpanRecorder recorder = new SpanRecorder(exporter);
+        PackedTracer tracer = new PackedTracer(recorder);
+        MethodHandle inner = SpanWeaver.weave(tracer, "inner", find("inner", MethodType.methodType(void.class)));
+        MethodHandle outer = SpanWeaver.weave(tracer, "outer", find("outer", MethodType.methodType(long.class, MethodHandle.class, PackedTracer.class)));
+        assertThat((long) outer.invokeExact(inner, tracer)).isEqualTo(42L);
+
+        assertThat(innerCurrent.name()).isEqualTo("inner");
+        assertThat(innerCurrent.parent.name()).isEqualTo("outer");
+        assertThat(builderCurrent.name()).isEqualTo("builder");
+        assertThat(builderCurrent.parent.name()).isEqualTo("outer");
+        assertThat(builderCurrent.traceId).isEqualTo(innerCurrent.traceId);
+        assertThat(PackedTracer.current()).isNull();
+        recorder.close();
+        assertThat(exporter.events).containsExactly(SpanRecorder.START + " outer", SpanRecorder.START + " inner", SpanRecorder.END + " inner",
+                SpanRecorder.START + " builder", SpanRecorder.END + " builder", SpanRecorder.END + " outer");
+    }
+}
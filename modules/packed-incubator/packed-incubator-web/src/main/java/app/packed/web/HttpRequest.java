@@ -16,7 +16,9 @@
 package app.packed.web;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.URI;
+import java.nio.channels.ReadableByteChannel;
 
 import com.sun.net.httpserver.Headers;
 
@@ -37,17 +39,111 @@ public interface HttpRequest {
     /** Returns the request method (GET, POST, etc.). */
     String method();
 
-    /** Returns a request header value. */
+    /** Returns a request header value. Does not require the engine to create a map of all headers. */
     String header(String name);
 
     /** Returns all request headers. */
     Headers headers();
 
+    /**
+     * Returns the value of a segment captured by the URL pattern of the operation.
+     *
+     * @param name
+     *            the name of the capture, or {@code *} for an unnamed wildcard
+     * @return the captured value, or null if the pattern does not capture the name
+     * @see PathParam
+     */
+    String pathParam(String name);
+
     /** Returns a query parameter value. */
     String queryParam(String name);
 
+    /**
+     * Returns whether or not the request has a query parameter with the specified name.
+     *
+     * @param name
+     *            the name of the parameter
+     * @return whether or not the parameter is present, with or without a value
+     */
+    boolean hasQueryParam(String name);
+
+    /**
+     * Returns a query parameter value as an int.
+     *
+     * @param name
+     *            the name of the parameter
+     * @param defaultValue
+     *            the value to return if the parameter is not present
+     * @return the value
+     * @throws NumberFormatException
+     *             if the value is not a valid int
+     * @see QueryParam
+     */
+    int queryParamAsInt(String name, int defaultValue);
+
+    /**
+     * Returns a query parameter value as a long.
+     *
+     * @param name
+     *            the name of the parameter
+     * @param defaultValue
+     *            the value to return if the parameter is not present
+     * @return the value
+     * @throws NumberFormatException
+     *             if the value is not a valid long
+     * @see QueryParam
+     */
+    long queryParamAsLong(String name, long defaultValue);
+
+    /**
+     * Returns a query parameter value as a boolean. The value must be {@code true} or {@code false} (ignoring case). A
+     * parameter that is present without a value is {@code true}.
+     *
+     * @param name
+     *            the name of the parameter
+     * @param defaultValue
+     *            the value to return if the parameter is not present
+     * @return the value
+     * @throws IllegalArgumentException
+     *             if the value is not a valid boolean
+     * @see QueryParam
+     */
+    boolean queryParamAsBoolean(String name, boolean defaultValue);
+
+    /**
+     * Returns a query parameter value as the enum constant with the same name.
+     *
+     * @param <E>
+     *            the type of enum
+     * @param name
+     *            the name of the parameter
+     * @param type
+     *            the enum class
+     * @param defaultValue
+     *            the value to return if the parameter is not present
+     * @return the value
+     * @throws IllegalArgumentException
+     *             if the value is not the name of a constant of the enum
+     * @see QueryParam
+     */
+    <E extends Enum<E>> E queryParamAsEnum(String name, Class<E> type, E defaultValue);
+
     /** Returns the request body as a string. */
     String body() throws IOException;
+
+    /**
+     * Returns the request body as a stream. The body is streamed as it is received, and is never buffered in full.
+     * <p>
+     * A parameter of a {@link WebGet} operation of type {@code InputStream} is bound to this stream.
+     */
+    InputStream bodyStream();
+
+    /**
+     * Returns the request body as a channel. The body is streamed as it is received, and is never buffered in full.
+     * <p>
+     * A parameter of a {@link WebGet} operation of type {@code ReadableByteChannel} is bound to this channel.
+     */
+    ReadableByteChannel bodyChannel();
 }
 
 final class HttpRequestBeanIntrospector extends BeanIntrospector<WebExtension> {
@@ -16,6 +16,10 @@
 package app.packed.web;
 
 import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
 
 import app.packed.bean.BeanIntrospector;
 import app.packed.bean.BeanTrigger.AutoService;
@@ -40,6 +44,37 @@ public interface HttpResponse {
 
     /** Writes the response body with a specific content type. */
     void write(String body, String contentType) throws IOException;
+
+    /**
+     * Writes the remaining bytes of the specified buffer as the response body. The buffer is written to the connection
+     * without copying if supported by the engine. The buffer is not modified, and may be reused once this method has
+     * returned.
+     */
+    void write(ByteBuffer body, String contentType) throws IOException;
+
+    /**
+     * Writes the content of the specified file as the response body. The file is transferred using
+     * {@link java.nio.channels.FileChannel#transferTo(long, long, WritableByteChannel)}, which avoids copying the content
+     * into the heap if supported by the engine.
+     */
+    void write(Path file, String contentType) throws IOException;
+
+    /**
+     * Returns a stream for writing the response body, using chunked transfer encoding.
+     * <p>
+     * The response is started with the current status and headers, when the stream is first written to, flushed or
+     * closed. If no {@code Content-Type} header has been set, {@code application/octet-stream} is used.
+     * <p>
+     * A parameter of a {@link WebGet} operation of type {@code OutputStream} is bound to this stream.
+     */
+    OutputStream bodyStream();
+
+    /**
+     * Returns a channel for writing the response body, with the same semantics as {@link #bodyStream()}.
+     * <p>
+     * A parameter of a {@link WebGet} operation of type {@code WritableByteChannel} is bound to this channel.
+     */
+    WritableByteChannel bodyChannel();
 }
 
 final class HttpResponseBeanIntrospector extends BeanIntrospector<BaseExtension> {
@@ -0,0 +1,85 @@
+/*
+ * Copyright (c) 2026 Kasper Nielsen.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package app.packed.web;
+
+import java.lang.annotation.Annotation;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+import app.packed.bean.BeanIntrospector;
+import app.packed.bean.BeanTrigger.OnAnnotatedVariable;
+import app.packed.operation.Op1;
+import internal.app.packed.web.WebStatusException;
+
+/**
+ * Binds a parameter of a {@link WebGet} operation to a segment captured by the URL pattern of the operation.
+ * <p>
+ * For example, an operation with the pattern {@code /users/{id}} can declare a parameter {@code @PathParam("id") long id}.
+ * Parameters of type {@code String}, {@code int} and {@code long} (or their wrappers) are supported. The remainder
+ * matched by an unnamed wildcard {@code *} is bound using {@code @PathParam("*")}.
+ * <p>
+ * If a segment cannot be converted to the type of the parameter, the operation is not invoked, and a response with
+ * status 404 (Not Found) is sent.
+ */
+@Target(ElementType.PARAMETER)
+@Retention(RetentionPolicy.RUNTIME)
+@OnAnnotatedVariable(introspector = PathParamBeanIntrospector.class, requiresContext = HttpContext.class)
+public @interface PathParam {
+
+    /** {@return the name of the capture in the URL pattern} */
+    String value();
+}
+
+final class PathParamBeanIntrospector extends BeanIntrospector<WebExtension> {
+
+    /** {@inheritDoc} */
+    @Override
+    public void onAnnotatedVariable(Annotation annotation, OnVariable onVariable) {
+        String name = ((PathParam) annotation).value();
+        Class<?> type = onVariable.checkAssignableTo(String.class, Integer.class, Long.class, int.class, long.class);
+        if (type == String.class) {
+            onVariable.bindOp(new Op1<HttpContext, String>(c -> c.request().pathParam(name)) {});
+        } else if (type == Integer.class || type == int.class) {
+            onVariable.bindOp(new Op1<HttpContext, Integer>(c -> parseInt(c, name)) {});
+        } else {
+            onVariable.bindOp(new Op1<HttpContext, Long>(c -> parseLong(c, name)) {});
+        }
+    }
+
+    private static int parseInt(HttpContext context, String name) {
+        String value = context.request().pathParam(name);
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw notFound(name, value);
+        }
+    }
+
+    private static long parseLong(HttpContext context, String name) {
+        String value = context.request().pathParam(name);
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            throw notFound(name, value);
+        }
+    }
+
+    private static WebStatusException notFound(String name, String value) {
+        return new WebStatusException(404, "Invalid path parameter '" + name + "', was '" + value + "'");
+    }
+}
@@ -0,0 +1,174 @@
+/*
+ * Copyright (c) 2026 Kasper Nielsen.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package app.packed.web;
+
+import java.lang.annotation.Annotation;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+
+import app.packed.bean.BeanInstallationException;
+import app.packed.bean.BeanIntrospector;
+import app.packed.bean.BeanTrigger.OnAnnotatedVariable;
+import app.packed.operation.Op1;
+import internal.app.packed.operation.PackedOp;
+import internal.app.packed.web.WebStatusException;
+
+/**
+ * Binds a parameter of a {@link WebGet} operation to a query parameter of the request.
+ * <p>
+ * Parameters of type {@code String}, {@code int}, {@code long}, {@code boolean} (or their wrappers) and enums are
+ * supported. The conversion, including parsing of the {@link #defaultValue()}, is selected when the application is
+ * built. Values are read from an index of the query that is created once per request, without decoding or splitting the
+ * query on every read.
+ * <p>
+ * If the query parameter is not present, the default value is used. If no default value has been specified, primitive
+ * parameters are bound to {@code 0} or {@code false} and all other parameters to {@code null}. If the value of the
+ * query parameter cannot be converted to the type of the parameter, the request is answered with status 400 (Bad
+ * Request), without invoking the operation.
+ */
+@Target(ElementType.PARAMETER)
+@Retention(RetentionPolicy.RUNTIME)
+@OnAnnotatedVariable(introspector = QueryParamBeanIntrospector.class, requiresContext = HttpContext.class)
+public @interface QueryParam {
+
+    /** Indicates that no default value has been specified. */
+    String NO_DEFAULT = "\n\t\n";
+
+    /** {@return the name of the query parameter} */
+    String value();
+
+    /** {@return the value to use if the query parameter is not present} */
+    String defaultValue() default NO_DEFAULT;
+}
+
+final class QueryParamBeanIntrospector extends BeanIntrospector<WebExtension> {
+
+    /** A method handle for {@link #asEnum(HttpContext, String, Class, Enum)}. */
+    private static final MethodHandle AS_ENUM;
+
+    static {
+        try {
+            AS_ENUM = MethodHandles.lookup().findStatic(QueryParamBeanIntrospector.class, "asEnum",
+                    MethodType.methodType(Enum.class, HttpContext.class, String.class, Class.class, Enum.class));
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void onAnnotatedVariable(Annotation annotation, OnVariable onVariable) {
+        QueryParam qp = (QueryParam) annotation;
+        String name = qp.value();
+        String defaultValue = qp.defaultValue().equals(QueryParam.NO_DEFAULT) ? null : qp.defaultValue();
+        Class<?> type = onVariable.variable().rawType();
+        try {
+            bind(onVariable, type, name, defaultValue);
+        } catch (IllegalArgumentException e) {
+            throw new BeanInstallationException("Invalid default value for @QueryParam(\"" + name + "\"), " + e.getMessage(), e);
+        }
+    }
+
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    private static void bind(OnVariable v, Class<?> type, String name, String defaultValue) {
+        if (type == String.class) {
+            v.bindOp(new Op1<HttpContext, String>(c -> {
+                String s = c.request().queryParam(name);
+                return s == null ? defaultValue : s;
+            }) {});
+        } else if (type == int.class) {
+            int d = defaultValue == null ? 0 : Integer.parseInt(defaultValue);
+            v.bindOp(new Op1<HttpContext, Integer>(c -> asInt(c, name, d)) {});
+        } else if (type == Integer.class) {
+            Integer d = defaultValue == null ? null : Integer.valueOf(defaultValue);
+            v.bindOp(new Op1<HttpContext, Integer>(c -> c.request().hasQueryParam(name) ? asInt(c, name, 0) : d) {});
+        } else if (type == long.class) {
+            long d = defaultValue == null ? 0 : Long.parseLong(defaultValue);
+            v.bindOp(new Op1<HttpContext, Long>(c -> asLong(c, name, d)) {});
+        } else if (type == Long.class) {
+            Long d = defaultValue == null ? null : Long.valueOf(defaultValue);
+            v.bindOp(new Op1<HttpContext, Long>(c -> c.request().hasQueryParam(name) ? asLong(c, name, 0) : d) {});
+        } else if (type == boolean.class) {
+            boolean d = defaultValue != null && parseBoolean(defaultValue);
+            v.bindOp(new Op1<HttpContext, Boolean>(c -> asBoolean(c, name, d)) {});
+        } else if (type == Boolean.class) {
+            Boolean d = defaultValue == null ? null : parseBoolean(defaultValue);
+            v.bindOp(new Op1<HttpContext, Boolean>(c -> c.request().hasQueryParam(name) ? asBoolean(c, name, false) : d) {});
+        } else if (type.isEnum()) {
+            bindEnum(v, (Class) type, name, defaultValue);
+        } else {
+            throw new BeanInstallationException("@QueryParam is not supported for parameters of type " + type.getName());
+        }
+    }
+
+    /** Binds an enum parameter, using an op that returns the exact enum type as its type is not known until runtime. */
+    private static <E extends Enum<E>> void bindEnum(OnVariable v, Class<E> type, String name, String defaultValue) {
+        E d = defaultValue == null ? null : Enum.valueOf(type, defaultValue);
+        MethodHandle mh = MethodHandles.insertArguments(AS_ENUM, 1, name, type, d);
+        v.bindOp(PackedOp.ofMethodHandle(mh.asType(MethodType.methodType(type, HttpContext.class))));
+    }
+
+    private static int asInt(HttpContext context, String name, int defaultValue) {
+        try {
+            return context.request().queryParamAsInt(name, defaultValue);
+        } catch (IllegalArgumentException e) {
+            throw badRequest(name, e);
+        }
+    }
+
+    private static long asLong(HttpContext context, String name, long defaultValue) {
+        try {
+            return context.request().queryParamAsLong(name, defaultValue);
+        } catch (IllegalArgumentException e) {
+            throw badRequest(name, e);
+        }
+    }
+
+    private static boolean asBoolean(HttpContext context, String name, boolean defaultValue) {
+        try {
+            return context.request().queryParamAsBoolean(name, defaultValue);
+        } catch (IllegalArgumentException e) {
+            throw badRequest(name, e);
+        }
+    }
+
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    private static Enum<?> asEnum(HttpContext context, String name, Class type, Enum defaultValue) {
+        try {
+            return context.request().queryParamAsEnum(name, type, defaultValue);
+        } catch (IllegalArgumentException e) {
+            throw badRequest(name, e);
+        }
+    }
+
+    private static WebStatusException badRequest(String name, IllegalArgumentException e) {
+        return new WebStatusException(400, "Invalid query parameter '" + name + "', " + e.getMessage());
+    }
+
+    private static boolean parseBoolean(String value) {
+        if (value.equalsIgnoreCase("true")) {
+            return true;
+        } else if (value.equalsIgnoreCase("false")) {
+            return false;
+        }
+        throw new IllegalArgumentException("Not a boolean, was '" + value + "'");
+    }
+}
@@ -15,14 +15,21 @@
  */
 package app.packed.web;
 
+import static java.util.Objects.requireNonNull;
+
 import app.packed.extension.Extension;
 import app.packed.extension.ExtensionHandle;
+import app.packed.web.spi.HttpServerEngine;
+import internal.app.packed.web.WebServerSettings;
 
 /**
  *
  */
 public final class WebExtension extends Extension<WebExtension> {
 
+    /** The settings of the web server, only used by the application root extension. */
+    private final WebServerSettings settings = new WebServerSettings();
+
     /**
      * @param handle
      */
@@ -30,4 +37,49 @@ public final class WebExtension extends Extension<WebExtension> {
         super(handle);
     }
 
+    /**
+     * Sets the engine of the web server. The default engine is {@link HttpServerEngine#jdk()}.
+     *
+     * @param engine
+     *            the engine to use
+     * @return this extension
+     */
+    public WebExtension engine(HttpServerEngine engine) {
+        requireNonNull(engine, "engine is null");
+        checkIsConfigurable();
+        settings().engine = engine;
+        return this;
+    }
+
+    /**
+     * Sets the port the web server listens on. The default port is 8080.
+     *
+     * @param port
+     *            the port, or 0 to use any free port
+     * @return this extension
+     * @throws IllegalArgumentException
+     *             if the port is outside of the range of valid ports
+     */
+    public WebExtension port(int port) {
+        if (port < 0 || port > 0xFFFF) {
+            throw new IllegalArgumentException("Port out of range, was " + port);
+        }
+        checkIsConfigurable();
+        settings().port = port;
+        return this;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    protected void onClose() {
+        // Only invoked on the application root, once every operation has been registered
+        settings.compileRouter();
+        super.onClose();
+    }
+
+    /** {@return the settings of the web server, which are shared by all containers in the application} */
+    WebServerSettings settings() {
+        WebExtension root = applicationRoot();
+        return root == this ? settings : root.settings;
+    }
 }
@@ -30,6 +30,13 @@ import internal.app.packed.web.WebGetOperationHandle;
 @OnAnnotatedMethod(allowInvoke = true, introspector = WebGetBeanIntrospector.class)
 public @interface WebGet {
 
+    /**
+     * {@return the URL pattern of the operation}
+     * <p>
+     * A pattern consists of static segments, {@code {name}} segments that capture a single segment of the path, and an
+     * optional final wildcard, {@code *} or {@code {name*}}, that captures the remainder of the path. Captured segments can
+     * be bound to operation parameters using {@link PathParam}.
+     */
     String url() default "/";
 }
 
@@ -38,7 +45,7 @@ final class WebGetBeanIntrospector extends BeanIntrospector<WebExtension> {
     /** {@inheritDoc} */
     @Override
     public void onAnnotatedMethod(Annotation annotation, BeanIntrospector.OnMethod method) {
-        WebGetOperationHandle.onWebGetAnnotation(this, method, (WebGet) annotation);
+        WebGetOperationHandle.onWebGetAnnotation(this, method, (WebGet) annotation, extension().settings());
     }
 }
 
@@ -16,6 +16,8 @@
 package app.packed.web;
 
 import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
 
 import app.packed.application.App;
 import app.packed.application.ApplicationMirror;
@@ -59,6 +61,18 @@ public class WebTest extends BaseAssembly {
             ctx.write("{\"status\":\"ok\"}", "application/json");
         }
 
+        @WebGet(url = "/users/{id}")
+        public void user(HttpResponse response, @PathParam("id") long id) throws IOException {
+            response.write("{\"id\":" + id + "}", "application/json");
+        }
+
+        @WebGet(url = "/export")
+        public void export(OutputStream out) throws IOException {
+            for (int i = 0; i < 100_000; i++) {
+                out.write(("line " + i + "\n").getBytes(StandardCharsets.UTF_8));
+            }
+        }
+
         @WebGet(url = "/jsons")
         public void json(SessionContext ctx) {
            System.out.println(ctx.getClass());
@@ -0,0 +1,131 @@
+/*
+ * Copyright (c) 2026 Kasper Nielsen.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package app.packed.web.spi;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.time.Duration;
+
+import internal.app.packed.web.engine.JdkHttpServerEngine;
+import internal.app.packed.web.engine.NioHttpServerEngine;
+
+/**
+ * An engine that accepts HTTP connections and hands every request to a single {@link Handler}.
+ * <p>
+ * Handlers are always invoked on a virtual thread, so they are free to block. The engine closes the exchange once the
+ * handler returns.
+ *
+ * @see app.packed.web.WebExtension#engine(HttpServerEngine)
+ */
+public interface HttpServerEngine {
+
+    /**
+     * Starts a new server.
+     *
+     * @param address
+     *            the address to bind to
+     * @param handler
+     *            the handler of all requests
+     * @return the running server
+     * @throws java.net.BindException
+     *             if the address is already in use
+     * @throws IOException
+     *             if the server could not be started
+     */
+    Server start(InetSocketAddress address, Handler handler) throws IOException;
+
+    /** {@return an engine based on the {@code com.sun.net.httpserver} server included in the JDK} */
+    static HttpServerEngine jdk() {
+        return new JdkHttpServerEngine();
+    }
+
+    /**
+     * Returns a selector based HTTP/1.1 engine with a single acceptor thread, and a worker thread per available processor.
+     *
+     * @return the engine
+     */
+    static HttpServerEngine nio() {
+        return nio(1, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Returns a selector based HTTP/1.1 engine.
+     * <p>
+     * Connections are accepted by the acceptor threads and distributed round-robin among the worker threads. Each worker
+     * owns a selector and does all I/O for its connections using pooled direct buffers. Connections are kept alive, and
+     * pipelined requests are answered in order. Connections that make no progress reading a request or writing a response
+     * for 30 seconds are closed.
+     *
+     * @param acceptors
+     *            the number of acceptor threads
+     * @param workers
+     *            the number of worker threads
+     * @return the engine
+     * @throws IllegalArgumentException
+     *             if acceptors or workers is less than 1
+     */
+    static HttpServerEngine nio(int acceptors, int workers) {
+        return nio(acceptors, workers, NioHttpServerEngine.DEFAULT_TIMEOUT);
+    }
+
+    /**
+     * Returns a selector based HTTP/1.1 engine, with the specified timeout.
+     * <p>
+     * A connection is closed if it has been idle, waiting for the next request, for longer than the timeout. Or if no
+     * part of a request has been read, or no part of a response has been written, for longer than the timeout. Time spent
+     * waiting for a handler does not count.
+     *
+     * @param acceptors
+     *            the number of acceptor threads
+     * @param workers
+     *            the number of worker threads
+     * @param timeout
+     *            the idle and read/write timeout of connections
+     * @return the engine
+     * @throws IllegalArgumentException
+     *             if acceptors or workers is less than 1, or if the timeout is not positive
+     * @see #nio(int, int)
+     */
+    static HttpServerEngine nio(int acceptors, int workers, Duration timeout) {
+        return new NioHttpServerEngine(acceptors, workers, timeout);
+    }
+
+    /** Handles a single HTTP request. */
+    @FunctionalInterface
+    interface Handler {
+
+        /**
+         * Handles the specified exchange.
+         *
+         * @param exchange
+         *            the exchange
+         * @throws IOException
+         *             if an I/O error occurs
+         */
+        void handle(HttpServerExchange exchange) throws IOException;
+    }
+
+    /** A running server. */
+    interface Server extends AutoCloseable {
+
+        /** {@return the address the server is bound to} */
+        InetSocketAddress address();
+
+        /** Stops the server, closing all connections. */
+        @Override
+        void close();
+    }
+}
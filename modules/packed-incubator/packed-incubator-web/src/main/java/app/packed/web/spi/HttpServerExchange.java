@@ -0,0 +1,167 @@
+/*
+ * Copyright (c) 2026 Kasper Nielsen.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package app.packed.web.spi;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+
+import org.jspecify.annotations.Nullable;
+
+import com.sun.net.httpserver.Headers;
+
+/**
+ * A single HTTP request and its response, as seen by an {@link HttpServerEngine}.
+ * <p>
+ * A response is started by calling {@link #sendResponseHeaders(int, long)}, or one of the {@code sendResponse} methods,
+ * exactly once. The response headers can be modified until then.
+ */
+public interface HttpServerExchange extends AutoCloseable {
+
+    /** {@return the request method, for example GET} */
+    String requestMethod();
+
+    /** {@return the request URI} */
+    URI requestURI();
+
+    /**
+     * Returns the first value of a request header.
+     *
+     * @param name
+     *            the case-insensitive name of the header
+     * @return the value, or null if the header is not present
+     */
+    @Nullable
+    String requestHeader(String name);
+
+    /** {@return all request headers} */
+    Headers requestHeaders();
+
+    /** {@return the request body, which is streamed as it is received} */
+    InputStream requestBody();
+
+    /** {@return the request body as a channel} */
+    default ReadableByteChannel requestBodyChannel() {
+        return Channels.newChannel(requestBody());
+    }
+
+    /** {@return the response headers} */
+    Headers responseHeaders();
+
+    /** {@return whether or not the response has been started} */
+    boolean isResponseStarted();
+
+    /**
+     * Starts the response.
+     *
+     * @param status
+     *            the status code
+     * @param length
+     *            the exact length of the response body, 0 if there is no body, or -1 if the length is not known in advance
+     * @return a stream the response body must be written to, closing it completes the response
+     * @throws IllegalStateException
+     *             if the response has already been started
+     * @throws IOException
+     *             if an I/O error occurs
+     */
+    OutputStream sendResponseHeaders(int status, long length) throws IOException;
+
+    /**
+     * Sends a complete response, with the remaining bytes of the specified buffer as the body.
+     * <p>
+     * The buffer is not modified, and may be reused once this method has returned. Engines may write the buffer directly
+     * to the connection, in which case the method blocks until it has been written.
+     *
+     * @param status
+     *            the status code
+     * @param body
+     *            the body
+     * @throws IllegalStateException
+     *             if the response has already been started
+     * @throws IOException
+     *             if an I/O error occurs
+     */
+    default void sendResponse(int status, ByteBuffer body) throws IOException {
+        ByteBuffer b = body.duplicate();
+        try (OutputStream os = sendResponseHeaders(status, b.remaining())) {
+            WritableByteChannel ch = Channels.newChannel(os);
+            while (b.hasRemaining()) {
+                ch.write(b);
+            }
+        }
+    }
+
+    /**
+     * Sends a complete response, with a region of a file as the body. The file channel is closed when the response has
+     * been sent.
+     * <p>
+     * Engines may transfer the region directly from the file system cache to the connection using
+     * {@link FileChannel#transferTo(long, long, WritableByteChannel)}.
+     *
+     * @param status
+     *            the status code
+     * @param file
+     *            the file
+     * @param position
+     *            the position of the first byte of the region
+     * @param count
+     *            the number of bytes in the region
+     * @throws IllegalStateException
+     *             if the response has already been started
+     * @throws IOException
+     *             if an I/O error occurs
+     */
+    default void sendResponse(int status, FileChannel file, long position, long count) throws IOException {
+        try (file; OutputStream os = sendResponseHeaders(status, count)) {
+            WritableByteChannel ch = Channels.newChannel(os);
+            for (long end = position + count; position < end;) {
+                long n = file.transferTo(position, end - position, ch);
+                if (n == 0 && position >= file.size()) {
+                    throw new EOFException("File is shorter than the specified count");
+                }
+                position += n;
+            }
+        }
+    }
+
+    /**
+     * Returns a scratch array of at least the specified length, that may be used by the handler until the exchange has
+     * been closed. The content of the array is undefined.
+     * <p>
+     * Engines that handle the requests of a connection one at a time can return the same array for every exchange of the
+     * connection. The default implementation allocates a new array.
+     *
+     * @param length
+     *            the minimum length of the array
+     * @return the array
+     */
+    default int[] scratch(int length) {
+        return new int[length];
+    }
+
+    /**
+     * Completes the exchange. If no response has been started, an empty response with status 500 is sent.
+     */
+    @Override
+    void close();
+}
@@ -16,34 +16,45 @@
 package internal.app.packed.web;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.OutputStream;
 import java.net.URI;
-import java.net.URLDecoder;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
 
 import com.sun.net.httpserver.Headers;
-import com.sun.net.httpserver.HttpExchange;
 
 import app.packed.web.HttpContext;
 import app.packed.web.HttpRequest;
 import app.packed.web.HttpResponse;
 import app.packed.web.session.SessionContext;
+import app.packed.web.spi.HttpServerExchange;
 
 /**
- * Implementation of HttpContext wrapping a HttpExchange.
+ * Implementation of HttpContext wrapping a HttpServerExchange.
  */
 public final class PackedHttpContext implements HttpContext {
 
-    final HttpExchange exchange;
+    final HttpServerExchange exchange;
     private final PackedHttpRequest request;
     private final PackedHttpResponse response;
 
-    public PackedHttpContext(HttpExchange exchange) {
+    public PackedHttpContext(HttpServerExchange exchange, String path, String[] names, int[] captures) {
         this.exchange = exchange;
-        this.request = new PackedHttpRequest(exchange);
+        this.request = new PackedHttpRequest(exchange, path, names, captures);
         this.response = new PackedHttpResponse(exchange);
     }
 
+    /** Sends an empty response with the current status code, if the operation did not write a response. */
+    void finish() throws IOException {
+        response.finish();
+    }
+
     @Override
     public HttpRequest request() {
         return request;
@@ -54,71 +65,133 @@ public final class PackedHttpContext implements HttpContext {
         return response;
     }
 
-    /** Implementation of HttpRequest wrapping HttpExchange. */
+    /** Implementation of HttpRequest wrapping HttpServerExchange. */
     static final class PackedHttpRequest implements HttpRequest {
 
-        private final HttpExchange exchange;
+        private final HttpServerExchange exchange;
+
+        /** The path that was routed. */
+        private final String path;
+
+        /** The names of the captures of the route. */
+        private final String[] names;
+
+        /** The start and end offset in the path of every capture. */
+        private final int[] captures;
 
-        PackedHttpRequest(HttpExchange exchange) {
+        /** The index of the query, or null if it has not been created. */
+        private QueryIndex query;
+
+        PackedHttpRequest(HttpServerExchange exchange, String path, String[] names, int[] captures) {
             this.exchange = exchange;
+            this.path = path;
+            this.names = names;
+            this.captures = captures;
         }
 
         @Override
         public URI uri() {
-            return exchange.getRequestURI();
+            return exchange.requestURI();
         }
 
         @Override
         public String method() {
-            return exchange.getRequestMethod();
+            return exchange.requestMethod();
         }
 
         @Override
         public String header(String name) {
-            return exchange.getRequestHeaders().getFirst(name);
+            return exchange.requestHeader(name);
         }
 
         @Override
         public Headers headers() {
-            return exchange.getRequestHeaders();
+            return exchange.requestHeaders();
         }
 
         @Override
-        public String queryParam(String name) {
-            String query = exchange.getRequestURI().getQuery();
-            if (query == null) {
-                return null;
-            }
-            for (String param : query.split("&")) {
-                String[] parts = param.split("=", 2);
-                if (parts[0].equals(name)) {
-                    return parts.length > 1 ? URLDecoder.decode(parts[1], StandardCharsets.UTF_8) : "";
+        public String pathParam(String name) {
+            for (int i = 0; i < names.length; i++) {
+                if (names[i].equals(name)) {
+                    return path.substring(captures[2 * i], captures[2 * i + 1]);
                 }
             }
             return null;
         }
 
+        @Override
+        public String queryParam(String name) {
+            return query().get(name);
+        }
+
+        @Override
+        public boolean hasQueryParam(String name) {
+            return query().contains(name);
+        }
+
+        @Override
+        public int queryParamAsInt(String name, int defaultValue) {
+            return query().getInt(name, defaultValue);
+        }
+
+        @Override
+        public long queryParamAsLong(String name, long defaultValue) {
+            return query().getLong(name, defaultValue);
+        }
+
+        @Override
+        public boolean queryParamAsBoolean(String name, boolean defaultValue) {
+            return query().getBoolean(name, defaultValue);
+        }
+
+        @Override
+        public <E extends Enum<E>> E queryParamAsEnum(String name, Class<E> type, E defaultValue) {
+            return query().getEnum(name, type, defaultValue);
+        }
+
+        /** {@return the index of the query, which is created on first use} */
+        private QueryIndex query() {
+            QueryIndex q = query;
+            if (q == null) {
+                q = query = QueryIndex.of(exchange.requestURI().getRawQuery());
+            }
+            return q;
+        }
+
         @Override
         public String body() throws IOException {
-            return new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+            return new String(exchange.requestBody().readAllBytes(), StandardCharsets.UTF_8);
+        }
+
+        @Override
+        public InputStream bodyStream() {
+            return exchange.requestBody();
+        }
+
+        @Override
+        public ReadableByteChannel bodyChannel() {
+            return exchange.requestBodyChannel();
         }
     }
 
-    /** Implementation of HttpResponse wrapping HttpExchange. */
+    /** Implementation of HttpResponse wrapping HttpServerExchange. */
     static final class PackedHttpResponse implements HttpResponse {
 
-        private final HttpExchange exchange;
+        private final HttpServerExchange exchange;
         private int statusCode = 200;
         private boolean headersSent = false;
 
-        PackedHttpResponse(HttpExchange exchange) {
+        /** The body stream, or null if it has not been requested. */
+        private BodyStream bodyStream;
+
+        PackedHttpResponse(HttpServerExchange exchange) {
             this.exchange = exchange;
         }
 
         @Override
         public void header(String name, String value) {
             if (!headersSent) {
-                exchange.getResponseHeaders().set(name, value);
+                exchange.responseHeaders().set(name, value);
             }
         }
 
@@ -140,12 +213,106 @@ public final class PackedHttpContext implements HttpContext {
                 return;
             }
             byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
-            exchange.getResponseHeaders().set("Content-Type", contentType);
-            exchange.sendResponseHeaders(statusCode, bytes.length);
-            try (OutputStream os = exchange.getResponseBody()) {
+            exchange.responseHeaders().set("Content-Type", contentType);
+            headersSent = true;
+            try (OutputStream os = exchange.sendResponseHeaders(statusCode, bytes.length)) {
                 os.write(bytes);
             }
+        }
+
+        @Override
+        public void write(ByteBuffer body, String contentType) throws IOException {
+            if (headersSent) {
+                return;
+            }
+            exchange.responseHeaders().set("Content-Type", contentType);
             headersSent = true;
+            exchange.sendResponse(statusCode, body);
+        }
+
+        @Override
+        public void write(Path file, String contentType) throws IOException {
+            if (headersSent) {
+                return;
+            }
+            FileChannel channel = FileChannel.open(file);
+            long size;
+            try {
+                size = channel.size();
+            } catch (IOException e) {
+                channel.close();
+                throw e;
+            }
+            exchange.responseHeaders().set("Content-Type", contentType);
+            headersSent = true;
+            exchange.sendResponse(statusCode, channel, 0, size);
+        }
+
+        @Override
+        public OutputStream bodyStream() {
+            BodyStream s = bodyStream;
+            if (s == null) {
+                s = bodyStream = new BodyStream();
+            }
+            return s;
+        }
+
+        @Override
+        public WritableByteChannel bodyChannel() {
+            return Channels.newChannel(bodyStream());
+        }
+
+        void finish() throws IOException {
+            if (bodyStream != null) {
+                bodyStream.close();
+            } else if (!headersSent) {
+                headersSent = true;
+                exchange.sendResponseHeaders(statusCode, 0).close();
+            }
+        }
+
+        /** A body stream that starts a chunked response when first used. */
+        private final class BodyStream extends OutputStream {
+
+            /** The stream of the started response, or null if the response has not been started. */
+            private OutputStream out;
+
+            private OutputStream out() throws IOException {
+                OutputStream o = out;
+                if (o == null) {
+                    if (headersSent) {
+                        throw new IOException("The response has already been written");
+                    }
+                    if (!exchange.responseHeaders().containsKey("Content-Type")) {
+                        exchange.responseHeaders().set("Content-Type", "application/octet-stream");
+                    }
+                    headersSent = true;
+                    o = out = exchange.sendResponseHeaders(statusCode, -1);
+                }
+                return o;
+            }
+
+            @Override
+            public void write(int b) throws IOException {
+                out().write(b);
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                out().write(b, off, len);
+            }
+
+            @Override
+            public void flush() throws IOException {
+                out().flush();
+            }
+
+            @Override
+            public void close() throws IOException {
+                if (out != null || !headersSent) {
+                    out().close();
+                }
+            }
         }
     }
 
@@ -0,0 +1,254 @@
+/*
+ * Copyright (c) 2026 Kasper Nielsen.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package internal.app.packed.web;
+
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import org.jspecify.annotations.Nullable;
+
+/**
+ * An index of the parameters of a raw (undecoded) query string.
+ * <p>
+ * The query is scanned once, recording the start and end offset of the name and value of every parameter. Looking up
+ * a parameter compares the name directly against the query. Values are only decoded if they contain escapes, and the
+ * typed accessors parse numbers directly from the query without creating any objects. If a parameter is specified more
+ * than once, the first value is used.
+ * <p>
+ * Numbers are parsed with {@code +} taken literally, so {@code n=+5} is 5 and not a space followed by 5.
+ */
+final class QueryIndex {
+
+    /** An index of an empty query. */
+    static final QueryIndex EMPTY = new QueryIndex("", new int[0], 0);
+
+    /** The number of entries per parameter in {@link #offsets}. */
+    private static final int STRIDE = 5;
+
+    /** Offsets of a parameter: name start, name end, value start, value end, flags. */
+    private static final int NAME_START = 0, NAME_END = 1, VALUE_START = 2, VALUE_END = 3, FLAGS = 4;
+
+    /** Flags indicating that the name or value contains escapes, and that the value contains percent escapes. */
+    private static final int NAME_ENCODED = 1, VALUE_ENCODED = 2, VALUE_PERCENT_ENCODED = 4;
+
+    /** Caches the constants of enum classes, as {@link Class#getEnumConstants()} returns a new array for every call. */
+    private static final ClassValue<Enum<?>[]> ENUM_CONSTANTS = new ClassValue<>() {
+        @Override
+        protected Enum<?>[] computeValue(Class<?> type) {
+            return (Enum<?>[]) type.getEnumConstants();
+        }
+    };
+
+    /** The raw query. */
+    private final String query;
+
+    /** The offsets of every parameter, {@link #STRIDE} entries per parameter. */
+    private final int[] offsets;
+
+    /** The number of parameters. */
+    private final int count;
+
+    private QueryIndex(String query, int[] offsets, int count) {
+        this.query = query;
+        this.offsets = offsets;
+        this.count = count;
+    }
+
+    /**
+     * Returns the decoded value of the specified parameter.
+     *
+     * @param name
+     *            the name of the parameter
+     * @return the value, the empty string if the parameter has no value, or null if the parameter is not present
+     */
+    @Nullable
+    String get(String name) {
+        int i = indexOf(name);
+        return i < 0 ? null : value(i);
+    }
+
+    /** {@return whether or not the specified parameter is present} */
+    boolean contains(String name) {
+        return indexOf(name) >= 0;
+    }
+
+    /**
+     * Returns the value of the specified parameter as an int.
+     *
+     * @throws NumberFormatException
+     *             if the value is not a valid int
+     */
+    int getInt(String name, int defaultValue) {
+        int i = indexOf(name);
+        if (i < 0) {
+            return defaultValue;
+        } else if ((offsets[i + FLAGS] & VALUE_PERCENT_ENCODED) != 0) {
+            return Integer.parseInt(numericValue(i));
+        }
+        return Integer.parseInt(query, offsets[i + VALUE_START], offsets[i + VALUE_END], 10);
+    }
+
+    /**
+     * Returns the value of the specified parameter as a long.
+     *
+     * @throws NumberFormatException
+     *             if the value is not a valid long
+     */
+    long getLong(String name, long defaultValue) {
+        int i = indexOf(name);
+        if (i < 0) {
+            return defaultValue;
+        } else if ((offsets[i + FLAGS] & VALUE_PERCENT_ENCODED) != 0) {
+            return Long.parseLong(numericValue(i));
+        }
+        return Long.parseLong(query, offsets[i + VALUE_START], offsets[i + VALUE_END], 10);
+    }
+
+    /**
+     * Returns the value of the specified parameter as a boolean. A parameter without a value is {@code true}.
+     *
+     * @throws IllegalArgumentException
+     *             if the value is not {@code true} or {@code false}
+     */
+    boolean getBoolean(String name, boolean defaultValue) {
+        int i = indexOf(name);
+        if (i < 0) {
+            return defaultValue;
+        }
+        String s = query;
+        int start = offsets[i + VALUE_START];
+        int len = offsets[i + VALUE_END] - start;
+        if ((offsets[i + FLAGS] & VALUE_ENCODED) != 0) {
+            s = value(i);
+            start = 0;
+            len = s.length();
+        }
+        if (len == 0 || (len == 4 && s.regionMatches(true, start, "true", 0, 4))) {
+            return true;
+        } else if (len == 5 && s.regionMatches(true, start, "false", 0, 5)) {
+            return false;
+        }
+        throw new IllegalArgumentException("Query parameter '" + name + "' is not a boolean, was '" + value(i) + "'");
+    }
+
+    /**
+     * Returns the value of the specified parameter as an enum constant, matching the name of the constant.
+     *
+     * @throws IllegalArgumentException
+     *             if the value is not the name of a constant of the enum
+     */
+    <E extends Enum<E>> E getEnum(String name, Class<E> type, E defaultValue) {
+        int i = indexOf(name);
+        if (i < 0) {
+            return defaultValue;
+        }
+        String s = query;
+        int start = offsets[i + VALUE_START];
+        int len = offsets[i + VALUE_END] - start;
+        if ((offsets[i + FLAGS] & VALUE_ENCODED) != 0) {
+            s = value(i);
+            start = 0;
+            len = s.length();
+        }
+        for (Enum<?> e : ENUM_CONSTANTS.get(type)) {
+            String n = e.name();
+            if (n.length() == len && s.regionMatches(start, n, 0, len)) {
+                return type.cast(e);
+            }
+        }
+        throw new IllegalArgumentException("Query parameter '" + name + "' is not a " + type.getSimpleName() + ", was '" + value(i) + "'");
+    }
+
+    /** {@return the decoded value of the parameter at the specified index in offsets} */
+    private String value(int i) {
+        String value = query.substring(offsets[i + VALUE_START], offsets[i + VALUE_END]);
+        return (offsets[i + FLAGS] & VALUE_ENCODED) == 0 ? value : URLDecoder.decode(value, StandardCharsets.UTF_8);
+    }
+
+    /** {@return the percent decoded value of the parameter at the specified index in offsets, keeping any + as it is} */
+    private String numericValue(int i) {
+        String value = query.substring(offsets[i + VALUE_START], offsets[i + VALUE_END]);
+        return URLDecoder.decode(value.replace("+", "%2B"), StandardCharsets.UTF_8);
+    }
+
+    /** {@return the index in offsets of the first parameter with the specified name, or -1} */
+    private int indexOf(String name) {
+        int len = name.length();
+        for (int i = 0; i < count * STRIDE; i += STRIDE) {
+            int start = offsets[i + NAME_START];
+            int end = offsets[i + NAME_END];
+            if ((offsets[i + FLAGS] & NAME_ENCODED) != 0) {
+                if (URLDecoder.decode(query.substring(start, end), StandardCharsets.UTF_8).equals(name)) {
+                    return i;
+                }
+            } else if (end - start == len && query.regionMatches(start, name, 0, len)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Indexes the specified raw query.
+     *
+     * @param query
+     *            the raw query, or null
+     * @return the index
+     */
+    static QueryIndex of(@Nullable String query) {
+        if (query == null || query.isEmpty()) {
+            return EMPTY;
+        }
+        int[] offsets = new int[4 * STRIDE];
+        int count = 0;
+        int length = query.length();
+        for (int start = 0; start <= length;) {
+            int end = query.indexOf('&', start);
+            if (end < 0) {
+                end = length;
+            }
+            if (end > start) {
+                if ((count + 1) * STRIDE > offsets.length) {
+                    offsets = Arrays.copyOf(offsets, offsets.length * 2);
+                }
+                int eq = start;
+                int flags = 0;
+                while (eq < end && query.charAt(eq) != '=') {
+                    flags |= isEscape(query.charAt(eq)) ? NAME_ENCODED : 0;
+                    eq++;
+                }
+                int valueStart = Math.min(eq + 1, end);
+                for (int j = valueStart; j < end; j++) {
+                    char c = query.charAt(j);
+                    flags |= c == '%' ? VALUE_ENCODED | VALUE_PERCENT_ENCODED : isEscape(c) ? VALUE_ENCODED : 0;
+                }
+                int o = count++ * STRIDE;
+                offsets[o + NAME_START] = start;
+                offsets[o + NAME_END] = eq;
+                offsets[o + VALUE_START] = valueStart;
+                offsets[o + VALUE_END] = end;
+                offsets[o + FLAGS] = flags;
+            }
+            start = end + 1;
+        }
+        return new QueryIndex(query, offsets, count);
+    }
+
+    private static boolean isEscape(char c) {
+        return c == '%' || c == '+';
+    }
+}
@@ -15,10 +15,16 @@
  */
 package internal.app.packed.web;
 
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+
 import app.packed.bean.BeanIntrospector;
 import app.packed.extension.SidehandleBeanConfiguration;
 import app.packed.extension.SidehandleTargetKind;
 import app.packed.operation.OperationConfiguration;
+import app.packed.operation.Op1;
 import app.packed.operation.OperationInstaller;
 import app.packed.web.HttpContext;
 import app.packed.web.WebExtension;
@@ -51,10 +57,19 @@ public final class WebGetOperationHandle extends BaseExtensionOperationHandle<Op
     /**
      * Called when a @WebGet annotation is found on a method.
      */
-    public static void onWebGetAnnotation(BeanIntrospector<WebExtension> introspector, BeanIntrospector.OnMethod method, WebGet annotation) {
+    public static void onWebGetAnnotation(BeanIntrospector<WebExtension> introspector, BeanIntrospector.OnMethod method, WebGet annotation,
+            WebServerSettings settings) {
+        try {
+            settings.addPattern(annotation.url());
+        } catch (IllegalArgumentException e) {
+            method.failWith("Invalid @WebGet url: " + e.getMessage());
+        }
 
         // Install server manager as singleton (only once per application)
-        introspector.applicationBase().installIfAbsent(WebServerManager.class, c -> c.provide());
+        introspector.applicationBase().installIfAbsent(WebServerManager.class, c -> {
+            c.provide();
+            c.bindConstant(WebServerSettings.class, settings);
+        });
 
         // Install sidehandle per operation
         SidehandleBeanConfiguration<WebServerSidehandle> sideBean = introspector.applicationBase().installSidebeanIfAbsent(WebServerSidehandle.class,
@@ -64,6 +79,20 @@ public final class WebGetOperationHandle extends BaseExtensionOperationHandle<Op
         WebGetOperationHandle handle = method.newOperation().addContext(HttpContext.class).attachToSidebean(sideBean).install(WebGetOperationHandle::new);
 
         handle.urlPattern = annotation.url();
+
+        // Bind request and response body streams and channels
+        for (int i = 0; i < handle.type().parameterCount(); i++) {
+            Class<?> type = handle.type().parameter(i).rawType();
+            if (type == InputStream.class) {
+                handle.bindable(i).bindOp(new Op1<HttpContext, InputStream>(c -> c.request().bodyStream()) {});
+            } else if (type == ReadableByteChannel.class) {
+                handle.bindable(i).bindOp(new Op1<HttpContext, ReadableByteChannel>(c -> c.request().bodyChannel()) {});
+            } else if (type == OutputStream.class) {
+                handle.bindable(i).bindOp(new Op1<HttpContext, OutputStream>(c -> c.response().bodyStream()) {});
+            } else if (type == WritableByteChannel.class) {
+                handle.bindable(i).bindOp(new Op1<HttpContext, WritableByteChannel>(c -> c.response().bodyChannel()) {});
+            }
+        }
     }
 
     @Override
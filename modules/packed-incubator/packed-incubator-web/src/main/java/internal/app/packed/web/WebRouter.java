@@ -0,0 +1,293 @@
+/*
+ * Copyright (c) 2026 Kasper Nielsen.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package internal.app.packed.web;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.jspecify.annotations.Nullable;
+
+/**
+ * An immutable trie of URL patterns, compiled once when the application is built.
+ * <p>
+ * A pattern is a sequence of {@code /} separated segments. A segment is either a static string, a {@code {name}} capture
+ * that matches any non-empty segment, or, as the last segment only, a wildcard that matches the remainder of the path.
+ * A wildcard is either {@code *} or a named {@code {name*}}.
+ * <p>
+ * Matching walks the path a segment at a time. Static segments are looked up in an open addressing table using a hash
+ * computed directly from the characters of the path, so matching never creates any objects. Captures are recorded as
+ * offsets into the path. Static segments take precedence over captures, which take precedence over wildcards.
+ */
+public final class WebRouter {
+
+    /** A router without any routes. */
+    public static final WebRouter EMPTY = new WebRouter(List.of());
+
+    /** The root of the trie. */
+    private final Node root = new Node();
+
+    /** The patterns of all routes, indexed by route. */
+    private final String[] patterns;
+
+    /** The names of the captures of each route, indexed by route. */
+    private final String[][] names;
+
+    /** The maximum number of captures of any route. */
+    private final int maxCaptures;
+
+    /**
+     * Compiles the specified patterns. The index of a pattern in the list is its route.
+     *
+     * @param patterns
+     *            the patterns to compile
+     * @throws IllegalArgumentException
+     *             if a pattern is invalid, or if two patterns match the same paths
+     */
+    public WebRouter(List<String> patterns) {
+        this.patterns = patterns.toArray(String[]::new);
+        this.names = new String[this.patterns.length][];
+        int max = 0;
+        for (int route = 0; route < this.patterns.length; route++) {
+            String pattern = this.patterns[route];
+            names[route] = insert(pattern, route);
+            max = Math.max(max, names[route].length);
+        }
+        this.maxCaptures = max;
+        root.freeze();
+    }
+
+    /** Adds the specified pattern to the trie, returning the names of its captures. */
+    private String[] insert(String pattern, int route) {
+        List<String> captures = new ArrayList<>();
+        Node n = root;
+        String[] segments = segments(pattern);
+        for (int i = 0; i < segments.length; i++) {
+            String s = segments[i];
+            boolean last = i == segments.length - 1;
+            if (s.equals("*") || (s.startsWith("{") && s.endsWith("*}"))) {
+                if (!last) {
+                    throw new IllegalArgumentException("A wildcard must be the last segment of the pattern '" + pattern + "'");
+                } else if (n.wildcardRoute >= 0) {
+                    throw new IllegalArgumentException("The pattern '" + pattern + "' conflicts with '" + patterns[n.wildcardRoute] + "'");
+                }
+                captures.add(s.equals("*") ? "*" : name(pattern, s.substring(1, s.length() - 2), captures));
+                n.wildcardRoute = route;
+                return captures.toArray(String[]::new);
+            } else if (s.startsWith("{") && s.endsWith("}")) {
+                captures.add(name(pattern, s.substring(1, s.length() - 1), captures));
+                if (n.param == null) {
+                    n.param = new Node();
+                }
+                n = n.param;
+            } else if (s.indexOf('{') >= 0 || s.indexOf('}') >= 0 || s.indexOf('*') >= 0) {
+                throw new IllegalArgumentException("Invalid segment '" + s + "' in pattern '" + pattern + "'");
+            } else {
+                n = n.building.computeIfAbsent(s, _ -> new Node());
+            }
+        }
+        if (n.route >= 0) {
+            throw new IllegalArgumentException("The pattern '" + pattern + "' conflicts with '" + patterns[n.route] + "'");
+        }
+        n.route = route;
+        return captures.toArray(String[]::new);
+    }
+
+    /**
+     * Returns the route matching the specified path.
+     *
+     * @param path
+     *            the path to match
+     * @param captures
+     *            an array of at least {@link #captureSlots()} length, receiving the start and end offset of every capture
+     * @return the matching route, or -1 if no route matches the path
+     */
+    public int match(String path, int[] captures) {
+        if (path.isEmpty() || path.charAt(0) != '/') {
+            return -1;
+        }
+        return match(root, path, 1, 0, captures);
+    }
+
+    private static int match(Node n, String path, int start, int capture, int[] captures) {
+        int end = path.indexOf('/', start);
+        boolean last = end < 0;
+        if (last) {
+            end = path.length();
+        }
+        Node c = n.find(path, start, end);
+        if (c != null) {
+            int r = last ? c.route : match(c, path, end + 1, capture, captures);
+            if (r >= 0) {
+                return r;
+            }
+        }
+        c = n.param;
+        if (c != null && end > start) {
+            captures[2 * capture] = start;
+            captures[2 * capture + 1] = end;
+            int r = last ? c.route : match(c, path, end + 1, capture + 1, captures);
+            if (r >= 0) {
+                return r;
+            }
+        }
+        if (n.wildcardRoute >= 0) {
+            captures[2 * capture] = start;
+            captures[2 * capture + 1] = path.length();
+        }
+        return n.wildcardRoute;
+    }
+
+    /** {@return the length of the array needed for recording the captures of any route} */
+    public int captureSlots() {
+        return 2 * maxCaptures;
+    }
+
+    /**
+     * Returns the route of the specified pattern.
+     *
+     * @param pattern
+     *            the pattern
+     * @return the route, or -1 if the router does not contain the pattern
+     */
+    public int indexOf(String pattern) {
+        for (int i = 0; i < patterns.length; i++) {
+            if (patterns[i].equals(pattern)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /** {@return the names of the captures of the specified route, in the order they appear in the pattern} */
+    public String[] names(int route) {
+        return names[route];
+    }
+
+    /** {@return the number of routes} */
+    public int size() {
+        return patterns.length;
+    }
+
+    /**
+     * Checks that the specified pattern is valid.
+     *
+     * @param pattern
+     *            the pattern to check
+     * @throws IllegalArgumentException
+     *             if the pattern is not valid
+     */
+    public static void validate(String pattern) {
+        new WebRouter(List.of(pattern));
+    }
+
+    private static String[] segments(String pattern) {
+        if (!pattern.startsWith("/")) {
+            throw new IllegalArgumentException("A pattern must start with '/', was '" + pattern + "'");
+        } else if (pattern.indexOf('?') >= 0) {
+            throw new IllegalArgumentException("A pattern cannot contain a query, was '" + pattern + "'");
+        }
+        return pattern.substring(1).split("/", -1);
+    }
+
+    private static String name(String pattern, String name, List<String> existing) {
+        if (name.isEmpty()) {
+            throw new IllegalArgumentException("Missing capture name in pattern '" + pattern + "'");
+        } else if (existing.contains(name)) {
+            throw new IllegalArgumentException("Capture '" + name + "' is specified more than once in pattern '" + pattern + "'");
+        }
+        return name;
+    }
+
+    /** {@return the hash of the characters in the specified range, the spread hash code of the substring} */
+    private static int hash(String s, int start, int end) {
+        int h = 0;
+        for (int i = start; i < end; i++) {
+            h = 31 * h + s.charAt(i);
+        }
+        return h ^ (h >>> 16);
+    }
+
+    /** A node in the trie. */
+    private static final class Node {
+
+        /** Static children while the trie is being built. */
+        @Nullable
+        private Map<String, Node> building = new HashMap<>();
+
+        /** The keys of static children, a power of two sized open addressing table. */
+        private String @Nullable [] keys;
+
+        /** The static children, indexed like {@link #keys}. */
+        private Node[] children;
+
+        /** The child of a capture segment, or null. */
+        @Nullable
+        private Node param;
+
+        /** The route of the pattern ending at this node, or -1. */
+        private int route = -1;
+
+        /** The route of a wildcard pattern ending at this node, or -1. */
+        private int wildcardRoute = -1;
+
+        /** Replaces the map of static children with an open addressing table. */
+        private void freeze() {
+            Map<String, Node> m = building;
+            building = null;
+            if (!m.isEmpty()) {
+                int size = Integer.highestOneBit(m.size() * 2 - 1) << 1;
+                keys = new String[size];
+                children = new Node[size];
+                for (Map.Entry<String, Node> e : m.entrySet()) {
+                    String k = e.getKey();
+                    int i = hash(k, 0, k.length()) & (size - 1);
+                    while (keys[i] != null) {
+                        i = (i + 1) & (size - 1);
+                    }
+                    keys[i] = k;
+                    children[i] = e.getValue();
+                }
+                for (Node n : m.values()) {
+                    n.freeze();
+                }
+            }
+            if (param != null) {
+                param.freeze();
+            }
+        }
+
+        /** {@return the static child matching the specified range of the path, or null} */
+        @Nullable
+        private Node find(String path, int start, int end) {
+            String[] k = keys;
+            if (k == null) {
+                return null;
+            }
+            int len = end - start;
+            int mask = k.length - 1;
+            for (int i = hash(path, start, end) & mask;; i = (i + 1) & mask) {
+                String key = k[i];
+                if (key == null) {
+                    return null;
+                } else if (key.length() == len && path.regionMatches(start, key, 0, len)) {
+                    return children[i];
+                }
+            }
+        }
+    }
+}
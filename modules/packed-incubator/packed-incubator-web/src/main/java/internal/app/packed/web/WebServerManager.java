@@ -16,71 +16,112 @@
 package internal.app.packed.web;
 
 import java.io.IOException;
+import java.lang.System.Logger.Level;
 import java.net.BindException;
 import java.net.InetSocketAddress;
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.Executors;
-
-import com.sun.net.httpserver.HttpHandler;
-import com.sun.net.httpserver.HttpServer;
 
 import app.packed.lifecycle.Start;
 import app.packed.lifecycle.Stop;
 import app.packed.web.PortInUseException;
+import app.packed.web.spi.HttpServerEngine;
+import app.packed.web.spi.HttpServerExchange;
 
 /**
  * Manages the HTTP server lifecycle for the application.
+ * <p>
+ * Every request is handled by a single root handler, that routes it using the {@link WebRouter} compiled from the URL
+ * patterns of all operations when the application was built.
  */
 public final class WebServerManager {
 
-    private HttpServer server;
-    private final Map<String, HttpHandler> handlers = new ConcurrentHashMap<>();
-    private final int port = 8080;
+    private static final System.Logger LOGGER = System.getLogger(WebServerManager.class.getName());
+
+    private static final int[] NO_CAPTURES = {};
+
+    private final WebServerSettings settings;
+    private final WebRouter router;
+    private HttpServerEngine.Server server;
+
+    /** The handler of each route of the router. */
+    private final RouteHandler[] handlers;
+
+    public WebServerManager(WebServerSettings settings) {
+        this.settings = settings;
+        this.router = settings.router();
+        this.handlers = new RouteHandler[router.size()];
+    }
 
     @Start
     public void onStart() throws IOException {
         try {
-            server = HttpServer.create(new InetSocketAddress(port), 0);
+            server = settings.engine.start(new InetSocketAddress(settings.port), this::dispatch);
         } catch (BindException e) {
-            throw new PortInUseException(port, e);
-        }
-
-        // Register all handlers that were added during build phase
-        for (Map.Entry<String, HttpHandler> entry : handlers.entrySet()) {
-            server.createContext(entry.getKey(), entry.getValue());
+            throw new PortInUseException(settings.port, e);
         }
-
-        server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
-        server.start();
-        System.out.println("HTTP Server started on port " + port);
+        LOGGER.log(Level.INFO, "HTTP server started on port {0}", server.address().getPort());
     }
 
     @Stop
     public void onStop() {
         if (server != null) {
-            server.stop(1);
-            System.out.println("HTTP Server stopped");
+            server.close();
+            LOGGER.log(Level.INFO, "HTTP server stopped");
+        }
+    }
+
+    /** Routes a request to the handler of the matching route. */
+    private void dispatch(HttpServerExchange exchange) throws IOException {
+        String path = exchange.requestURI().getPath();
+        // Engines that handle the requests of a connection one at a time reuse the same array for every request
+        int[] captures = router.captureSlots() == 0 ? NO_CAPTURES : exchange.scratch(router.captureSlots());
+        int route = path == null ? -1 : router.match(path, captures);
+        RouteHandler handler = route < 0 ? null : handlers[route];
+        if (handler == null) {
+            exchange.sendResponseHeaders(404, 0).close();
+        } else {
+            handler.handle(exchange, path, router.names(route), captures);
         }
     }
 
     /**
-     * Registers a handler for the given path.
+     * Registers the handler of the operation with the given URL pattern.
      */
-    public void registerHandler(String path, HttpHandler handler) {
-        handlers.put(path, handler);
-        if (server != null) {
-            server.createContext(path, handler);
-        }
+    public void registerHandler(String urlPattern, RouteHandler handler) {
+        handlers[route(urlPattern)] = handler;
     }
 
     /**
-     * Unregisters a handler for the given path.
+     * Unregisters the handler of the operation with the given URL pattern.
      */
-    public void unregisterHandler(String path) {
-        handlers.remove(path);
-        if (server != null) {
-            server.removeContext(path);
+    public void unregisterHandler(String urlPattern) {
+        handlers[route(urlPattern)] = null;
+    }
+
+    private int route(String urlPattern) {
+        int route = router.indexOf(urlPattern);
+        if (route < 0) {
+            throw new IllegalStateException("No route for " + urlPattern);
         }
+        return route;
+    }
+
+    /** Handles requests matching a single route. */
+    interface RouteHandler {
+
+        /**
+         * Handles a request.
+         *
+         * @param exchange
+         *            the exchange
+         * @param path
+         *            the path of the request
+         * @param names
+         *            the names of the captures of the route
+         * @param captures
+         *            the start and end offset in the path of every capture
+         * @throws IOException
+         *             if an I/O error occurs
+         */
+        void handle(HttpServerExchange exchange, String path, String[] names, int[] captures) throws IOException;
     }
 }
@@ -0,0 +1,65 @@
+/*
+ * Copyright (c) 2026 Kasper Nielsen.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package internal.app.packed.web;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import app.packed.build.BuildException;
+import app.packed.web.spi.HttpServerEngine;
+
+/** The settings of the web server of an application. Configured on the application root {@link app.packed.web.WebExtension}. */
+public final class WebServerSettings {
+
+    /** The port to listen on. */
+    public int port = 8080;
+
+    /** The engine used for the server. */
+    public HttpServerEngine engine = HttpServerEngine.jdk();
+
+    /** The URL patterns of all operations, collected while the application is being built. */
+    private final List<String> patterns = new ArrayList<>();
+
+    /** The router, compiled from the patterns when the application has been built. */
+    private WebRouter router = WebRouter.EMPTY;
+
+    /**
+     * Adds the URL pattern of an operation.
+     *
+     * @param pattern
+     *            the pattern
+     * @throws IllegalArgumentException
+     *             if the pattern is not valid
+     */
+    public void addPattern(String pattern) {
+        WebRouter.validate(pattern);
+        patterns.add(pattern);
+    }
+
+    /** Compiles the router from the URL patterns of all operations. */
+    public void compileRouter() {
+        try {
+            router = new WebRouter(patterns);
+        } catch (IllegalArgumentException e) {
+            throw new BuildException(e.getMessage(), e);
+        }
+    }
+
+    /** {@return the router} */
+    public WebRouter router() {
+        return router;
+    }
+}
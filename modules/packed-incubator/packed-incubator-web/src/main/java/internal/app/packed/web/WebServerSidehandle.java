@@ -19,21 +19,23 @@ import static java.util.Objects.requireNonNull;
 
 import java.io.IOException;
 import java.io.OutputStream;
+import java.lang.System.Logger.Level;
 import java.nio.charset.StandardCharsets;
 
-import com.sun.net.httpserver.HttpExchange;
-
 import app.packed.extension.SidehandleBinding;
 import app.packed.extension.SidehandleBinding.Kind;
 import app.packed.lifecycle.Start;
 import app.packed.lifecycle.Stop;
 import app.packed.web.HttpContext;
+import app.packed.web.spi.HttpServerExchange;
 
 /**
  * Per-operation sidehandle that manages HTTP handler registration.
  */
 public final class WebServerSidehandle {
 
+    private static final System.Logger LOGGER = System.getLogger(WebServerSidehandle.class.getName());
+
     private final String urlPattern;
     private final WebHandlerInvoker invoker;
     private final WebServerManager serverManager;
@@ -55,24 +57,33 @@ public final class WebServerSidehandle {
         serverManager.unregisterHandler(urlPattern);
     }
 
-    private void handleRequest(HttpExchange exchange) {
-        PackedHttpContext ctx = new PackedHttpContext(exchange);
+    private void handleRequest(HttpServerExchange exchange, String path, String[] names, int[] captures) {
+        PackedHttpContext ctx = new PackedHttpContext(exchange, path, names, captures);
         try {
             invoker.invoke(ctx);
+            ctx.finish();
+        } catch (WebStatusException e) {
+            sendError(exchange, e.status(), e.getMessage());
         } catch (Throwable e) {
-            e.printStackTrace();
+            LOGGER.log(Level.WARNING, "Failed to handle request for " + urlPattern, e);
+            sendError(exchange, 500, "Internal Server Error: " + e.getMessage());
+        } finally {
+            exchange.close();
+        }
+    }
+
+    /** Sends an error response, unless a response has already been started. */
+    private static void sendError(HttpServerExchange exchange, int status, String message) {
+        if (!exchange.isResponseStarted()) {
             try {
-                String error = "Internal Server Error: " + e.getMessage();
-                byte[] bytes = error.getBytes(StandardCharsets.UTF_8);
-                exchange.sendResponseHeaders(500, bytes.length);
-                try (OutputStream os = exchange.getResponseBody()) {
+                byte[] bytes = message.getBytes(StandardCharsets.UTF_8);
+                exchange.responseHeaders().set("Content-Type", "text/plain; charset=utf-8");
+                try (OutputStream os = exchange.sendResponseHeaders(status, bytes.length)) {
                     os.write(bytes);
                 }
-            } catch (IOException ioe) {
+            } catch (IOException ignore) {
                 // Ignore if we can't send error response
             }
-        } finally {
-            exchange.close();
         }
     }
 
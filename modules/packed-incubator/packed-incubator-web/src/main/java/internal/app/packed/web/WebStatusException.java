@@ -0,0 +1,47 @@
+/*
+ * Copyright (c) 2026 Kasper Nielsen.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package internal.app.packed.web;
+
+/**
+ * Thrown while handling a request, to complete the response with a specific status code. For example, if a path
+ * parameter cannot be converted to the type of the parameter it is bound to.
+ */
+public final class WebStatusException extends RuntimeException {
+
+    /** <code>serialVersionUID</code>. */
+    private static final long serialVersionUID = 1L;
+
+    /** The status code of the response. */
+    private final int status;
+
+    /**
+     * Creates a new exception.
+     *
+     * @param status
+     *            the status code of the response
+     * @param message
+     *            the message, which is sent as the body of the response
+     */
+    public WebStatusException(int status, String message) {
+        super(message, null, false, false);
+        this.status = status;
+    }
+
+    /** {@return the status code of the response} */
+    public int status() {
+        return status;
+    }
+}
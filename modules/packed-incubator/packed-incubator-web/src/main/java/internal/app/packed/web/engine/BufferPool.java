@@ -0,0 +1,62 @@
+/*
+ * Copyright (c) 2026 Kasper Nielsen.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package internal.app.packed.web.engine;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/** A pool of direct byte buffers of a fixed size. */
+final class BufferPool {
+
+    /** The size of every buffer in the pool. */
+    final int bufferSize;
+
+    /** The maximum number of idle buffers that are retained. */
+    private final int maxIdle;
+
+    /** Idle buffers. */
+    private final ConcurrentLinkedQueue<ByteBuffer> idle = new ConcurrentLinkedQueue<>();
+
+    /** The number of idle buffers. */
+    private final AtomicInteger idleCount = new AtomicInteger();
+
+    BufferPool(int bufferSize, int maxIdle) {
+        this.bufferSize = bufferSize;
+        this.maxIdle = maxIdle;
+    }
+
+    /** {@return a cleared buffer, either from the pool or newly allocated} */
+    ByteBuffer acquire() {
+        ByteBuffer b = idle.poll();
+        if (b == null) {
+            return ByteBuffer.allocateDirect(bufferSize);
+        }
+        idleCount.decrementAndGet();
+        return b;
+    }
+
+    /** Returns a buffer to the pool. Buffers that were not acquired from the pool, including read-only views, are ignored. */
+    void release(ByteBuffer buffer) {
+        if (buffer.isDirect() && !buffer.isReadOnly() && buffer.capacity() == bufferSize) {
+            if (idleCount.incrementAndGet() <= maxIdle) {
+                idle.offer(buffer.clear());
+            } else {
+                idleCount.decrementAndGet();
+            }
+        }
+    }
+}
@@ -0,0 +1,132 @@
+/*
+ * Copyright (c) 2026 Kasper Nielsen.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package internal.app.packed.web.engine;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.jspecify.annotations.Nullable;
+
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import app.packed.web.spi.HttpServerEngine;
+import app.packed.web.spi.HttpServerExchange;
+
+/** An engine based on the {@link HttpServer} included in the JDK, handling each request on a new virtual thread. */
+public final class JdkHttpServerEngine implements HttpServerEngine {
+
+    /** {@inheritDoc} */
+    @Override
+    public Server start(InetSocketAddress address, Handler handler) throws IOException {
+        HttpServer server = HttpServer.create(address, 1024);
+        ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+        server.createContext("/", exchange -> {
+            try (JdkExchange e = new JdkExchange(exchange)) {
+                handler.handle(e);
+            }
+        });
+        server.setExecutor(executor);
+        server.start();
+        return new Server() {
+
+            @Override
+            public InetSocketAddress address() {
+                return server.getAddress();
+            }
+
+            @Override
+            public void close() {
+                server.stop(1);
+                executor.shutdown();
+            }
+        };
+    }
+
+    /** Adapts an {@link HttpExchange}. */
+    private static final class JdkExchange implements HttpServerExchange {
+
+        private final HttpExchange exchange;
+
+        private boolean started;
+
+        private JdkExchange(HttpExchange exchange) {
+            this.exchange = exchange;
+        }
+
+        @Override
+        public String requestMethod() {
+            return exchange.getRequestMethod();
+        }
+
+        @Override
+        public URI requestURI() {
+            return exchange.getRequestURI();
+        }
+
+        @Override
+        public @Nullable String requestHeader(String name) {
+            return exchange.getRequestHeaders().getFirst(name);
+        }
+
+        @Override
+        public Headers requestHeaders() {
+            return exchange.getRequestHeaders();
+        }
+
+        @Override
+        public InputStream requestBody() {
+            return exchange.getRequestBody();
+        }
+
+        @Override
+        public Headers responseHeaders() {
+            return exchange.getResponseHeaders();
+        }
+
+        @Override
+        public boolean isResponseStarted() {
+            return started;
+        }
+
+        @Override
+        public OutputStream sendResponseHeaders(int status, long length) throws IOException {
+            if (started) {
+                throw new IllegalStateException("Response has already been started");
+            }
+            started = true;
+            // The JDK server uses 0 for chunked, and -1 for no body
+            exchange.sendResponseHeaders(status, length == 0 ? -1 : length < 0 ? 0 : length);
+            return exchange.getResponseBody();
+        }
+
+        @Override
+        public void close() {
+            if (!started) {
+                try {
+                    sendResponseHeaders(500, 0);
+                } catch (IOException ignore) {}
+            }
+            exchange.close();
+        }
+    }
+}
@@ -0,0 +1,624 @@
+/*
+ * Copyright (c) 2026 Kasper Nielsen.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package internal.app.packed.web.engine;
+
+import static java.nio.charset.StandardCharsets.ISO_8859_1;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayDeque;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.jspecify.annotations.Nullable;
+
+/**
+ * A single connection of the NIO engine.
+ * <p>
+ * Reading and parsing is done exclusively by the worker thread. A request is dispatched to a handler as soon as its
+ * head has been read, after which the worker streams the body (if any) to the handler. Output is queued by the handler
+ * thread, and written by the worker thread. A handler that queues more than {@link #HIGH_WATER} bytes is blocked until
+ * the worker has caught up.
+ * <p>
+ * The worker closes a connection that has been waiting on its client for longer than the timeout of the server, see
+ * {@link #isExpired(long, long)}.
+ */
+final class NioConnection {
+
+    /** The maximum number of bytes that may be queued for writing before the handler is blocked. */
+    private static final int HIGH_WATER = 256 * 1024;
+
+    /** Chunked request body decoding states. */
+    private static final int CHUNK_SIZE = 0, CHUNK_DATA = 1, CHUNK_DATA_END = 2, CHUNK_TRAILER = 3;
+
+    /** The worker owning the connection. */
+    final NioWorker worker;
+
+    /** The channel of the connection. */
+    private final SocketChannel channel;
+
+    /** The key of the channel, set by the worker once the channel has been registered. */
+    @Nullable
+    SelectionKey key;
+
+    /** Buffered input in write mode, or null if no input is buffered. */
+    @Nullable
+    private ByteBuffer in;
+
+    /** The body currently being read, or null. */
+    @Nullable
+    private NioRequestBody body;
+
+    /** Whether or not the body is chunked. */
+    private boolean bodyChunked;
+
+    /** The state of chunked decoding. */
+    private int chunkState;
+
+    /** The remaining number of bytes of the body, or of the current chunk for a chunked body. */
+    private long bodyRemaining;
+
+    /** Whether or not reading has been paused, because the handler has not consumed the body fast enough. */
+    private boolean readPaused;
+
+    /** Whether or not a response is in progress, no more requests are read until it has been written. */
+    private boolean responding;
+
+    /** The last time, in nanoseconds, input was read or output was written. Only accessed by the worker. */
+    private long lastActive = System.nanoTime();
+
+    /** Scratch space of the exchanges of the connection, which are handled one at a time. Only accessed by handler threads. */
+    private int[] scratch = new int[0];
+
+    /** Guards the fields below, that are shared with the handler thread. */
+    private final ReentrantLock lock = new ReentrantLock();
+
+    /** Signalled whenever output has been written. */
+    private final Condition drained = lock.newCondition();
+
+    /** Output waiting to be written, either byte buffers or file regions. */
+    private final ArrayDeque<Object> out = new ArrayDeque<>();
+
+    /** The number of bytes in the byte buffers of {@link #out}. */
+    private long queued;
+
+    /** The number of items of {@link #out} that have been written. */
+    private long written;
+
+    /** Whether or not all output of the current response has been queued. */
+    private boolean complete;
+
+    /** Whether or not the connection should be closed once the current response has been written. */
+    private boolean closeAfterResponse;
+
+    /** Whether or not the connection has been closed. */
+    private boolean closed;
+
+    NioConnection(NioWorker worker, SocketChannel channel) {
+        this.worker = worker;
+        this.channel = channel;
+    }
+
+    /** {@return the buffer pool of the server} */
+    BufferPool pool() {
+        return worker.server.pool;
+    }
+
+    /** Called by the worker when the channel is readable. */
+    void read() {
+        if (in == null) {
+            in = pool().acquire();
+        }
+        try {
+            int n = channel.read(in);
+            if (n < 0) {
+                close();
+                return;
+            } else if (n > 0) {
+                lastActive = System.nanoTime();
+            }
+        } catch (IOException e) {
+            close();
+            return;
+        }
+        if (body != null) {
+            readBody();
+        }
+        readRequests();
+        updateInterest();
+    }
+
+    /** Called by the worker when the connection has been signalled by a handler thread. */
+    void signalled() {
+        lastActive = System.nanoTime(); // The handler made progress, give the client the full timeout to catch up
+        if (readPaused && !closed) {
+            readPaused = false;
+            readBody();
+            updateInterest();
+        }
+        flush();
+    }
+
+    /** Reads and dispatches buffered requests, until a response is in progress or more input is needed. */
+    private void readRequests() {
+        ByteBuffer b;
+        while (!responding && !closed && (b = in) != null) {
+            int end = headerEnd(b);
+            if (end < 0) {
+                if (!b.hasRemaining()) {
+                    reject(431, "Request Header Fields Too Large");
+                }
+                break;
+            }
+            NioRequest r;
+            try {
+                r = NioRequest.parse(b, end);
+            } catch (IllegalArgumentException e) {
+                reject(400, "Bad Request");
+                break;
+            }
+            b.flip().position(end);
+            b.compact();
+
+            InputStream requestBody = InputStream.nullInputStream();
+            if (r.chunked || r.contentLength > 0) {
+                requestBody = body = new NioRequestBody(this);
+                bodyChunked = r.chunked;
+                chunkState = CHUNK_SIZE;
+                bodyRemaining = r.chunked ? 0 : r.contentLength;
+                if (r.expectContinue && b.position() == 0) {
+                    queue(ByteBuffer.wrap("HTTP/1.1 100 Continue\r\n\r\n".getBytes(ISO_8859_1)));
+                }
+            }
+            dispatch(r, requestBody);
+            if (body != null) {
+                readBody();
+            }
+        }
+        releaseIdleInput();
+    }
+
+    /** Streams buffered input to the body of the current request. */
+    private void readBody() {
+        ByteBuffer b = in;
+        if (b == null) {
+            return;
+        }
+        b.flip();
+        try {
+            while (body != null && !readPaused && b != null && b.hasRemaining()) {
+                if (!bodyChunked || chunkState == CHUNK_DATA) {
+                    int n = (int) Math.min(b.remaining(), bodyRemaining);
+                    ByteBuffer chunk;
+                    if (n == b.limit()) {
+                        // The buffer only contains body data, so it is handed to the body instead of being copied
+                        chunk = b;
+                        b = in = null;
+                    } else {
+                        chunk = pool().acquire().put(b.slice(b.position(), n)).flip();
+                        b.position(b.position() + n);
+                    }
+                    bodyRemaining -= n;
+                    readPaused = !body.offer(chunk);
+                    if (bodyRemaining == 0) {
+                        if (bodyChunked) {
+                            chunkState = CHUNK_DATA_END;
+                        } else {
+                            finishBody();
+                        }
+                    }
+                } else if (chunkState == CHUNK_DATA_END) {
+                    if (b.remaining() < 2) {
+                        break;
+                    } else if (b.get() != '\r' || b.get() != '\n') {
+                        throw new IllegalArgumentException("Missing CRLF after chunk");
+                    }
+                    chunkState = CHUNK_SIZE;
+                } else {
+                    String line = readLine(b);
+                    if (line == null) {
+                        break;
+                    } else if (chunkState == CHUNK_TRAILER) {
+                        if (line.isEmpty()) {
+                            finishBody();
+                        }
+                    } else {
+                        int semicolon = line.indexOf(';'); // Ignore chunk extensions
+                        long size = Long.parseLong((semicolon < 0 ? line : line.substring(0, semicolon)).trim(), 16);
+                        if (size < 0) {
+                            throw new IllegalArgumentException("Negative chunk size");
+                        }
+                        bodyRemaining = size;
+                        chunkState = size == 0 ? CHUNK_TRAILER : CHUNK_DATA;
+                    }
+                }
+            }
+        } catch (IllegalArgumentException e) { // NumberFormatException is an IllegalArgumentException
+            b.compact();
+            close();
+            return;
+        }
+        if (b != null) {
+            b.compact();
+        }
+        releaseIdleInput();
+    }
+
+    /** Completes the body of the current request. */
+    private void finishBody() {
+        body.finish();
+        body = null;
+    }
+
+    /** Returns the input buffer to the pool while the connection is idle. */
+    private void releaseIdleInput() {
+        if (in != null && in.position() == 0) {
+            pool().release(in);
+            in = null;
+        }
+    }
+
+    /** Dispatches the request that has been read to a handler. */
+    private void dispatch(NioRequest r, InputStream requestBody) {
+        lock.lock();
+        try {
+            complete = false;
+            closeAfterResponse = !r.keepAlive;
+        } finally {
+            lock.unlock();
+        }
+        responding = true;
+        NioExchange exchange = new NioExchange(this, r, requestBody);
+        try {
+            worker.server.execute(exchange::run);
+        } catch (RejectedExecutionException e) {
+            close(); // The server is shutting down
+        }
+    }
+
+    /** Writes an empty error response, and closes the connection. */
+    private void reject(int status, String reason) {
+        responding = true;
+        ByteBuffer b = ByteBuffer.wrap(("HTTP/1.1 " + status + " " + reason + "\r\nContent-Length: 0\r\nConnection: close\r\n\r\n").getBytes(ISO_8859_1));
+        lock.lock();
+        try {
+            out.add(b);
+            queued += b.remaining();
+            complete = true;
+            closeAfterResponse = true;
+        } finally {
+            lock.unlock();
+        }
+        flush();
+    }
+
+    /** Queues output from the worker thread. */
+    private void queue(ByteBuffer b) {
+        lock.lock();
+        try {
+            out.add(b);
+            queued += b.remaining();
+        } finally {
+            lock.unlock();
+        }
+        flush();
+    }
+
+    /**
+     * Queues output of the current response, called by the handler thread. Blocks if too much output is queued.
+     * <p>
+     * Direct buffers of the pool size are returned to the pool once written, other buffers are never modified.
+     *
+     * @param b
+     *            the output, in read mode, ownership is transferred to the connection
+     * @param last
+     *            whether or not this is the last output of the response
+     * @throws IOException
+     *             if the connection has been closed, or the thread was interrupted while waiting
+     */
+    void enqueue(ByteBuffer b, boolean last) throws IOException {
+        offer(b, b.remaining(), last, false);
+    }
+
+    /**
+     * Queues a buffer that is owned by the handler, and blocks until it has been written, called by the handler thread.
+     *
+     * @param b
+     *            a read-only view of the output, in read mode
+     * @throws IOException
+     *             if the connection has been closed before the buffer was written, or the thread was interrupted while
+     *             waiting
+     */
+    void enqueueAndAwait(ByteBuffer b) throws IOException {
+        offer(b, b.remaining(), false, true);
+    }
+
+    /**
+     * Queues a file region of the current response, called by the handler thread. The region is written using
+     * {@link FileChannel#transferTo(long, long, java.nio.channels.WritableByteChannel)}.
+     *
+     * @param region
+     *            the region, ownership (including the file channel) is transferred to the connection
+     * @throws IOException
+     *             if the connection has been closed, or the thread was interrupted while waiting
+     */
+    void enqueue(FileRegion region) throws IOException {
+        offer(region, 0, false, false);
+    }
+
+    private void offer(Object item, long size, boolean last, boolean await) throws IOException {
+        lock.lock();
+        try {
+            if (closed) {
+                discard(item);
+                throw new IOException("Connection has been closed");
+            }
+            long sequence = written;
+            if (size > 0 || item instanceof FileRegion) {
+                out.add(item);
+                queued += size;
+                sequence = written + out.size();
+            } else {
+                discard(item);
+            }
+            complete |= last;
+            worker.signal(this);
+            while (!closed && (await ? written < sequence : !last && queued > HIGH_WATER)) {
+                drained.await();
+            }
+            if (closed && !last && (!await || written < sequence)) {
+                throw new IOException("Connection has been closed");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns a scratch array of at least the specified length, called by the handler thread. The array is reused by the
+     * handlers of later requests on this connection, which only start once the current response has been completed.
+     */
+    int[] scratch(int length) {
+        int[] s = scratch;
+        if (s.length < length) {
+            s = scratch = new int[length];
+        }
+        return s;
+    }
+
+    /** Marks that the connection must be closed after the current response, called by the handler thread. */
+    void closeAfterResponse() {
+        lock.lock();
+        try {
+            closeAfterResponse = true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Asks the worker to resume reading the request body, called by the handler thread. */
+    void resumeReading() {
+        worker.signal(this);
+    }
+
+    /** Writes as much queued output as possible, called by the worker thread. */
+    void flush() {
+        boolean close;
+        lock.lock();
+        try {
+            if (closed) {
+                return;
+            }
+            for (Object o; (o = out.peek()) != null;) {
+                if (o instanceof ByteBuffer b) {
+                    int n = channel.write(b);
+                    if (n > 0) {
+                        queued -= n;
+                        lastActive = System.nanoTime();
+                    }
+                    if (b.hasRemaining()) {
+                        break;
+                    }
+                } else {
+                    FileRegion r = (FileRegion) o;
+                    long n = r.file.transferTo(r.position, r.end - r.position, channel);
+                    if (n > 0) {
+                        r.position += n;
+                        lastActive = System.nanoTime();
+                    }
+                    if (r.position < r.end) {
+                        if (n == 0 && r.position >= r.file.size()) {
+                            throw new IOException("File is shorter than the announced response length");
+                        }
+                        break;
+                    }
+                }
+                discard(out.poll());
+                written++;
+            }
+            drained.signalAll();
+            if (!out.isEmpty() || !complete) {
+                updateInterest();
+                return;
+            }
+            complete = false;
+            // If the handler did not consume the whole request body, we cannot find the start of the next request
+            close = closeAfterResponse || body != null;
+        } catch (IOException e) {
+            close();
+            return;
+        } finally {
+            lock.unlock();
+        }
+
+        // The response has been fully written
+        responding = false;
+        if (close) {
+            close();
+        } else {
+            readRequests();
+            updateInterest();
+        }
+    }
+
+    /**
+     * Returns whether or not the connection has been waiting on its client for longer than the timeout, called by the
+     * worker thread.
+     * <p>
+     * The connection is waiting on its client if it is idle between requests, has read part of a request, or has output
+     * that has not been written. It is not waiting on its client while a handler runs without producing output, or has
+     * not yet consumed the buffered part of the request body.
+     *
+     * @param now
+     *            the current time in nanoseconds
+     * @param timeoutNanos
+     *            the timeout in nanoseconds
+     * @return whether or not the connection should be closed
+     */
+    boolean isExpired(long now, long timeoutNanos) {
+        if (closed || now - lastActive <= timeoutNanos) {
+            return false;
+        } else if (!responding || (body != null && !readPaused)) {
+            return true;
+        }
+        lock.lock();
+        try {
+            return !out.isEmpty();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Updates the operations the worker is interested in. */
+    private void updateInterest() {
+        if (closed) {
+            return;
+        }
+        boolean write;
+        lock.lock();
+        try {
+            write = !out.isEmpty();
+        } finally {
+            lock.unlock();
+        }
+        boolean read = !readPaused && (!responding || body != null);
+        key.interestOps((write ? SelectionKey.OP_WRITE : 0) | (read ? SelectionKey.OP_READ : 0));
+    }
+
+    /** Closes the connection, called by the worker thread. */
+    void close() {
+        lock.lock();
+        try {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            for (Object o : out) {
+                discard(o);
+            }
+            out.clear();
+            queued = 0;
+            drained.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        if (body != null) {
+            body.fail();
+            body = null;
+        }
+        if (key != null) {
+            key.cancel();
+        }
+        try {
+            channel.close();
+        } catch (IOException ignore) {}
+        if (in != null) {
+            pool().release(in);
+            in = null;
+        }
+    }
+
+    /** Releases an output item that has been written or discarded. */
+    private void discard(Object item) {
+        if (item instanceof ByteBuffer b) {
+            pool().release(b);
+        } else {
+            try {
+                ((FileRegion) item).file.close();
+            } catch (IOException ignore) {}
+        }
+    }
+
+    /** {@return the index after the blank line ending the request head, or -1 if it has not been fully read} */
+    private static int headerEnd(ByteBuffer b) {
+        for (int i = 3; i < b.position(); i++) {
+            if (b.get(i) == '\n' && b.get(i - 1) == '\r' && b.get(i - 2) == '\n' && b.get(i - 3) == '\r') {
+                return i + 1;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Reads a CRLF terminated line from a buffer in read mode.
+     *
+     * @return the line, or null if the buffer does not contain a whole line
+     * @throws IllegalArgumentException
+     *             if the line does not fit in the buffer
+     */
+    private static @Nullable String readLine(ByteBuffer b) {
+        for (int i = b.position() + 1; i < b.limit(); i++) {
+            if (b.get(i) == '\n' && b.get(i - 1) == '\r') {
+                byte[] line = new byte[i - 1 - b.position()];
+                b.get(line);
+                b.position(i + 1);
+                return new String(line, ISO_8859_1);
+            }
+        }
+        if (b.position() == 0 && b.limit() == b.capacity()) {
+            throw new IllegalArgumentException("Line too long");
+        }
+        return null;
+    }
+
+    /** A region of a file to write. */
+    static final class FileRegion {
+
+        /** The file, closed once the region has been written or discarded. */
+        final FileChannel file;
+
+        /** The position of the next byte to write. */
+        long position;
+
+        /** The position after the last byte of the region. */
+        final long end;
+
+        FileRegion(FileChannel file, long position, long count) {
+            this.file = file;
+            this.position = position;
+            this.end = position + count;
+        }
+    }
+}
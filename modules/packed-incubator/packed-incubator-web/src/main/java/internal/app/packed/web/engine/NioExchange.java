@@ -0,0 +1,397 @@
+/*
+ * Copyright (c) 2026 Kasper Nielsen.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package internal.app.packed.web.engine;
+
+import static java.nio.charset.StandardCharsets.ISO_8859_1;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.List;
+import java.util.Map;
+
+import org.jspecify.annotations.Nullable;
+
+import com.sun.net.httpserver.Headers;
+
+import app.packed.web.spi.HttpServerExchange;
+import internal.app.packed.web.engine.NioConnection.FileRegion;
+
+/** An exchange of the NIO engine. Used by a single handler thread. */
+final class NioExchange implements HttpServerExchange {
+
+    /** The connection the request was read from. */
+    private final NioConnection connection;
+
+    /** The request. */
+    private final NioRequest request;
+
+    /** The request body. */
+    private final InputStream body;
+
+    /** The request headers, lazily created. */
+    @Nullable
+    private Headers requestHeaders;
+
+    /** The response headers. */
+    private final Headers responseHeaders = new Headers();
+
+    /** The response body, or null if the response has not been started. */
+    @Nullable
+    private ResponseStream response;
+
+    NioExchange(NioConnection connection, NioRequest request, InputStream body) {
+        this.connection = connection;
+        this.request = request;
+        this.body = body;
+    }
+
+    /** Runs the handler of the server, and completes the exchange. */
+    void run() {
+        try {
+            connection.worker.server.handler.handle(this);
+        } catch (Throwable t) {
+            if (response == null) {
+                try {
+                    sendResponseHeaders(500, 0);
+                } catch (IOException ignore) {}
+            } else {
+                response.abort();
+            }
+        } finally {
+            close();
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public String requestMethod() {
+        return request.method;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public URI requestURI() {
+        return request.uri;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public @Nullable String requestHeader(String name) {
+        return request.header(name);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Headers requestHeaders() {
+        Headers h = requestHeaders;
+        if (h == null) {
+            h = requestHeaders = new Headers();
+            for (int i = 0; i < request.headerCount; i++) {
+                h.add(request.names[i], request.values[i]);
+            }
+        }
+        return h;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public InputStream requestBody() {
+        return body;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Headers responseHeaders() {
+        return responseHeaders;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public boolean isResponseStarted() {
+        return response != null;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public OutputStream sendResponseHeaders(int status, long length) throws IOException {
+        if (response != null) {
+            throw new IllegalStateException("Response has already been started");
+        }
+        boolean hasBody = status >= 200 && status != 204 && status != 304;
+        boolean chunked = length < 0 && hasBody && !request.http10;
+        // Without chunking, the end of a body of unknown length is signalled by closing the connection
+        boolean close = !request.keepAlive || (length < 0 && hasBody && !chunked);
+
+        StringBuilder sb = new StringBuilder(128);
+        sb.append("HTTP/1.1 ").append(status).append(' ').append(reason(status)).append("\r\n");
+        for (Map.Entry<String, List<String>> e : responseHeaders.entrySet()) {
+            for (String value : e.getValue()) {
+                sb.append(e.getKey()).append(": ").append(value).append("\r\n");
+            }
+        }
+        if (chunked) {
+            sb.append("Transfer-Encoding: chunked\r\n");
+        } else if (length >= 0 && hasBody) {
+            sb.append("Content-Length: ").append(length).append("\r\n");
+        }
+        if (close) {
+            sb.append("Connection: close\r\n");
+            connection.closeAfterResponse();
+        } else if (request.http10) {
+            sb.append("Connection: keep-alive\r\n");
+        }
+        sb.append("\r\n");
+
+        ResponseStream s = response = new ResponseStream(chunked, !hasBody || request.method.equals("HEAD"), length < 0 ? Long.MAX_VALUE : length);
+        s.writeHead(sb.toString().getBytes(ISO_8859_1));
+        return s;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void sendResponse(int status, ByteBuffer body) throws IOException {
+        try (ResponseStream s = (ResponseStream) sendResponseHeaders(status, body.remaining())) {
+            s.write(body);
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void sendResponse(int status, FileChannel file, long position, long count) throws IOException {
+        ResponseStream s;
+        try {
+            s = (ResponseStream) sendResponseHeaders(status, count);
+        } catch (IOException | RuntimeException e) {
+            file.close();
+            throw e;
+        }
+        try (s) {
+            s.write(new FileRegion(file, position, count));
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public int[] scratch(int length) {
+        return connection.scratch(length);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void close() {
+        try {
+            body.close(); // Any unread part of the body is discarded
+        } catch (IOException ignore) {}
+        if (response == null) {
+            try {
+                sendResponseHeaders(500, 0);
+            } catch (IOException ignore) {}
+        }
+        try {
+            response.close();
+        } catch (IOException ignore) {
+            // The connection has been closed
+        }
+    }
+
+    private static String reason(int status) {
+        return switch (status) {
+        case 200 -> "OK";
+        case 201 -> "Created";
+        case 202 -> "Accepted";
+        case 204 -> "No Content";
+        case 301 -> "Moved Permanently";
+        case 302 -> "Found";
+        case 304 -> "Not Modified";
+        case 400 -> "Bad Request";
+        case 401 -> "Unauthorized";
+        case 403 -> "Forbidden";
+        case 404 -> "Not Found";
+        case 405 -> "Method Not Allowed";
+        case 500 -> "Internal Server Error";
+        case 501 -> "Not Implemented";
+        case 503 -> "Service Unavailable";
+        default -> "Unknown";
+        };
+    }
+
+    /** The response body, written into pooled buffers that are queued on the connection when full. */
+    private final class ResponseStream extends OutputStream {
+
+        /** Whether or not the body is sent using chunked transfer encoding. */
+        private final boolean chunked;
+
+        /** Whether or not the body is discarded, for example, for HEAD requests. */
+        private final boolean discard;
+
+        /** The number of body bytes that may still be written. */
+        private long remaining;
+
+        /** The buffer currently written to, or null if the stream has been closed. */
+        @Nullable
+        private ByteBuffer buffer = connection.pool().acquire();
+
+        private ResponseStream(boolean chunked, boolean discard, long remaining) {
+            this.chunked = chunked;
+            this.discard = discard;
+            this.remaining = remaining;
+        }
+
+        /** Writes the status line and headers. */
+        private void writeHead(byte[] head) throws IOException {
+            for (int off = 0; off < head.length;) {
+                if (!buffer.hasRemaining()) {
+                    emit(false, false);
+                }
+                int n = Math.min(head.length - off, buffer.remaining());
+                buffer.put(head, off, n);
+                off += n;
+            }
+            // Chunk framing starts at the beginning of a buffer
+            if (chunked) {
+                emit(false, false);
+            }
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public void write(int b) throws IOException {
+            ensureWritable(1);
+            if (!discard) {
+                if (!buffer.hasRemaining()) {
+                    emit(false, chunked);
+                }
+                buffer.put((byte) b);
+            }
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            ensureWritable(len);
+            if (!discard) {
+                while (len > 0) {
+                    if (!buffer.hasRemaining()) {
+                        emit(false, chunked);
+                    }
+                    int n = Math.min(len, buffer.remaining());
+                    buffer.put(b, off, n);
+                    off += n;
+                    len -= n;
+                }
+            }
+        }
+
+        private void ensureWritable(long len) throws IOException {
+            if (buffer == null) {
+                throw new IOException("Stream has been closed");
+            } else if (len > remaining) {
+                throw new IOException("Response body exceeds the specified length");
+            }
+            remaining -= len;
+        }
+
+        /**
+         * Writes the remaining bytes of a buffer owned by the handler. If they do not fit the current buffer, they are
+         * written without copying, and the method blocks until they have been written.
+         */
+        private void write(ByteBuffer b) throws IOException {
+            int len = b.remaining();
+            if (discard || len <= buffer.remaining()) {
+                ensureWritable(len);
+                if (!discard) {
+                    buffer.put(b.duplicate());
+                }
+            } else {
+                ensureWritable(len);
+                emit(false, false);
+                connection.enqueueAndAwait(b.asReadOnlyBuffer());
+            }
+        }
+
+        /** Writes a file region, which must be exactly the remaining length of the body. */
+        private void write(FileRegion region) throws IOException {
+            long count = region.end - region.position;
+            try {
+                ensureWritable(count);
+            } catch (IOException e) {
+                region.file.close();
+                throw e;
+            }
+            if (discard) {
+                region.file.close();
+            } else {
+                emit(false, false);
+                connection.enqueue(region);
+            }
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public void flush() throws IOException {
+            if (buffer != null && buffer.position() > 0) {
+                emit(false, chunked);
+            }
+        }
+
+        /** Queues the current buffer on the connection. */
+        private void emit(boolean last, boolean frame) throws IOException {
+            ByteBuffer b = buffer.flip();
+            buffer = last ? null : connection.pool().acquire();
+            if (!frame) {
+                connection.enqueue(b, last);
+            } else if (b.hasRemaining()) {
+                connection.enqueue(ascii(Integer.toHexString(b.remaining()) + "\r\n"), false);
+                connection.enqueue(b, false);
+                connection.enqueue(ascii(last ? "\r\n0\r\n\r\n" : "\r\n"), last);
+            } else {
+                connection.pool().release(b);
+                connection.enqueue(ascii("0\r\n\r\n"), last);
+            }
+        }
+
+        /** Completes the response after a failure, the connection is closed without terminating the body. */
+        private void abort() {
+            if (buffer != null) {
+                connection.closeAfterResponse();
+                buffer.clear();
+                try {
+                    emit(true, false);
+                } catch (IOException ignore) {}
+            }
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public void close() throws IOException {
+            if (buffer != null) {
+                if (!discard && !chunked && remaining > 0) {
+                    // Fewer bytes than announced were written, the client can only tell by the connection closing
+                    connection.closeAfterResponse();
+                }
+                emit(true, chunked);
+            }
+        }
+
+        private static ByteBuffer ascii(String s) {
+            return ByteBuffer.wrap(s.getBytes(ISO_8859_1));
+        }
+    }
+}
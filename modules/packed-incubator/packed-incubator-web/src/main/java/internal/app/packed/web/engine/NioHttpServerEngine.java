@@ -0,0 +1,174 @@
+/*
+ * Copyright (c) 2026 Kasper Nielsen.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package internal.app.packed.web.engine;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import app.packed.web.spi.HttpServerEngine;
+
+/**
+ * A selector based HTTP/1.1 engine.
+ * <p>
+ * Acceptor threads accept connections and hand them round-robin to worker threads. Each worker owns a selector, and
+ * does all reading, parsing and writing for its connections. Once the head of a request has been read, the worker runs
+ * the handler on a new virtual thread, and streams the request body (if any) to it. The response is written by the
+ * worker, and when it has been fully written the worker continues with the next (possibly already buffered, pipelined)
+ * request.
+ * <p>
+ * Connections that wait on the client for longer than the timeout, either idle between requests or stalled while
+ * reading a request or writing a response, are closed by their worker.
+ */
+public final class NioHttpServerEngine implements HttpServerEngine {
+
+    /** The size of the pooled buffers. Which is also the maximum size of the request line and headers. */
+    static final int BUFFER_SIZE = 16 * 1024;
+
+    /** The default idle and read/write timeout of connections. */
+    public static final Duration DEFAULT_TIMEOUT = Duration.ofSeconds(30);
+
+    /** The number of acceptor threads. */
+    private final int acceptors;
+
+    /** The number of worker threads. */
+    private final int workers;
+
+    /** The idle and read/write timeout of connections in nanoseconds. */
+    private final long timeoutNanos;
+
+    public NioHttpServerEngine(int acceptors, int workers, Duration timeout) {
+        if (acceptors < 1) {
+            throw new IllegalArgumentException("Must have at least 1 acceptor, was " + acceptors);
+        } else if (workers < 1) {
+            throw new IllegalArgumentException("Must have at least 1 worker, was " + workers);
+        } else if (timeout.isNegative() || timeout.isZero()) {
+            throw new IllegalArgumentException("Timeout must be positive, was " + timeout);
+        }
+        this.acceptors = acceptors;
+        this.workers = workers;
+        this.timeoutNanos = timeout.toNanos();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Server start(InetSocketAddress address, Handler handler) throws IOException {
+        ServerSocketChannel channel = ServerSocketChannel.open();
+        try {
+            channel.setOption(StandardSocketOptions.SO_REUSEADDR, true);
+            channel.bind(address, 1024);
+            return new NioServer(channel, handler, acceptors, workers, timeoutNanos);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /** A running server. */
+    static final class NioServer implements Server {
+
+        /** The channel accepting connections. */
+        private final ServerSocketChannel channel;
+
+        /** The handler of all requests. */
+        final Handler handler;
+
+        /** Runs handlers, a new virtual thread for each request. */
+        private final ExecutorService executor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("packed-http-handler-", 0).factory());
+
+        /** Buffers shared by all workers. */
+        final BufferPool pool = new BufferPool(BUFFER_SIZE, 4096);
+
+        /** The idle and read/write timeout of connections in nanoseconds. */
+        final long timeoutNanos;
+
+        /** The workers. */
+        private final NioWorker[] workers;
+
+        /** Used for distributing connections among workers. */
+        private final AtomicInteger next = new AtomicInteger();
+
+        /** Whether or not the server has been closed. */
+        private volatile boolean closed;
+
+        private NioServer(ServerSocketChannel channel, Handler handler, int acceptors, int workerCount, long timeoutNanos) throws IOException {
+            this.channel = channel;
+            this.handler = handler;
+            this.timeoutNanos = timeoutNanos;
+            this.workers = new NioWorker[workerCount];
+            for (int i = 0; i < workerCount; i++) {
+                workers[i] = new NioWorker(this, i);
+            }
+            for (int i = 0; i < acceptors; i++) {
+                Thread.ofPlatform().daemon().name("packed-http-acceptor-" + i).start(this::accept);
+            }
+        }
+
+        /** Accepts connections until the server is closed. */
+        private void accept() {
+            while (!closed) {
+                try {
+                    SocketChannel c = channel.accept();
+                    c.configureBlocking(false);
+                    c.setOption(StandardSocketOptions.TCP_NODELAY, true);
+                    workers[Math.floorMod(next.getAndIncrement(), workers.length)].register(c);
+                } catch (ClosedChannelException e) {
+                    return;
+                } catch (IOException e) {
+                    // The connection failed before we could register it, try the next one
+                }
+            }
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public InetSocketAddress address() {
+            try {
+                return (InetSocketAddress) channel.getLocalAddress();
+            } catch (IOException e) {
+                throw new IllegalStateException("Server has been closed", e);
+            }
+        }
+
+        /** Runs a handler on a new virtual thread. */
+        void execute(Runnable task) {
+            executor.execute(task);
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public void close() {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            try {
+                channel.close();
+            } catch (IOException ignore) {}
+            for (NioWorker w : workers) {
+                w.close();
+            }
+            executor.shutdown();
+        }
+    }
+}
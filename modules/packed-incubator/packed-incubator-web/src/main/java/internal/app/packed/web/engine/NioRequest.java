@@ -0,0 +1,181 @@
+/*
+ * Copyright (c) 2026 Kasper Nielsen.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package internal.app.packed.web.engine;
+
+import static java.nio.charset.StandardCharsets.ISO_8859_1;
+
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import org.jspecify.annotations.Nullable;
+
+/** The parsed request line and headers of a request read by the NIO engine. */
+final class NioRequest {
+
+    /** The request method. */
+    final String method;
+
+    /** The request URI. */
+    final URI uri;
+
+    /** Whether or not the request is HTTP/1.0. */
+    final boolean http10;
+
+    /** Header names, the first {@link #headerCount} entries are used. */
+    final String[] names;
+
+    /** Header values, the first {@link #headerCount} entries are used. */
+    final String[] values;
+
+    /** The number of headers. */
+    final int headerCount;
+
+    /** The value of the Content-Length header, or 0 if not present. A request can have at most one such header. */
+    final long contentLength;
+
+    /** Whether or not the request uses chunked transfer encoding. */
+    final boolean chunked;
+
+    /** Whether or not the connection can be reused after this request. */
+    final boolean keepAlive;
+
+    /** Whether or not the client expects a 100 (Continue) response before sending the body. */
+    final boolean expectContinue;
+
+    private NioRequest(String method, URI uri, boolean http10, String[] names, String[] values, int headerCount) {
+        this.method = method;
+        this.uri = uri;
+        this.http10 = http10;
+        this.names = names;
+        this.values = values;
+        this.headerCount = headerCount;
+
+        // RFC 9112 section 6.3, a request with an ambiguous length is rejected as it could be used for request smuggling
+        String length = null;
+        String te = null;
+        for (int i = 0; i < headerCount; i++) {
+            if (names[i].equalsIgnoreCase("Content-Length")) {
+                if (length != null) {
+                    throw new IllegalArgumentException("Multiple Content-Length headers");
+                }
+                length = values[i];
+            } else if (names[i].equalsIgnoreCase("Transfer-Encoding")) {
+                te = te == null ? values[i] : te + ", " + values[i];
+            }
+        }
+        if (length != null && te != null) {
+            throw new IllegalArgumentException("Both Content-Length and Transfer-Encoding present");
+        }
+        this.contentLength = length == null ? 0 : parseContentLength(length);
+        this.chunked = te != null && te.toLowerCase().contains("chunked");
+        String connection = header("Connection");
+        this.keepAlive = http10 ? "keep-alive".equalsIgnoreCase(connection) : !"close".equalsIgnoreCase(connection);
+        this.expectContinue = "100-continue".equalsIgnoreCase(header("Expect"));
+    }
+
+    /** {@return the specified Content-Length value, which must be a non-empty sequence of digits} */
+    private static long parseContentLength(String length) {
+        if (length.isEmpty() || !length.chars().allMatch(c -> c >= '0' && c <= '9')) {
+            throw new IllegalArgumentException("Invalid Content-Length: " + length);
+        }
+        try {
+            return Long.parseLong(length);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid Content-Length: " + length);
+        }
+    }
+
+    /** {@return the first value of the specified header, or null} */
+    @Nullable
+    String header(String name) {
+        for (int i = 0; i < headerCount; i++) {
+            if (names[i].equalsIgnoreCase(name)) {
+                return values[i];
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Parses a request head.
+     *
+     * @param b
+     *            the buffer containing the request head, starting at index 0
+     * @param end
+     *            the index after the blank line ending the head
+     * @return the request
+     * @throws IllegalArgumentException
+     *             if the request is malformed
+     */
+    static NioRequest parse(ByteBuffer b, int end) {
+        int lineEnd = lineEnd(b, 0, end);
+        String line = ascii(b, 0, lineEnd);
+        int sp1 = line.indexOf(' ');
+        int sp2 = line.indexOf(' ', sp1 + 1);
+        if (sp1 <= 0 || sp2 < 0) {
+            throw new IllegalArgumentException("Malformed request line: " + line);
+        }
+        String version = line.substring(sp2 + 1);
+        if (!version.equals("HTTP/1.1") && !version.equals("HTTP/1.0")) {
+            throw new IllegalArgumentException("Unsupported version: " + version);
+        }
+        URI uri;
+        try {
+            uri = new URI(line.substring(sp1 + 1, sp2));
+        } catch (URISyntaxException e) {
+            throw new IllegalArgumentException(e);
+        }
+
+        String[] names = new String[16];
+        String[] values = new String[16];
+        int count = 0;
+        for (int pos = lineEnd + 2; pos < end - 2; pos = lineEnd + 2) {
+            lineEnd = lineEnd(b, pos, end);
+            int colon = pos;
+            while (colon < lineEnd && b.get(colon) != ':') {
+                colon++;
+            }
+            if (colon == lineEnd || colon == pos) {
+                throw new IllegalArgumentException("Malformed header");
+            }
+            if (count == names.length) {
+                names = Arrays.copyOf(names, count * 2);
+                values = Arrays.copyOf(values, count * 2);
+            }
+            names[count] = ascii(b, pos, colon).trim();
+            values[count++] = ascii(b, colon + 1, lineEnd).trim();
+        }
+        return new NioRequest(line.substring(0, sp1), uri, version.equals("HTTP/1.0"), names, values, count);
+    }
+
+    /** {@return the index of the CR of the CRLF ending the line starting at the specified index} */
+    private static int lineEnd(ByteBuffer b, int from, int end) {
+        for (int i = from; i < end - 1; i++) {
+            if (b.get(i) == '\r' && b.get(i + 1) == '\n') {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException("Missing line terminator");
+    }
+
+    private static String ascii(ByteBuffer b, int from, int to) {
+        byte[] bytes = new byte[to - from];
+        b.get(from, bytes);
+        return new String(bytes, ISO_8859_1);
+    }
+}
@@ -0,0 +1,200 @@
+/*
+ * Copyright (c) 2026 Kasper Nielsen.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package internal.app.packed.web.engine;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.Objects;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A request body that is streamed from the worker reading it to the handler consuming it.
+ * <p>
+ * The worker stops reading from the connection when more than {@link #HIGH_WATER} bytes are waiting to be consumed,
+ * and resumes once the handler has consumed enough of them.
+ * <p>
+ * Data is passed as pooled buffers, which are returned to the pool once they have been consumed or discarded.
+ */
+final class NioRequestBody extends InputStream {
+
+    /** The number of unconsumed bytes at which the worker stops reading. */
+    static final int HIGH_WATER = 256 * 1024;
+
+    /** The number of unconsumed bytes at which the worker resumes reading. */
+    private static final int LOW_WATER = HIGH_WATER / 4;
+
+    /** The connection the body is read from. */
+    private final NioConnection connection;
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    /** Signalled when data has been added, or the body has been completed or failed. */
+    private final Condition available = lock.newCondition();
+
+    /** Chunks of data that have not been consumed, pooled buffers in read mode. */
+    private final ArrayDeque<ByteBuffer> chunks = new ArrayDeque<>();
+
+    /** The number of unconsumed bytes. */
+    private long queued;
+
+    /** Whether or not the worker has stopped reading because too many bytes were queued. */
+    private boolean paused;
+
+    /** Whether or not the whole body has been read. */
+    private boolean complete;
+
+    /** Whether or not the connection failed before the whole body was read. */
+    private boolean failed;
+
+    /** Whether or not the stream has been closed by the handler, in which case data is discarded. */
+    private boolean closed;
+
+    NioRequestBody(NioConnection connection) {
+        this.connection = connection;
+    }
+
+    /**
+     * Adds data read by the worker.
+     *
+     * @param chunk
+     *            the data, a pooled buffer in read mode whose ownership is transferred to the body
+     * @return false if the worker should stop reading, until {@link NioConnection#resumeReading()} is called
+     */
+    boolean offer(ByteBuffer chunk) {
+        lock.lock();
+        try {
+            if (closed) {
+                connection.pool().release(chunk);
+            } else {
+                chunks.add(chunk);
+                queued += chunk.remaining();
+                available.signalAll();
+            }
+            return !(paused = queued > HIGH_WATER);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Called by the worker when the whole body has been read. */
+    void finish() {
+        lock.lock();
+        try {
+            complete = true;
+            available.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Called by the worker if the connection failed before the whole body was read. */
+    void fail() {
+        lock.lock();
+        try {
+            failed = true;
+            available.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public int read() throws IOException {
+        byte[] b = new byte[1];
+        return read(b, 0, 1) < 0 ? -1 : b[0] & 0xFF;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        Objects.checkFromIndexSize(off, len, b.length);
+        if (len == 0) {
+            return 0;
+        }
+        boolean resume;
+        int n;
+        lock.lock();
+        try {
+            while (chunks.isEmpty()) {
+                if (closed) {
+                    throw new IOException("Stream has been closed");
+                } else if (complete) {
+                    return -1;
+                } else if (failed) {
+                    throw new IOException("Connection closed before the request body was read");
+                }
+                available.await();
+            }
+            ByteBuffer chunk = chunks.peek();
+            n = Math.min(len, chunk.remaining());
+            chunk.get(b, off, n);
+            if (!chunk.hasRemaining()) {
+                connection.pool().release(chunks.poll());
+            }
+            queued -= n;
+            resume = paused && queued <= LOW_WATER;
+            if (resume) {
+                paused = false;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException();
+        } finally {
+            lock.unlock();
+        }
+        if (resume) {
+            connection.resumeReading();
+        }
+        return n;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public int available() {
+        lock.lock();
+        try {
+            return (int) Math.min(queued, Integer.MAX_VALUE);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void close() {
+        boolean resume;
+        lock.lock();
+        try {
+            closed = true;
+            for (ByteBuffer chunk; (chunk = chunks.poll()) != null;) {
+                connection.pool().release(chunk);
+            }
+            queued = 0;
+            resume = paused;
+            paused = false;
+        } finally {
+            lock.unlock();
+        }
+        if (resume) {
+            connection.resumeReading();
+        }
+    }
+}
@@ -0,0 +1,157 @@
+/*
+ * Copyright (c) 2026 Kasper Nielsen.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package internal.app.packed.web.engine;
+
+import java.io.IOException;
+import java.lang.System.Logger.Level;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+
+import internal.app.packed.web.engine.NioHttpServerEngine.NioServer;
+
+/**
+ * A worker thread that owns a selector, and does all I/O for the connections registered with it.
+ * <p>
+ * A connection that fails unexpectedly is closed, without affecting the other connections of the worker.
+ */
+final class NioWorker {
+
+    private static final System.Logger LOGGER = System.getLogger(NioWorker.class.getName());
+
+    /** The maximum time between checks for connections that have timed out. */
+    private static final long MAX_SWEEP_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    /** The server the worker belongs to. */
+    final NioServer server;
+
+    /** The selector of the worker. */
+    private final Selector selector;
+
+    /** Newly accepted connections that should be registered with the selector. */
+    private final ConcurrentLinkedQueue<SocketChannel> accepted = new ConcurrentLinkedQueue<>();
+
+    /** Connections with output queued by a handler. */
+    private final ConcurrentLinkedQueue<NioConnection> signalled = new ConcurrentLinkedQueue<>();
+
+    /** Whether or not the worker has been closed. */
+    private volatile boolean closed;
+
+    /** The time between checks for connections that have timed out. */
+    private final long sweepIntervalNanos;
+
+    NioWorker(NioServer server, int index) throws IOException {
+        this.server = server;
+        this.selector = Selector.open();
+        this.sweepIntervalNanos = Math.min(MAX_SWEEP_INTERVAL_NANOS, Math.max(1, server.timeoutNanos / 2));
+        Thread.ofPlatform().daemon().name("packed-http-worker-" + index).start(this::run);
+    }
+
+    /** Registers a newly accepted connection. */
+    void register(SocketChannel channel) {
+        accepted.add(channel);
+        selector.wakeup();
+    }
+
+    /** Called by a handler thread, when it has queued output for a connection or consumed part of a request body. */
+    void signal(NioConnection connection) {
+        signalled.add(connection);
+        selector.wakeup();
+    }
+
+    void close() {
+        closed = true;
+        selector.wakeup();
+    }
+
+    private void run() {
+        long sweepMillis = Math.max(1, TimeUnit.NANOSECONDS.toMillis(sweepIntervalNanos));
+        long nextSweep = System.nanoTime() + sweepIntervalNanos;
+        try {
+            while (!closed) {
+                selector.select(sweepMillis);
+                for (SocketChannel c; (c = accepted.poll()) != null;) {
+                    NioConnection connection = new NioConnection(this, c);
+                    try {
+                        connection.key = c.register(selector, SelectionKey.OP_READ, connection);
+                    } catch (IOException e) {
+                        connection.close();
+                    }
+                }
+                for (NioConnection c; (c = signalled.poll()) != null;) {
+                    try {
+                        c.signalled();
+                    } catch (RuntimeException e) {
+                        fail(c, e);
+                    }
+                }
+                for (Iterator<SelectionKey> it = selector.selectedKeys().iterator(); it.hasNext();) {
+                    SelectionKey key = it.next();
+                    it.remove();
+                    NioConnection c = (NioConnection) key.attachment();
+                    try {
+                        if (key.isValid() && key.isWritable()) {
+                            c.flush();
+                        }
+                        if (key.isValid() && key.isReadable()) {
+                            c.read();
+                        }
+                    } catch (RuntimeException e) {
+                        fail(c, e);
+                    }
+                }
+                long now = System.nanoTime();
+                if (now - nextSweep >= 0) {
+                    closeExpired(now);
+                    nextSweep = now + sweepIntervalNanos;
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            LOGGER.log(Level.ERROR, "HTTP worker failed, closing all of its connections", e);
+        } finally {
+            for (SelectionKey key : selector.keys()) {
+                ((NioConnection) key.attachment()).close();
+            }
+            for (SocketChannel c; (c = accepted.poll()) != null;) {
+                try {
+                    c.close();
+                } catch (IOException ignore) {}
+            }
+            try {
+                selector.close();
+            } catch (IOException ignore) {}
+        }
+    }
+
+    /** Closes all connections that have been waiting on their client for longer than the timeout. */
+    private void closeExpired(long now) {
+        for (SelectionKey key : selector.keys()) {
+            NioConnection c = (NioConnection) key.attachment();
+            if (key.isValid() && c.isExpired(now, server.timeoutNanos)) {
+                c.close();
+            }
+        }
+    }
+
+    /** Closes a connection that failed unexpectedly. */
+    private static void fail(NioConnection connection, RuntimeException e) {
+        LOGGER.log(Level.WARNING, "Unexpected failure, closing HTTP connection", e);
+        connection.close();
+    }
+}
@@ -0,0 +1,111 @@
+/*
+ * Copyright (c) 2026 Kasper Nielsen.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package app.packed.web;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse.BodyHandlers;
+
+import org.junit.jupiter.api.Test;
+
+import app.packed.application.App;
+import app.packed.assembly.BaseAssembly;
+import app.packed.web.spi.HttpServerEngine;
+
+/** Tests {@link PathParam}. */
+public class PathParamTest {
+
+    /** Starts an application with the specified bean, and returns the status and body of a GET request for every path. */
+    static String[] get(Class<?> beanClass, String... paths) throws Exception {
+        int port;
+        try (ServerSocket s = new ServerSocket(0)) {
+            port = s.getLocalPort();
+        }
+        App app = App.start(new BaseAssembly() {
+            @Override
+            protected void build() {
+                use(WebExtension.class).port(port).engine(HttpServerEngine.nio(1, 1));
+                install(beanClass);
+            }
+        });
+        try (HttpClient client = HttpClient.newHttpClient()) {
+            String[] result = new String[paths.length];
+            for (int i = 0; i < paths.length; i++) {
+                var r = client.send(HttpRequest.newBuilder(URI.create("http://127.0.0.1:" + port + paths[i])).build(), BodyHandlers.ofString());
+                result[i] = r.statusCode() + " " + r.body();
+            }
+            return result;
+        } finally {
+            app.stop();
+        }
+    }
+
+    @Test
+    public void primitives() throws Exception {
+        assertThat(get(Primitives.class, "/int/42", "/long/-9000000000")).containsExactly("200 int 42", "200 long -9000000000");
+    }
+
+    @Test
+    public void wrappersAndStrings() throws Exception {
+        assertThat(get(Wrappers.class, "/a/7/b/x", "/rest/a/b/c")).containsExactly("200 7 x", "200 a/b/c");
+    }
+
+    /** A segment that cannot be converted results in a 404, without invoking the operation. */
+    @Test
+    public void invalidNumber() throws Exception {
+        Primitives.INVOCATIONS = 0;
+        String[] result = get(Primitives.class, "/int/abc", "/int/99999999999", "/long/1.5");
+        for (String r : result) {
+            assertThat(r).startsWith("404 Invalid path parameter 'id'");
+        }
+        assertThat(Primitives.INVOCATIONS).isEqualTo(0);
+    }
+
+    public static class Primitives {
+
+        static volatile int INVOCATIONS;
+
+        @WebGet(url = "/int/{id}")
+        public void i(HttpResponse response, @PathParam("id") int id) throws IOException {
+            INVOCATIONS++;
+            response.write("int " + id);
+        }
+
+        @WebGet(url = "/long/{id}")
+        public void l(HttpResponse response, @PathParam("id") long id) throws IOException {
+            INVOCATIONS++;
+            response.write("long " + id);
+        }
+    }
+
+    public static class Wrappers {
+
+        @WebGet(url = "/a/{a}/b/{b}")
+        public void ab(HttpResponse response, @PathParam("a") Integer a, @PathParam("b") String b) throws IOException {
+            response.write(a + " " + b);
+        }
+
+        @WebGet(url = "/rest/*")
+        public void rest(HttpResponse response, @PathParam("*") String rest) throws IOException {
+            response.write(rest);
+        }
+    }
+}
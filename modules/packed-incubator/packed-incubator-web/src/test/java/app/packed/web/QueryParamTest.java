@@ -0,0 +1,111 @@
+/*
+ * Copyright (c) 2026 Kasper Nielsen.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package app.packed.web;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+
+import org.junit.jupiter.api.Test;
+
+import app.packed.application.App;
+import app.packed.assembly.BaseAssembly;
+import app.packed.bean.BeanInstallationException;
+
+/** Tests {@link QueryParam}. */
+public class QueryParamTest {
+
+    @Test
+    public void primitives() throws Exception {
+        assertThat(PathParamTest.get(Primitives.class, "/p?i=42&l=-9000000000&b=true", "/p?i=+5&l=%2B6&b", "/p"))
+                .containsExactly("200 42 -9000000000 true", "200 5 6 true", "200 0 7 false");
+    }
+
+    /** Wrappers are null if the parameter is not present and no default value has been specified. */
+    @Test
+    public void wrappers() throws Exception {
+        assertThat(PathParamTest.get(Wrappers.class, "/w?i=1&l=2&b=false", "/w")).containsExactly("200 1 2 false", "200 null null true");
+    }
+
+    @Test
+    public void stringsAndEnums() throws Exception {
+        assertThat(PathParamTest.get(StringsAndEnums.class, "/s?s=a+b%21&c=DARK%5FBLUE", "/s?c=RED", "/s"))
+                .containsExactly("200 a b! DARK_BLUE", "200 none RED", "200 none null");
+    }
+
+    /** A value that cannot be converted results in a 400, without invoking the operation. */
+    @Test
+    public void invalidValue() throws Exception {
+        Primitives.INVOCATIONS = 0;
+        String[] result = PathParamTest.get(Primitives.class, "/p?i=abc", "/p?l=1.5", "/p?b=yes", "/p?i=%zz");
+        assertThat(result[0]).startsWith("400 Invalid query parameter 'i'");
+        assertThat(result[1]).startsWith("400 Invalid query parameter 'l'");
+        assertThat(result[2]).startsWith("400 Invalid query parameter 'b'");
+        assertThat(result[3]).startsWith("400 Invalid query parameter 'i'");
+        assertThat(Primitives.INVOCATIONS).isEqualTo(0);
+        assertThat(PathParamTest.get(StringsAndEnums.class, "/s?c=GREEN")[0]).startsWith("400 Invalid query parameter 'c'");
+    }
+
+    @Test
+    public void invalidDefaultValue() {
+        assertThrows(BeanInstallationException.class, () -> App.verify(new BaseAssembly() {
+            @Override
+            protected void build() {
+                install(InvalidDefault.class);
+            }
+        }));
+    }
+
+    public static class Primitives {
+
+        static volatile int INVOCATIONS;
+
+        @WebGet(url = "/p")
+        public void p(HttpResponse response, @QueryParam("i") int i, @QueryParam(value = "l", defaultValue = "7") long l, @QueryParam("b") boolean b)
+                throws IOException {
+            INVOCATIONS++;
+            response.write(i + " " + l + " " + b);
+        }
+    }
+
+    public static class Wrappers {
+
+        @WebGet(url = "/w")
+        public void w(HttpResponse response, @QueryParam("i") Integer i, @QueryParam("l") Long l, @QueryParam(value = "b", defaultValue = "true") Boolean b)
+                throws IOException {
+            response.write(i + " " + l + " " + b);
+        }
+    }
+
+    public enum Color {
+        RED, DARK_BLUE
+    }
+
+    public static class StringsAndEnums {
+
+        @WebGet(url = "/s")
+        public void s(HttpResponse response, @QueryParam(value = "s", defaultValue = "none") String s, @QueryParam("c") Color c) throws IOException {
+            response.write(s + " " + c);
+        }
+    }
+
+    public static class InvalidDefault {
+
+        @WebGet(url = "/d")
+        public void d(HttpResponse response, @QueryParam(value = "i", defaultValue = "x") int i) {}
+    }
+}
@@ -0,0 +1,80 @@
+/*
+ * Copyright (c) 2026 Kasper Nielsen.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package internal.app.packed.web;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import org.junit.jupiter.api.Test;
+
+/** Tests {@link QueryIndex}. */
+public class QueryIndexTest {
+
+    enum Color {
+        RED, DARK_BLUE
+    }
+
+    @Test
+    public void get() {
+        QueryIndex q = QueryIndex.of("a=1&b=&c&a=2&d=x%20y+z&e%5B%5D=v");
+        assertThat(q.get("a")).isEqualTo("1");
+        assertThat(q.get("b")).isEqualTo("");
+        assertThat(q.get("c")).isEqualTo("");
+        assertThat(q.get("d")).isEqualTo("x y z");
+        assertThat(q.get("e[]")).isEqualTo("v");
+        assertThat(q.get("f")).isNull();
+        assertThat(q.contains("c")).isTrue();
+        assertThat(q.contains("f")).isFalse();
+        assertThat(QueryIndex.of(null).get("a")).isNull();
+        assertThat(QueryIndex.of("").contains("a")).isFalse();
+    }
+
+    @Test
+    public void numbers() {
+        QueryIndex q = QueryIndex.of("i=42&l=-9000000000&p=+5&e=%2B7&m=%2D3");
+        assertThat(q.getInt("i", 0)).isEqualTo(42);
+        assertThat(q.getLong("l", 0)).isEqualTo(-9000000000L);
+        assertThat(q.getInt("p", 0)).isEqualTo(5);
+        assertThat(q.getLong("e", 0)).isEqualTo(7L);
+        assertThat(q.getInt("m", 0)).isEqualTo(-3);
+        assertThat(q.getInt("missing", 11)).isEqualTo(11);
+    }
+
+    @Test
+    public void invalidNumbers() {
+        QueryIndex q = QueryIndex.of("a=abc&b=1+2&c=99999999999&d=%zz");
+        assertThatThrownBy(() -> q.getInt("a", 0)).isInstanceOf(NumberFormatException.class);
+        assertThatThrownBy(() -> q.getInt("b", 0)).isInstanceOf(NumberFormatException.class);
+        assertThatThrownBy(() -> q.getInt("c", 0)).isInstanceOf(NumberFormatException.class);
+        assertThatThrownBy(() -> q.getLong("d", 0)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    /** Booleans and enums are matched against the decoded value. */
+    @Test
+    public void booleansAndEnums() {
+        QueryIndex q = QueryIndex.of("t=TRUE&f=%66alse&n&c=DARK%5FBLUE&r=RED&x=yes");
+        assertThat(q.getBoolean("t", false)).isTrue();
+        assertThat(q.getBoolean("f", true)).isFalse();
+        assertThat(q.getBoolean("n", false)).isTrue();
+        assertThat(q.getBoolean("missing", true)).isTrue();
+        assertThatThrownBy(() -> q.getBoolean("x", false)).isInstanceOf(IllegalArgumentException.class);
+
+        assertThat(q.getEnum("c", Color.class, null)).isSameAs(Color.DARK_BLUE);
+        assertThat(q.getEnum("r", Color.class, null)).isSameAs(Color.RED);
+        assertThat(q.getEnum("missing", Color.class, Color.RED)).isSameAs(Color.RED);
+        assertThatThrownBy(() -> q.getEnum("x", Color.class, null)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,126 @@
+/*
+ * Copyright (c) 2026 Kasper Nielsen.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package internal.app.packed.web;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+/** Tests {@link WebRouter}. */
+public class WebRouterTest {
+
+    /** Matches a path, and returns the pattern of the matching route followed by the captured values. */
+    static List<String> match(WebRouter router, String path) {
+        int[] captures = new int[router.captureSlots()];
+        int route = router.match(path, captures);
+        List<String> result = new ArrayList<>();
+        if (route >= 0) {
+            for (String p : List.of("/", "/users", "/users/{id}", "/users/me", "/users/{id}/posts/{post}", "/files/*", "/static/{rest*}")) {
+                if (router.indexOf(p) == route) {
+                    result.add(p);
+                }
+            }
+            String[] names = router.names(route);
+            for (int i = 0; i < names.length; i++) {
+                result.add(names[i] + "=" + path.substring(captures[2 * i], captures[2 * i + 1]));
+            }
+        }
+        return result;
+    }
+
+    static WebRouter router() {
+        return new WebRouter(List.of("/", "/users", "/users/{id}", "/users/me", "/users/{id}/posts/{post}", "/files/*", "/static/{rest*}"));
+    }
+
+    @Test
+    public void staticRoutes() {
+        WebRouter r = router();
+        assertThat(match(r, "/")).containsExactly("/");
+        assertThat(match(r, "/users")).containsExactly("/users");
+        assertThat(match(r, "/users/me")).containsExactly("/users/me");
+    }
+
+    @Test
+    public void captures() {
+        WebRouter r = router();
+        assertThat(r.captureSlots()).isEqualTo(4);
+        assertThat(match(r, "/users/42")).containsExactly("/users/{id}", "id=42");
+        assertThat(match(r, "/users/42/posts/7")).containsExactly("/users/{id}/posts/{post}", "id=42", "post=7");
+        // A static segment takes precedence, but a capture is used if the static branch does not match
+        assertThat(match(r, "/users/me/posts/1")).containsExactly("/users/{id}/posts/{post}", "id=me", "post=1");
+    }
+
+    @Test
+    public void wildcards() {
+        WebRouter r = router();
+        assertThat(match(r, "/files/a/b/c.txt")).containsExactly("/files/*", "*=a/b/c.txt");
+        assertThat(match(r, "/files/")).containsExactly("/files/*", "*=");
+        assertThat(match(r, "/static/css/site.css")).containsExactly("/static/{rest*}", "rest=css/site.css");
+    }
+
+    @Test
+    public void noMatch() {
+        WebRouter r = router();
+        assertThat(match(r, "")).isEmpty();
+        assertThat(match(r, "users")).isEmpty();
+        assertThat(match(r, "/unknown")).isEmpty();
+        assertThat(match(r, "/users/")).isEmpty(); // A capture never matches an empty segment
+        assertThat(match(r, "/users/42/posts")).isEmpty();
+        assertThat(match(r, "/users/42/posts/7/x")).isEmpty();
+        assertThat(WebRouter.EMPTY.match("/", new int[0])).isEqualTo(-1);
+    }
+
+    /** Many static children, some of which share a slot in the open addressing table. */
+    @Test
+    public void manyStaticChildren() {
+        List<String> patterns = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            patterns.add("/s" + i);
+        }
+        // "Aa" and "BB" have the same hash code
+        patterns.add("/Aa");
+        patterns.add("/BB");
+        WebRouter r = new WebRouter(patterns);
+        for (int i = 0; i < patterns.size(); i++) {
+            assertThat(r.match(patterns.get(i), new int[0])).isEqualTo(i);
+        }
+        assertThat(r.match("/s1000", new int[0])).isEqualTo(-1);
+        assertThat(r.size()).isEqualTo(1002);
+    }
+
+    @Test
+    public void invalidPatterns() {
+        assertThatThrownBy(() -> WebRouter.validate("users")).isInstanceOf(IllegalArgumentException.class).hasMessageContaining("must start with '/'");
+        assertThatThrownBy(() -> WebRouter.validate("/users?x=1")).isInstanceOf(IllegalArgumentException.class).hasMessageContaining("query");
+        assertThatThrownBy(() -> WebRouter.validate("/*/users")).isInstanceOf(IllegalArgumentException.class).hasMessageContaining("last segment");
+        assertThatThrownBy(() -> WebRouter.validate("/users/{}")).isInstanceOf(IllegalArgumentException.class).hasMessageContaining("Missing capture name");
+        assertThatThrownBy(() -> WebRouter.validate("/{id}/{id}")).isInstanceOf(IllegalArgumentException.class).hasMessageContaining("more than once");
+        assertThatThrownBy(() -> WebRouter.validate("/users/a{id}")).isInstanceOf(IllegalArgumentException.class).hasMessageContaining("Invalid segment");
+    }
+
+    @Test
+    public void conflictingPatterns() {
+        assertThatThrownBy(() -> new WebRouter(List.of("/users/{id}", "/users/{name}"))).isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("conflicts with '/users/{id}'");
+        assertThatThrownBy(() -> new WebRouter(List.of("/files/*", "/files/{rest*}"))).isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("conflicts with '/files/*'");
+        assertThatThrownBy(() -> new WebRouter(List.of("/a", "/a"))).isInstanceOf(IllegalArgumentException.class);
+    }
+}
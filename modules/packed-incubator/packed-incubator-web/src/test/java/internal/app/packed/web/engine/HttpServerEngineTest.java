@@ -0,0 +1,350 @@
+/*
+ * Copyright (c) 2026 Kasper Nielsen.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package internal.app.packed.web.engine;
+
+import static java.nio.charset.StandardCharsets.ISO_8859_1;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpRequest.BodyPublishers;
+import java.net.http.HttpResponse;
+import java.net.http.HttpResponse.BodyHandlers;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import app.packed.web.spi.HttpServerEngine;
+import app.packed.web.spi.HttpServerEngine.Handler;
+import app.packed.web.spi.HttpServerEngine.Server;
+
+/** Tests the engines returned by {@link HttpServerEngine}. */
+public class HttpServerEngineTest {
+
+    static HttpClient CLIENT;
+
+    @BeforeAll
+    public static void beforeAll() {
+        CLIENT = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+    }
+
+    @AfterAll
+    public static void afterAll() {
+        CLIENT.close();
+    }
+
+    /** Echoes the method, path and body of the request. */
+    static final Handler ECHO = exchange -> {
+        byte[] body = (exchange.requestMethod() + " " + exchange.requestURI().getPath() + " ").getBytes(ISO_8859_1);
+        byte[] request = exchange.requestBody().readAllBytes();
+        try (OutputStream os = exchange.sendResponseHeaders(200, body.length + request.length)) {
+            os.write(body);
+            os.write(request);
+        }
+    };
+
+    /** Runs a test against both engines. */
+    static void forEachEngine(Handler handler, ServerTest test) throws Exception {
+        for (HttpServerEngine engine : List.of(HttpServerEngine.jdk(), HttpServerEngine.nio(1, 2))) {
+            try (Server server = engine.start(new InetSocketAddress("127.0.0.1", 0), handler)) {
+                test.run(server);
+            }
+        }
+    }
+
+    static URI uri(Server server, String path) {
+        return URI.create("http://127.0.0.1:" + server.address().getPort() + path);
+    }
+
+    @Test
+    public void get() throws Exception {
+        forEachEngine(ECHO, server -> {
+            HttpResponse<String> r = CLIENT.send(HttpRequest.newBuilder(uri(server, "/foo")).build(), BodyHandlers.ofString());
+            assertThat(r.statusCode()).isEqualTo(200);
+            assertThat(r.body()).isEqualTo("GET /foo ");
+        });
+    }
+
+    @Test
+    public void postFixedLength() throws Exception {
+        forEachEngine(ECHO, server -> {
+            HttpRequest request = HttpRequest.newBuilder(uri(server, "/foo")).POST(BodyPublishers.ofString("x".repeat(100_000))).build();
+            HttpResponse<String> r = CLIENT.send(request, BodyHandlers.ofString());
+            assertThat(r.body()).isEqualTo("POST /foo " + "x".repeat(100_000));
+        });
+    }
+
+    @Test
+    public void postChunked() throws Exception {
+        byte[] body = "y".repeat(50_000).getBytes(ISO_8859_1);
+        forEachEngine(ECHO, server -> {
+            // A publisher of unknown length is sent using chunked transfer encoding
+            HttpRequest request = HttpRequest.newBuilder(uri(server, "/foo")).POST(BodyPublishers.ofInputStream(() -> new ByteArrayInputStream(body)))
+                    .build();
+            HttpResponse<String> r = CLIENT.send(request, BodyHandlers.ofString());
+            assertThat(r.body()).isEqualTo("POST /foo " + "y".repeat(50_000));
+        });
+    }
+
+    @Test
+    public void chunkedResponse() throws Exception {
+        Handler handler = exchange -> {
+            try (OutputStream os = exchange.sendResponseHeaders(200, -1)) {
+                for (int i = 0; i < 10_000; i++) {
+                    os.write(("line " + i + "\n").getBytes(ISO_8859_1));
+                }
+            }
+        };
+        forEachEngine(handler, server -> {
+            HttpResponse<String> r = CLIENT.send(HttpRequest.newBuilder(uri(server, "/")).build(), BodyHandlers.ofString());
+            assertThat(r.body().lines().count()).isEqualTo(10_000L);
+            assertThat(r.body()).endsWith("line 9999\n");
+        });
+    }
+
+    /** A large body is streamed to the handler, pausing reading while the handler has not caught up. */
+    @Test
+    public void largeRequestBody() throws Exception {
+        Handler handler = exchange -> {
+            long count = 0;
+            long sum = 0;
+            byte[] buf = new byte[1000];
+            InputStream in = exchange.requestBody();
+            for (int n; (n = in.read(buf)) >= 0;) {
+                for (int i = 0; i < n; i++) {
+                    sum += buf[i];
+                }
+                count += n;
+                if (count % 100_000 < n) {
+                    Thread.onSpinWait(); // A slow consumer
+                }
+            }
+            byte[] body = (count + " " + sum).getBytes(ISO_8859_1);
+            try (OutputStream os = exchange.sendResponseHeaders(200, body.length)) {
+                os.write(body);
+            }
+        };
+        byte[] body = new byte[5_000_000];
+        for (int i = 0; i < body.length; i++) {
+            body[i] = (byte) i;
+        }
+        long sum = 0;
+        for (byte b : body) {
+            sum += b;
+        }
+        String expected = body.length + " " + sum;
+        forEachEngine(handler, server -> {
+            HttpRequest request = HttpRequest.newBuilder(uri(server, "/")).POST(BodyPublishers.ofByteArray(body)).build();
+            assertThat(CLIENT.send(request, BodyHandlers.ofString()).body()).isEqualTo(expected);
+        });
+    }
+
+    /** The bodies of pipelined requests that share a read buffer with the next request are separated correctly. */
+    @Test
+    public void pipelinedBodies() throws Exception {
+        forEachEngine(ECHO, server -> {
+            try (Socket s = connect(server)) {
+                s.getOutputStream().write(("POST /a HTTP/1.1\r\nHost: x\r\nContent-Length: 3\r\n\r\nabc" + "POST /b HTTP/1.1\r\nHost: x\r\nContent-Length: 2\r\n\r\nde"
+                        + "POST /c HTTP/1.1\r\nHost: x\r\nTransfer-Encoding: chunked\r\n\r\n2\r\nfg\r\n1\r\nh\r\n0\r\n\r\n").getBytes(ISO_8859_1));
+                InputStream in = s.getInputStream();
+                assertThat(readResponse(in)).endsWith("POST /a abc");
+                assertThat(readResponse(in)).endsWith("POST /b de");
+                assertThat(readResponse(in)).endsWith("POST /c fgh");
+            }
+        });
+    }
+
+    /** A buffer passed to sendResponse can be reused as soon as the method returns, even if the client reads slowly. */
+    @Test
+    public void byteBufferResponse() throws Exception {
+        Handler handler = exchange -> {
+            ByteBuffer b = ByteBuffer.allocate(4_000_000);
+            Arrays.fill(b.array(), (byte) 'a');
+            exchange.sendResponse(200, b);
+            Arrays.fill(b.array(), (byte) 'b');
+        };
+        forEachEngine(handler, server -> {
+            try (Socket s = new Socket()) {
+                s.setReceiveBufferSize(16 * 1024);
+                s.connect(server.address());
+                s.getOutputStream().write("GET / HTTP/1.1\r\nHost: x\r\n\r\n".getBytes(ISO_8859_1));
+                Thread.sleep(100); // Let the handler fill up the socket buffers
+                assertThat(readResponse(s.getInputStream())).isEqualTo("HTTP/1.1 200 OK " + "a".repeat(4_000_000));
+            }
+        });
+    }
+
+    @Test
+    public void fileResponse() throws Exception {
+        Path file = Files.createTempFile("packed", ".txt");
+        try {
+            Files.writeString(file, "0123456789".repeat(100_000));
+            Handler handler = exchange -> exchange.sendResponse(200, FileChannel.open(file), 5, 999_990);
+            forEachEngine(handler, server -> {
+                HttpResponse<String> r = CLIENT.send(HttpRequest.newBuilder(uri(server, "/")).build(), BodyHandlers.ofString());
+                assertThat(r.body()).isEqualTo(("56789" + "0123456789".repeat(99_999)).substring(0, 999_990));
+            });
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    /** Pipelined requests are answered in order on the same connection. */
+    @Test
+    public void pipelined() throws Exception {
+        forEachEngine(ECHO, server -> {
+            try (Socket s = connect(server)) {
+                s.getOutputStream().write("GET /a HTTP/1.1\r\nHost: x\r\n\r\nGET /b HTTP/1.1\r\nHost: x\r\n\r\nGET /c HTTP/1.1\r\nHost: x\r\n\r\n".getBytes(ISO_8859_1));
+                InputStream in = s.getInputStream();
+                assertThat(readResponse(in)).endsWith("GET /a ");
+                assertThat(readResponse(in)).endsWith("GET /b ");
+                assertThat(readResponse(in)).endsWith("GET /c ");
+            }
+        });
+    }
+
+    /** A handler that fails before starting the response results in a 500, and the server keeps serving requests. */
+    @Test
+    public void handlerFailure() throws Exception {
+        Handler handler = exchange -> {
+            if (exchange.requestURI().getPath().equals("/fail")) {
+                throw new IllegalStateException("Handler failed");
+            }
+            ECHO.handle(exchange);
+        };
+        forEachEngine(handler, server -> {
+            HttpResponse<String> r = CLIENT.send(HttpRequest.newBuilder(uri(server, "/fail")).build(), BodyHandlers.ofString());
+            assertThat(r.statusCode()).isEqualTo(500);
+            r = CLIENT.send(HttpRequest.newBuilder(uri(server, "/ok")).build(), BodyHandlers.ofString());
+            assertThat(r.body()).isEqualTo("GET /ok ");
+        });
+    }
+
+    @Test
+    public void malformedRequest() throws Exception {
+        try (Server server = HttpServerEngine.nio(1, 1).start(new InetSocketAddress("127.0.0.1", 0), ECHO); Socket s = connect(server)) {
+            s.getOutputStream().write("NOT HTTP\r\n\r\n".getBytes(ISO_8859_1));
+            assertThat(readResponse(s.getInputStream())).startsWith("HTTP/1.1 400 ");
+        }
+    }
+
+    /** A request whose body length is ambiguous is rejected, see RFC 9112 section 6.3. */
+    @Test
+    public void ambiguousContentLength() throws Exception {
+        String[] heads = { "Content-Length: 5\r\nTransfer-Encoding: chunked\r\n", "Content-Length: 5\r\nContent-Length: 5\r\n",
+                "Content-Length: 5\r\nContent-Length: 6\r\n", "Content-Length: 5, 6\r\n", "Content-Length: +5\r\n" };
+        try (Server server = HttpServerEngine.nio(1, 1).start(new InetSocketAddress("127.0.0.1", 0), ECHO)) {
+            for (String head : heads) {
+                try (Socket s = connect(server)) {
+                    s.getOutputStream().write(("POST /echo HTTP/1.1\r\nHost: x\r\n" + head + "\r\nhello").getBytes(ISO_8859_1));
+                    assertThat(readResponse(s.getInputStream())).startsWith("HTTP/1.1 400 ");
+                }
+            }
+        }
+    }
+
+    @Test
+    public void invalidTimeout() {
+        assertThatThrownBy(() -> HttpServerEngine.nio(1, 1, Duration.ZERO)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> HttpServerEngine.nio(0, 1)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    /** An idle connection is closed after the timeout. */
+    @Test
+    public void idleTimeout() throws Exception {
+        try (Server server = HttpServerEngine.nio(1, 1, Duration.ofMillis(200)).start(new InetSocketAddress("127.0.0.1", 0), ECHO);
+                Socket s = connect(server)) {
+            s.getOutputStream().write("GET /a HTTP/1.1\r\nHost: x\r\n\r\n".getBytes(ISO_8859_1));
+            assertThat(readResponse(s.getInputStream())).endsWith("GET /a ");
+            assertThat(s.getInputStream().read()).isEqualTo(-1);
+        }
+    }
+
+    /** A connection that stops sending in the middle of a request head is closed after the timeout. */
+    @Test
+    public void readTimeout() throws Exception {
+        try (Server server = HttpServerEngine.nio(1, 1, Duration.ofMillis(200)).start(new InetSocketAddress("127.0.0.1", 0), ECHO);
+                Socket s = connect(server)) {
+            s.getOutputStream().write("GET /a HTTP/1.1\r\nHo".getBytes(ISO_8859_1));
+            assertThat(s.getInputStream().read()).isEqualTo(-1);
+        }
+    }
+
+    /** Time spent waiting on a handler does not count towards the timeout. */
+    @Test
+    public void slowHandlerIsNotTimedOut() throws Exception {
+        Handler handler = exchange -> {
+            try {
+                Thread.sleep(600);
+            } catch (InterruptedException e) {
+                throw new IOException(e);
+            }
+            ECHO.handle(exchange);
+        };
+        try (Server server = HttpServerEngine.nio(1, 1, Duration.ofMillis(200)).start(new InetSocketAddress("127.0.0.1", 0), handler);
+                Socket s = connect(server)) {
+            s.getOutputStream().write("GET /slow HTTP/1.1\r\nHost: x\r\n\r\n".getBytes(ISO_8859_1));
+            assertThat(readResponse(s.getInputStream())).endsWith("GET /slow ");
+        }
+    }
+
+    static Socket connect(Server server) throws IOException {
+        Socket s = new Socket(server.address().getAddress(), server.address().getPort());
+        s.setSoTimeout(10_000);
+        return s;
+    }
+
+    /** Reads a response with a Content-Length header, and returns the status line and body. */
+    static String readResponse(InputStream in) throws IOException {
+        ByteArrayOutputStream head = new ByteArrayOutputStream();
+        while (!head.toString(ISO_8859_1).endsWith("\r\n\r\n")) {
+            int c = in.read();
+            if (c < 0) {
+                throw new IOException("Connection closed");
+            }
+            head.write(c);
+        }
+        String h = head.toString(ISO_8859_1);
+        long length = 0;
+        for (String line : h.split("\r\n")) {
+            if (line.regionMatches(true, 0, "Content-Length:", 0, 15)) {
+                length = Long.parseLong(line.substring(15).trim());
+            }
+        }
+        return h.substring(0, h.indexOf("\r\n")) + " " + new String(in.readNBytes((int) length), ISO_8859_1);
+    }
+
+    interface ServerTest {
+        void run(Server server) throws Exception;
+    }
+}
@@ -57,6 +57,16 @@ public class AppManyChildrenMicro {
         });
     }
 
+    @Benchmark
+    public void manyChildrenBulk() {
+        App.run(new BaseAssembly() {
+            @Override
+            protected void build() {
+                linkAll(size, i -> new TAssembly(Integer.toString(i)), "test");
+            }
+        });
+    }
+
     static class TAssembly extends BaseAssembly {
 
         final String name;
@@ -0,0 +1,121 @@
+/*
+ * Copyright (c) 2026 Kasper Nielsen.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package app.packed.micro.application;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import app.packed.application.App;
+import app.packed.assembly.BaseAssembly;
+import app.packed.lifecycle.Start;
+import app.packed.lifecycle.Stop;
+
+/**
+ * Measures the time it takes to build, start and stop an application in a new JVM, with and without a JDK
+ * ahead-of-time cache.
+ * <p>
+ * The cache must be recorded before running the benchmark, using a training run of this class:
+ *
+ * <pre>{@code
+ * java -XX:AOTCacheOutput=target/packed-startup.aot -cp target/benchmarks.jar app.packed.micro.application.StartupMicro
+ * java -jar target/benchmarks.jar StartupMicro
+ * }</pre>
+ *
+ * If the cache has not been recorded the JVM prints a warning, and both benchmarks measure a start without the cache.
+ */
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+@Fork(20)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+public class StartupMicro {
+
+    /** The location of the ahead-of-time cache. */
+    static final String AOT_CACHE = "target/packed-startup.aot";
+
+    @Benchmark
+    public void coldStart() {
+        App.run(new StartupAssembly());
+    }
+
+    @Benchmark
+    @Fork(value = 20, jvmArgsAppend = "-XX:AOTCache=" + AOT_CACHE)
+    public void coldStartWithAotCache() {
+        App.run(new StartupAssembly());
+    }
+
+    /**
+     * Records the ahead-of-time cache when run with {@code -XX:AOTCacheOutput}.
+     *
+     * @param args
+     *            ignored
+     */
+    public static void main(String[] args) {
+        App.train(new StartupAssembly());
+    }
+
+    /** An assembly with a handful of beans, services and lifecycle operations. */
+    public static class StartupAssembly extends BaseAssembly {
+
+        @Override
+        protected void build() {
+            provide(Repository.class);
+            install(Service.class);
+            linkAll(10, _ -> new ChildAssembly(), "child");
+        }
+    }
+
+    /** An assembly that is linked multiple times from {@link StartupAssembly}. */
+    public static class ChildAssembly extends BaseAssembly {
+
+        @Override
+        protected void build() {
+            provide(Repository.class);
+            install(Service.class);
+        }
+    }
+
+    public static class Repository {
+
+        @Start
+        public void start() {}
+
+        @Stop
+        public void stop() {}
+    }
+
+    public static class Service {
+
+        final Repository repository;
+
+        public Service(Repository repository) {
+            this.repository = repository;
+        }
+
+        @Start
+        public void start() {}
+    }
+}
@@ -0,0 +1,202 @@
+/*
+ * Copyright (c) 2026 Kasper Nielsen.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package app.packed.micro.web;
+
+import static java.nio.charset.StandardCharsets.ISO_8859_1;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import app.packed.web.spi.HttpServerEngine;
+
+/**
+ * Compares the throughput of the JDK engine and the NIO engine.
+ * <p>
+ * Every benchmark thread is a client with a keep-alive connection, that sends a batch of pipelined GET requests and
+ * reads the responses.
+ */
+@Warmup(iterations = 3, time = 3, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 3, timeUnit = TimeUnit.SECONDS)
+@Fork(1)
+@Threads(WebEngineMicro.CLIENTS)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+public class WebEngineMicro {
+
+    /** Kept below the default idle connection limit (200) of the JDK server, which closes connections above it. */
+    static final int CLIENTS = 128;
+
+    /** The number of requests in every batch. */
+    static final int PIPELINE = 8;
+
+    static final byte[] BODY = "{\"status\":\"ok\"}".getBytes(ISO_8859_1);
+
+    static final byte[] BATCH = "GET /json HTTP/1.1\r\nHost: localhost\r\n\r\n".repeat(PIPELINE).getBytes(ISO_8859_1);
+
+    @Param({ "jdk", "nio" })
+    String engine;
+
+    HttpServerEngine.Server server;
+
+    @Setup(Level.Trial)
+    public void start() throws IOException {
+        HttpServerEngine e = engine.equals("jdk") ? HttpServerEngine.jdk() : HttpServerEngine.nio();
+        server = e.start(new InetSocketAddress("127.0.0.1", 0), exchange -> {
+            exchange.responseHeaders().set("Content-Type", "application/json");
+            try (OutputStream os = exchange.sendResponseHeaders(200, BODY.length)) {
+                os.write(BODY);
+            }
+        });
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        server.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(PIPELINE)
+    public void pipelined(Client client) throws IOException {
+        client.out.write(BATCH);
+        for (int i = 0; i < PIPELINE; i++) {
+            client.readResponse();
+        }
+    }
+
+    /** A client with a single keep-alive connection, that reads responses through a buffer. */
+    @State(Scope.Thread)
+    public static class Client {
+
+        private static final byte[] CONTENT_LENGTH = "content-length:".getBytes(ISO_8859_1);
+
+        Socket socket;
+        OutputStream out;
+        InputStream in;
+
+        /** Buffered input, from {@link #start} (inclusive) to {@link #limit} (exclusive). */
+        final byte[] buffer = new byte[16 * 1024];
+        int start;
+        int limit;
+
+        @Setup(Level.Trial)
+        public void connect(WebEngineMicro benchmark) throws IOException {
+            InetSocketAddress address = benchmark.server.address();
+            socket = new Socket(address.getAddress(), address.getPort());
+            socket.setTcpNoDelay(true);
+            out = socket.getOutputStream();
+            in = socket.getInputStream();
+        }
+
+        @TearDown(Level.Trial)
+        public void close() throws IOException {
+            socket.close();
+        }
+
+        /** Reads a single response, whose body length is given by the Content-Length header. */
+        void readResponse() throws IOException {
+            int end;
+            while ((end = headerEnd()) < 0) {
+                fill();
+            }
+            long length = contentLength(end);
+            start = end;
+            while (length > 0) {
+                if (start == limit) {
+                    fill();
+                }
+                int n = (int) Math.min(length, limit - start);
+                start += n;
+                length -= n;
+            }
+        }
+
+        /** Reads more input, compacting the buffer if needed. */
+        private void fill() throws IOException {
+            if (start > 0) {
+                System.arraycopy(buffer, start, buffer, 0, limit - start);
+                limit -= start;
+                start = 0;
+            }
+            if (limit == buffer.length) {
+                throw new IOException("Response head too large");
+            }
+            int n = in.read(buffer, limit, buffer.length - limit);
+            if (n < 0) {
+                throw new IOException("Connection closed");
+            }
+            limit += n;
+        }
+
+        /** {@return the index after the blank line ending the response head, or -1 if it has not been fully read} */
+        private int headerEnd() {
+            for (int i = start + 3; i < limit; i++) {
+                if (buffer[i] == '\n' && buffer[i - 1] == '\r' && buffer[i - 2] == '\n' && buffer[i - 3] == '\r') {
+                    return i + 1;
+                }
+            }
+            return -1;
+        }
+
+        /** {@return the value of the Content-Length header of the response head ending at the specified index} */
+        private long contentLength(int end) {
+            for (int i = start; i < end; i++) {
+                if (buffer[i] == '\n' && matches(i + 1, end)) {
+                    long length = 0;
+                    for (int j = i + 1 + CONTENT_LENGTH.length; j < end && buffer[j] != '\r'; j++) {
+                        if (buffer[j] >= '0' && buffer[j] <= '9') {
+                            length = length * 10 + buffer[j] - '0';
+                        }
+                    }
+                    return length;
+                }
+            }
+            return 0;
+        }
+
+        private boolean matches(int from, int end) {
+            if (end - from < CONTENT_LENGTH.length) {
+                return false;
+            }
+            for (int i = 0; i < CONTENT_LENGTH.length; i++) {
+                if ((buffer[from + i] | 0x20) != CONTENT_LENGTH[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,239 @@
+/*
+ * Copyright (c) 2026 Kasper Nielsen.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package internal.app.packed.processor;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Set;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+
+/**
+ * An annotation processor that writes a bean index for every class it compiles.
+ * <p>
+ * The index of a class lists every field and method declared by the class that carries at least one annotation that
+ * is meta-annotated with {@code BeanTrigger.OnAnnotatedField}, {@code BeanTrigger.OnAnnotatedVariable} or
+ * {@code BeanTrigger.OnAnnotatedMethod}. It is written to {@code META-INF/app.packed/bean-index/<binary class name>}
+ * with one member per line:
+ *
+ * <pre>
+ * F &lt;field name&gt;
+ * M &lt;method name&gt; &lt;method descriptor&gt;
+ * </pre>
+ *
+ * The index is written next to the class files, and is only trusted at runtime if it is loaded from the same module,
+ * or the same class path entry, as the class it describes. Builds that stop running this processor must therefore
+ * remove the indexes from their output, or they will describe classes that have been recompiled without them.
+ * <p>
+ * An empty index is written for classes without any triggering members, so the runtime can tell a class without
+ * triggers apart from a class that was compiled without this processor. If a member of a class refers to a type that
+ * cannot be resolved, for example, because it is generated by another processor, the class is indexed in a later round.
+ * If the type is never resolved, no index is written, and javac reports the error. Only classes whose whole type
+ * hierarchy (outside of {@code java.base}) has been indexed are introspected from the index, everything else falls
+ * back to reflection.
+ * <p>
+ * This processor does not depend on Packed. Trigger annotations are detected by the qualified name of their
+ * meta-annotations.
+ */
+@SupportedAnnotationTypes("*")
+public final class BeanIndexProcessor extends AbstractProcessor {
+
+    /** The location of index files, must be kept in sync with {@code BeanClassIndex} in app.packed. */
+    static final String INDEX_LOCATION = "META-INF/app.packed/bean-index/";
+
+    /** Meta-annotations that makes an annotation a field trigger. */
+    private static final Set<String> FIELD_TRIGGERS = Set.of("app.packed.bean.BeanTrigger.OnAnnotatedField", "app.packed.bean.BeanTrigger.OnAnnotatedVariable");
+
+    /** Meta-annotations that makes an annotation a method trigger. */
+    private static final Set<String> METHOD_TRIGGERS = Set.of("app.packed.bean.BeanTrigger.OnAnnotatedMethod");
+
+    /** Whether or not annotation types are field triggers, keyed by qualified name. */
+    private final HashMap<String, Boolean> fieldTriggers = new HashMap<>();
+
+    /** Whether or not annotation types are method triggers, keyed by qualified name. */
+    private final HashMap<String, Boolean> methodTriggers = new HashMap<>();
+
+    /** The qualified names of types that refer to types that could not be resolved, retried in the next round. */
+    private final ArrayList<String> deferred = new ArrayList<>();
+
+    /** {@inheritDoc} */
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        ArrayList<String> retry = new ArrayList<>(deferred);
+        deferred.clear();
+        for (String name : retry) {
+            TypeElement te = processingEnv.getElementUtils().getTypeElement(name);
+            if (te != null) {
+                write(te);
+            }
+        }
+        for (Element e : roundEnv.getRootElements()) {
+            if (e instanceof TypeElement te) {
+                index(te);
+            }
+        }
+        // We never claim any annotations
+        return false;
+    }
+
+    /** Indexes the specified type and all of its nested types. */
+    private void index(TypeElement type) {
+        if (type.getKind() == ElementKind.ANNOTATION_TYPE) {
+            return;
+        }
+        for (Element e : type.getEnclosedElements()) {
+            if (e instanceof TypeElement nested) {
+                index(nested);
+            }
+        }
+        write(type);
+    }
+
+    /** Writes the index of the specified type, or defers it to the next round if it refers to unresolved types. */
+    private void write(TypeElement type) {
+        StringBuilder sb = new StringBuilder();
+        for (Element e : type.getEnclosedElements()) {
+            ElementKind kind = e.getKind();
+            if (kind != ElementKind.FIELD && kind != ElementKind.ENUM_CONSTANT && kind != ElementKind.METHOD) {
+                continue;
+            }
+            if (!isResolved(e)) {
+                deferred.add(type.getQualifiedName().toString());
+                return;
+            }
+            if (kind == ElementKind.METHOD) {
+                if (hasTrigger(e, methodTriggers, METHOD_TRIGGERS)) {
+                    String descriptor = descriptor((ExecutableElement) e);
+                    if (descriptor == null) {
+                        deferred.add(type.getQualifiedName().toString());
+                        return;
+                    }
+                    sb.append("M ").append(e.getSimpleName()).append(' ').append(descriptor).append('\n');
+                }
+            } else if (hasTrigger(e, fieldTriggers, FIELD_TRIGGERS)) {
+                sb.append("F ").append(e.getSimpleName()).append('\n');
+            }
+        }
+
+        String binaryName = processingEnv.getElementUtils().getBinaryName(type).toString();
+        try {
+            FileObject fo = processingEnv.getFiler().createResource(StandardLocation.CLASS_OUTPUT, "", INDEX_LOCATION + binaryName, type);
+            try (OutputStream os = fo.openOutputStream()) {
+                os.write(sb.toString().getBytes(StandardCharsets.UTF_8));
+            }
+        } catch (IOException ex) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.WARNING, "Could not write bean index for " + binaryName + ": " + ex.getMessage(), type);
+        }
+    }
+
+    /** {@return whether or not the types of all annotations on the specified member could be resolved} */
+    private static boolean isResolved(Element member) {
+        for (AnnotationMirror am : member.getAnnotationMirrors()) {
+            if (am.getAnnotationType().getKind() == TypeKind.ERROR) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /** {@return the JVM method descriptor of the specified method, or null if it refers to an unresolved type} */
+    private String descriptor(ExecutableElement method) {
+        StringBuilder sb = new StringBuilder("(");
+        for (VariableElement p : method.getParameters()) {
+            if (!descriptor(sb, p.asType())) {
+                return null;
+            }
+        }
+        sb.append(')');
+        return descriptor(sb, method.getReturnType()) ? sb.toString() : null;
+    }
+
+    /**
+     * Appends the JVM descriptor of the specified type.
+     *
+     * @return false if the type could not be resolved, in which case javac reports an error
+     */
+    private boolean descriptor(StringBuilder sb, TypeMirror type) {
+        TypeMirror t = processingEnv.getTypeUtils().erasure(type);
+        switch (t.getKind()) {
+        case BOOLEAN -> sb.append('Z');
+        case BYTE -> sb.append('B');
+        case CHAR -> sb.append('C');
+        case SHORT -> sb.append('S');
+        case INT -> sb.append('I');
+        case LONG -> sb.append('J');
+        case FLOAT -> sb.append('F');
+        case DOUBLE -> sb.append('D');
+        case VOID -> sb.append('V');
+        case ARRAY -> {
+            sb.append('[');
+            return descriptor(sb, ((ArrayType) t).getComponentType());
+        }
+        case DECLARED -> {
+            TypeElement te = (TypeElement) ((DeclaredType) t).asElement();
+            sb.append('L').append(processingEnv.getElementUtils().getBinaryName(te).toString().replace('.', '/')).append(';');
+        }
+        default -> {
+            return false; // ERROR, or a type that cannot appear in a descriptor
+        }
+        }
+        return true;
+    }
+
+    private static boolean hasTrigger(Element member, HashMap<String, Boolean> cache, Set<String> triggers) {
+        for (AnnotationMirror am : member.getAnnotationMirrors()) {
+            TypeElement annotationType = (TypeElement) am.getAnnotationType().asElement();
+            Boolean isTrigger = cache.computeIfAbsent(annotationType.getQualifiedName().toString(), _ -> {
+                for (AnnotationMirror meta : annotationType.getAnnotationMirrors()) {
+                    String name = ((TypeElement) meta.getAnnotationType().asElement()).getQualifiedName().toString();
+                    if (triggers.contains(name)) {
+                        return Boolean.TRUE;
+                    }
+                }
+                return Boolean.FALSE;
+            });
+            if (isTrigger) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,9 @@
+/**
+ * An optional annotation processor that records the triggering members of every compiled class, so that bean
+ * introspection at runtime does not have to reflect over all members of a bean class.
+ */
+module app.packed.processor {
+    requires java.compiler;
+
+    provides javax.annotation.processing.Processor with internal.app.packed.processor.BeanIndexProcessor;
+}
@@ -0,0 +1,130 @@
+/*
+ * Copyright (c) 2026 Kasper Nielsen.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package internal.app.packed.processor;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.ToolProvider;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/** Tests {@link BeanIndexProcessor}. */
+public class BeanIndexProcessorTest {
+
+    /** A stand-in for the real trigger meta-annotations, the processor only looks at their names. */
+    static final String BEAN_TRIGGER = """
+            package app.packed.bean;
+            public final class BeanTrigger {
+                public @interface OnAnnotatedField {}
+                public @interface OnAnnotatedMethod {}
+            }
+            """;
+
+    static final String HOOK = """
+            package test;
+            import java.lang.annotation.*;
+            @Retention(RetentionPolicy.RUNTIME)
+            @app.packed.bean.BeanTrigger.OnAnnotatedMethod
+            public @interface Hook {}
+            """;
+
+    static final String FIELD_HOOK = """
+            package test;
+            import java.lang.annotation.*;
+            @Retention(RetentionPolicy.RUNTIME)
+            @app.packed.bean.BeanTrigger.OnAnnotatedField
+            public @interface FieldHook {}
+            """;
+
+    static final String STUB = """
+            package test;
+            public class Stub {
+                @FieldHook String f;
+                @Deprecated int g;
+                @SuppressWarnings("unused") long h;
+                @Hook void a() {}
+                @Hook @Deprecated String b(int i, String[] s) { return null; }
+                void c() {}
+                @Deprecated <T extends Number> T d(T t) { return t; }
+                public static class Nested {
+                    @Hook void n() {}
+                }
+            }
+            """;
+
+    @TempDir
+    Path out;
+
+    private List<String> compile() throws IOException {
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        List<JavaFileObject> sources = List.of(source("app/packed/bean/BeanTrigger", BEAN_TRIGGER), source("test/Hook", HOOK),
+                source("test/FieldHook", FIELD_HOOK), source("test/Stub", STUB));
+        JavaCompiler.CompilationTask task = compiler.getTask(null, null, null, List.of("-d", out.toString()), null, sources);
+        task.setProcessors(List.of(new BeanIndexProcessor()));
+        assertThat(task.call()).isTrue();
+        return Files.readAllLines(out.resolve(BeanIndexProcessor.INDEX_LOCATION + "test.Stub"));
+    }
+
+    @Test
+    public void index() throws IOException {
+        assertThat(compile()).containsExactly("F f", "M a ()V", "M b (I[Ljava/lang/String;)Ljava/lang/String;");
+        assertThat(out.resolve(BeanIndexProcessor.INDEX_LOCATION + "test.Stub$Nested")).exists();
+        assertThat(out.resolve(BeanIndexProcessor.INDEX_LOCATION + "test.Hook")).doesNotExist();
+    }
+
+    /** A class that refers to a type that does not exist, is not indexed, and javac reports the error. */
+    @Test
+    public void unresolvedType() {
+        String broken = """
+                package test;
+                public class Broken {
+                    @Hook Missing a() { return null; }
+                }
+                """;
+        DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        List<JavaFileObject> sources = List.of(source("app/packed/bean/BeanTrigger", BEAN_TRIGGER), source("test/Hook", HOOK),
+                source("test/Broken", broken));
+        JavaCompiler.CompilationTask task = compiler.getTask(null, null, diagnostics, List.of("-d", out.toString()), null, sources);
+        task.setProcessors(List.of(new BeanIndexProcessor()));
+        assertThat(task.call()).isFalse();
+        assertThat(diagnostics.getDiagnostics().stream().anyMatch(d -> d.getKind() == Diagnostic.Kind.ERROR && d.getMessage(null).contains("Missing")))
+                .isTrue();
+        assertThat(out.resolve(BeanIndexProcessor.INDEX_LOCATION + "test.Broken")).doesNotExist();
+    }
+
+    private static JavaFileObject source(String name, String code) {
+        return new SimpleJavaFileObject(URI.create("string:///" + name + ".java"), JavaFileObject.Kind.SOURCE) {
+
+            @Override
+            public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+                return code;
+            }
+        };
+    }
+}
@@ -221,6 +221,30 @@ public interface App extends AutoCloseable, ApplicationInterface {
         PackedApp.BOOTSTRAP_APP.verify(assembly, wirelets);
     }
 
+    /**
+     * Builds, starts and stops an application once, for the purpose of training the JDK ahead-of-time cache.
+     * <p>
+     * A typical training run looks like:
+     *
+     * <pre>{@code
+     * java -XX:AOTCacheOutput=app.aot -cp app.jar com.acme.TrainMain
+     * }</pre>
+     *
+     * where {@code TrainMain} calls this method with the application's assembly. Afterwards the application is started
+     * with {@code -XX:AOTCache=app.aot}.
+     *
+     * @param assembly
+     *            the application's assembly
+     * @param wirelets
+     *            optional wirelets for configuration
+     * @throws RuntimeException
+     *             if the application fails to build, start or stop
+     * @see BootstrapApp#train(Assembly, Wirelet...)
+     */
+    static void train(Assembly assembly, Wirelet... wirelets) {
+        PackedApp.BOOTSTRAP_APP.train(assembly, wirelets);
+    }
+
 //    @SuppressWarnings("exports")
 //    static ApplicationBeanConfiguration<App> installChild(ApplicationRegistryExtension extension, Assembly assembly, Wirelet... wirelets) {
 //        throw new UnsupportedOperationException();
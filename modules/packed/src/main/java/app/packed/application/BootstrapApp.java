@@ -161,6 +161,28 @@ public sealed interface BootstrapApp<I> extends ApplicationInterface permits Pac
      */
     void verify(Assembly assembly, Wirelet... wirelets);
 
+    /**
+     * Builds an application, launches it and stops it again, for the purpose of training the JDK ahead-of-time cache.
+     * <p>
+     * The application is built with {@link app.packed.build.BuildGoal#TRAIN}, which extensions can check to avoid side effects that are
+     * unwanted in a training run, such as binding network ports. Managed applications are launched in the
+     * {@link RunState#TERMINATED} state, so they are initialized, started and stopped again. Unmanaged applications are
+     * launched in the {@link RunState#INITIALIZED} state.
+     * <p>
+     * This method does nothing that is specific to the JDK. It just runs a complete build and launch cycle, loading and
+     * initializing the classes, method handles and lambda forms that an application normally uses when it starts. An
+     * ahead-of-time cache is recorded by running a JVM that calls this method with {@code -XX:AOTCacheOutput=<file>},
+     * and used by subsequent JVMs started with {@code -XX:AOTCache=<file>}.
+     *
+     * @param assembly
+     *            the application's assembly
+     * @param wirelets
+     *            optional wirelets
+     * @throws RuntimeException
+     *             if the application could not be build, launched or stopped
+     */
+    void train(Assembly assembly, Wirelet... wirelets);
+
     // withExpectingResult
     BootstrapApp<I> withExpectsResult(Class<?> resultType);
 
@@ -270,6 +292,12 @@ record MappedBootstrapApp<A, E>(BootstrapApp<A> app, Function<? super A, ? exten
     public void verify(Assembly assembly, Wirelet... wirelets) {
         app.verify(assembly, wirelets);
     }
+
+    /** {@inheritDoc} */
+    @Override
+    public void train(Assembly assembly, Wirelet... wirelets) {
+        app.train(assembly, wirelets);
+    }
 //
 //    /** {@inheritDoc} */
 //    @Override
@@ -25,6 +25,7 @@ import app.packed.build.BuildGoal;
 import app.packed.container.Wirelet;
 import app.packed.extension.BaseExtension;
 import app.packed.lifecycle.LifecycleKind;
+import app.packed.lifecycle.RunState;
 import internal.app.packed.ValueBased;
 import internal.app.packed.application.PackedApplicationInstaller;
 import internal.app.packed.application.PackedApplicationTemplate;
@@ -36,6 +37,7 @@ import internal.app.packed.bean.sidehandle.SidehandleBeanHandle;
 import internal.app.packed.extension.ExtensionSetup;
 import internal.app.packed.invoke.MethodHandleInvoker.ApplicationBaseLauncher;
 import internal.app.packed.invoke.ServiceSupport;
+import internal.app.packed.lifecycle.runtime.ApplicationLaunchContext;
 
 /** Implementation of {@link BootstrapApp}. */
 @ValueBased
@@ -116,6 +118,19 @@ final class PackedBootstrapApp<A, H extends ApplicationHandle<A, ?>> implements
         installer.install(assembly);
     }
 
+    /** {@inheritDoc} */
+    @Override
+    public void train(Assembly assembly, Wirelet... wirelets) {
+        ApplicationInstaller<H> installer = template.newInstaller(this, BuildGoal.TRAIN, launcher, wirelets);
+
+        // Build the application
+        H handle = installer.install(assembly);
+
+        // Launch the application, managed applications are stopped again before this method returns
+        RunState state = template.lifecycleKind() == LifecycleKind.MANAGED ? RunState.TERMINATED : RunState.INITIALIZED;
+        ApplicationLaunchContext.launch(handle, state);
+    }
+
     /** {@inheritDoc} */
     @Override
     public PackedBootstrapApp<A, H> withExpectsResult(Class<?> resultType) {
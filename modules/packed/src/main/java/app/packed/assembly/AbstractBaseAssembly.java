@@ -15,6 +15,8 @@
  */
 package app.packed.assembly;
 
+import java.util.function.IntFunction;
+
 import app.packed.bean.Bean;
 import app.packed.container.ContainerConfiguration;
 import app.packed.container.Wirelet;
@@ -145,6 +147,25 @@ public abstract class AbstractBaseAssembly extends BuildableAssembly {
         base().link(name, assembly, wirelets);
     }
 
+    /**
+     * Links the specified number of assemblies as part of the same application and container that this container is part
+     * of.
+     *
+     * @param count
+     *            the number of assemblies to link
+     * @param assemblies
+     *            a function that is invoked with the index of each assembly to link and returns the assembly
+     * @param name
+     *            the name of the containers, a counter is appended to all but the first container
+     * @param wirelets
+     *            optional wirelets, that are used for every assembly
+     * @see #link(Assembly, String, Wirelet...)
+     * @see BaseExtension#linkAll(String, int, IntFunction, Wirelet...)
+     */
+    protected final void linkAll(int count, IntFunction<? extends Assembly> assemblies, String name, Wirelet... wirelets) {
+        base().linkAll(name, count, assemblies, wirelets);
+    }
+
     /**
      * Sets the name of this assembly's container. The name must consists only of alphanumeric characters and '_', '-' or
      * '.'. The name is case sensitive.
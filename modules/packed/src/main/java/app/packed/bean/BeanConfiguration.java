@@ -211,6 +211,29 @@ public non-sealed class BeanConfiguration<T> extends ComponentConfiguration impl
         return handle.bean.container == other.handle.bean.container;
     }
 
+    /**
+     * Makes the bean lazy.
+     * <p>
+     * A lazy bean is not created when its lifetime is initialized. Instead it is created the first time it is needed, for
+     * example, when it is injected into another bean or looked up as a service. Initialization operations on the bean
+     * are invoked when the bean is created. Start operations are invoked when the bean is created or when its lifetime is
+     * started, whichever comes last. Stop operations are only invoked if the bean has been started.
+     * <p>
+     * A lazy bean is created at most once per lifetime instance, even if it is accessed concurrently. If the creation
+     * fails, the next access will try to create the bean again.
+     *
+     * @return this configuration
+     * @throws UnsupportedOperationException
+     *             if the bean is not a {@link BeanKind#SINGLETON singleton} bean or if the bean was installed from an
+     *             instance
+     * @see BeanMirror#isLazy()
+     */
+    public BeanConfiguration<T> lazy() {
+        checkIsConfigurable();
+        handle.lazy();
+        return this;
+    }
+
     /**
      * Sets the name of the bean. The name must consists only of alphanumeric characters and '_', '-' or '.'. The name is
      * case sensitive.
@@ -38,6 +38,7 @@ import internal.app.packed.bean.PackedBeanInstaller;
 import internal.app.packed.binding.BindingProvider.FromConstant;
 import internal.app.packed.component.PackedComponentState;
 import internal.app.packed.context.publish.ContextualizedElement;
+import internal.app.packed.lifecycle.lifetime.LazyBeanLifecycle;
 import internal.app.packed.operation.OperationSetup;
 import internal.app.packed.operation.PackedOperationTemplate;
 import internal.app.packed.service.ServiceProvideOperationHandle;
@@ -234,6 +235,24 @@ public non-sealed class BeanHandle<C extends BeanConfiguration<?>> extends Compo
         return List.of();
     }
 
+    /**
+     * Makes the bean lazy. The bean is created, and its initialization operations invoked, the first time the bean
+     * instance is needed. Instead of when its lifetime is initialized.
+     *
+     * @throws UnsupportedOperationException
+     *             if the bean is not a singleton bean or if the bean was installed from an instance
+     * @see BeanMirror#isLazy()
+     */
+    public final void lazy() {
+        checkNotFinalized();
+        if (bean.beanKind != BeanKind.SINGLETON || bean.lifetimeStoreIndex == null) {
+            throw new UnsupportedOperationException("Only singleton beans that are not installed from an instance can be lazy");
+        }
+        if (bean.lazy == null) {
+            bean.lazy = new LazyBeanLifecycle();
+        }
+    }
+
     /** {@inheritDoc} */
     @Override
     public final BeanMirror mirror() {
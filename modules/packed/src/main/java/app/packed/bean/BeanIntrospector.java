@@ -45,6 +45,7 @@ import app.packed.extension.InternalExtensionException;
 import app.packed.operation.Op;
 import app.packed.operation.OperationHandle;
 import app.packed.operation.OperationInstaller;
+import app.packed.operation.OperationInterceptor;
 import app.packed.operation.OperationType;
 import app.packed.util.AnnotationList;
 import internal.app.packed.bean.BeanSetup;
@@ -691,6 +692,18 @@ public non-sealed abstract class BeanIntrospector<E extends Extension<E>> implem
          */
         boolean hasInvokeAccess();
 
+        /**
+         * Adds an interceptor that wraps the invoker of every operation that invokes the underlying method, including
+         * operations created by other extensions. Interceptors are applied in the code generating phase of the application, in
+         * the order they were added.
+         *
+         * @param interceptor
+         *            the interceptor to add
+         * @throws IllegalStateException
+         *             if the bean is no longer configurable
+         */
+        void intercept(OperationInterceptor interceptor);
+
         /** {@return the underlying method (if the method is not synthetic).} */
         // Prob not in version 1. What if we just removed an annotation????
         // Probably need these in OperationTarget as well:(
@@ -837,6 +850,9 @@ public non-sealed abstract class BeanIntrospector<E extends Extension<E>> implem
          * every time the the variable is requested.
          * <p>
          * There are no direct support for lazy computation or caching of computed values.
+         * <p>
+         * The return type of the op must be the type of the variable, a subtype of it, or, for a primitive variable, the
+         * corresponding wrapper type. Return values are never cast.
          *
          * @param op
          *            the operation to bind
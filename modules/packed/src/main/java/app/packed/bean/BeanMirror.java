@@ -152,6 +152,17 @@ public non-sealed class BeanMirror implements Accessor, ComponentMirror, Context
         return handle.bean.installedBy.extensionType;
     }
 
+    /**
+     * {@return whether or not the bean is lazy}
+     * <p>
+     * A lazy bean is created the first time it is needed, instead of when its lifetime is initialized.
+     *
+     * @see BeanConfiguration#lazy()
+     */
+    public final boolean isLazy() {
+        return handle.bean.lazy != null;
+    }
+
     /** {@return a mirror detailing the lifecycle of the bean} */
     public final Lifecycle lifecycle() {
         return new Lifecycle();
@@ -41,6 +41,14 @@ public enum BuildGoal {
      */
     MIRROR,
 
+    /**
+     * The goal is to build an application, launch it and then stop it again. Exercising the code paths used when an
+     * application is started, so they can be recorded by a training run of the JDK ahead-of-time cache.
+     *
+     * @see App#train(Assembly, Wirelet...)
+     */
+    TRAIN,
+
     /**
      * The goal is to verify that the application is structural correct.
      *
@@ -50,6 +58,6 @@ public enum BuildGoal {
 
     /** {@return whether or not code will be generated doing the build task.} */
     public boolean isCodeGenerating() {
-        return this == LAUNCH || this == IMAGE;
+        return this == LAUNCH || this == IMAGE || this == TRAIN;
     }
 }
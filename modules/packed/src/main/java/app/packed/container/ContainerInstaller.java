@@ -15,6 +15,9 @@
  */
 package app.packed.container;
 
+import java.util.List;
+import java.util.function.IntFunction;
+
 import app.packed.assembly.Assembly;
 import internal.app.packed.container.PackedContainerInstaller;
 
@@ -45,6 +48,30 @@ public sealed interface ContainerInstaller<H extends ContainerHandle<?>> permits
      */
     H install(Assembly assembly, Wirelet... wirelets);
 
+    /**
+     * Creates the specified number of containers, each using an assembly returned by the specified function.
+     * <p>
+     * Every container is installed with the configuration of this installer, as if a new installer with the same
+     * configuration had been used for each container. If a name has been set on this installer, it is used for every
+     * container, with a counter appended to all but the first container. For example, {@code device}, {@code device1},
+     * {@code device2}. Installing containers using this method is faster than installing them one at a time when
+     * installing a large number of containers.
+     *
+     * @param count
+     *            the number of containers to install
+     * @param assemblies
+     *            a function that is invoked with the index of each container and returns the assembly to use for it
+     * @param wirelets
+     *            optional wirelets, that are used for every container
+     * @return an unmodifiable list of container handles, in the order the containers were installed
+     * @throws IllegalArgumentException
+     *             if count is negative
+     * @throws IllegalStateException
+     *             if this installer installs the root container of an application
+     * @see #install(Assembly, Wirelet...)
+     */
+    List<H> installAll(int count, IntFunction<? extends Assembly> assemblies, Wirelet... wirelets);
+
     /**
      * Creates a new configurable container.
      *
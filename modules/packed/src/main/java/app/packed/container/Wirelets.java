@@ -52,6 +52,81 @@ public final class Wirelets {
         };
     }
 
+    /**
+     * Generates code for the beans of the application in parallel.
+     * <p>
+     * Most code generated for a bean is independent of code generated for other beans. With this wirelet the code
+     * generating phase of the application runs the code generation for each bean on its own (virtual) thread. Code
+     * generation for extensions is still performed on the building thread after all beans have been processed.
+     * <p>
+     * This is mainly useful for applications with a very large number of operations.
+     *
+     * @return a wirelet
+     */
+    public static Wirelet codegenInParallel() {
+        return new InternalBaseWirelet() {
+
+            @Override
+            public void onBuild(PackedContainerInstaller<?> installer) {
+                checkIsApplication(installer);
+                installer.applicationInstaller.optionParallelCodegen = true;
+            }
+        };
+    }
+
+    /**
+     * Initializes the beans of the application in parallel.
+     * <p>
+     * With this wirelet each application bean is constructed, injected and initialized on its own (virtual) thread as
+     * soon as all the beans it depends on have been initialized. Beans that are owned by extensions are still initialized
+     * in order on the launching thread before any application beans. If a bean fails to initialize, the initialization of
+     * all other beans is cancelled and the failure is reported to the launching thread.
+     * <p>
+     * This is mainly useful for applications with many independent beans that perform expensive initialization.
+     *
+     * @return a wirelet
+     */
+    public static Wirelet initializeInParallel() {
+        return new InternalBaseWirelet() {
+
+            @Override
+            public void onBuild(PackedContainerInstaller<?> installer) {
+                checkIsApplication(installer);
+                installer.applicationInstaller.optionParallelInitialization = true;
+            }
+        };
+    }
+
+    /**
+     * Starts and stops the beans of the application in parallel.
+     * <p>
+     * With this wirelet {@link app.packed.lifecycle.Start} methods on a bean are run as soon as all the beans it depends
+     * on have been started. And {@link app.packed.lifecycle.Stop} methods on a bean are run as soon as all beans that
+     * depend on it have been stopped. At most {@code maxParallelism} operations are run at the same time. Beans that are
+     * owned by extensions are still started first, and stopped last, in order on the launching thread.
+     * <p>
+     * This is mainly useful for applications with many independent beans that perform slow start or stop operations.
+     *
+     * @param maxParallelism
+     *            the maximum number of start or stop operations that may run at the same time
+     * @return a wirelet
+     * @throws IllegalArgumentException
+     *             if max parallelism is less than 1
+     */
+    public static Wirelet startStopInParallel(int maxParallelism) {
+        if (maxParallelism < 1) {
+            throw new IllegalArgumentException("maxParallelism must be at least 1, was " + maxParallelism);
+        }
+        return new InternalBaseWirelet() {
+
+            @Override
+            public void onBuild(PackedContainerInstaller<?> installer) {
+                checkIsApplication(installer);
+                installer.applicationInstaller.optionLifecycleParallelism = maxParallelism;
+            }
+        };
+    }
+
     // How does this work with scope?
     public static Wirelet argList(String... args) {
         throw new UnsupportedOperationException();
@@ -1,6 +1,9 @@
 package app.packed.extension;
 
+import static java.util.Objects.requireNonNull;
+
 import java.util.function.Consumer;
+import java.util.function.IntFunction;
 
 import app.packed.assembly.Assembly;
 import app.packed.bean.Bean;
@@ -208,7 +211,7 @@ public final class BaseExtension extends FrameworkExtension<BaseExtension> {
                 ProvidableBeanHandle::new);
         ha.configuration().exportAs(ServiceLocator.class);
 
-        // PackedServiceLocator needs a Map<Key, MethodHandle> which is created in the code generation phase
+        // PackedServiceLocator needs an ExportedServiceTable which is created in the code generation phase
         ha.bindComputedConstant(PackedServiceLocator.KEY, () -> extension.container.servicesMain().exportedServices());
 
         // Alternative, If we do not use it for anything else
@@ -232,6 +235,38 @@ public final class BaseExtension extends FrameworkExtension<BaseExtension> {
         link0().named(name).install(assembly, wirelets);
     }
 
+    /**
+     * Creates the specified number of child containers by linking an assembly for each of them.
+     * <p>
+     * This method is equivalent to calling {@link #link(String, Assembly, Wirelet...)} once for each assembly. Except
+     * that the first container is named {@code name} and the remaining containers are named {@code name} followed by a
+     * counter, for example, {@code tenant}, {@code tenant1}, {@code tenant2}. Linking a large number of assemblies using
+     * this method is faster than linking them one at a time.
+     *
+     * @param name
+     *            the name of the containers
+     * @param count
+     *            the number of assemblies to link
+     * @param assemblies
+     *            a function that is invoked with the index of each assembly to link and returns the assembly
+     * @param wirelets
+     *            optional wirelets, that are used for every assembly
+     * @throws IllegalArgumentException
+     *             if count is negative
+     */
+    public void linkAll(String name, int count, IntFunction<? extends Assembly> assemblies, Wirelet... wirelets) {
+        requireNonNull(assemblies, "assemblies is null");
+        if (count < 0) {
+            throw new IllegalArgumentException("count must be non-negative, was " + count);
+        }
+        PackedContainerInstaller<?> installer = link0().named(name);
+        extension.container.reserveChildren(count);
+        for (int i = 0; i < count; i++) {
+            Assembly assembly = requireNonNull(assemblies.apply(i), "assemblies returned null");
+            installer.newInstaller().install(assembly, wirelets);
+        }
+    }
+
     /**
      * Creates a new container that strongly linked to the lifetime of this container.
      *
@@ -0,0 +1,50 @@
+/*
+ * Copyright (c) 2026 Kasper Nielsen.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package app.packed.lifecycle;
+
+/**
+ * An exception that is thrown when a lifecycle operation of a lifetime, for example, a method annotated with
+ * {@link Start} or {@link Stop}, could not be completed. Either because it did not complete within its timeout, or
+ * because the thread waiting for it was interrupted.
+ * <p>
+ * Exceptions thrown by the lifecycle operations themselves are rethrown as is.
+ */
+public class LifecycleException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Creates a new exception.
+     *
+     * @param message
+     *            the detail message
+     */
+    public LifecycleException(String message) {
+        super(message);
+    }
+
+    /**
+     * Creates a new exception.
+     *
+     * @param message
+     *            the detail message
+     * @param cause
+     *            the cause
+     */
+    public LifecycleException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
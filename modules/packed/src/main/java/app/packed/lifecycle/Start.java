@@ -103,6 +103,20 @@ public @interface Start {
      */
     boolean interruptOnStopping() default true;
 
+    /**
+     * The maximum amount of time the annotated method may run, in the format accepted by
+     * {@link java.time.Duration#parse(CharSequence)}. For example, {@code "PT30S"} for 30 seconds.
+     * <p>
+     * If the method has not completed when the timeout elapses, the thread running it is interrupted and the lifetime
+     * fails to start. Methods with a timeout are always run on their own thread.
+     * <p>
+     * The default value is the empty string, which indicates that there is no timeout.
+     *
+     * @return the timeout of the annotated method
+     * @see StartOperationConfiguration#setTimeout(java.time.Duration)
+     */
+    String timeout() default "";
+
     // forkMode
     // forkAsDaemon (keepRunning) = Mark the bean as keep running. Don't await
 
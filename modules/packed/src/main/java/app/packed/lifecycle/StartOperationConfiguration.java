@@ -15,18 +15,52 @@
  */
 package app.packed.lifecycle;
 
+import static java.util.Objects.requireNonNull;
+
+import java.time.Duration;
+import java.util.Optional;
+
 import app.packed.operation.OperationHandle;
+import internal.app.packed.lifecycle.LifecycleOperationHandle.StartOperationHandle;
 
 /**
  *
  */
 public final class StartOperationConfiguration extends LifecycleOperationConfiguration {
 
+    /** The handle representing the operation. */
+    private final StartOperationHandle handle;
+
     /**
      * @param handle
      */
     public StartOperationConfiguration(OperationHandle<?> handle) {
+        this.handle = (StartOperationHandle) handle;
         super(handle);
     }
 
+    /** {@return the maximum time the operation may run, or empty if there is no timeout} */
+    public Optional<Duration> timeout() {
+        return Optional.ofNullable(handle.timeout);
+    }
+
+    /**
+     * Sets the maximum time the operation may run.
+     *
+     * @param timeout
+     *            the timeout
+     * @return this configuration
+     * @throws IllegalArgumentException
+     *             if the timeout is not positive
+     * @see Start#timeout()
+     */
+    public StartOperationConfiguration setTimeout(Duration timeout) {
+        requireNonNull(timeout, "timeout is null");
+        checkIsConfigurable();
+        if (timeout.isNegative() || timeout.isZero()) {
+            throw new IllegalArgumentException("Timeout must be positive, was " + timeout);
+        }
+        handle.timeout = timeout;
+        return this;
+    }
 }
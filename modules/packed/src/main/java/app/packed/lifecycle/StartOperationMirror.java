@@ -15,7 +15,11 @@
  */
 package app.packed.lifecycle;
 
+import java.time.Duration;
+import java.util.Optional;
+
 import app.packed.operation.OperationHandle;
+import internal.app.packed.lifecycle.LifecycleOperationHandle.StartOperationHandle;
 
 /**
  * Represents a starting operation.
@@ -23,10 +27,33 @@ import app.packed.operation.OperationHandle;
 // Mangler lidt en struktur for pre/post. Interceptor like
 public final class StartOperationMirror extends LifecycleOperationMirror {
 
+    /** The handle representing the operation. */
+    private final StartOperationHandle handle;
+
     /**
      * @param handle
      */
    public StartOperationMirror(OperationHandle<?> handle) {
+        this.handle = (StartOperationHandle) handle;
         super(handle);
     }
+
+    /**
+     * Returns how long the operation took the last time it was invoked.
+     * <p>
+     * The duration is shared by every instance launched from the same image, and is not tracked per instance. If the
+     * application has been launched multiple times, possibly concurrently, the duration of the invocation that completed
+     * most recently in any instance is returned.
+     *
+     * @return the duration of the last invocation, or empty if the operation has never been invoked
+     */
+    public Optional<Duration> lastDuration() {
+        long nanos = handle.lastInvocationNanos;
+        return nanos < 0 ? Optional.empty() : Optional.of(Duration.ofNanos(nanos));
+    }
+
+    /** {@return the maximum time the operation may run, or empty if there is no timeout} */
+    public Optional<Duration> timeout() {
+        return Optional.ofNullable(handle.timeout);
+    }
 }
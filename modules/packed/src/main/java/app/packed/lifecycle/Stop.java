@@ -59,6 +59,20 @@ public @interface Stop {
 
     boolean fork() default false;
 
+    /**
+     * The maximum amount of time the annotated method may run, in the format accepted by
+     * {@link java.time.Duration#parse(CharSequence)}. For example, {@code "PT30S"} for 30 seconds.
+     * <p>
+     * If the method has not completed when the timeout elapses, the thread running it is interrupted. Methods with a
+     * timeout are always run on their own thread.
+     * <p>
+     * The default value is the empty string, which indicates that there is no timeout.
+     *
+     * @return the timeout of the annotated method
+     * @see StopOperationConfiguration#setTimeout(java.time.Duration)
+     */
+    String timeout() default "";
+
     /**
      * Controls the execution order of this stop method relative to beans that depend on this bean.
      * <p>
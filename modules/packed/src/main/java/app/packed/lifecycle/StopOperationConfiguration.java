@@ -15,6 +15,11 @@
  */
 package app.packed.lifecycle;
 
+import static java.util.Objects.requireNonNull;
+
+import java.time.Duration;
+import java.util.Optional;
+
 import app.packed.operation.OperationHandle;
 import internal.app.packed.lifecycle.LifecycleOperationHandle.StopOperationHandle;
 import internal.app.packed.lifecycle.PackedBeanLifecycleKind;
@@ -36,6 +41,31 @@ public final class StopOperationConfiguration extends LifecycleOperationConfigur
         return handle.lifecycleKind == PackedBeanLifecycleKind.STOP_POST_ORDER;
     }
 
+    /** {@return the maximum time the operation may run, or empty if there is no timeout} */
+    public Optional<Duration> timeout() {
+        return Optional.ofNullable(handle.timeout);
+    }
+
+    /**
+     * Sets the maximum time the operation may run.
+     *
+     * @param timeout
+     *            the timeout
+     * @return this configuration
+     * @throws IllegalArgumentException
+     *             if the timeout is not positive
+     * @see Stop#timeout()
+     */
+    public StopOperationConfiguration setTimeout(Duration timeout) {
+        requireNonNull(timeout, "timeout is null");
+        checkIsConfigurable();
+        if (timeout.isNegative() || timeout.isZero()) {
+            throw new IllegalArgumentException("Timeout must be positive, was " + timeout);
+        }
+        handle.timeout = timeout;
+        return this;
+    }
+
     // Maaske kan man ikke rette det
     public void setNaturalOrder(boolean isNaturalOrder) {
         throw new UnsupportedOperationException();
@@ -0,0 +1,44 @@
+/*
+ * Copyright (c) 2026 Kasper Nielsen.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package app.packed.operation;
+
+import java.lang.invoke.MethodHandle;
+
+import app.packed.bean.BeanIntrospector;
+
+/**
+ * Wraps the generated invoker of an operation.
+ * <p>
+ * Interceptors are added at build time, typically using {@link BeanIntrospector.OnMethod#intercept(OperationInterceptor)}
+ * by an extension that is triggered by an annotation on a method. But are not applied until the code generating phase
+ * of the application. Operations that have no interceptors are generated exactly as if the interceptor mechanism did not
+ * exist.
+ */
+@FunctionalInterface
+public interface OperationInterceptor {
+
+    /**
+     * Intercepts the invoker of an operation.
+     *
+     * @param operation
+     *            a mirror of the operation being intercepted
+     * @param invoker
+     *            the generated invoker of the operation
+     * @return a method handle of the exact same type as the invoker, or the invoker itself to leave the operation
+     *         untouched
+     */
+    MethodHandle intercept(OperationMirror operation, MethodHandle invoker);
+}
@@ -65,6 +65,13 @@ public class ProvidableBeanConfiguration<T> extends BeanConfiguration<T> {
         return this;
     }
 
+    /** {@inheritDoc} */
+    @Override
+    public ProvidableBeanConfiguration<T> lazy() {
+        super.lazy();
+        return this;
+    }
+
     /** {@inheritDoc} */
     @Override
     public ProvidableBeanConfiguration<T> named(String name) {
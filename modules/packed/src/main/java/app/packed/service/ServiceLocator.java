@@ -41,6 +41,7 @@ import app.packed.lifecycle.LifecycleKind;
 import app.packed.lifecycle.RunState;
 import app.packed.operation.Op1;
 import internal.app.packed.lifecycle.runtime.PackedExtensionContext;
+import internal.app.packed.service.util.ExportedServiceTable;
 import internal.app.packed.service.util.PackedServiceLocator;
 
 /**
@@ -354,7 +355,7 @@ public interface ServiceLocator extends ApplicationInterface {
 
     /** {@return an empty service locator that provides no services.} */
     static ServiceLocator of() {
-        return new PackedServiceLocator(PackedExtensionContext.EMPTY, Map.of());
+        return new PackedServiceLocator(PackedExtensionContext.EMPTY, ExportedServiceTable.EMPTY);
     }
 
     /**
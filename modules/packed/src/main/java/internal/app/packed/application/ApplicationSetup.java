@@ -19,7 +19,10 @@ import static java.util.Objects.requireNonNull;
 
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.concurrent.StructuredTaskScope;
+import java.util.concurrent.StructuredTaskScope.Joiner;
 import java.util.function.Function;
 
 import org.jspecify.annotations.Nullable;
@@ -27,14 +30,17 @@ import org.jspecify.annotations.Nullable;
 import app.packed.application.ApplicationConfiguration;
 import app.packed.application.ApplicationHandle;
 import app.packed.application.ApplicationMirror;
+import app.packed.build.BuildException;
 import app.packed.build.BuildGoal;
 import app.packed.component.ComponentKind;
 import app.packed.component.ComponentPath;
+import app.packed.container.Wirelets;
 import app.packed.extension.Extension;
 import app.packed.extension.Sidehandle;
 import internal.app.packed.application.deployment.DeploymentSetup;
 import internal.app.packed.application.repository.BuildApplicationRepository;
 import internal.app.packed.assembly.AssemblySetup;
+import internal.app.packed.bean.BeanSetup;
 import internal.app.packed.build.BuildLocalMap;
 import internal.app.packed.build.BuildLocalMap.BuildLocalSource;
 import internal.app.packed.build.hooks.ApplicationBuildHook;
@@ -42,6 +48,9 @@ import internal.app.packed.component.ComponentSetup;
 import internal.app.packed.component.ComponentTagHolder;
 import internal.app.packed.container.ContainerSetup;
 import internal.app.packed.invoke.MethodHandleInvoker.ApplicationBaseLauncher;
+import internal.app.packed.invoke.OperationCodeGenerator;
+import internal.app.packed.lifecycle.runtime.ApplicationLaunchPlan;
+import internal.app.packed.util.ThrowableUtil;
 import internal.app.packed.util.accesshelper.ApplicationAccessHandler;
 
 /** The internal configuration of an application. */
@@ -57,6 +66,27 @@ public final class ApplicationSetup implements BuildLocalSource, ComponentSetup
     @Nullable
     private ArrayList<Runnable> codegenActions;
 
+    /**
+     * Code generating actions that only touch a single bean, grouped by bean. Or null if parallel code generation is
+     * disabled, code generation is disabled, or code generation has already been performed. Each bean's actions are run
+     * concurrently with the actions of other beans.
+     */
+    @Nullable
+    private LinkedHashMap<BeanSetup, ArrayList<Runnable>> codegenBeanActions;
+
+    /**
+     * Threads that are waiting for another thread to generate a method handle, mapped to the code generator they are
+     * waiting for. Used by {@link OperationCodeGenerator} to detect threads that would wait on each other.
+     */
+    public final HashMap<Thread, OperationCodeGenerator> codegenWaiters = new HashMap<>();
+
+
+    /** Whether or not beans are initialized in parallel. */
+    public final boolean initializeInParallel;
+
+    /** The maximum number of start or stop operations that are run concurrently, or 0 if they are run in order. */
+    public final int lifecycleParallelism;
+
     /** Handles components tags for every components in the application. */
     public final ComponentTagHolder componentTags = new ComponentTagHolder();
 
@@ -75,6 +105,10 @@ public final class ApplicationSetup implements BuildLocalSource, ComponentSetup
     /** A MethodHandle wrapper for launching the application. */
     public final ApplicationBaseLauncher launcher;
 
+    /** The plan for launching instances of the application, created after code has been generated. */
+    @Nullable
+    private ApplicationLaunchPlan launchPlan;
+
     /** This map maintains all locals for the entire application. */
     private final BuildLocalMap locals = new BuildLocalMap();
 
@@ -112,6 +146,9 @@ public final class ApplicationSetup implements BuildLocalSource, ComponentSetup
         this.template = installer.template;
         this.deployment = new DeploymentSetup(this, installer);
         this.codegenActions = deployment.goal.isCodeGenerating() || installer.optionAlwaysCodegen ? new ArrayList<>() : null;
+        this.codegenBeanActions = codegenActions == null || !installer.optionParallelCodegen ? null : new LinkedHashMap<>();
+        this.initializeInParallel = installer.optionParallelInitialization;
+        this.lifecycleParallelism = installer.optionLifecycleParallelism;
         this.goal = installer.buildProcess.goal();
         this.launcher = installer.launcher; // Is null for bootstrap
     }
@@ -136,6 +173,33 @@ public final class ApplicationSetup implements BuildLocalSource, ComponentSetup
         }
     }
 
+    /**
+     * Registers an action that will be called in the code generation phase. Unlike {@link #addCodegenAction(Runnable)}
+     * the action must only generate code for the specified bean. Other beans' code may still be used, but only via
+     * memoized code generators, as the action might be run concurrently with the actions of other beans.
+     *
+     * @param bean
+     *            the bean the action generates code for
+     * @param action
+     *            the action to run
+     * @throws IllegalStateException
+     *             if already in the code generating phase or if the build has finished
+     * @see Wirelets#codegenInParallel()
+     */
+    public void addCodegenAction(BeanSetup bean, Runnable action) {
+        requireNonNull(bean, "bean is null");
+        requireNonNull(action, "action is null");
+        if (phase != ApplicationBuildPhase.ASSEMBLE) {
+            throw new IllegalStateException("This method must be called in the assemble phase of the application");
+        }
+        // Unless code generation is done in parallel, actions are run in the order they are added
+        if (codegenBeanActions != null) {
+            codegenBeanActions.computeIfAbsent(bean, _ -> new ArrayList<>()).add(action);
+        } else if (codegenActions != null) {
+            codegenActions.add(action);
+        }
+    }
+
     /**
      * Checks that we are in the code generating phase.
      *
@@ -154,19 +218,61 @@ public final class ApplicationSetup implements BuildLocalSource, ComponentSetup
         if (codegenActions != null) { // dont run for mirrorOf or verify
             phase = ApplicationBuildPhase.CODEGEN;
 
-            // Run through all code generating actions
+            // If code generation is done in parallel, generate code for each bean first
+            if (codegenBeanActions != null) {
+                runCodegenInParallel(codegenBeanActions);
+            }
+
+            // Run through all other code generating actions, these may depend on the code generated for any bean
             for (Runnable r : codegenActions) {
                 r.run();
             }
 
             // clear out the list of actions.
             codegenActions = null;
+            codegenBeanActions = null;
+
+            // Everything needed to launch instances of the application is known now
+            launchPlan = new ApplicationLaunchPlan(this);
         }
 
         // The application was build successfully
         phase = ApplicationBuildPhase.CLOSED;
     }
 
+    /**
+     * Runs the code generating actions of each bean concurrently.
+     * <p>
+     * Operations that embed operations from other beans, or that depend on services provided by other beans, may end up
+     * generating code for those beans as well. This is safe because {@link OperationCodeGenerator} memoizes the generated
+     * method handle, computing it at most once and blocking any concurrent readers until it has been computed. A reader
+     * that would wait, directly or indirectly, on itself fails with a {@link BuildException} instead of deadlocking, see
+     * {@link #codegenWaiters}.
+     * <p>
+     * All state read by the code generators, such as the interceptors of a bean, is fixed when the assembly phase ends.
+     * <p>
+     * The build process is propagated to each forked thread via the scoped value carrier the build is running in.
+     */
+    private static void runCodegenInParallel(LinkedHashMap<BeanSetup, ArrayList<Runnable>> beanActions) {
+        try (var scope = StructuredTaskScope.open(Joiner.<Void>awaitAllSuccessfulOrThrow(),
+                c -> c.withName("AppCodegen").withThreadFactory(Thread.ofVirtual().name("AppCodegen", 0).factory()))) {
+            for (ArrayList<Runnable> actions : beanActions.values()) {
+                scope.fork(() -> {
+                    for (Runnable r : actions) {
+                        r.run();
+                    }
+                });
+            }
+            scope.join();
+        } catch (StructuredTaskScope.FailedException e) {
+            // Rethrow the first failure
+            throw ThrowableUtil.orUndeclared(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BuildException("Interrupted while generating code", e);
+        }
+    }
+
     /** {@return the component path of the application} */
     @Override
     public ComponentPath componentPath() {
@@ -183,6 +289,21 @@ public final class ApplicationSetup implements BuildLocalSource, ComponentSetup
     }
 
 
+    /**
+     * Returns the plan for launching instances of the application.
+     *
+     * @return the launch plan
+     * @throws IllegalStateException
+     *             if the application has not generated code, for example, because it was only built to create a mirror
+     */
+    public ApplicationLaunchPlan launchPlan() {
+        ApplicationLaunchPlan p = launchPlan;
+        if (p == null) {
+            throw new IllegalStateException("The application has not been built for launching, build goal = " + deployment.goal);
+        }
+        return p;
+    }
+
     /** {@inheritDoc} */
     @Override
     public BuildLocalMap locals() {
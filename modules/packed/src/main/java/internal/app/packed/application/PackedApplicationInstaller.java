@@ -64,6 +64,12 @@ public final class PackedApplicationInstaller<H extends ApplicationHandle<?, ?>>
 
     public boolean optionAlwaysCodegen;
 
+    public boolean optionParallelCodegen;
+
+    public boolean optionParallelInitialization;
+
+    public int optionLifecycleParallelism;
+
     /** The template of the application. */
     final PackedApplicationTemplate<?> template;
 
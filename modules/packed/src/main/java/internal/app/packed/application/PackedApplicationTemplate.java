@@ -32,7 +32,13 @@ import sandbox.app.packed.application.registry.ApplicationTemplate;
 
 /** Implementation of {@link ApplicationTemplate}. */
 public record PackedApplicationTemplate<H extends ApplicationHandle<?, ?>>(LifecycleKind lifecycleKind, Bean<?> bean, Class<? super H> handleClass,
-        Function<? super ApplicationInstaller<H>, ? extends ApplicationHandle<?, ?>> handleFactory) implements ApplicationTemplate<H> {
+        Function<? super ApplicationInstaller<H>, ? extends ApplicationHandle<?, ?>> handleFactory, boolean hiddenClassInvokers)
+        implements ApplicationTemplate<H> {
+
+    public PackedApplicationTemplate(LifecycleKind lifecycleKind, Bean<?> bean, Class<? super H> handleClass,
+            Function<? super ApplicationInstaller<H>, ? extends ApplicationHandle<?, ?>> handleFactory) {
+        this(lifecycleKind, bean, handleClass, handleFactory, false);
+    }
 
     public static <I> PackedApplicationTemplate<ApplicationHandle<I, ApplicationConfiguration>> of(LifecycleKind kind, Bean<I> bean) {
         requireNonNull(kind, "lifecycleKind is null");
@@ -40,6 +46,12 @@ public record PackedApplicationTemplate<H extends ApplicationHandle<?, ?>>(Lifec
         return new PackedApplicationTemplate<>(kind, bean, ApplicationHandle.class, ApplicationHandle::new);
     }
 
+    /** {@inheritDoc} */
+    @Override
+    public PackedApplicationTemplate<H> withHiddenClassInvokers() {
+        return new PackedApplicationTemplate<>(lifecycleKind, bean, handleClass, handleFactory, true);
+    }
+
     /**
      * Creates a new {@link ApplicationInstaller} from this template.
      *
@@ -2,10 +2,12 @@ package internal.app.packed.bean;
 
 import static java.util.Objects.requireNonNull;
 
+import java.lang.reflect.Method;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 import java.util.function.Consumer;
 import java.util.function.Function;
@@ -29,6 +31,7 @@ import app.packed.extension.Context;
 import app.packed.extension.Extension;
 import app.packed.lifecycle.LifecycleKind;
 import app.packed.operation.Op;
+import app.packed.operation.OperationInterceptor;
 import internal.app.packed.bean.introspection.BeanScanner;
 import internal.app.packed.bean.sidehandle.PackedSidehandle;
 import internal.app.packed.binding.BindingProvider;
@@ -49,9 +52,11 @@ import internal.app.packed.context.ContextModel;
 import internal.app.packed.context.ContextSetup;
 import internal.app.packed.context.ContextualizedComponentSetup;
 import internal.app.packed.extension.ExtensionSetup;
+import internal.app.packed.invoke.BeanInvokerClass;
 import internal.app.packed.lifecycle.LifecycleOperationHandle.FactoryOperationHandle;
 import internal.app.packed.lifecycle.lifetime.BeanLifetimeSetup;
 import internal.app.packed.lifecycle.lifetime.ContainerLifetimeSetup;
+import internal.app.packed.lifecycle.lifetime.LazyBeanLifecycle;
 import internal.app.packed.lifecycle.lifetime.LifetimeSetup;
 import internal.app.packed.lifecycle.lifetime.LifetimeStoreEntry;
 import internal.app.packed.lifecycle.lifetime.LifetimeStoreIndex;
@@ -100,11 +105,18 @@ public final class BeanSetup implements ContextualizedComponentSetup, BuildLocal
     @Nullable
     public final LifetimeStoreIndex lifetimeStoreIndex;
 
+    /** The lifecycle of the bean if it is lazy, otherwise null. */
+    @Nullable
+    public LazyBeanLifecycle lazy;
+
     public int multiInstall;
 
     /** The name of this bean. Should only be updated by {@link internal.app.packed.container.ContainerBeanStore}. */
     String name;
 
+    /** Invokers for the operations of this bean, if the application uses hidden class invokers. */
+    public final StableValue<BeanInvokerClass> invokerClass = StableValue.of();
+
     /** The operations of this bean. */
     public final BeanOperationsSetup operations = new BeanOperationsSetup();
 
@@ -123,6 +135,13 @@ public final class BeanSetup implements ContextualizedComponentSetup, BuildLocal
     // TODO tror vi har noget a.la. BOS -> SidebeanStore
     public final ArrayList<PackedSidehandle> sideBeanAttachments = new ArrayList<>();
 
+    /**
+     * Interceptors of operations that invoke a method on the bean, keyed by the method. Is null if there are none. Only
+     * modified in the assemble phase of the application, after which it may be read concurrently by code generators.
+     */
+    @Nullable
+    private HashMap<Method, List<OperationInterceptor>> interceptors;
+
     /** Create a new bean. */
     private BeanSetup(PackedBeanInstaller installer, PackedBean<?> bean) {
         this.beanKind = requireNonNull(installer.template.beanKind());
@@ -154,6 +173,27 @@ public final class BeanSetup implements ContextualizedComponentSetup, BuildLocal
         }
     }
 
+    /**
+     * Adds an interceptor for operations that invoke the specified method.
+     *
+     * @param method
+     *            the method
+     * @param interceptor
+     *            the interceptor to add
+     * @throws IllegalStateException
+     *             if the application is no longer being assembled
+     */
+    public void addInterceptor(Method method, OperationInterceptor interceptor) {
+        if (!container.application.isAssembling()) {
+            throw new IllegalStateException("Interceptors can only be added while the application is being assembled");
+        }
+        HashMap<Method, List<OperationInterceptor>> m = interceptors;
+        if (m == null) {
+            m = interceptors = new HashMap<>();
+        }
+        m.computeIfAbsent(method, _ -> new ArrayList<>(1)).add(interceptor);
+    }
+
     public PackedAttachmentOperationHandle attach(Class<? extends Extension<?>> extension, Op<?> op, boolean ifAbsent) {
         Key<?> key = op.type().returnVariable().toKey();
         return attachments.compute(new PackedBeanAttachmentKey(extension, key), (_, v) -> {
@@ -224,6 +264,12 @@ public final class BeanSetup implements ContextualizedComponentSetup, BuildLocal
         return requireNonNull(handle);
     }
 
+    /** {@return the interceptors of operations that invoke the specified method, in the order they were added} */
+    public List<OperationInterceptor> interceptors(Method method) {
+        HashMap<Method, List<OperationInterceptor>> m = interceptors;
+        return m == null ? List.of() : m.getOrDefault(method, List.of());
+    }
+
     public Iterable<BuildHook> hooks() {
         return Collections.emptyList();
     }
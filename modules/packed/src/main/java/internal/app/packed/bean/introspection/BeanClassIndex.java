@@ -0,0 +1,285 @@
+/*
+ * Copyright (c) 2026 Kasper Nielsen.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package internal.app.packed.bean.introspection;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+
+import org.jspecify.annotations.Nullable;
+
+/**
+ * A bean index generated at compile time by the (optional) {@code app.packed.processor} annotation processor.
+ * <p>
+ * The index of a single class lists the declared fields and methods of the class that carries triggering annotations.
+ * If every class and interface in the hierarchy of a bean class (outside of {@code java.base}) has an index, the
+ * {@link BeanClassModel} is created by looking up the indexed members directly, instead of calling
+ * {@link Class#getDeclaredMethods()} and reading the annotations of every single member.
+ * <p>
+ * If a class is missing an index, or the index refers to members that the class does not have, we fall back to
+ * reflection for the whole bean class. An index is only trusted if it comes from the same place as the class it
+ * describes. For classes in a named module, the index must be a resource of the module. For classes on the class path,
+ * the index and the class file must be in the same class path entry. So a stale index in another jar is never used.
+ * Validating an index does not read the class file, it is the job of the build to remove indexes from its output if
+ * it stops running the processor.
+ */
+final class BeanClassIndex {
+
+    /** The location of index files, must be kept in sync with {@code BeanIndexProcessor} in app.packed.processor. */
+    static final String INDEX_LOCATION = "META-INF/app.packed/bean-index/";
+
+    /** Classes in the superclass chain, starting with the bean class itself. */
+    private final List<Entry> classes;
+
+    /** All super interfaces of the bean class. */
+    private final List<Entry> interfaces;
+
+    private BeanClassIndex(List<Entry> classes, List<Entry> interfaces) {
+        this.classes = classes;
+        this.interfaces = interfaces;
+    }
+
+    /**
+     * Returns the fields with triggering annotations, fields on super classes are listed first.
+     *
+     * @return the indexed fields
+     * @throws NoSuchFieldException
+     *             if the index does not match the class
+     */
+    List<Field> fields() throws NoSuchFieldException {
+        ArrayList<Field> result = new ArrayList<>();
+        for (Entry e : classes.reversed()) {
+            for (String name : e.fields) {
+                result.add(e.type.getDeclaredField(name));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the methods with triggering annotations that should be presented to bean introspectors. Follows the same
+     * rules for overridden and static methods as the reflection based scan in {@link BeanClassModel}.
+     *
+     * @return the indexed methods
+     * @throws ReflectiveOperationException
+     *             if the index does not match the class
+     */
+    List<Method> methods() throws ReflectiveOperationException {
+        Class<?> beanClass = classes.getFirst().type;
+        ArrayList<Method> publicMethods = new ArrayList<>();
+        ArrayList<Method> otherMethods = new ArrayList<>();
+
+        for (int i = 0; i < classes.size(); i++) {
+            Entry e = classes.get(i);
+            for (Method m : e.resolveMethods()) {
+                int mod = m.getModifiers();
+                if (Modifier.isPublic(mod)) {
+                    // Public static methods are inherited, public instance methods must not be overridden
+                    if (Modifier.isStatic(mod) || beanClass.getMethod(m.getName(), m.getParameterTypes()).equals(m)) {
+                        publicMethods.add(m);
+                    }
+                } else if (Modifier.isStatic(mod)) {
+                    if (i == 0) { // only include non-public static methods in the top level class
+                        otherMethods.add(m);
+                    }
+                } else if (Modifier.isPrivate(mod) || !isOverridden(m, i)) {
+                    otherMethods.add(m);
+                }
+            }
+        }
+
+        // Default methods on interfaces, static interface methods are never included
+        for (Entry e : interfaces) {
+            for (Method m : e.resolveMethods()) {
+                if (!Modifier.isStatic(m.getModifiers()) && Modifier.isPublic(m.getModifiers())
+                        && beanClass.getMethod(m.getName(), m.getParameterTypes()).equals(m)) {
+                    publicMethods.add(m);
+                }
+            }
+        }
+        publicMethods.addAll(otherMethods);
+        return publicMethods;
+    }
+
+    /** Tests whether a protected or package-private method is overridden by a class further down the hierarchy. */
+    private boolean isOverridden(Method m, int depth) {
+        boolean isProtected = Modifier.isProtected(m.getModifiers());
+        for (int i = 0; i < depth; i++) {
+            Class<?> c = classes.get(i).type;
+            try {
+                Method o = c.getDeclaredMethod(m.getName(), m.getParameterTypes());
+                int mod = o.getModifiers();
+                if (!Modifier.isStatic(mod) && !Modifier.isPrivate(mod)
+                        && (isProtected || Modifier.isPublic(mod) || Modifier.isProtected(mod) || c.getPackage() == m.getDeclaringClass().getPackage())) {
+                    return true;
+                }
+            } catch (NoSuchMethodException ignore) {}
+        }
+        return false;
+    }
+
+    /**
+     * Returns an index for the specified bean class, if every type in its hierarchy has been indexed.
+     *
+     * @param beanClass
+     *            the bean class
+     * @return the index, or null if reflection must be used
+     */
+    @Nullable
+    static BeanClassIndex find(Class<?> beanClass) {
+        ArrayList<Entry> classes = new ArrayList<>();
+        LinkedHashSet<Class<?>> interfaces = new LinkedHashSet<>();
+        for (Class<?> c = beanClass; c.getModule() != BeanScanner.JAVA_BASE_MODULE; c = c.getSuperclass()) {
+            Entry e = Entry.readResource(c);
+            if (e == null) {
+                return null;
+            }
+            classes.add(e);
+            collectInterfaces(c, interfaces);
+        }
+
+        ArrayList<Entry> ifaces = new ArrayList<>(interfaces.size());
+        for (Class<?> i : interfaces) {
+            Entry e = Entry.readResource(i);
+            if (e == null) {
+                return null;
+            }
+            ifaces.add(e);
+        }
+        return new BeanClassIndex(List.copyOf(classes), List.copyOf(ifaces));
+    }
+
+    /**
+     * Finds the index of the specified class on the class path. Returns null if the index is not in the same class path
+     * entry as the class file, as it was then not generated together with the class.
+     *
+     * @param loader
+     *            the class loader to search
+     * @param className
+     *            the binary name of the class
+     * @return the location of the index, or null if there is no index next to the class file
+     */
+    @Nullable
+    static URL findIndex(ClassLoader loader, String className) {
+        String indexName = INDEX_LOCATION + className;
+        URL index = loader.getResource(indexName);
+        if (index == null) {
+            return null;
+        }
+        String classFileName = className.replace('.', '/') + ".class";
+        URL classFile = loader.getResource(classFileName);
+        if (classFile == null) {
+            return null;
+        }
+        // Compare the class path entries, that is, the locations without the resource names
+        String i = index.toExternalForm();
+        String c = classFile.toExternalForm();
+        int entryLength = i.length() - indexName.length();
+        return i.endsWith(indexName) && c.endsWith(classFileName) && entryLength == c.length() - classFileName.length()
+                && i.regionMatches(0, c, 0, entryLength) ? index : null;
+    }
+
+    static void collectInterfaces(Class<?> c, LinkedHashSet<Class<?>> result) {
+        for (Class<?> i : c.getInterfaces()) {
+            if (i.getModule() != BeanScanner.JAVA_BASE_MODULE && result.add(i)) {
+                collectInterfaces(i, result);
+            }
+        }
+    }
+
+    /** The index of a single class or interface. */
+    record Entry(Class<?> type, List<String> fields, List<String[]> methods) {
+
+        private List<Method> resolveMethods() throws ReflectiveOperationException {
+            ArrayList<Method> result = new ArrayList<>(methods.size());
+            for (String[] m : methods) {
+                MethodType mt;
+                try {
+                    mt = MethodType.fromMethodDescriptorString(m[1], type.getClassLoader());
+                } catch (TypeNotPresentException e) {
+                    throw new ClassNotFoundException(e.typeName(), e);
+                }
+                result.add(type.getDeclaredMethod(m[0], mt.parameterArray()));
+            }
+            return result;
+        }
+
+        /** Reads the index generated by the annotation processor, or returns null if there is no valid index. */
+        @Nullable
+        static Entry readResource(Class<?> type) {
+            String text;
+            try (InputStream is = openResource(type)) {
+                if (is == null) {
+                    return null;
+                }
+                text = new String(is.readAllBytes(), StandardCharsets.UTF_8);
+            } catch (IOException e) {
+                return null;
+            }
+            return parse(type, text);
+        }
+
+        /** Opens the index of the specified type, if it is located together with the type. */
+        @Nullable
+        private static InputStream openResource(Class<?> type) throws IOException {
+            Module module = type.getModule();
+            if (module.isNamed()) {
+                // Only finds resources in the module itself
+                return module.getResourceAsStream(INDEX_LOCATION + type.getName());
+            }
+            ClassLoader loader = type.getClassLoader();
+            URL index = loader == null ? null : findIndex(loader, type.getName());
+            return index == null ? null : index.openStream();
+        }
+
+        /**
+         * Parses the text of an index.
+         *
+         * @param type
+         *            the indexed type
+         * @param text
+         *            the text of the index
+         * @return the index, or null if the index is malformed
+         */
+        @Nullable
+        static Entry parse(Class<?> type, String text) {
+            ArrayList<String> fields = new ArrayList<>();
+            ArrayList<String[]> methods = new ArrayList<>();
+            for (String line : text.split("\n")) {
+                if (line.startsWith("F ")) {
+                    fields.add(line.substring(2));
+                } else if (line.startsWith("M ")) {
+                    int index = line.indexOf(' ', 2);
+                    if (index < 0) {
+                        return null; // Malformed index
+                    }
+                    methods.add(new String[] { line.substring(2, index), line.substring(index + 1) });
+                } else if (!line.isEmpty()) {
+                    return null; // Unknown format
+                }
+            }
+            return new Entry(type, List.copyOf(fields), List.copyOf(methods));
+        }
+    }
+}
@@ -0,0 +1,383 @@
+/*
+ * Copyright (c) 2026 Kasper Nielsen.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package internal.app.packed.bean.introspection;
+
+import java.lang.annotation.Annotation;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodHandles.Lookup;
+import java.lang.invoke.VarHandle;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Member;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+import app.packed.bean.InaccessibleBeanMemberException;
+import app.packed.operation.OperationType;
+import internal.app.packed.bean.introspection.BeanTriggerModel.FieldCache;
+import internal.app.packed.bean.introspection.BeanTriggerModel.OnAnnotatedMethodCache;
+import internal.app.packed.integration.devtools.PackedDevToolsIntegration;
+import internal.app.packed.util.PackedAnnotationList;
+import internal.app.packed.util.StringFormatter;
+
+/**
+ * An immutable model of the reflective findings for a single bean class.
+ * <p>
+ * Walking the members of a class and matching their annotations against bean triggers does not depend on the bean
+ * being installed. So we do it once per class and replay the findings for every bean of the class. Only the callbacks
+ * into bean introspectors are invoked per bean.
+ * <p>
+ * Direct method handles and var handles are unreflected lazily the first time a bean introspector asks for them and
+ * then shared between all beans of the class.
+ */
+final class BeanClassModel {
+
+    /** The app.packed.base module, we will never scan classes in this module. */
+    private static final Module APP_PACKED_BASE_MODULE = BeanClassModel.class.getModule();
+
+    /** A cache of all bean class models. */
+    private static final ClassValue<BeanClassModel> MODELS = new ClassValue<>() {
+
+        @Override
+        protected BeanClassModel computeValue(Class<?> beanClass) {
+            return new BeanClassModel(beanClass);
+        }
+    };
+
+    /** The bean class. */
+    final Class<?> beanClass;
+
+    /** Fields with at least one triggering annotation, fields on super classes are listed first. */
+    final List<AnnotatedField> fields;
+
+    /** Methods with at least one triggering annotation, in the order they should be presented to bean introspectors. */
+    final List<AnnotatedMethod> methods;
+
+    /** A private lookup into the bean class, lazily created. */
+    private final Supplier<Lookup> privateLookup = StableValue.supplier(() -> newPrivateLookup());
+
+    /** Unreflected constructors, methods and field getters. */
+    private final ConcurrentHashMap<Member, MethodHandle> unreflected = new ConcurrentHashMap<>();
+
+    /** Unreflected field setters. */
+    private final ConcurrentHashMap<Field, MethodHandle> unreflectedSetters = new ConcurrentHashMap<>();
+
+    /** Unreflected var handles. */
+    private final ConcurrentHashMap<Field, VarHandle> unreflectedVarHandles = new ConcurrentHashMap<>();
+
+    private BeanClassModel(Class<?> beanClass) {
+        this.beanClass = beanClass;
+        BeanTriggerModel triggerModel = BeanTriggerModelDefaults.DEFAULT;
+        if (beanClass.isInterface()) {
+            this.fields = List.of();
+            this.methods = List.of();
+        } else {
+            ArrayList<AnnotatedField> f = new ArrayList<>();
+            ArrayList<AnnotatedMethod> m = new ArrayList<>();
+
+            // Use an index generated at compile time if available, otherwise reflect over all members
+            if (!scanIndex(triggerModel, beanClass, f, m)) {
+                f.clear();
+                m.clear();
+                scanFields(triggerModel, beanClass, f);
+                scanMethods(triggerModel, beanClass, m);
+            }
+            this.fields = List.copyOf(f);
+            this.methods = List.copyOf(m);
+        }
+    }
+
+    private Lookup newPrivateLookup() {
+        String pckName = beanClass.getPackageName();
+        Module beanModule = beanClass.getModule();
+
+        // See if the bean's package is open to app.packed.base
+        if (!beanModule.isOpen(pckName, APP_PACKED_BASE_MODULE)) {
+            String otherModule = beanModule.getName();
+            String thisModule = APP_PACKED_BASE_MODULE.getName();
+            throw new InaccessibleBeanMemberException("In order to access '" + StringFormatter.format(beanClass) + "', the module '" + otherModule
+                    + "' must be open to '" + thisModule + "'. This can be done, for example, by adding 'opens " + pckName + " to " + thisModule
+                    + ";' to the module-info.java file for " + otherModule);
+        }
+
+        // Should we use lookup.getdeclaringClass???
+        APP_PACKED_BASE_MODULE.addReads(beanModule);
+
+        try {
+            return MethodHandles.privateLookupIn(beanClass, MethodHandles.lookup());
+        } catch (IllegalAccessException e) {
+            throw new InaccessibleBeanMemberException("Could not create private lookup [type=" + beanClass + "]", e);
+        }
+    }
+
+    MethodHandle unreflectConstructor(Constructor<?> constructor) {
+        return unreflected.computeIfAbsent(constructor, _ -> {
+            try {
+                return privateLookup.get().unreflectConstructor(constructor);
+            } catch (IllegalAccessException e) {
+                throw new InaccessibleBeanMemberException("Could not create a MethodHandle", e);
+            }
+        });
+    }
+
+    MethodHandle unreflectGetter(Field field) {
+        return unreflected.computeIfAbsent(field, _ -> {
+            try {
+                return privateLookup.get().unreflectGetter(field);
+            } catch (IllegalAccessException e) {
+                throw new InaccessibleBeanMemberException("Could not create a MethodHandle", e);
+            }
+        });
+    }
+
+    MethodHandle unreflectMethod(Method method) {
+        return unreflected.computeIfAbsent(method, _ -> {
+            try {
+                return privateLookup.get().unreflect(method);
+            } catch (IllegalAccessException e) {
+                throw new InaccessibleBeanMemberException("Could not create a MethodHandle", e);
+            }
+        });
+    }
+
+    MethodHandle unreflectSetter(Field field) {
+        return unreflectedSetters.computeIfAbsent(field, _ -> {
+            try {
+                return privateLookup.get().unreflectSetter(field);
+            } catch (IllegalAccessException e) {
+                throw new InaccessibleBeanMemberException("Could not create a MethodHandle", e);
+            }
+        });
+    }
+
+    VarHandle unreflectVarHandle(Field field) {
+        return unreflectedVarHandles.computeIfAbsent(field, _ -> {
+            try {
+                return privateLookup.get().unreflectVarHandle(field);
+            } catch (IllegalAccessException e) {
+                throw new InaccessibleBeanMemberException("Could not create a MethodHandle", e);
+            }
+        });
+    }
+
+    /**
+     * Returns the model for the specified bean class.
+     *
+     * @param beanClass
+     *            the bean class
+     * @return the model for the bean class
+     */
+    static BeanClassModel of(Class<?> beanClass) {
+        return MODELS.get(beanClass);
+    }
+
+    private static void scanField(BeanTriggerModel triggerModel, Field field, ArrayList<AnnotatedField> result) {
+        Annotation[] annotations = field.getAnnotations();
+        if (annotations.length > 0) {
+            ArrayList<Annotation> triggers = new ArrayList<>(annotations.length);
+            ArrayList<FieldCache> caches = new ArrayList<>(annotations.length);
+            for (Annotation a : annotations) {
+                FieldCache fc = triggerModel.testField(a.annotationType());
+                if (fc != null) {
+                    triggers.add(a);
+                    caches.add(fc);
+                }
+            }
+            if (!caches.isEmpty()) {
+                result.add(new AnnotatedField(field, new PackedAnnotationList(annotations), triggers.toArray(Annotation[]::new),
+                        caches.toArray(FieldCache[]::new)));
+            }
+        }
+    }
+
+    private static void scanFields(BeanTriggerModel triggerModel, Class<?> clazzToScan, ArrayList<AnnotatedField> result) {
+        // We never process classes in the "java.base" module.
+        if (clazzToScan.getModule() != BeanScanner.JAVA_BASE_MODULE) {
+            // Recursively call into superclass, before processing own fields
+            scanFields(triggerModel, clazzToScan.getSuperclass(), result);
+
+            // Iterate over all declared fields
+            for (Field field : clazzToScan.getDeclaredFields()) {
+                scanField(triggerModel, field, result);
+            }
+        }
+    }
+
+    /**
+     * Scans the members listed in a compile-time generated index.
+     *
+     * @return true if the bean class was fully indexed, false if reflection must be used
+     * @see BeanClassIndex
+     */
+    private static boolean scanIndex(BeanTriggerModel triggerModel, Class<?> beanClass, ArrayList<AnnotatedField> fields,
+            ArrayList<AnnotatedMethod> methods) {
+        BeanClassIndex index = BeanClassIndex.find(beanClass);
+        if (index == null) {
+            return false;
+        }
+        try {
+            for (Field f : index.fields()) {
+                scanField(triggerModel, f, fields);
+            }
+            for (Method m : index.methods()) {
+                scanMethod(triggerModel, m, methods);
+            }
+        } catch (ReflectiveOperationException e) {
+            return false; // The index is stale
+        }
+        return true;
+    }
+
+    private static void scanMethod(BeanTriggerModel triggerModel, Method method, ArrayList<AnnotatedMethod> result) {
+        Annotation[] annotations = method.getAnnotations();
+        ArrayList<Annotation> triggers = null;
+        ArrayList<OnAnnotatedMethodCache> caches = null;
+        for (Annotation a : annotations) {
+            OnAnnotatedMethodCache am = triggerModel.testMethod(a.annotationType());
+            if (am != null) {
+                if (triggers == null) {
+                    triggers = new ArrayList<>(2);
+                    caches = new ArrayList<>(2);
+                }
+                triggers.add(a);
+                caches.add(am);
+            }
+        }
+        if (triggers != null) {
+            result.add(new AnnotatedMethod(method, annotations, OperationType.fromExecutable(method), triggers.toArray(Annotation[]::new),
+                    caches.toArray(OnAnnotatedMethodCache[]::new)));
+        }
+    }
+
+    private static void scanMethods(BeanTriggerModel triggerModel, Class<?> beanClass, ArrayList<AnnotatedMethod> result) {
+        // Process all methods on the bean
+        record MethodHelper(int hash, String name, Class<?>[] parameterTypes) {
+
+            MethodHelper(Method method) {
+                this(method.getName(), method.getParameterTypes());
+            }
+
+            MethodHelper(String name, Class<?>[] parameterTypes) {
+                this(name.hashCode() ^ Arrays.hashCode(parameterTypes), name, parameterTypes);
+            }
+
+            /** {@inheritDoc} */
+            @Override
+            public boolean equals(Object obj) {
+                return obj instanceof MethodHelper h && name == h.name() && Arrays.equals(parameterTypes, h.parameterTypes);
+            }
+
+            /** {@inheritDoc} */
+            @Override
+            public int hashCode() {
+                return hash;
+            }
+        }
+
+        HashSet<Package> packages = new HashSet<>();
+        HashMap<MethodHelper, HashSet<Package>> types = new HashMap<>();
+
+        // Step 1, .getMethods() is the easiest way to find all default methods. Even if we also have to call
+        // getDeclaredMethods() later.
+        for (Method m : beanClass.getMethods()) {
+            // Filter methods whose from java.base module and bridge methods
+            // TODO add check for
+            if (m.getDeclaringClass().getModule() != BeanScanner.JAVA_BASE_MODULE && !m.isBridge()) {
+                types.put(new MethodHelper(m), packages);
+                scanMethod(triggerModel, m, result);
+            }
+        }
+
+        // Step 2 process all declared methods
+
+        // Maybe some kind of detection if current type (c) switches modules.
+        for (Class<?> c = beanClass; c.getModule() != BeanScanner.JAVA_BASE_MODULE; c = c.getSuperclass()) {
+            Method[] methods = c.getDeclaredMethods();
+            PackedDevToolsIntegration.INSTANCE.reflectMembers(c, methods);
+            for (Method m : methods) {
+                int mod = m.getModifiers();
+                if (Modifier.isStatic(mod)) {
+                    if (c == beanClass && !Modifier.isPublic(mod)) { // we have already processed public static methods
+                        // only include static methods in the top level class
+                        // We do this, because it would be strange to include
+                        // static methods on any interfaces this class implements.
+                        // But it would also be strange to include static methods on sub classes
+                        // but not include static methods on interfaces.
+                        scanMethod(triggerModel, m, result);
+                    }
+                } else if (!m.isBridge() && !m.isSynthetic()) { // TODO should we include synthetic methods??
+                    switch (mod & (Modifier.PUBLIC | Modifier.PROTECTED | Modifier.PRIVATE)) {
+                    case Modifier.PUBLIC:
+                        continue; // we have already added the method in the first step
+                    default: // default access
+                        HashSet<Package> pkg = types.computeIfAbsent(new MethodHelper(m), _ -> new HashSet<>());
+                        if (pkg != packages && pkg.add(c.getPackage())) {
+                            break;
+                        } else {
+                            continue;
+                        }
+                    case Modifier.PROTECTED:
+                        if (types.putIfAbsent(new MethodHelper(m), packages) != null) {
+                            continue; // method has been overridden by a super type
+                        }
+                        // otherwise fall-through
+                    case Modifier.PRIVATE:
+                        // Private methods are never overridden
+                    }
+                    scanMethod(triggerModel, m, result);
+                }
+            }
+        }
+    }
+
+    /**
+     * A field with at least one triggering annotation.
+     *
+     * @param field
+     *            the field
+     * @param annotations
+     *            all annotations on the field
+     * @param triggers
+     *            the triggering annotations
+     * @param caches
+     *            the trigger caches, the same length and order as {@code triggers}
+     */
+    record AnnotatedField(Field field, PackedAnnotationList annotations, Annotation[] triggers, FieldCache[] caches) {}
+
+    /**
+     * A method with at least one triggering annotation.
+     *
+     * @param method
+     *            the method
+     * @param annotations
+     *            all annotations on the method
+     * @param type
+     *            the operation type of the method
+     * @param triggers
+     *            the triggering annotations
+     * @param caches
+     *            the trigger caches, the same length and order as {@code triggers}
+     */
+    record AnnotatedMethod(Method method, Annotation[] annotations, OperationType type, Annotation[] triggers, OnAnnotatedMethodCache[] caches) {}
+}
@@ -15,40 +15,28 @@
  */
 package internal.app.packed.bean.introspection;
 
-import static java.util.Objects.requireNonNull;
-
 import java.lang.invoke.MethodHandle;
-import java.lang.invoke.MethodHandles;
 import java.lang.invoke.MethodHandles.Lookup;
 import java.lang.invoke.VarHandle;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.Field;
-import java.lang.reflect.Member;
 import java.lang.reflect.Method;
-import java.lang.reflect.Modifier;
 import java.util.ArrayDeque;
 import java.util.IdentityHashMap;
 
 import app.packed.bean.BeanSourceKind;
-import app.packed.bean.InaccessibleBeanMemberException;
 import internal.app.packed.bean.BeanSetup;
 import internal.app.packed.binding.BindingSetup;
 import internal.app.packed.operation.OperationSetup;
-import internal.app.packed.util.StringFormatter;
 
 /**
  * This class represents a single bean being introspected.
  */
 public final class BeanScanner {
 
-    /** The app.packed.base module, we will never scan classes in this module. */
-    private static final Module APP_PACKED_BASE_MODULE = BeanScanner.class.getModule();
-
     /** We {@code java.base} module, which we never process classes from. */
     static final Module JAVA_BASE_MODULE = Object.class.getModule();
 
-    private final OpenClass accessor;
-
     /** The bean that is being reflected upon. */
     public final BeanSetup bean;
 
@@ -57,6 +45,9 @@ public final class BeanScanner {
 
     final Lookup customLookup;
 
+    /** The shared reflective model of the bean class. */
+    final BeanClassModel model;
+
     /** The various bean introspectors that have been encountered. */
     // We sort it in the end
     private final IdentityHashMap<BeanIntrospectorClassModel, BeanIntrospectorSetup> introspectors = new IdentityHashMap<>();
@@ -92,8 +83,8 @@ public final class BeanScanner {
         this.bean = bean;
         this.beanClass = bean.bean.beanClass;
         this.customLookup = bean.container.assembly.customLookup;
-        this.triggerModel = new BeanTriggerModelDefaults();
-        this.accessor = new OpenClass(MethodHandles.lookup());
+        this.triggerModel = BeanTriggerModelDefaults.DEFAULT;
+        this.model = BeanClassModel.of(beanClass);
         bean.scanner = this;
     }
 
@@ -112,10 +103,10 @@ public final class BeanScanner {
             BeanScannerOnConstructors.findConstructor(this, beanClass);
 
             // Introspect all fields on the bean and its super classes
-            BeanScannerOnFields.fiendIntrospect(this, beanClass);
+            BeanScannerOnFields.introspect(this, model);
 
             // Introspect all methods on the bean and its super classes
-            BeanScannerOnMethods.introspect(this, beanClass);
+            BeanScannerOnMethods.introspect(this, model);
 
         }
 
@@ -158,12 +149,7 @@ public final class BeanScanner {
     }
 
     MethodHandle unreflectConstructor(Constructor<?> constructor) {
-        Lookup lookup = accessor.lookup(constructor);
-        try {
-            return lookup.unreflectConstructor(constructor);
-        } catch (IllegalAccessException e) {
-            throw new InaccessibleBeanMemberException("Could not create a MethodHandle", e);
-        }
+        return model.unreflectConstructor(constructor);
     }
 
     /**
@@ -174,108 +160,18 @@ public final class BeanScanner {
      * @see Lookup#unreflectGetter(Field)
      */
     MethodHandle unreflectGetter(Field field) {
-        Lookup lookup = accessor.lookup(field);
-        try {
-            return lookup.unreflectGetter(field);
-        } catch (IllegalAccessException e) {
-            throw new InaccessibleBeanMemberException("Could not create a MethodHandle", e);
-        }
+        return model.unreflectGetter(field);
     }
 
     MethodHandle unreflectMethod(Method method) {
-        Lookup lookup = accessor.lookup(method);
-        try {
-            return lookup.unreflect(method);
-        } catch (IllegalAccessException e) {
-            throw new InaccessibleBeanMemberException("Could not create a MethodHandle", e);
-        }
+        return model.unreflectMethod(method);
     }
 
     MethodHandle unreflectSetter(Field field) {
-        Lookup lookup = accessor.lookup(field);
-        try {
-            return lookup.unreflectSetter(field);
-        } catch (IllegalAccessException e) {
-            throw new InaccessibleBeanMemberException("Could not create a MethodHandle", e);
-        }
+        return model.unreflectSetter(field);
     }
 
     VarHandle unreflectVarHandle(Field field) {
-        Lookup lookup = accessor.lookup(field);
-        try {
-            return lookup.unreflectVarHandle(field);
-        } catch (IllegalAccessException e) {
-            throw new InaccessibleBeanMemberException("Could not create a MethodHandle", e);
-        }
-    }
-
-    /**
-     * An open class is a thin wrapper for a single class and a {@link Lookup} object.
-     */
-    private final class OpenClass {
-
-        /** A lookup object that can be used to access {@link #type}. */
-        @SuppressWarnings("unused")
-        private final MethodHandles.Lookup lookup;
-
-        /** A lookup that can be used on non-public members. */
-        private MethodHandles.Lookup privateLookup;
-
-        private OpenClass(MethodHandles.Lookup lookup) {
-            this.lookup = requireNonNull(lookup);
-        }
-
-        private Lookup lookup(Member member) {
-            // If we already have a private lookup for the bean return it
-            MethodHandles.Lookup lookup = privateLookup;
-            if (lookup != null) {
-                return lookup;
-            }
-
-            // See if we need private access, otherwise just return ordinary lookup.
-
-            // Needs private lookup, unless class is public or protected and member is public
-            // We are comparing against the members declaring class..
-            // We could store boolean isPublicOrProcected in a field.
-            // But do not know how it would work with abstract super classes in other modules...
-
-            // See if we need private access, otherwise just return ordinary lookup.
-            if (!needsPrivateLookup(member)) {
-                // Hmm
-                // return lookup;
-            }
-
-            String pckName = beanClass.getPackageName();
-            Module beanModule = beanClass.getModule();
-
-            // See if the bean's package is open to app.packed.base
-            if (!beanModule.isOpen(pckName, APP_PACKED_BASE_MODULE)) {
-                String otherModule = beanModule.getName();
-                String thisModule = APP_PACKED_BASE_MODULE.getName();
-                throw new InaccessibleBeanMemberException("In order to access '" + StringFormatter.format(beanClass) + "', the module '" + otherModule
-                        + "' must be open to '" + thisModule + "'. This can be done, for example, by adding 'opens " + pckName + " to " + thisModule
-                        + ";' to the module-info.java file for " + otherModule);
-            }
-
-            // Should we use lookup.getdeclaringClass???
-            APP_PACKED_BASE_MODULE.addReads(beanModule);
-
-            // Create and cache a private lookup.
-            try {
-                // Fjernede lookup... Skal vitterligt have samlet det i en klasse
-                return privateLookup = MethodHandles.privateLookupIn(beanClass, MethodHandles.lookup() /* lookup */);
-            } catch (IllegalAccessException e) {
-                throw new InaccessibleBeanMemberException("Could not create private lookup [type=" + beanClass + ", Member = " + member + "]", e);
-            }
-        }
-
-        private static boolean needsPrivateLookup(Member m) {
-            // Needs private lookup, unless class is public or protected and member is public
-            // We are comparing against the members declaring class..
-            // We could store boolean isPublicOrProcected in a field.
-            // But do not know how it would work with abstract super classes in other modules...
-            int classModifiers = m.getDeclaringClass().getModifiers();
-            return !((Modifier.isPublic(classModifiers) || Modifier.isProtected(classModifiers)) && Modifier.isPublic(m.getModifiers()));
-        }
+        return model.unreflectVarHandle(field);
     }
 }
@@ -15,98 +15,16 @@
  */
 package internal.app.packed.bean.introspection;
 
-import java.lang.reflect.Method;
-import java.lang.reflect.Modifier;
-import java.util.Arrays;
-import java.util.HashMap;
-import java.util.HashSet;
-
-import internal.app.packed.integration.devtools.PackedDevToolsIntegration;
+import internal.app.packed.bean.introspection.BeanClassModel.AnnotatedMethod;
 
 /**
- *
+ * Replays the annotated methods of a {@link BeanClassModel} for a single bean.
  */
 class BeanScannerOnMethods {
 
-    static void introspect(BeanScanner introspector, Class<?> beanClass) {
-
-        // Process all methods on the bean
-        record MethodHelper(int hash, String name, Class<?>[] parameterTypes) {
-
-            MethodHelper(Method method) {
-                this(method.getName(), method.getParameterTypes());
-            }
-
-            MethodHelper(String name, Class<?>[] parameterTypes) {
-                this(name.hashCode() ^ Arrays.hashCode(parameterTypes), name, parameterTypes);
-            }
-
-            /** {@inheritDoc} */
-            @Override
-            public boolean equals(Object obj) {
-                return obj instanceof MethodHelper h && name == h.name() && Arrays.equals(parameterTypes, h.parameterTypes);
-            }
-
-            /** {@inheritDoc} */
-            @Override
-            public int hashCode() {
-                return hash;
-            }
-        }
-
-        HashSet<Package> packages = new HashSet<>();
-        HashMap<MethodHelper, HashSet<Package>> types = new HashMap<>();
-
-        // Step 1, .getMethods() is the easiest way to find all default methods. Even if we also have to call
-        // getDeclaredMethods() later.
-        for (Method m : beanClass.getMethods()) {
-            // Filter methods whose from java.base module and bridge methods
-            // TODO add check for
-            if (m.getDeclaringClass().getModule() != BeanScanner.JAVA_BASE_MODULE && !m.isBridge()) {
-                types.put(new MethodHelper(m), packages);
-                IntrospectorOnMethod.introspectMethodForAnnotations(introspector, m);
-            }
-        }
-
-        // Step 2 process all declared methods
-
-        // Maybe some kind of detection if current type (c) switches modules.
-        for (Class<?> c = beanClass; c.getModule() != BeanScanner.JAVA_BASE_MODULE; c = c.getSuperclass()) {
-            Method[] methods = c.getDeclaredMethods();
-            PackedDevToolsIntegration.INSTANCE.reflectMembers(c, methods);
-            for (Method m : methods) {
-                int mod = m.getModifiers();
-                if (Modifier.isStatic(mod)) {
-                    if (c == beanClass && !Modifier.isPublic(mod)) { // we have already processed public static methods
-                        // only include static methods in the top level class
-                        // We do this, because it would be strange to include
-                        // static methods on any interfaces this class implements.
-                        // But it would also be strange to include static methods on sub classes
-                        // but not include static methods on interfaces.
-                        IntrospectorOnMethod.introspectMethodForAnnotations(introspector, m);
-                    }
-                } else if (!m.isBridge() && !m.isSynthetic()) { // TODO should we include synthetic methods??
-                    switch (mod & (Modifier.PUBLIC | Modifier.PROTECTED | Modifier.PRIVATE)) {
-                    case Modifier.PUBLIC:
-                        continue; // we have already added the method in the first step
-                    default: // default access
-                        HashSet<Package> pkg = types.computeIfAbsent(new MethodHelper(m), _ -> new HashSet<>());
-                        if (pkg != packages && pkg.add(c.getPackage())) {
-                            break;
-                        } else {
-                            continue;
-                        }
-                    case Modifier.PROTECTED:
-                        if (types.putIfAbsent(new MethodHelper(m), packages) != null) {
-                            continue; // method has been overridden by a super type
-                        }
-                        // otherwise fall-through
-                    case Modifier.PRIVATE:
-                        // Private methods are never overridden
-                    }
-                    IntrospectorOnMethod.introspectMethodForAnnotations(introspector, m);
-                }
-            }
+    static void introspect(BeanScanner scanner, BeanClassModel model) {
+        for (AnnotatedMethod m : model.methods) {
+            IntrospectorOnMethod.introspectMethodForAnnotations(scanner, m);
         }
     }
 }
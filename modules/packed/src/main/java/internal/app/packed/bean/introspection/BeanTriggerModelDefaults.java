@@ -32,6 +32,9 @@ import org.jspecify.annotations.Nullable;
  */
 public final class BeanTriggerModelDefaults implements BeanTriggerModel {
 
+    /** The default trigger model, all state is kept in class values so a single instance can be shared. */
+    static final BeanTriggerModelDefaults DEFAULT = new BeanTriggerModelDefaults();
+
     /** A cache of field annotations. */
     private static final ClassValue<OnAnnotatedFieldCache> ANNOTATED_FIELD_HOOK_CACHE = new ClassValue<>() {
 
@@ -82,7 +85,7 @@ public final class BeanTriggerModelDefaults implements BeanTriggerModel {
     };
 
     /** A cache of any extensions a particular annotation activates. */
-    private final ClassValue<ParameterAnnotatedCache> PARAMETER_ANNOTATION_CACHE = new ClassValue<>() {
+    private static final ClassValue<ParameterAnnotatedCache> PARAMETER_ANNOTATION_CACHE = new ClassValue<>() {
 
         @Override
         protected ParameterAnnotatedCache computeValue(Class<?> type) {
@@ -96,7 +99,7 @@ public final class BeanTriggerModelDefaults implements BeanTriggerModel {
     };
 
     /** A cache of any extensions a particular annotation activates. */
-    private final ClassValue<ParameterTypeCache> PARAMETER_TYPE_CACHE = new ClassValue<>() {
+    private static final ClassValue<ParameterTypeCache> PARAMETER_TYPE_CACHE = new ClassValue<>() {
 
         @Override
         protected ParameterTypeCache computeValue(Class<?> type) {
@@ -39,8 +39,12 @@ sealed abstract class IntrospectorOnExecutable<E extends Executable> extends Int
      * @param annotations
      */
     IntrospectorOnExecutable(BeanIntrospectorSetup ce, E member, Annotation[] annotations) {
+        this(ce, member, annotations, OperationType.fromExecutable(member));
+    }
+
+    IntrospectorOnExecutable(BeanIntrospectorSetup ce, E member, Annotation[] annotations, OperationType type) {
         super(ce, member, new PackedAnnotationList(annotations));
-        this.type = OperationType.fromExecutable(member);
+        this.type = type;
     }
 
     /** {@inheritDoc} */
@@ -15,7 +15,8 @@
  */
 package internal.app.packed.bean.introspection;
 
-import java.lang.annotation.Annotation;
+import static java.util.Objects.requireNonNull;
+
 import java.lang.invoke.MethodHandle;
 import java.lang.reflect.Method;
 import java.util.Optional;
@@ -23,16 +24,26 @@ import java.util.Optional;
 import app.packed.bean.BeanIntrospector;
 import app.packed.binding.Key;
 import app.packed.operation.OperationInstaller;
-import internal.app.packed.operation.OperationMemberTarget.OperationMethodTarget;
+import app.packed.operation.OperationInterceptor;
+import internal.app.packed.bean.introspection.BeanClassModel.AnnotatedMethod;
 import internal.app.packed.bean.introspection.BeanTriggerModel.OnAnnotatedMethodCache;
+import internal.app.packed.operation.OperationMemberTarget.OperationMethodTarget;
 import internal.app.packed.operation.PackedOperationInstaller;
 import internal.app.packed.util.PackedAnnotationList;
 
 /** Internal implementation of BeanMethod. Discard after use. */
 public final class IntrospectorOnMethod extends IntrospectorOnExecutable<Method> implements BeanIntrospector.OnMethod {
 
-    IntrospectorOnMethod(BeanIntrospectorSetup participant, Method method, Annotation[] annotations, boolean allowInvoke) {
-        super(participant, method, annotations);
+    IntrospectorOnMethod(BeanIntrospectorSetup participant, AnnotatedMethod method, boolean allowInvoke) {
+        super(participant, method.method(), method.annotations(), method.type());
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void intercept(OperationInterceptor interceptor) {
+        requireNonNull(interceptor, "interceptor is null");
+        checkConfigurable();
+        bean().addInterceptor(member, interceptor);
     }
 
     /** {@inheritDoc} */
@@ -60,25 +71,20 @@ public final class IntrospectorOnMethod extends IntrospectorOnExecutable<Method>
     }
 
     /**
-     * Look for hook annotations on a single method.
+     * Invokes bean introspectors for every triggering annotation on a single method.
      *
      * @param method
-     *            the method to look for annotations on
+     *            the method with triggering annotations
      */
-    static void introspectMethodForAnnotations(BeanScanner iBean, Method method) {
-        Annotation[] annotations = method.getAnnotations();
-        for (int i = 0; i < annotations.length; i++) {
-            Annotation a1 = annotations[i];
-            Class<? extends Annotation> a1Type = a1.annotationType();
-
-            OnAnnotatedMethodCache am = iBean.triggerModel.testMethod(a1Type);
-            if (am != null) {
-                BeanIntrospectorSetup contributor = iBean.introspector(am.bim());
+    static void introspectMethodForAnnotations(BeanScanner iBean, AnnotatedMethod method) {
+        OnAnnotatedMethodCache[] caches = method.caches();
+        for (int i = 0; i < caches.length; i++) {
+            OnAnnotatedMethodCache am = caches[i];
+            BeanIntrospectorSetup contributor = iBean.introspector(am.bim());
 
-                IntrospectorOnMethod pbm = new IntrospectorOnMethod(contributor, method, annotations, am.isInvokable());
-                PackedAnnotationList pac = new PackedAnnotationList(a1);
-                contributor.introspector.onAnnotatedMethod(pac, pbm);
-            }
+            IntrospectorOnMethod pbm = new IntrospectorOnMethod(contributor, method, am.isInvokable());
+            PackedAnnotationList pac = new PackedAnnotationList(method.triggers()[i]);
+            contributor.introspector.onAnnotatedMethod(pac, pbm);
         }
     }
 }
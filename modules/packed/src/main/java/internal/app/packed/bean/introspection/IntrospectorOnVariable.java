@@ -59,6 +59,7 @@ import internal.app.packed.operation.PackedOp.NewOperation;
 import internal.app.packed.operation.PackedOperationTarget.MemberOperationTarget;
 import internal.app.packed.operation.PackedOperationTemplate;
 import internal.app.packed.util.PackedAnnotationList;
+import internal.app.packed.util.types.ClassUtil;
 
 /** Implementation of {@link BindableVariable}. */
 public final class IntrospectorOnVariable extends IntrospectorOn implements OnVariable {
@@ -193,9 +194,14 @@ public final class IntrospectorOnVariable extends IntrospectorOn implements OnVa
     public IntrospectorOnVariable bindOp(Op<?> op) {
         checkBeforeBind();
         PackedOp<?> pop = PackedOp.crack(op);
+        Class<?> returnType = pop.type().returnRawType();
+        if (!ClassUtil.isConvertibleWithoutCast(returnType, variable.rawType())) {
+            throw new ClassCastException(
+                    "Cannot bind an op returning " + returnType.getName() + " to a variable of type " + variable.rawType().getName() + ", op = " + op);
+        }
 
         // Nested operation get the same arguments as this operation, but with op return type
-        PackedOperationTemplate template = operation.template.withReturnType(pop.type().returnRawType());
+        PackedOperationTemplate template = operation.template.withReturnType(returnType);
 
         // Create the nested operation
         OperationSetup os = pop
@@ -56,6 +56,16 @@ public sealed abstract class AbstractComponentInstaller<C extends ComponentSetup
         this.componentTags = componentTags;
     }
 
+    /**
+     * Creates a new installer with the same component tags and locals as the specified installer.
+     *
+     * @param existing
+     *            the installer to copy
+     */
+    protected AbstractComponentInstaller(AbstractComponentInstaller<C, I> existing) {
+        this(existing.componentTags, existing.locals);
+    }
+
     protected abstract ApplicationSetup application(C component);
 
 
@@ -69,6 +79,12 @@ public sealed abstract class AbstractComponentInstaller<C extends ComponentSetup
         }
     }
 
+    /** Marks this installer as used, for installers that are used as a template for installing multiple components. */
+    protected final void markUsed() {
+        checkNotUsed();
+        this.isUsed = true;
+    }
+
     @SuppressWarnings("unchecked")
     public final I componentTag(String... tags) {
         checkNotUsed();
@@ -19,7 +19,6 @@ import static java.util.Objects.requireNonNull;
 
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Set;
@@ -254,10 +253,10 @@ public final class ContainerSetup extends AbstractNamedTreeNode<ContainerSetup>
 
         // Unless we are the root container. We need to insert or update this container in the parent container
         if (treeParent != null) {
-            if (treeParent.treeChildren.putIfAbsent(newName, this) != null) {
+            if (!treeParent.treeChildAddIfAbsent(newName, this)) {
                 throw new IllegalArgumentException("A container with the specified name '" + newName + "' already exists in the parent");
             }
-            treeParent.treeChildren.remove(currentName);
+            treeParent.treeChildRemove(currentName);
         }
         name = newName;
     }
@@ -293,21 +292,18 @@ public final class ContainerSetup extends AbstractNamedTreeNode<ContainerSetup>
             nn = n;
         }
 
-        String n = nn;
-        if (installer.parent != null) {
-            HashMap<String, ContainerSetup> c = installer.parent.treeChildren;
-            if (c.size() == 0) {
-                c.put(n, this);
-            } else {
-                int counter = 1;
-                while (c.putIfAbsent(n, this) != null) {
-                    n = n + counter++; // maybe store some kind of map<ComponentSetup, LongCounter> in BuildSetup.. for those that want to test
-                                       // adding 1
-                    // million of the same component type
-                }
-            }
-        }
-        this.name = n;
+        // Make the name unique among the children of the parent
+        this.name = installer.parent == null ? nn : installer.parent.treeChildAdd(nn, this);
+    }
+
+    /**
+     * Makes room for the specified number of additional child containers.
+     *
+     * @param additional
+     *            the number of child containers that are about to be added
+     */
+    public void reserveChildren(int additional) {
+        treeChildEnsureCapacity(additional);
     }
 
     /** Call {@link Extension#onAssemblyClose()}. */
@@ -318,7 +314,7 @@ public final class ContainerSetup extends AbstractNamedTreeNode<ContainerSetup>
             }
         }
 
-        for (ContainerSetup c : treeChildren.values()) {
+        for (ContainerSetup c = treeFirstChild; c != null; c = c.treeNextSibling) {
             if (assembly == c.assembly) {
                 ContainerAccessHandler.instance().invokeContainerHandleDoClose(c.handle());
                 c.onAssemblyClose(as);
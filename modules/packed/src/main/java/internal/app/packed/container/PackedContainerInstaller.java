@@ -18,9 +18,12 @@ package internal.app.packed.container;
 import static java.util.Objects.requireNonNull;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Set;
 import java.util.function.Consumer;
+import java.util.function.IntFunction;
 
 import org.jspecify.annotations.Nullable;
 
@@ -82,6 +85,16 @@ public final class PackedContainerInstaller<H extends ContainerHandle<?>> extend
         this.installedBy = installedBy;
     }
 
+    /** Creates a new installer with the same configuration as the specified installer. */
+    private PackedContainerInstaller(PackedContainerInstaller<H> template) {
+        super(template);
+        this.applicationInstaller = template.applicationInstaller;
+        this.parent = template.parent;
+        this.installedBy = template.installedBy;
+        this.name = template.name;
+        this.newNamespace = template.newNamespace;
+    }
+
     /** {@inheritDoc} */
     @Override
     protected ApplicationSetup application(ContainerSetup setup) {
@@ -111,6 +124,24 @@ public final class PackedContainerInstaller<H extends ContainerHandle<?>> extend
         return (H) container.handle();
     }
 
+    /** {@inheritDoc} */
+    @Override
+    public List<H> installAll(int count, IntFunction<? extends Assembly> assemblies, Wirelet... wirelets) {
+        requireNonNull(assemblies, "assemblies is null");
+        if (count < 0) {
+            throw new IllegalArgumentException("count must be non-negative, was " + count);
+        } else if (parent == null) {
+            throw new IllegalStateException("Cannot install multiple root containers");
+        }
+        markUsed();
+        parent.reserveChildren(count);
+        ArrayList<H> result = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            result.add(newInstaller().install(requireNonNull(assemblies.apply(i), "assemblies returned null"), wirelets));
+        }
+        return Collections.unmodifiableList(result);
+    }
+
     /** {@inheritDoc} */
     @SuppressWarnings("unchecked")
     @Override
@@ -133,6 +164,16 @@ public final class PackedContainerInstaller<H extends ContainerHandle<?>> extend
         return s.container;
     }
 
+    /**
+     * Returns a new installer, with the same configuration as this installer. Used for installing multiple containers
+     * with the same configuration.
+     *
+     * @return the new installer
+     */
+    public PackedContainerInstaller<H> newInstaller() {
+        return new PackedContainerInstaller<>(this);
+    }
+
     public <T> ContainerInstaller<H> localConsume(ContainerBuildLocal<T> local, Consumer<T> action) {
 //        PackedAbstractContainerLocal<?> cl = (PackedAbstractContainerLocal<?>) local;
 
@@ -144,7 +185,7 @@ public final class PackedContainerInstaller<H extends ContainerHandle<?>> extend
 
     /** {@inheritDoc} */
     @Override
-    public ContainerInstaller<H> named(String name) {
+    public PackedContainerInstaller<H> named(String name) {
         this.name = name;
         return this;
     }
@@ -0,0 +1,39 @@
+/*
+ * Copyright (c) 2026 Kasper Nielsen.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package internal.app.packed.invoke;
+
+import java.lang.invoke.MethodHandle;
+import java.util.Map;
+
+import org.jspecify.annotations.Nullable;
+
+import internal.app.packed.operation.OperationSetup;
+
+/**
+ * The hidden class that holds the invokers of the operations of a single bean, if the application uses hidden class
+ * invokers.
+ *
+ * @param invokerClass
+ *            the hidden class, or null if none of the operations of the bean are supported
+ * @param invokers
+ *            the invokers of the supported operations of the bean
+ * @see HiddenClassInvokerGenerator
+ */
+public record BeanInvokerClass(@Nullable Class<?> invokerClass, Map<OperationSetup, MethodHandle> invokers) {
+
+    /** Used for beans where none of the operations are supported. */
+    static final BeanInvokerClass EMPTY = new BeanInvokerClass(null, Map.of());
+}
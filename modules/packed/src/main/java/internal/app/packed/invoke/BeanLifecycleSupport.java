@@ -42,7 +42,7 @@ public class BeanLifecycleSupport {
     public static void addLifecycleHandle(InvokableLifecycleOperationHandle<LifecycleOperationHandle> handle) {
         OperationSetup operation = handle.handle.operation();
         // (ExtensionContext)Object
-        operation.bean.container.application.addCodegenAction(() -> {
+        operation.bean.container.application.addCodegenAction(operation.bean, () -> {
             handle.methodHandle = handle.codeGenerator.generate(false);
         });
     }
@@ -0,0 +1,385 @@
+/*
+ * Copyright (c) 2026 Kasper Nielsen.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package internal.app.packed.invoke;
+
+import static java.lang.classfile.ClassFile.ACC_FINAL;
+import static java.lang.classfile.ClassFile.ACC_PUBLIC;
+import static java.lang.classfile.ClassFile.ACC_STATIC;
+import static java.lang.classfile.ClassFile.ACC_SYNTHETIC;
+import static java.lang.constant.ConstantDescs.BSM_CLASS_DATA_AT;
+import static java.lang.constant.ConstantDescs.CD_MethodHandle;
+import static java.lang.constant.ConstantDescs.DEFAULT_NAME;
+
+import java.lang.classfile.ClassFile;
+import java.lang.classfile.CodeBuilder;
+import java.lang.classfile.TypeKind;
+import java.lang.constant.ClassDesc;
+import java.lang.constant.DynamicConstantDesc;
+import java.lang.constant.MethodTypeDesc;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodHandles.Lookup;
+import java.lang.invoke.MethodHandles.Lookup.ClassOption;
+import java.lang.invoke.MethodType;
+import java.lang.invoke.VarHandle.AccessMode;
+import java.lang.reflect.Field;
+import java.lang.reflect.Member;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.function.Consumer;
+
+import org.jspecify.annotations.Nullable;
+
+import app.packed.bean.BeanKind;
+import app.packed.build.CodegenException;
+import internal.app.packed.bean.BeanSetup;
+import internal.app.packed.bean.sidehandle.SidehandleBeanHandle;
+import internal.app.packed.binding.BindingProvider;
+import internal.app.packed.binding.BindingSetup;
+import internal.app.packed.lifecycle.LifecycleOperationHandle.FactoryOperationHandle;
+import internal.app.packed.lifecycle.lifetime.ContainerLifetimeSetup;
+import internal.app.packed.lifecycle.lifetime.LifetimeStore;
+import internal.app.packed.lifecycle.lifetime.LifetimeStoreIndex;
+import internal.app.packed.operation.OperationMemberTarget;
+import internal.app.packed.operation.OperationMemberTarget.OperationFieldTarget;
+import internal.app.packed.operation.OperationMemberTarget.OperationMethodTarget;
+import internal.app.packed.operation.OperationSetup;
+import internal.app.packed.operation.PackedOperationTarget.MemberOperationTarget;
+
+/**
+ * Generates invokers for operations as hidden classes.
+ * <p>
+ * The invokers of the operations of a bean are static methods on a single hidden class that is defined as a nestmate
+ * of the bean class. Each invoker calls the target member of its operation directly using {@code invokevirtual},
+ * {@code invokeinterface}, {@code invokestatic} or {@code getfield} instead of going through a chain of method handle
+ * combinators. Arguments to the member that are not passed directly to the invoker, such as bean instances stored in
+ * the lifetime and constants, are read through method handles stored as class data. Since class data are constants, the
+ * JIT can inline them fully.
+ * <p>
+ * Bean instances are read using the typed field readers of the {@link LifetimeStore lifetime store} rather than by
+ * reading the fields of the extension context directly. As the invoker is defined in the package of the bean, it does
+ * not have access to the generated store class.
+ * <p>
+ * The hidden class of a bean is defined the first time the invoker of any of its operations is requested. Defining it
+ * must not generate code for other operations, as they might be waiting for the class of this bean. So only operations
+ * whose arguments are constants, invocation arguments or values stored in the lifetime are supported. Other
+ * operations, for example, operations with embedded operations, sidehandle bindings or members that cannot be accessed
+ * from a nestmate, use the regular method handle combinators.
+ */
+final class HiddenClassInvokerGenerator {
+
+    /** The name prefix of the generated invoker methods. */
+    private static final String INVOKE_NAME = "invoke";
+
+    /** The operation we are generating an invoker for. */
+    private final OperationSetup operation;
+
+    /** The type of the invoker. */
+    private final MethodType invocationType;
+
+    /** Method handles that are passed to the hidden class as class data, shared by all invokers of the bean. */
+    private final ArrayList<MethodHandle> classData;
+
+    /** Code that loads the arguments of the target member. */
+    private final ArrayList<Consumer<CodeBuilder>> loaders = new ArrayList<>();
+
+    private HiddenClassInvokerGenerator(OperationSetup operation, ArrayList<MethodHandle> classData) {
+        this.operation = operation;
+        this.invocationType = operation.template.invocationType();
+        this.classData = classData;
+    }
+
+    /**
+     * Adds a loader for a value of the specified type.
+     *
+     * @return whether or not the value could be loaded
+     */
+    private boolean load(BindingProvider provider, Class<?> type) {
+        switch (provider) {
+        case BindingProvider.FromConstant(_, Object constant) -> loadConstant(MethodHandles.constant(type, constant));
+        case BindingProvider.FromInvocationArgument(int argumentIndex) -> {
+            if (invocationType.parameterType(argumentIndex) != type) {
+                return false;
+            }
+            int slot = slot(argumentIndex);
+            TypeKind kind = TypeKind.from(type);
+            loaders.add(cb -> cb.loadLocal(kind, slot));
+        }
+        case BindingProvider.FromLifetimeArena(ContainerLifetimeSetup lifetime, LifetimeStoreIndex index, Class<?> _) -> {
+            MethodHandle reader = lifetime.store.reader(index);
+            return loadInvocation(reader.asType(reader.type().changeReturnType(type)));
+        }
+        default -> {
+            // Computed constants and embedded operations would require running user code or generating other operations
+            return false;
+        }
+        }
+        return true;
+    }
+
+    /** Loads a constant by invoking a class data method handle that takes no arguments. */
+    private void loadConstant(MethodHandle constant) {
+        int index = addClassData(constant);
+        MethodTypeDesc desc = desc(constant.type());
+        loaders.add(cb -> {
+            cb.ldc(classDataAt(index));
+            cb.invokevirtual(CD_MethodHandle, "invokeExact", desc);
+        });
+    }
+
+    /** Loads a value by invoking a class data method handle with the leading arguments of the invoker. */
+    private boolean loadInvocation(MethodHandle mh) {
+        MethodType type = mh.type();
+        if (type.parameterCount() > invocationType.parameterCount()) {
+            return false;
+        }
+        for (int i = 0; i < type.parameterCount(); i++) {
+            if (type.parameterType(i) != invocationType.parameterType(i)) {
+                return false;
+            }
+        }
+        int index = addClassData(mh);
+        MethodTypeDesc desc = desc(type);
+        loaders.add(cb -> {
+            cb.ldc(classDataAt(index));
+            for (int i = 0; i < type.parameterCount(); i++) {
+                cb.loadLocal(TypeKind.from(type.parameterType(i)), slot(i));
+            }
+            cb.invokevirtual(CD_MethodHandle, "invokeExact", desc);
+        });
+        return true;
+    }
+
+    private int addClassData(MethodHandle mh) {
+        classData.add(mh);
+        return classData.size() - 1;
+    }
+
+    /** {@return the local variable slot of the specified invoker parameter} */
+    private int slot(int parameterIndex) {
+        int slot = 0;
+        for (int i = 0; i < parameterIndex; i++) {
+            slot += TypeKind.from(invocationType.parameterType(i)).slotSize();
+        }
+        return slot;
+    }
+
+    /**
+     * Attempts to generate the body of an invoker for the operation that calls the target member directly.
+     *
+     * @return the body of the invoker, or null if the operation is not supported
+     */
+    @Nullable
+    private Consumer<CodeBuilder> tryGenerate() {
+        // We only generate code for plain methods and field reads on the bean class
+        if (!(operation.target instanceof MemberOperationTarget mot) || operation.embeddedInto != null
+                || operation.handle() instanceof FactoryOperationHandle || operation.bean.handle() instanceof SidehandleBeanHandle) {
+            return null;
+        }
+        Class<?> beanClass = operation.bean.bean.beanClass;
+        OperationMemberTarget<?> target = mot.target;
+        Member member;
+        boolean isStatic = Modifier.isStatic(target.modifiers());
+        Class<?>[] parameterTypes;
+        Class<?> returnType;
+        if (target instanceof OperationMethodTarget m) {
+            Method method = m.method();
+            if (!operation.bean.interceptors(method).isEmpty()) {
+                return null; // Interceptors wrap the combinator based method handle
+            }
+            member = method;
+            parameterTypes = method.getParameterTypes();
+            returnType = method.getReturnType();
+        } else if (target instanceof OperationFieldTarget f && f.accessMode() == AccessMode.GET) {
+            Field field = f.field();
+            member = field;
+            parameterTypes = new Class<?>[0];
+            returnType = field.getType();
+        } else {
+            return null;
+        }
+        if (!isAccessible(beanClass, member) || operation.bindings.length != parameterTypes.length) {
+            return null;
+        }
+
+        // Load the bean instance followed by all bindings
+        if (!isStatic) {
+            BeanKind kind = operation.bean.beanKind;
+            if (kind != BeanKind.SINGLETON && kind != BeanKind.UNMANAGED) {
+                return null;
+            }
+            if (!load(operation.bean.beanInstanceBindingProvider(), beanClass)) {
+                return null;
+            }
+        }
+        for (int i = 0; i < parameterTypes.length; i++) {
+            BindingSetup binding = operation.bindings[i];
+            if (binding == null || binding.provider() == null || !load(binding.provider(), parameterTypes[i])) {
+                return null;
+            }
+        }
+
+        // We support dropping the result or returning it as is
+        Class<?> invocationReturnType = invocationType.returnType();
+        if (invocationReturnType != void.class && invocationReturnType != returnType
+                && (returnType.isPrimitive() || invocationReturnType != Object.class)) {
+            return null;
+        }
+
+        Class<?> declaringClass = member.getDeclaringClass();
+        ClassDesc owner = desc(isStatic ? declaringClass : beanClass);
+        return cb -> {
+            for (Consumer<CodeBuilder> l : loaders) {
+                l.accept(cb);
+            }
+            if (member instanceof Method method) {
+                MethodTypeDesc md = desc(MethodType.methodType(returnType, parameterTypes));
+                if (isStatic) {
+                    cb.invokestatic(owner, method.getName(), md, declaringClass.isInterface());
+                } else if (beanClass.isInterface()) {
+                    cb.invokeinterface(owner, method.getName(), md);
+                } else {
+                    cb.invokevirtual(owner, method.getName(), md);
+                }
+            } else if (isStatic) {
+                cb.getstatic(owner, member.getName(), desc(returnType));
+            } else {
+                cb.getfield(owner, member.getName(), desc(returnType));
+            }
+            if (invocationReturnType == void.class && returnType != void.class) {
+                if (TypeKind.from(returnType).slotSize() == 2) {
+                    cb.pop2();
+                } else {
+                    cb.pop();
+                }
+            }
+            cb.return_(TypeKind.from(invocationReturnType));
+        };
+    }
+
+    /**
+     * Defines a single hidden class with invokers for all supported operations of the specified bean.
+     *
+     * @param bean
+     *            the bean to define invokers for
+     * @return the invokers of the bean
+     * @throws CodegenException
+     *             if the hidden class could not be defined
+     */
+    static BeanInvokerClass define(BeanSetup bean) {
+        Class<?> beanClass = bean.bean.beanClass;
+        if (!isDefinable(beanClass)) {
+            return BeanInvokerClass.EMPTY;
+        }
+        ArrayList<MethodHandle> classData = new ArrayList<>();
+        ArrayList<OperationSetup> operations = new ArrayList<>();
+        ArrayList<MethodType> types = new ArrayList<>();
+        ArrayList<Consumer<CodeBuilder>> bodies = new ArrayList<>();
+        for (OperationSetup operation : bean.operations) {
+            int mark = classData.size();
+            HiddenClassInvokerGenerator g = new HiddenClassInvokerGenerator(operation, classData);
+            Consumer<CodeBuilder> body = g.tryGenerate();
+            if (body == null) {
+                classData.subList(mark, classData.size()).clear(); // Remove any class data added by the failed attempt
+            } else {
+                operations.add(operation);
+                types.add(g.invocationType);
+                bodies.add(body);
+            }
+        }
+        if (operations.isEmpty()) {
+            return BeanInvokerClass.EMPTY;
+        }
+
+        ClassDesc cd = ClassDesc.of(beanClass.getPackageName(), beanClass.getSimpleName() + "$$PackedInvokers");
+        byte[] bytes = ClassFile.of().build(cd, clb -> {
+            clb.withFlags(ACC_PUBLIC | ACC_FINAL | ACC_SYNTHETIC);
+            for (int i = 0; i < bodies.size(); i++) {
+                clb.withMethodBody(INVOKE_NAME + i, desc(types.get(i)), ACC_PUBLIC | ACC_STATIC, bodies.get(i));
+            }
+        });
+
+        try {
+            Lookup lookup = ModuleAccessor.lookupFor(beanClass);
+            lookup = lookup.defineHiddenClassWithClassData(bytes, List.copyOf(classData), true, ClassOption.NESTMATE);
+            IdentityHashMap<OperationSetup, MethodHandle> invokers = new IdentityHashMap<>();
+            for (int i = 0; i < operations.size(); i++) {
+                invokers.put(operations.get(i), lookup.findStatic(lookup.lookupClass(), INVOKE_NAME + i, types.get(i)));
+            }
+            return new BeanInvokerClass(lookup.lookupClass(), invokers);
+        } catch (ReflectiveOperationException e) {
+            throw new CodegenException("Could not generate invokers for " + bean, e);
+        }
+    }
+
+    /**
+     * Returns a hidden class invoker that calls the target of the specified operation directly. Defining the hidden class
+     * of the operation's bean if needed.
+     *
+     * @param operation
+     *            the operation to generate an invoker for
+     * @param invocationType
+     *            the type of the invoker
+     * @return the invoker, or null if the operation is not supported by this generator
+     */
+    @Nullable
+    static MethodHandle generate(OperationSetup operation, MethodType invocationType) {
+        MethodHandle mh = operation.bean.invokerClass.orElseSet(() -> define(operation.bean)).invokers().get(operation);
+        return mh != null && mh.type() == invocationType ? mh : null;
+    }
+
+    /** Tests whether or not the generated invoker can access the specified member of the bean class. */
+    private static boolean isAccessible(Class<?> beanClass, Member member) {
+        Class<?> declaringClass = member.getDeclaringClass();
+        int mod = member.getModifiers();
+        if (Modifier.isPrivate(mod)) {
+            // Private members of super classes are not accessible through the bean class
+            return declaringClass == beanClass || (Modifier.isStatic(mod) && declaringClass.getNestHost() == beanClass.getNestHost());
+        } else if (declaringClass.getPackageName().equals(beanClass.getPackageName())) {
+            return true;
+        }
+        // Protected members in other packages can only be accessed from subclasses
+        return Modifier.isPublic(mod) && (!Modifier.isStatic(mod) || Modifier.isPublic(declaringClass.getModifiers()));
+    }
+
+    /** Tests whether or not we can define hidden classes in the package of the specified bean class. */
+    private static boolean isDefinable(Class<?> beanClass) {
+        if (beanClass.isHidden() || beanClass.isArray() || beanClass.isPrimitive()) {
+            return false;
+        }
+        try {
+            ModuleAccessor.lookupFor(beanClass);
+            return true;
+        } catch (RuntimeException | IllegalAccessError e) {
+            return false; // The package is not open to us
+        }
+    }
+
+    private static DynamicConstantDesc<?> classDataAt(int index) {
+        return DynamicConstantDesc.ofNamed(BSM_CLASS_DATA_AT, DEFAULT_NAME, CD_MethodHandle, index);
+    }
+
+    private static ClassDesc desc(Class<?> type) {
+        return ClassDesc.ofDescriptor(type.descriptorString());
+    }
+
+    private static MethodTypeDesc desc(MethodType type) {
+        return MethodTypeDesc.ofDescriptor(type.descriptorString());
+    }
+}
@@ -15,11 +15,32 @@
  */
 package internal.app.packed.invoke;
 
+import static java.lang.classfile.ClassFile.ACC_FINAL;
+import static java.lang.classfile.ClassFile.ACC_PUBLIC;
+import static java.lang.classfile.ClassFile.ACC_SYNTHETIC;
+import static java.lang.constant.ConstantDescs.BSM_CLASS_DATA_AT;
+import static java.lang.constant.ConstantDescs.CD_MethodHandle;
+import static java.lang.constant.ConstantDescs.CD_Object;
+import static java.lang.constant.ConstantDescs.CD_Throwable;
+import static java.lang.constant.ConstantDescs.CD_int;
+import static java.lang.constant.ConstantDescs.CD_void;
+import static java.lang.constant.ConstantDescs.DEFAULT_NAME;
+import static java.lang.constant.ConstantDescs.INIT_NAME;
 import static java.util.Objects.requireNonNull;
 
+import java.lang.classfile.ClassFile;
+import java.lang.classfile.Label;
+import java.lang.classfile.instruction.SwitchCase;
+import java.lang.constant.ClassDesc;
+import java.lang.constant.DynamicConstantDesc;
+import java.lang.constant.MethodTypeDesc;
 import java.lang.invoke.MethodHandle;
 import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodHandles.Lookup;
 import java.lang.invoke.MethodType;
+import java.lang.reflect.UndeclaredThrowableException;
+import java.util.ArrayList;
+import java.util.List;
 
 import internal.app.packed.extension.ExtensionContext;
 import internal.app.packed.lifecycle.runtime.ApplicationLaunchContext;
@@ -50,16 +71,125 @@ public abstract class MethodHandleInvoker {
         }
     }
 
-    public static final class ExportedServiceWrapper extends MethodHandleInvoker {
-        private final MethodHandle mh;
+    /**
+     * Creates instances of the exported services of a container.
+     * <p>
+     * Instances are created using {@link #of(List)}. Which defines a single hidden subclass for all the exported services
+     * of a container. The method handle of every service is a class data constant, and {@link #create(int, ExtensionContext)}
+     * selects the service to create with a {@code tableswitch}. Unlike method handles stored in fields, the JIT can inline
+     * the method handles. And as there is only a single class per container, calls to {@code create} are not
+     * megamorphic.
+     */
+    public static abstract class ExportedServiceWrapper extends MethodHandleInvoker {
 
-        public ExportedServiceWrapper(MethodHandle mh) {
-            this.mh = requireNonNull(mh);
-        }
+        private static final ClassDesc CD_ExportedServiceWrapper = ClassDesc.of(ExportedServiceWrapper.class.getName());
+
+        private static final ClassDesc CD_Error = ClassDesc.of(Error.class.getName());
+
+        private static final ClassDesc CD_ExtensionContext = ClassDesc.of(ExtensionContext.class.getName());
+
+        private static final ClassDesc CD_IndexOutOfBoundsException = ClassDesc.of(IndexOutOfBoundsException.class.getName());
+
+        private static final ClassDesc CD_RuntimeException = ClassDesc.of(RuntimeException.class.getName());
+
+        private static final ClassDesc CD_UndeclaredThrowableException = ClassDesc.of(UndeclaredThrowableException.class.getName());
+
+        /** The descriptor of {@link #create(int, ExtensionContext)}. */
+        private static final MethodTypeDesc MTD_CREATE = MethodTypeDesc.of(CD_Object, CD_int, CD_ExtensionContext);
+
+        /** The descriptor of the method handle of each service. */
+        private static final MethodTypeDesc MTD_SERVICE = MethodTypeDesc.of(CD_Object, CD_ExtensionContext);
+
+        /** Only subclassed by generated classes. */
+        ExportedServiceWrapper() {}
+
+        /**
+         * Creates an instance of a service.
+         *
+         * @param index
+         *            the index of the service
+         * @param context
+         *            the extension context of the container that exports the service
+         * @return the service instance
+         * @throws IndexOutOfBoundsException
+         *             if there is no service with the specified index
+         */
+        public abstract Object create(int index, ExtensionContext context);
+
+        /**
+         * Creates a new wrapper for the specified method handles.
+         *
+         * @param mhs
+         *            method handles of type {@code (ExtensionContext)Object} that creates the services, the index of
+         *            each method handle is the index of the service
+         * @return the new wrapper
+         */
+        public static ExportedServiceWrapper of(List<MethodHandle> mhs) {
+            List<MethodHandle> classData = List.copyOf(mhs);
+            int n = classData.size();
+            ClassDesc cd = ClassDesc.of(ExportedServiceWrapper.class.getPackageName(), "ExportedServiceWrapperImpl");
+
+            byte[] bytes = ClassFile.of().build(cd, clb -> {
+                clb.withFlags(ACC_PUBLIC | ACC_FINAL | ACC_SYNTHETIC);
+                clb.withSuperclass(CD_ExportedServiceWrapper);
+
+                clb.withMethodBody(INIT_NAME, MethodTypeDesc.of(CD_void), ACC_PUBLIC, cb -> {
+                    cb.aload(0);
+                    cb.invokespecial(CD_ExportedServiceWrapper, INIT_NAME, MethodTypeDesc.of(CD_void));
+                    cb.return_();
+                });
+
+                // create(int, ExtensionContext) invokes the class data method handle at the index, wrapping checked exceptions
+                clb.withMethodBody("create", MTD_CREATE, ACC_PUBLIC, cb -> {
+                    Label start = cb.newLabel();
+                    Label end = cb.newLabel();
+                    Label rethrow = cb.newLabel();
+                    Label wrap = cb.newLabel();
+                    Label outOfBounds = cb.newLabel();
+                    cb.exceptionCatch(start, end, rethrow, CD_RuntimeException);
+                    cb.exceptionCatch(start, end, rethrow, CD_Error);
+                    cb.exceptionCatch(start, end, wrap, CD_Throwable);
+
+                    cb.labelBinding(start);
+                    if (n > 0) {
+                        ArrayList<SwitchCase> cases = new ArrayList<>(n);
+                        for (int i = 0; i < n; i++) {
+                            cases.add(SwitchCase.of(i, cb.newLabel()));
+                        }
+                        cb.iload(1);
+                        cb.tableswitch(0, n - 1, outOfBounds, cases);
+                        for (int i = 0; i < n; i++) {
+                            cb.labelBinding(cases.get(i).target());
+                            cb.ldc(DynamicConstantDesc.ofNamed(BSM_CLASS_DATA_AT, DEFAULT_NAME, CD_MethodHandle, i));
+                            cb.aload(2);
+                            cb.invokevirtual(CD_MethodHandle, "invokeExact", MTD_SERVICE);
+                            cb.areturn();
+                        }
+                    }
+                    cb.labelBinding(outOfBounds);
+                    cb.new_(CD_IndexOutOfBoundsException);
+                    cb.dup();
+                    cb.iload(1);
+                    cb.invokespecial(CD_IndexOutOfBoundsException, INIT_NAME, MethodTypeDesc.of(CD_void, CD_int));
+                    cb.athrow();
+                    cb.labelBinding(end);
+
+                    cb.labelBinding(rethrow);
+                    cb.athrow();
+
+                    cb.labelBinding(wrap);
+                    cb.astore(3);
+                    cb.new_(CD_UndeclaredThrowableException);
+                    cb.dup();
+                    cb.aload(3);
+                    cb.invokespecial(CD_UndeclaredThrowableException, INIT_NAME, MethodTypeDesc.of(CD_void, CD_Throwable));
+                    cb.athrow();
+                });
+            });
 
-        public Object create(ExtensionContext context) {
             try {
-                return mh.invokeExact(context);
+                Lookup lookup = MethodHandles.lookup().defineHiddenClassWithClassData(bytes, classData, true);
+                return (ExportedServiceWrapper) lookup.findConstructor(lookup.lookupClass(), MethodType.methodType(void.class)).invoke();
             } catch (Throwable t) {
                 throw ThrowableUtil.orUndeclared(t);
             }
@@ -18,9 +18,15 @@ package internal.app.packed.invoke;
 import java.lang.invoke.MethodHandle;
 import java.lang.invoke.MethodHandles;
 import java.lang.invoke.MethodType;
+import java.lang.invoke.VarHandle;
 import java.lang.reflect.Modifier;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
 import java.util.function.Supplier;
 
 import org.jspecify.annotations.Nullable;
@@ -28,6 +34,10 @@ import org.jspecify.annotations.Nullable;
 import app.packed.bean.BeanKind;
 import app.packed.binding.Key;
 import app.packed.binding.ProvisionException;
+import app.packed.build.BuildException;
+import app.packed.build.CodegenException;
+import app.packed.extension.InternalExtensionException;
+import app.packed.operation.OperationInterceptor;
 import internal.app.packed.bean.sidehandle.PackedSidehandle;
 import internal.app.packed.bean.sidehandle.PackedSidehandle.OfOperation;
 import internal.app.packed.bean.sidehandle.PackedSidehandleBinding;
@@ -40,9 +50,13 @@ import internal.app.packed.binding.BindingProvider.FromSidehandle;
 import internal.app.packed.binding.BindingSetup;
 import internal.app.packed.invoke.MethodHandleUtil.LazyResolvable;
 import internal.app.packed.lifecycle.LifecycleOperationHandle.FactoryOperationHandle;
+import internal.app.packed.lifecycle.lifetime.ContainerLifetimeSetup;
 import internal.app.packed.lifecycle.lifetime.LifetimeStoreIndex;
+import internal.app.packed.operation.OperationMemberTarget.OperationMethodTarget;
 import internal.app.packed.operation.OperationSetup;
 import internal.app.packed.operation.PackedOperationTarget.MemberOperationTarget;
+import internal.app.packed.util.ThrowableUtil;
+import internal.app.packed.util.types.ClassUtil;
 
 /**
  *
@@ -60,7 +74,15 @@ public final class OperationCodeGenerator {
     @Nullable
     public final PackedSidehandle sidebeanAttachment;
 
-    private final Supplier<MethodHandle> cachedMH = StableValue.supplier(() -> newMethodHandle());
+    /** A var handle for {@link #generatingThread}. */
+    private static final VarHandle GENERATING_THREAD = LookupUtil.findVarHandle(MethodHandles.lookup(), "generatingThread", Thread.class);
+
+    /** Generates the method handle, run by the first thread that needs it. Other threads wait for it to complete. */
+    private final FutureTask<MethodHandle> task = new FutureTask<>(this::newMethodHandle);
+
+    /** The thread that is running {@link #task}, or null if it is not running. */
+    @Nullable
+    private volatile Thread generatingThread;
 
     /**
      * @param packedSideBeanUsage
@@ -69,7 +91,7 @@ public final class OperationCodeGenerator {
         this.operation = operation;
         this.sidebeanAttachment = sidebean;
         this.invocationType = operation.template.invocationType();
-        this.cachedLazyMethodHandle = StableValue.supplier(() -> MethodHandleUtil.lazyF(operation.template.methodType, cachedMH));
+        this.cachedLazyMethodHandle = StableValue.supplier(() -> MethodHandleUtil.lazyF(operation.template.methodType, this::generateMethodHandle));
     }
 
     boolean isDebug() {
@@ -116,7 +138,55 @@ public final class OperationCodeGenerator {
      *             if called before the code generating phase of the application.
      */
     private MethodHandle generateMethodHandle() {
-        return cachedMH.get();
+        if (!task.isDone()) {
+            Thread thread = Thread.currentThread();
+            if (GENERATING_THREAD.compareAndSet(this, null, thread)) {
+                // Generate the method handle in this thread, it may generate code for other operations
+                try {
+                    task.run();
+                } finally {
+                    generatingThread = null;
+                }
+            } else {
+                await(thread);
+            }
+        }
+        if (task.state() == Future.State.SUCCESS) {
+            return task.resultNow();
+        }
+        throw ThrowableUtil.orUndeclared(task.exceptionNow());
+    }
+
+    /**
+     * Waits for the thread that is generating the method handle.
+     * <p>
+     * Waiting threads are recorded in the wait graph of the application. Before waiting, the graph is checked to see if
+     * the generating thread is (transitively) waiting on the specified thread, which would never complete.
+     */
+    private void await(Thread thread) {
+        HashMap<Thread, OperationCodeGenerator> waiters = operation.bean.container.application.codegenWaiters;
+        synchronized (waiters) {
+            for (Thread t = generatingThread; t != null;) {
+                if (t == thread) {
+                    throw new BuildException("Circular dependency while generating code for " + operation);
+                }
+                OperationCodeGenerator g = waiters.get(t);
+                t = g == null ? null : g.generatingThread;
+            }
+            waiters.put(thread, this);
+        }
+        try {
+            task.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BuildException("Interrupted while generating code for " + operation, e);
+        } catch (ExecutionException ignore) {
+            // Rethrown by the caller
+        } finally {
+            synchronized (waiters) {
+                waiters.remove(thread);
+            }
+        }
     }
 
     private MethodHandle newMethodHandle() {
@@ -129,6 +199,19 @@ public final class OperationCodeGenerator {
             return newSidebeanAttachment();
         }
 
+        // Interceptors are only present if an extension has asked to wrap operations on the target method
+        List<OperationInterceptor> interceptors = operation.target instanceof MemberOperationTarget mot && mot.target instanceof OperationMethodTarget omt
+                ? operation.bean.interceptors(omt.method())
+                : List.of();
+
+        // If the application uses hidden class invokers, first try to generate one that calls the target directly
+        if (operation.bean.container.application.template.hiddenClassInvokers() && interceptors.isEmpty()) {
+            MethodHandle direct = HiddenClassInvokerGenerator.generate(operation, invocationType);
+            if (direct != null) {
+                return direct;
+            }
+        }
+
         boolean isFactory = operation.handle() instanceof FactoryOperationHandle;
         boolean requiresBeanInstance = !isFactory && operation.target instanceof MemberOperationTarget mot && !Modifier.isStatic(mot.target.modifiers());
         boolean isSideBeanClass = operation.bean.handle() instanceof SidehandleBeanHandle;
@@ -205,6 +288,15 @@ public final class OperationCodeGenerator {
             throw new Error();
         }
 
+        for (OperationInterceptor interceptor : interceptors) {
+            MethodHandle intercepted = interceptor.intercept(operation.mirror(), mh);
+            if (intercepted.type() != mh.type()) {
+                throw new InternalExtensionException(
+                        "Interceptor " + interceptor + " changed the type of the invoker for " + operation + " from " + mh.type() + " to " + intercepted.type());
+            }
+            mh = intercepted;
+        }
+
         // Singleton beans needs to be stored in their respective lifetime.
         boolean isFactoryStore = isFactory && operation.bean.beanKind == BeanKind.SINGLETON;
         if (isFactoryStore) {
@@ -213,6 +305,7 @@ public final class OperationCodeGenerator {
             // Do we need to change the type back again????
             // Maybe
         }
+
         return mh;
     }
 
@@ -256,9 +349,8 @@ public final class OperationCodeGenerator {
             methodHandle = BeanLifecycleSupport.MH_INVOKE_INITIALIZER_SIDEBEAN.bindTo(sidebeanAttachment).bindTo(methodHandle);
             return methodHandle;
         }
-        MethodHandle tmp = MethodHandles.insertArguments(ServiceSupport.MH_CONSTANT_POOL_READER, 1, sidebeanAttachment.lifetimeStoreIndex.index);
-        assert tmp.type().returnType() == Object.class;
-        // We need to convert it from Object to the expected type
+        MethodHandle tmp = sidebeanAttachment.bean.container.lifetime.store.reader(sidebeanAttachment.lifetimeStoreIndex);
+        // The field may be typed as Object, in which case we need to convert it to the expected type
         tmp = tmp.asType(tmp.type().changeReturnType(sidebeanAttachment.sidehandleBean.bean.beanClass));
 
         return MethodHandleUtil.merge(methodHandle, tmp);
@@ -290,17 +382,23 @@ public final class OperationCodeGenerator {
         // The value is the result of calling an embedded operation
         case BindingProvider.FromEmbeddedOperation(OperationSetup operation) -> {
             MethodHandle embeddedOperation = operation.codeGenerator.generateMethodHandle();
+            // The operation may return the wrapper of a primitive variable, or a subtype of the variable. Never cast the value
+            Class<?> variableType = mh.type().parameterType(pos);
+            if (!ClassUtil.isConvertibleWithoutCast(embeddedOperation.type().returnType(), variableType)) {
+                throw new CodegenException("Cannot bind an operation returning " + embeddedOperation.type().returnType().getName()
+                        + " to a variable of type " + variableType.getName() + ", for " + operation);
+            }
+            embeddedOperation = embeddedOperation.asType(embeddedOperation.type().changeReturnType(variableType));
             for (int j = 0; j < embeddedOperation.type().parameterCount(); j++) {
                 permuters.add(j);
             }
             yield MethodHandles.collectArguments(mh, pos, embeddedOperation);
         }
 
-        case BindingProvider.FromLifetimeArena(_, LifetimeStoreIndex index, Class<?> type) -> {
-            // read from constant pool via extIdx
+        case BindingProvider.FromLifetimeArena(ContainerLifetimeSetup lifetime, LifetimeStoreIndex index, Class<?> type) -> {
+            // read the field of the lifetime store
             permuters.add(0);
-            MethodHandle beanFetcher = MethodHandles.insertArguments(ServiceSupport.MH_CONSTANT_POOL_READER, 1, index.index);
-            assert beanFetcher.type().returnType() == Object.class;
+            MethodHandle beanFetcher = lifetime.store.reader(index);
             beanFetcher = beanFetcher.asType(beanFetcher.type().changeReturnType(type));
             yield MethodHandles.collectArguments(mh, pos, beanFetcher);
         }
@@ -26,9 +26,7 @@ import app.packed.operation.OperationHandle;
 import internal.app.packed.bean.sidehandle.SidehandleBeanHandle;
 import internal.app.packed.extension.ExtensionContext;
 import internal.app.packed.invoke.MethodHandleInvoker.ApplicationBaseLauncher;
-import internal.app.packed.invoke.MethodHandleInvoker.ExportedServiceWrapper;
 import internal.app.packed.lifecycle.lifetime.LifetimeStoreIndex;
-import internal.app.packed.lifecycle.runtime.PackedExtensionContext;
 import internal.app.packed.operation.OperationSetup;
 import internal.app.packed.operation.PackedOperationTarget.BeanAccessOperationTarget;
 import internal.app.packed.operation.PackedOperationTarget.MemberOperationTarget;
@@ -39,15 +37,6 @@ import internal.app.packed.util.CollectionUtil;
  */
 public class ServiceSupport {
 
-    /** A method handle for calling {@link PackedExtensionContext#read(int)} at runtime. */
-    static final MethodHandle MH_CONSTANT_POOL_READER;
-
-    static {
-        MethodHandle m = LookupUtil.findVirtual(MethodHandles.lookup(), PackedExtensionContext.class, "read", Object.class, int.class);
-        MethodType mt = m.type().changeParameterType(0, ExtensionContext.class);
-        MH_CONSTANT_POOL_READER = m.asType(mt);
-    }
-
     public static Map<String, MethodHandle> forTestingMap(Map<String, OperationHandle<?>> ink) {
         return CollectionUtil.copyOf(ink, v -> OperationSetup.crack(v).codeGenerator.generate(true));
     }
@@ -59,7 +48,7 @@ public class ServiceSupport {
         return new ApplicationBaseLauncher(m);
     }
 
-    public static ExportedServiceWrapper toExportedService(OperationSetup o) {
+    public static MethodHandle toExportedService(OperationSetup o) {
         MethodHandle mh;
 
         LifetimeStoreIndex accessor = null;
@@ -76,12 +65,12 @@ public class ServiceSupport {
             mh = MethodHandles.constant(Object.class, o.bean.bean.beanSource);
             mh = MethodHandles.dropArguments(mh, 0, ExtensionContext.class);
         } else if (accessor != null) {
-            mh = MethodHandles.insertArguments(MH_CONSTANT_POOL_READER, 1, accessor.index);
+            mh = o.bean.container.lifetime.store.reader(accessor);
         } else {
             mh = o.codeGenerator.generate(false);
         }
         mh = mh.asType(mh.type().changeReturnType(Object.class));
         assert mh.type() == MethodType.methodType(Object.class, ExtensionContext.class);
-        return new ExportedServiceWrapper(mh);
+        return mh;
     }
 }
@@ -17,6 +17,10 @@ package internal.app.packed.lifecycle;
 
 import static java.util.Objects.requireNonNull;
 
+import java.time.Duration;
+import java.time.format.DateTimeParseException;
+
+import app.packed.bean.BeanInstallationException;
 import app.packed.bean.BeanIntrospector;
 import app.packed.lifecycle.FactoryOperationConfiguration;
 import app.packed.lifecycle.FactoryOperationMirror;
@@ -37,6 +41,7 @@ import app.packed.lifecycle.StopOperationMirror;
 import app.packed.operation.OperationConfiguration;
 import app.packed.operation.OperationInstaller;
 import app.packed.operation.OperationMirror;
+import org.jspecify.annotations.Nullable;
 import internal.app.packed.extension.base.BaseExtensionOperationHandle;
 import internal.app.packed.invoke.BeanLifecycleSupport;
 
@@ -46,6 +51,12 @@ public abstract sealed class LifecycleOperationHandle extends BaseExtensionOpera
 
     public final PackedBeanLifecycleKind lifecycleKind;
 
+    /**
+     * The duration in nanoseconds of the last invocation of the operation in any instance of the application, or -1 if
+     * it has never been invoked. Written by every launch of an image, so it is volatile and not per instance.
+     */
+    public volatile long lastInvocationNanos = -1;
+
     /**
      * @param installer
      */
@@ -71,6 +82,24 @@ public abstract sealed class LifecycleOperationHandle extends BaseExtensionOpera
         return (byte) ~b;
     }
 
+    /** Parses the timeout attribute of a {@link Start} or {@link Stop} annotation. */
+    @Nullable
+    private static Duration parseTimeout(String timeout, Class<?> annotationType) {
+        if (timeout.isEmpty()) {
+            return null;
+        }
+        Duration d;
+        try {
+            d = Duration.parse(timeout);
+        } catch (DateTimeParseException e) {
+            throw new BeanInstallationException("Invalid timeout '" + timeout + "' for @" + annotationType.getSimpleName(), e);
+        }
+        if (d.isNegative() || d.isZero()) {
+            throw new BeanInstallationException("Timeout for @" + annotationType.getSimpleName() + " must be positive, was " + timeout);
+        }
+        return d;
+    }
+
     public static abstract non-sealed class AbstractInitializingOperationHandle extends LifecycleOperationHandle {
         private AbstractInitializingOperationHandle(OperationInstaller installer, PackedBeanLifecycleKind lifecycleKind) {
             super(installer, lifecycleKind);
@@ -161,12 +190,16 @@ public abstract sealed class LifecycleOperationHandle extends BaseExtensionOpera
 
         public boolean interruptOnStopping;
 
+        /** The maximum time the operation may run, or null if there is no timeout. */
+        @Nullable
+        public Duration timeout;
 
         private StartOperationHandle(OperationInstaller installer, Start annotation) {
             PackedBeanLifecycleKind lifecycleKind = annotation.naturalOrder() ? PackedBeanLifecycleKind.START_PRE_ORDER
                     : PackedBeanLifecycleKind.START_POST_ORDER;
             this.interruptOnStopping = annotation.interruptOnStopping();
             this.fork = annotation.fork();
+            this.timeout = parseTimeout(annotation.timeout(), Start.class);
 
             super(installer, lifecycleKind);
         }
@@ -188,12 +221,16 @@ public abstract sealed class LifecycleOperationHandle extends BaseExtensionOpera
 
     public static final class StopOperationHandle extends LifecycleOperationHandle {
 
-
         public boolean fork;
 
+        /** The maximum time the operation may run, or null if there is no timeout. */
+        @Nullable
+        public Duration timeout;
+
         private StopOperationHandle(OperationInstaller installer, Stop annotation) {
             super(installer, annotation.naturalOrder() ? PackedBeanLifecycleKind.STOP_POST_ORDER : PackedBeanLifecycleKind.STOP_PRE_ORDER);
             this.fork = annotation.fork();
+            this.timeout = parseTimeout(annotation.timeout(), Stop.class);
         }
 
         @Override
@@ -0,0 +1,56 @@
+/*
+ * Copyright (c) 2026 Kasper Nielsen.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package internal.app.packed.lifecycle.lifetime;
+
+import java.util.List;
+
+import internal.app.packed.bean.BeanSetup;
+import internal.app.packed.extension.ExtensionSetup;
+import internal.app.packed.lifecycle.InvokableLifecycleOperationHandle;
+import internal.app.packed.lifecycle.LifecycleOperationHandle.AbstractInitializingOperationHandle;
+import internal.app.packed.lifecycle.LifecycleOperationHandle.StartOperationHandle;
+import internal.app.packed.lifecycle.LifecycleOperationHandle.StopOperationHandle;
+
+/**
+ * A node in the lifecycle graph of a container lifetime.
+ * <p>
+ * Unlike {@link ContainerLifetimeSetup#initializationPre}, {@link ContainerLifetimeSetup#startersPre} and
+ * {@link ContainerLifetimeSetup#stoppersPre}, which flatten all lifecycle handles into a single dependency order, the
+ * graph retains the dependencies between beans. Which allows lifecycle operations on beans that do not depend on each
+ * other to be run concurrently.
+ *
+ * @param bean
+ *            the bean
+ * @param index
+ *            the index of the node in the graph
+ * @param initializers
+ *            the factory, inject and pre-order initialization handles of the bean, in the order they must be invoked
+ * @param starters
+ *            the pre-order start handles of the bean
+ * @param stoppers
+ *            the pre-order stop handles of the bean
+ * @param dependencies
+ *            the indexes of the nodes in the graph this node depends on, always smaller than {@code index}
+ */
+public record BeanLifecycleNode(BeanSetup bean, int index, List<InvokableLifecycleOperationHandle<AbstractInitializingOperationHandle>> initializers,
+        List<InvokableLifecycleOperationHandle<StartOperationHandle>> starters, List<InvokableLifecycleOperationHandle<StopOperationHandle>> stoppers,
+        int[] dependencies) {
+
+    /** {@return whether or not the bean is owned by an extension} */
+    public boolean isExtensionBean() {
+        return bean.owner instanceof ExtensionSetup;
+    }
+}
@@ -16,7 +16,9 @@
 package internal.app.packed.lifecycle.lifetime;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Set;
@@ -26,6 +28,7 @@ import app.packed.bean.BeanSourceKind;
 import app.packed.component.ComponentRealm;
 
 import org.jspecify.annotations.Nullable;
+import internal.app.packed.application.ApplicationSetup;
 import internal.app.packed.bean.BeanSetup;
 import internal.app.packed.container.ContainerSetup;
 import internal.app.packed.container.PackedContainerInstaller;
@@ -38,7 +41,6 @@ import internal.app.packed.lifecycle.LifecycleOperationHandle.StartOperationHand
 import internal.app.packed.lifecycle.LifecycleOperationHandle.StopOperationHandle;
 import internal.app.packed.lifecycle.lifetime.entrypoint.EntryPointManager;
 import internal.app.packed.util.AbstractTreeNode;
-import internal.app.packed.util.ThrowableUtil;
 import internal.app.packed.util.accesshelper.BeanLifetimeAccessHandler;
 import sandbox.app.packed.lifetime.CompositeLifetimeMirror;
 import sandbox.lifetime2.ManagedLifetime;
@@ -57,6 +59,15 @@ public final class ContainerLifetimeSetup extends AbstractTreeNode<ContainerLife
 
     private final LinkedHashSet<BeanSetup> dependencyOrderedBeans = new LinkedHashSet<>();
 
+    /**
+     * The lifecycle graph of the lifetime, in dependency order. Only built if the application initializes, starts or stops
+     * beans in parallel.
+     */
+    public final ArrayList<BeanLifecycleNode> lifecycleGraph = new ArrayList<>();
+
+    /** Maps beans to their node in {@link #lifecycleGraph}. */
+    private final IdentityHashMap<BeanSetup, BeanLifecycleNode> lifecycleNodes = new IdentityHashMap<>();
+
     /** An object that is shared between all entry point extensions in the same application. */
     public final EntryPointManager entryPoints = new EntryPointManager();
 
@@ -64,6 +75,9 @@ public final class ContainerLifetimeSetup extends AbstractTreeNode<ContainerLife
 
     public final List<IndexedOperationHandle<InvokableLifecycleOperationHandle<AbstractInitializingOperationHandle>>> initializationPre = new ArrayList<>();
 
+    /** Lazy beans in the lifetime, in dependency order. */
+    public final ArrayList<BeanSetup> lazyBeans = new ArrayList<>();
+
     // Er ikke noedvendigvis fra et entrypoint, kan ogsaa vaere en completer
     public final Class<?> resultType;
 
@@ -100,24 +114,6 @@ public final class ContainerLifetimeSetup extends AbstractTreeNode<ContainerLife
         return null;
     }
 
-    public void initialize(ExtensionContext pool) {
-        for (IndexedOperationHandle<InvokableLifecycleOperationHandle<AbstractInitializingOperationHandle>> mh : initializationPre) {
-            try {
-                mh.operationHandle().methodHandle.invokeExact(pool);
-            } catch (Throwable e) {
-                throw ThrowableUtil.orUndeclared(e);
-            }
-        }
-
-        for (InvokableLifecycleOperationHandle<AbstractInitializingOperationHandle> mh : initializationPost) {
-            try {
-                mh.methodHandle.invokeExact(pool);
-            } catch (Throwable e) {
-                throw ThrowableUtil.orUndeclared(e);
-            }
-        }
-    }
-
     /** {@return a mirror that can be exposed to end-users.} */
     @Override
     public CompositeLifetimeMirror mirror() {
@@ -163,26 +159,89 @@ public final class ContainerLifetimeSetup extends AbstractTreeNode<ContainerLife
 
         if (dependencyOrderedBeans.add(bean)) {
             // IO.println("Codegen " + bean.path());
-            orderDependenciesBeans0(bean);
+            orderDependenciesBeans0(bean, dependsOn);
             // addFactory, that installs the bean into Object[]
             // then all initiali
         }
     }
 
     @SuppressWarnings({ "unchecked", "rawtypes" })
-    private void orderDependenciesBeans0(BeanSetup bean) {
-        for (List<InvokableLifecycleOperationHandle<LifecycleOperationHandle>> lop : bean.operations.allLifecycleHandles.values()) {
+    private void orderDependenciesBeans0(BeanSetup bean, Set<BeanSetup> dependsOn) {
+        Collection<List<InvokableLifecycleOperationHandle<LifecycleOperationHandle>>> handles = bean.operations.allLifecycleHandles.values();
+        if (bean.lazy != null) {
+            // The operations of lazy beans are invoked on first access, the node only retains the dependencies of the bean
+            orderLazyBean(bean, bean.lazy);
+            handles = List.of();
+        }
+        ArrayList<InvokableLifecycleOperationHandle<AbstractInitializingOperationHandle>> initializers = new ArrayList<>();
+        ArrayList<InvokableLifecycleOperationHandle<StartOperationHandle>> starters = new ArrayList<>();
+        ArrayList<InvokableLifecycleOperationHandle<StopOperationHandle>> stoppers = new ArrayList<>();
+        for (List<InvokableLifecycleOperationHandle<LifecycleOperationHandle>> lop : handles) {
             for (InvokableLifecycleOperationHandle<LifecycleOperationHandle> h : lop) {
                 switch (h.lifecycleKind()) {
-                case FACTORY, INJECT, INITIALIZE_PRE_ORDER -> initializationPre.add(new IndexedOperationHandle(h, bean.lifetimeStoreIndex));
+                case FACTORY, INJECT, INITIALIZE_PRE_ORDER -> {
+                    initializationPre.add(new IndexedOperationHandle(h, bean.lifetimeStoreIndex));
+                    initializers.add((InvokableLifecycleOperationHandle) h);
+                }
                 case INITIALIZE_POST_ORDER -> startersPost.addFirst((InvokableLifecycleOperationHandle) h);
-                case START_PRE_ORDER -> startersPre.add((InvokableLifecycleOperationHandle) h);
+                case START_PRE_ORDER -> {
+                    startersPre.add((InvokableLifecycleOperationHandle) h);
+                    starters.add((InvokableLifecycleOperationHandle) h);
+                }
+                case START_POST_ORDER -> startersPost.addFirst((InvokableLifecycleOperationHandle) h);
+                case STOP_PRE_ORDER -> {
+                    stoppersPre.add((InvokableLifecycleOperationHandle) h);
+                    stoppers.add((InvokableLifecycleOperationHandle) h);
+                }
+                case STOP_POST_ORDER -> stoppersPost.addFirst((InvokableLifecycleOperationHandle) h);
+                }
+            }
+        }
+
+        if (!hasLifecycleGraph()) {
+            return;
+        }
+
+        // Retain the dependencies of the bean, all of them have already been added to the graph
+        int[] dependencies = dependsOn.stream().map(lifecycleNodes::get).filter(n -> n != null).mapToInt(BeanLifecycleNode::index).sorted()
+                .toArray();
+        BeanLifecycleNode node = new BeanLifecycleNode(bean, lifecycleGraph.size(), List.copyOf(initializers), List.copyOf(starters),
+                List.copyOf(stoppers), dependencies);
+        lifecycleGraph.add(node);
+        lifecycleNodes.put(bean, node);
+    }
+
+    /** {@return whether or not the lifetime has a lifecycle graph} */
+    private boolean hasLifecycleGraph() {
+        ApplicationSetup application = container.application;
+        return application.initializeInParallel || application.lifecycleParallelism > 0;
+    }
+
+    /**
+     * Collects the lifecycle handles of a lazy bean. Post-order operations are invoked after the pre-order operations of
+     * the bean, as the bean has no dependants at the time it is created.
+     */
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    private void orderLazyBean(BeanSetup bean, LazyBeanLifecycle lazy) {
+        ArrayList<InvokableLifecycleOperationHandle<AbstractInitializingOperationHandle>> initializersPost = new ArrayList<>();
+        ArrayList<InvokableLifecycleOperationHandle<StartOperationHandle>> startersPost = new ArrayList<>();
+        ArrayList<InvokableLifecycleOperationHandle<StopOperationHandle>> stoppersPost = new ArrayList<>();
+        for (List<InvokableLifecycleOperationHandle<LifecycleOperationHandle>> lop : bean.operations.allLifecycleHandles.values()) {
+            for (InvokableLifecycleOperationHandle<LifecycleOperationHandle> h : lop) {
+                switch (h.lifecycleKind()) {
+                case FACTORY, INJECT, INITIALIZE_PRE_ORDER -> lazy.initializers.add((InvokableLifecycleOperationHandle) h);
+                case INITIALIZE_POST_ORDER -> initializersPost.addFirst((InvokableLifecycleOperationHandle) h);
+                case START_PRE_ORDER -> lazy.starters.add((InvokableLifecycleOperationHandle) h);
                 case START_POST_ORDER -> startersPost.addFirst((InvokableLifecycleOperationHandle) h);
-                case STOP_PRE_ORDER -> stoppersPre.add((InvokableLifecycleOperationHandle) h);
+                case STOP_PRE_ORDER -> lazy.stoppers.add((InvokableLifecycleOperationHandle) h);
                 case STOP_POST_ORDER -> stoppersPost.addFirst((InvokableLifecycleOperationHandle) h);
                 }
             }
         }
+        lazy.initializers.addAll(initializersPost);
+        lazy.starters.addAll(startersPost);
+        lazy.stoppers.addAll(stoppersPost);
+        lazyBeans.add(bean);
     }
 
     /** {@inheritDoc} */
@@ -0,0 +1,44 @@
+/*
+ * Copyright (c) 2026 Kasper Nielsen.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package internal.app.packed.lifecycle.lifetime;
+
+import java.util.ArrayList;
+
+import internal.app.packed.lifecycle.InvokableLifecycleOperationHandle;
+import internal.app.packed.lifecycle.LifecycleOperationHandle.AbstractInitializingOperationHandle;
+import internal.app.packed.lifecycle.LifecycleOperationHandle.StartOperationHandle;
+import internal.app.packed.lifecycle.LifecycleOperationHandle.StopOperationHandle;
+
+/**
+ * The lifecycle operations of a lazy singleton bean.
+ * <p>
+ * The operations of a lazy bean are not part of the initialization, start and stop sequences of its lifetime. Instead
+ * the bean is created and initialized the first time it is read from the lifetime store of a lifetime instance. Which
+ * is handled by {@link internal.app.packed.lifecycle.runtime.LifetimeStoreLayout}.
+ * <p>
+ * The lists are filled in when the dependencies of the lifetime are ordered.
+ */
+public final class LazyBeanLifecycle {
+
+    /** The factory, inject and initialization handles of the bean, in the order they must be invoked. */
+    public final ArrayList<InvokableLifecycleOperationHandle<AbstractInitializingOperationHandle>> initializers = new ArrayList<>();
+
+    /** The start handles of the bean. */
+    public final ArrayList<InvokableLifecycleOperationHandle<StartOperationHandle>> starters = new ArrayList<>();
+
+    /** The stop handles of the bean. */
+    public final ArrayList<InvokableLifecycleOperationHandle<StopOperationHandle>> stoppers = new ArrayList<>();
+}
@@ -15,24 +15,58 @@
  */
 package internal.app.packed.lifecycle.lifetime;
 
+import java.lang.invoke.MethodHandle;
 import java.util.ArrayList;
 
+import org.jspecify.annotations.Nullable;
+
 import internal.app.packed.extension.ExtensionContext;
-import internal.app.packed.lifecycle.runtime.PackedExtensionContext;
+import internal.app.packed.lifecycle.runtime.LifetimeStoreLayout;
 
 /**
- *
+ * The objects that are stored for every instance of a container lifetime.
+ * <p>
+ * Entries are added while the application is being assembled. The first time a {@link #layout() layout} is requested,
+ * normally in the code generating phase, a class with a field for every entry is generated. After which no more
+ * entries can be added.
  */
 public final class LifetimeStore {
 
-   public final ArrayList<LifetimeStoreEntry> entries = new ArrayList<>();
+    public final ArrayList<LifetimeStoreEntry> entries = new ArrayList<>();
+
+    /** The layout of the store, or null if it has not been generated yet. */
+    @Nullable
+    private LifetimeStoreLayout layout;
 
     public LifetimeStoreIndex add(LifetimeStoreEntry entry) {
+        if (layout != null) {
+            throw new IllegalStateException("Cannot add entries to the lifetime store after its layout has been generated");
+        }
         entries.add(entry);
-        return new LifetimeStoreIndex (entries.size() - 1);
+        return new LifetimeStoreIndex(entries.size() - 1);
+    }
+
+    /** {@return the layout of the store, generating it on first invocation} */
+    public synchronized LifetimeStoreLayout layout() {
+        LifetimeStoreLayout l = layout;
+        if (l == null) {
+            l = layout = LifetimeStoreLayout.of(entries);
+        }
+        return l;
+    }
+
+    /**
+     * Returns a method handle that reads the object at the specified index from an extension context.
+     *
+     * @param index
+     *            the index of the object
+     * @return a method handle of type (ExtensionContext)T, where T is the type of the object or Object
+     */
+    public MethodHandle reader(LifetimeStoreIndex index) {
+        return layout().reader(index.index);
     }
 
     public ExtensionContext newRuntimePool() {
-        return PackedExtensionContext.create(this , entries.size());
+        return layout().newContext();
     }
 }
@@ -17,6 +17,8 @@ package internal.app.packed.lifecycle.runtime;
 
 import static java.util.Objects.requireNonNull;
 
+import org.jspecify.annotations.Nullable;
+
 import app.packed.application.ApplicationHandle;
 import app.packed.application.ApplicationMirror;
 import app.packed.application.ManagedApplicationRuntime;
@@ -44,6 +46,10 @@ public final class ApplicationLaunchContext implements Context<BaseExtension> {
 
     public final ContainerRunner runner;
 
+    /** The service locator of the application instance, or null if it has not been requested yet. */
+    @Nullable
+    private volatile ServiceLocator serviceLocator;
+
     private ApplicationLaunchContext(ContainerRunner runner, ApplicationSetup application) {
         this.application = application;
         this.runner = runner;
@@ -55,7 +61,7 @@ public final class ApplicationLaunchContext implements Context<BaseExtension> {
 
     /** {@return the name of the application} */
     public String name() {
-        return application.rootContainer().name();
+        return runner.plan.name;
     }
 
     ManagedApplicationRuntime runtime() {
@@ -72,7 +78,16 @@ public final class ApplicationLaunchContext implements Context<BaseExtension> {
      * @return a service locator for the application
      */
     public ServiceLocator serviceLocator() {
-        return application.rootContainer().servicesMain().newExportedServiceLocator(runner.pool());
+        ServiceLocator l = serviceLocator;
+        if (l == null) {
+            synchronized (this) {
+                l = serviceLocator;
+                if (l == null) {
+                    l = serviceLocator = runner.plan.newServiceLocator(runner.pool());
+                }
+            }
+        }
+        return l;
     }
 
 //    @SuppressWarnings("unused")
@@ -107,7 +122,8 @@ public final class ApplicationLaunchContext implements Context<BaseExtension> {
             throw new IllegalStateException("Cannot launch the application before it has finished building");
         }
 
-        ContainerRunner runner = new ContainerRunner(application);
+        // The plan was created when the application generated code, and is shared by every launch of the application
+        ContainerRunner runner = new ContainerRunner(application.launchPlan());
 
         // Create a launch context
         ApplicationLaunchContext context = new ApplicationLaunchContext(runner, application);
@@ -0,0 +1,280 @@
+/*
+ * Copyright (c) 2026 Kasper Nielsen.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package internal.app.packed.lifecycle.runtime;
+
+import java.lang.invoke.MethodHandle;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.StructuredTaskScope;
+import java.util.concurrent.StructuredTaskScope.Joiner;
+
+import org.jspecify.annotations.Nullable;
+
+import app.packed.lifecycle.LifecycleKind;
+import app.packed.service.ServiceLocator;
+import internal.app.packed.application.ApplicationSetup;
+import internal.app.packed.container.ContainerSetup;
+import internal.app.packed.extension.ExtensionContext;
+import internal.app.packed.lifecycle.InvokableLifecycleOperationHandle;
+import internal.app.packed.lifecycle.LifecycleOperationHandle.AbstractInitializingOperationHandle;
+import internal.app.packed.lifecycle.LifecycleOperationHandle.StartOperationHandle;
+import internal.app.packed.lifecycle.LifecycleOperationHandle.StopOperationHandle;
+import internal.app.packed.lifecycle.lifetime.BeanLifecycleNode;
+import internal.app.packed.lifecycle.lifetime.ContainerLifetimeSetup;
+import internal.app.packed.lifecycle.lifetime.IndexedOperationHandle;
+import internal.app.packed.lifecycle.lifetime.entrypoint.OldEntryPointSetup;
+import internal.app.packed.service.util.ExportedServiceTable;
+import internal.app.packed.service.util.PackedServiceLocator;
+import internal.app.packed.util.ThrowableUtil;
+
+/**
+ * An immutable plan for launching instances of an application.
+ * <p>
+ * The plan is created when the application has generated code, and shared by every instance launched from the same
+ * application (image). It contains everything that launching an instance needs from the build, copied into arrays and
+ * immutable lists. So launching an instance only allocates the state of the instance itself, and the plan does not
+ * reference the mutable {@link ContainerLifetimeSetup} of the build.
+ *
+ * @see ApplicationSetup#launchPlan()
+ */
+public final class ApplicationLaunchPlan {
+
+    /** Whether or not the application is managed. */
+    final boolean isManaged;
+
+    /** The layout of the lifetime store of each instance. */
+    private final LifetimeStoreLayout layout;
+
+    /** Factory, inject and pre-order initialization operations in dependency order. */
+    private final MethodHandle[] initializersPre;
+
+    /** Post-order initialization operations, invoked after all pre-order initialization operations. */
+    private final MethodHandle[] initializersPost;
+
+    /** The lifecycle graph of the root lifetime, empty unless beans are initialized, started or stopped in parallel. */
+    final List<BeanLifecycleNode> lifecycleGraph;
+
+    /** Start operations in dependency order. */
+    final List<InvokableLifecycleOperationHandle<StartOperationHandle>> starters;
+
+    /** Stop operations in dependency order. */
+    final List<InvokableLifecycleOperationHandle<StopOperationHandle>> stoppers;
+
+    /** The store indexes of lazy beans in dependency order. */
+    private final int[] lazyBeans;
+
+    /** Whether or not beans are initialized in parallel. */
+    private final boolean initializeInParallel;
+
+    /** The maximum number of start or stop operations that are run concurrently, or 0 if they are run in order. */
+    final int lifecycleParallelism;
+
+    /** The entry point of the application, or null if it does not have one. */
+    @Nullable
+    final OldEntryPointSetup entryPoint;
+
+    /** The services exported from the root container, or null if they are not available. */
+    @Nullable
+    private final ExportedServiceTable exportedServices;
+
+    /** The name of the root container. */
+    final String name;
+
+    /**
+     * Creates a new plan. Must be called after the application has generated code.
+     *
+     * @param application
+     *            the application to create a plan for
+     */
+    public ApplicationLaunchPlan(ApplicationSetup application) {
+        ContainerSetup container = application.rootContainer();
+        ContainerLifetimeSetup lifetime = container.lifetime;
+        this.isManaged = application.template.lifecycleKind() == LifecycleKind.MANAGED;
+        this.layout = lifetime.store.layout();
+
+        ArrayList<MethodHandle> initializers = new ArrayList<>();
+        for (IndexedOperationHandle<InvokableLifecycleOperationHandle<AbstractInitializingOperationHandle>> h : lifetime.initializationPre) {
+            initializers.add(h.operationHandle().methodHandle);
+        }
+        this.initializersPre = initializers.toArray(MethodHandle[]::new);
+        this.initializersPost = lifetime.initializationPost.stream().map(h -> h.methodHandle).toArray(MethodHandle[]::new);
+        this.lifecycleGraph = List.copyOf(lifetime.lifecycleGraph);
+        this.starters = List.copyOf(lifetime.startersPre);
+        this.stoppers = List.copyOf(lifetime.stoppersPre);
+        this.lazyBeans = lifetime.lazyBeans.stream().mapToInt(b -> b.lifetimeStoreIndex.index).toArray();
+        this.initializeInParallel = application.initializeInParallel;
+        this.lifecycleParallelism = application.lifecycleParallelism;
+        this.entryPoint = lifetime.entryPoints.entryPoint;
+        this.exportedServices = container.servicesMain().exportedServicesIfAvailable();
+        this.name = container.name();
+    }
+
+    /**
+     * Initializes the beans of a new instance.
+     *
+     * @param context
+     *            the extension context of the instance
+     */
+    void initialize(ExtensionContext context) {
+        if (initializeInParallel) {
+            initializeInParallel(context);
+        } else {
+            invokeAll(initializersPre, context);
+        }
+        invokeAll(initializersPost, context);
+    }
+
+    /**
+     * Invokes the factory, inject and pre-order initialization operations following the {@link #lifecycleGraph}.
+     * <p>
+     * Beans owned by extensions (that are ordered before any application bean) are initialized in order on the calling
+     * thread. Afterwards each remaining bean is initialized on its own virtual thread once all the beans it depends on have
+     * been initialized. If any bean fails, the remaining initializations are cancelled and the first failure is rethrown.
+     *
+     * @param context
+     *            the extension context of the instance
+     */
+    private void initializeInParallel(ExtensionContext context) {
+        List<BeanLifecycleNode> graph = lifecycleGraph;
+        CountDownLatch[] done = new CountDownLatch[graph.size()];
+        ArrayList<BeanLifecycleNode> concurrent = new ArrayList<>();
+        boolean sequential = true;
+        for (BeanLifecycleNode node : graph) {
+            // Extension beans are ordered first, unless they depend on application beans
+            sequential &= node.isExtensionBean();
+            if (sequential) {
+                initialize(context, node);
+                done[node.index()] = new CountDownLatch(0);
+            } else {
+                done[node.index()] = new CountDownLatch(1);
+                concurrent.add(node);
+            }
+        }
+
+        if (!concurrent.isEmpty()) {
+            try (var scope = StructuredTaskScope.open(Joiner.<Void>awaitAllSuccessfulOrThrow(),
+                    c -> c.withName("AppInitialize").withThreadFactory(Thread.ofVirtual().name("AppInitialize", 0).factory()))) {
+                for (BeanLifecycleNode node : concurrent) {
+                    scope.fork(() -> {
+                        for (int d : node.dependencies()) {
+                            done[d].await();
+                        }
+                        initialize(context, node);
+                        done[node.index()].countDown();
+                        return null;
+                    });
+                }
+                scope.join();
+            } catch (StructuredTaskScope.FailedException e) {
+                throw ThrowableUtil.orUndeclared(e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw ThrowableUtil.orUndeclared(e);
+            }
+        }
+    }
+
+    private static void initialize(ExtensionContext context, BeanLifecycleNode node) {
+        for (InvokableLifecycleOperationHandle<AbstractInitializingOperationHandle> h : node.initializers()) {
+            try {
+                h.methodHandle.invokeExact(context);
+            } catch (Throwable e) {
+                throw ThrowableUtil.orUndeclared(e);
+            }
+        }
+    }
+
+    private static void invokeAll(MethodHandle[] handles, ExtensionContext context) {
+        for (MethodHandle mh : handles) {
+            try {
+                mh.invokeExact(context);
+            } catch (Throwable e) {
+                throw ThrowableUtil.orUndeclared(e);
+            }
+        }
+    }
+
+    /**
+     * Marks an instance as started, and starts any lazy beans that were created before the instance was started. Lazy beans
+     * that are created after this point are started when they are created.
+     *
+     * @param context
+     *            the extension context of the instance
+     * @param runtime
+     *            the runtime of the instance
+     */
+    void startLazyBeans(ExtensionContext context, RegionalManagedLifetime runtime) {
+        if (lazyBeans.length > 0) {
+            PackedExtensionContext c = (PackedExtensionContext) context;
+            c.phase = PackedExtensionContext.RUNNING;
+            for (int index : lazyBeans) {
+                layout.start(c, index, runtime);
+            }
+        }
+    }
+
+    /**
+     * Marks an instance as stopping. Lazy beans that have not been created at this point, are never created.
+     *
+     * @param context
+     *            the extension context of the instance
+     */
+    void markStopping(ExtensionContext context) {
+        if (lazyBeans.length > 0) {
+            ((PackedExtensionContext) context).phase = PackedExtensionContext.STOPPING;
+        }
+    }
+
+    /**
+     * Stops any lazy beans of an instance that have been started, in reverse dependency order.
+     *
+     * @param context
+     *            the extension context of the instance
+     * @param runtime
+     *            the runtime of the instance
+     */
+    void stopLazyBeans(ExtensionContext context, RegionalManagedLifetime runtime) {
+        if (lazyBeans.length > 0) {
+            PackedExtensionContext c = (PackedExtensionContext) context;
+            for (int i = lazyBeans.length - 1; i >= 0; i--) {
+                layout.stop(c, lazyBeans[i], runtime);
+            }
+        }
+    }
+
+    /** {@return a new extension context for an instance of the application} */
+    ExtensionContext newContext() {
+        return layout.newContext();
+    }
+
+    /**
+     * Returns a new service locator for the exported services of an instance.
+     *
+     * @param context
+     *            the extension context of the instance
+     * @return the service locator
+     * @throws UnsupportedOperationException
+     *             if exported services are not available
+     */
+    ServiceLocator newServiceLocator(ExtensionContext context) {
+        ExportedServiceTable t = exportedServices;
+        if (t == null) {
+            throw new UnsupportedOperationException("Exported services not available");
+        }
+        return new PackedServiceLocator(context, t);
+    }
+}
@@ -15,18 +15,18 @@
  */
 package internal.app.packed.lifecycle.runtime;
 
-import app.packed.lifecycle.RunState;
 import org.jspecify.annotations.Nullable;
-import internal.app.packed.application.ApplicationSetup;
-import internal.app.packed.container.ContainerSetup;
+
+import app.packed.lifecycle.RunState;
 import internal.app.packed.extension.ExtensionContext;
 
 /**
- *
+ * Runs a single instance of an application, following a shared {@link ApplicationLaunchPlan}.
  */
 public class ContainerRunner {
 
-    final ContainerSetup container;
+    /** The plan of the application. */
+    final ApplicationLaunchPlan plan;
 
     /** The runtime component node we are building. */
     private ExtensionContext pool;
@@ -35,11 +35,9 @@ public class ContainerRunner {
     @Nullable
     public final RegionalManagedLifetime runtime;
 
-    public ContainerRunner(ApplicationSetup application) {
+    public ContainerRunner(ApplicationLaunchPlan plan) {
+        this.plan = plan;
         this.runtime = new RegionalManagedLifetime(this);
-        this.container = application.rootContainer();
-        // application.goal.isLaunchable() && application.driver.lifetimeKind() == OldLifetimeKind.MANAGED ? new
-        // PackedManagedLifetime(this) : null;
     }
 
     /**
@@ -50,15 +48,33 @@ public class ContainerRunner {
     }
 
     public void run(RunState state) {
-        this.pool = container.lifetime.newRuntimePool();
+        this.pool = plan.newContext();
         runtime.launch(state);
     }
 
     void shutdown() {
-        new StopRunner(container.lifetime.stoppersPre, pool, runtime).start();
+        // Beans that are stopped must not create lazy beans that have never been used
+        plan.markStopping(pool);
+        StopRunner runner = new StopRunner(plan.stoppers, pool, runtime);
+        int parallelism = plan.lifecycleParallelism;
+        if (parallelism > 0) {
+            runner.stopConcurrently(plan.lifecycleGraph, parallelism);
+        } else {
+            runner.start();
+        }
+        // Lazy beans are stopped after the beans that may depend on them
+        plan.stopLazyBeans(pool, runtime);
     }
 
     void start() {
-        new StartRunner(container.lifetime.startersPre, pool, runtime).start();
+        // Lazy beans are started before the beans that may depend on them
+        plan.startLazyBeans(pool, runtime);
+        StartRunner runner = new StartRunner(plan.starters, pool, runtime);
+        int parallelism = plan.lifecycleParallelism;
+        if (parallelism > 0) {
+            runner.startConcurrently(plan.lifecycleGraph, parallelism);
+        } else {
+            runner.start();
+        }
     }
 }
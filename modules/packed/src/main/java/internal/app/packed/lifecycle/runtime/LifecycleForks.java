@@ -0,0 +1,118 @@
+/*
+ * Copyright (c) 2026 Kasper Nielsen.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package internal.app.packed.lifecycle.runtime;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.StructuredTaskScope;
+import java.util.concurrent.StructuredTaskScope.Joiner;
+
+import org.jspecify.annotations.Nullable;
+
+import app.packed.lifecycle.LifecycleException;
+import internal.app.packed.util.ThrowableUtil;
+
+/**
+ * Tasks forked by start or stop operations.
+ * <p>
+ * A structured task scope can only be forked from, and joined by, the thread that opened it. So every thread that runs
+ * lifecycle operations has its own instance. The thread that starts or stops a lifetime shares a single instance
+ * between all the operations it runs in order. Whereas an operation that runs on any other thread, because it is
+ * forked, has a timeout, or is run concurrently with other operations, gets an instance that is joined before the
+ * operation is considered completed.
+ * <p>
+ * The underlying task scope is only opened if a task is actually forked.
+ */
+final class LifecycleForks {
+
+    /** The name of the task scope and its threads. */
+    private final String name;
+
+    /** The thread that may fork tasks. */
+    private final Thread owner = Thread.currentThread();
+
+    /** The task scope, or null if no tasks have been forked. */
+    @Nullable
+    private StructuredTaskScope<Object, Void> scope;
+
+    LifecycleForks(String name) {
+        this.name = name;
+    }
+
+    /** Cancels any tasks that are still running. Must be called when the forks are no longer needed. */
+    void close() {
+        StructuredTaskScope<Object, Void> s = scope;
+        if (s != null) {
+            scope = null;
+            s.close();
+        }
+    }
+
+    /**
+     * Forks the specified task.
+     *
+     * @param task
+     *            the task to fork
+     * @throws IllegalStateException
+     *             if called from another thread than the thread running the operation
+     */
+    void fork(Callable<?> task) {
+        scope().fork(task);
+    }
+
+    /**
+     * Forks the specified task.
+     *
+     * @param task
+     *            the task to fork
+     * @throws IllegalStateException
+     *             if called from another thread than the thread running the operation
+     */
+    void fork(Runnable task) {
+        scope().fork(task);
+    }
+
+    /**
+     * Waits for all forked tasks to complete.
+     *
+     * @throws LifecycleException
+     *             if interrupted while waiting
+     */
+    void join() {
+        StructuredTaskScope<Object, Void> s = scope;
+        if (s != null) {
+            try {
+                s.join();
+            } catch (StructuredTaskScope.FailedException e) {
+                throw ThrowableUtil.orUndeclared(e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new LifecycleException("Interrupted while waiting for forked tasks", e);
+            }
+        }
+    }
+
+    private StructuredTaskScope<Object, Void> scope() {
+        if (Thread.currentThread() != owner) {
+            throw new IllegalStateException("Tasks can only be forked from the thread that runs the operation");
+        }
+        StructuredTaskScope<Object, Void> s = scope;
+        if (s == null) {
+            s = scope = StructuredTaskScope.open(Joiner.<Object>awaitAllSuccessfulOrThrow(),
+                    c -> c.withName(name).withThreadFactory(Thread.ofVirtual().name(name, 0).factory()));
+        }
+        return s;
+    }
+}
@@ -0,0 +1,233 @@
+/*
+ * Copyright (c) 2026 Kasper Nielsen.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package internal.app.packed.lifecycle.runtime;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.StructuredTaskScope;
+import java.util.concurrent.StructuredTaskScope.Joiner;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+import app.packed.lifecycle.LifecycleException;
+import internal.app.packed.lifecycle.InvokableLifecycleOperationHandle;
+import internal.app.packed.lifecycle.LifecycleOperationHandle;
+import internal.app.packed.lifecycle.lifetime.BeanLifecycleNode;
+import internal.app.packed.util.ThrowableUtil;
+
+/**
+ * Runs the start or stop operations of a lifecycle graph concurrently.
+ * <p>
+ * When starting, the operations of a bean are run as soon as the operations of all beans it depends on have completed.
+ * When stopping, the graph is traversed in reverse, the operations of a bean are run as soon as the operations of all
+ * beans that depend on it have completed. Extension beans that are ordered before any application bean are run in order
+ * on the calling thread, before any other bean when starting and after all other beans when stopping.
+ * <p>
+ * Each bean with at least one operation is run on its own virtual thread. Beans without any operations are not
+ * scheduled at all, instead their dependencies are inherited by the beans that wait on them. The number of operations
+ * that run at the same time is bounded by a semaphore.
+ * <p>
+ * Tasks forked by the operations of a bean, as well as operations that are forked themselves, run concurrently with the
+ * remaining operations of the bean. The bean is not considered completed until all of them have completed.
+ */
+final class LifecycleGraphRunner<H extends LifecycleOperationHandle> {
+
+    /** The name of task scopes and threads. */
+    private final String name;
+
+    /** The graph we are running. */
+    private final List<BeanLifecycleNode> graph;
+
+    /** Extracts the operations to run from a node. */
+    private final Function<BeanLifecycleNode, List<InvokableLifecycleOperationHandle<H>>> operations;
+
+    /** Runs (or forks) a single operation on the current thread. */
+    private final BiConsumer<InvokableLifecycleOperationHandle<H>, LifecycleForks> invoker;
+
+    /** Whether or not we are traversing the graph in reverse (stopping). */
+    private final boolean reverse;
+
+    /** Limits the number of operations that are run concurrently. */
+    private final Semaphore permits;
+
+    LifecycleGraphRunner(String name, List<BeanLifecycleNode> graph, boolean reverse, int maxParallelism,
+            Function<BeanLifecycleNode, List<InvokableLifecycleOperationHandle<H>>> operations,
+            BiConsumer<InvokableLifecycleOperationHandle<H>, LifecycleForks> invoker) {
+        this.name = name;
+        this.graph = graph;
+        this.reverse = reverse;
+        this.permits = new Semaphore(maxParallelism);
+        this.operations = operations;
+        this.invoker = invoker;
+    }
+
+    /** Runs all operations in the graph. */
+    void run() {
+        int size = graph.size();
+        int sequential = 0;
+        while (sequential < size && graph.get(sequential).isExtensionBean()) {
+            sequential++;
+        }
+
+        if (!reverse) {
+            for (int i = 0; i < sequential; i++) {
+                runNode(graph.get(i));
+            }
+        }
+        if (sequential < size) {
+            runConcurrently(sequential);
+        }
+        if (reverse) {
+            for (int i = sequential - 1; i >= 0; i--) {
+                runNode(graph.get(i));
+            }
+        }
+    }
+
+    /** Runs all nodes with an index of at least {@code first} concurrently. */
+    private void runConcurrently(int first) {
+        int size = graph.size();
+        int[][] awaits = awaits(first);
+
+        // Resolve the nodes each node must wait for. Skipping nodes without any operations
+        int[][] effective = new int[size][];
+        CountDownLatch[] done = new CountDownLatch[size];
+        ArrayList<BeanLifecycleNode> scheduled = new ArrayList<>();
+        for (int n = 0; n < size - first; n++) {
+            int i = reverse ? size - 1 - n : first + n;
+            LinkedHashSet<Integer> e = new LinkedHashSet<>();
+            for (int a : awaits[i]) {
+                if (a < first) {
+                    continue; // Already run in order on the calling thread
+                } else if (done[a] != null) {
+                    e.add(a);
+                } else {
+                    for (int t : effective[a]) {
+                        e.add(t);
+                    }
+                }
+            }
+            effective[i] = e.stream().mapToInt(Integer::intValue).toArray();
+            BeanLifecycleNode node = graph.get(i);
+            if (!operations.apply(node).isEmpty()) {
+                done[i] = new CountDownLatch(1);
+                scheduled.add(node);
+            }
+        }
+        if (scheduled.isEmpty()) {
+            return;
+        }
+
+        try (var scope = StructuredTaskScope.open(Joiner.<Void>awaitAllSuccessfulOrThrow(),
+                c -> c.withName(name).withThreadFactory(Thread.ofVirtual().name(name, 0).factory()))) {
+            for (BeanLifecycleNode node : scheduled) {
+                scope.fork(() -> {
+                    for (int a : effective[node.index()]) {
+                        done[a].await();
+                    }
+                    permits.acquire();
+                    try {
+                        runNode(node);
+                    } finally {
+                        permits.release();
+                    }
+                    done[node.index()].countDown();
+                    return null;
+                });
+            }
+            scope.join();
+        } catch (StructuredTaskScope.FailedException e) {
+            throw ThrowableUtil.orUndeclared(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new LifecycleException("Interrupted while running lifecycle operations", e);
+        }
+    }
+
+    /** {@return the nodes each node must wait for before its operations can be run} */
+    private int[][] awaits(int first) {
+        int size = graph.size();
+        int[][] result = new int[size][];
+        if (!reverse) {
+            for (int i = first; i < size; i++) {
+                result[i] = graph.get(i).dependencies();
+            }
+            return result;
+        }
+
+        // When stopping we wait for the dependants of a node instead
+        int[] counts = new int[size];
+        for (int i = first; i < size; i++) {
+            for (int d : graph.get(i).dependencies()) {
+                counts[d]++;
+            }
+        }
+        for (int i = first; i < size; i++) {
+            result[i] = new int[counts[i]];
+        }
+        for (int i = first; i < size; i++) {
+            for (int d : graph.get(i).dependencies()) {
+                if (d >= first) {
+                    result[d][--counts[d]] = i;
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Runs the specified operation on a new thread, interrupting it if it does not complete within the specified timeout.
+     *
+     * @param name
+     *            the name of the task scope and its thread
+     * @param timeout
+     *            the timeout
+     * @param operation
+     *            the operation to run
+     * @throws LifecycleException
+     *             if the operation did not complete within the timeout, or if interrupted while waiting for it
+     */
+    static void runWithTimeout(String name, Duration timeout, Runnable operation) {
+        try (var scope = StructuredTaskScope.open(Joiner.<Void>awaitAllSuccessfulOrThrow(),
+                c -> c.withName(name).withTimeout(timeout).withThreadFactory(Thread.ofVirtual().name(name, 0).factory()))) {
+            scope.fork(operation);
+            scope.join();
+        } catch (StructuredTaskScope.FailedException e) {
+            throw ThrowableUtil.orUndeclared(e.getCause());
+        } catch (StructuredTaskScope.TimeoutException e) {
+            throw new LifecycleException("Operation did not complete within " + timeout, e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new LifecycleException("Interrupted while waiting for operation to complete", e);
+        }
+    }
+
+    private void runNode(BeanLifecycleNode node) {
+        LifecycleForks forks = new LifecycleForks(name);
+        try {
+            for (InvokableLifecycleOperationHandle<H> h : operations.apply(node)) {
+                invoker.accept(h, forks);
+            }
+            forks.join();
+        } finally {
+            forks.close();
+        }
+    }
+}
@@ -0,0 +1,493 @@
+/*
+ * Copyright (c) 2026 Kasper Nielsen.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package internal.app.packed.lifecycle.runtime;
+
+import static java.lang.classfile.ClassFile.ACC_FINAL;
+import static java.lang.classfile.ClassFile.ACC_PUBLIC;
+import static java.lang.classfile.ClassFile.ACC_SYNTHETIC;
+import static java.lang.classfile.ClassFile.ACC_VOLATILE;
+import static java.lang.constant.ConstantDescs.CD_Object;
+import static java.lang.constant.ConstantDescs.CD_void;
+import static java.lang.constant.ConstantDescs.INIT_NAME;
+import static java.lang.constant.ConstantDescs.MTD_void;
+
+import java.lang.classfile.ClassFile;
+import java.lang.constant.ClassDesc;
+import java.lang.constant.MethodTypeDesc;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodHandles.Lookup;
+import java.lang.invoke.MethodType;
+import java.lang.invoke.VarHandle;
+import java.util.List;
+
+import org.jspecify.annotations.Nullable;
+
+import app.packed.extension.InternalExtensionException;
+import internal.app.packed.bean.BeanSetup;
+import internal.app.packed.bean.sidehandle.PackedSidehandle;
+import internal.app.packed.extension.ExtensionContext;
+import internal.app.packed.lifecycle.InvokableLifecycleOperationHandle;
+import internal.app.packed.lifecycle.LifecycleOperationHandle.AbstractInitializingOperationHandle;
+import internal.app.packed.lifecycle.lifetime.LazyBeanLifecycle;
+import internal.app.packed.lifecycle.lifetime.LifetimeStoreEntry;
+import internal.app.packed.lifecycle.lifetime.LifetimeStoreEntry.InternalStoreEntry;
+import internal.app.packed.util.ThrowableUtil;
+
+/**
+ * The layout of the objects stored in the extension context of a container lifetime.
+ * <p>
+ * Instead of storing objects in an array, every layout generates a hidden subclass of {@link PackedExtensionContext}
+ * with a field for each entry in the lifetime store. Fields are typed with the class of the stored object, so reading
+ * a bean instance from the context is a cast to the generated class followed by a field read. There are no bounds
+ * checks or casts of the returned value, and the JIT knows the exact type of the value. If assertions are enabled for
+ * this class, reads are followed by a null check that fails with an {@link InternalExtensionException} if an object is
+ * read before it has been initialized.
+ * <p>
+ * If the class of an entry cannot be resolved from the class loader of this module, for example, because it is a
+ * hidden class or it is loaded by an unrelated class loader, the field is typed as {@code Object}, and the value is cast
+ * when read.
+ * <p>
+ * Fields are written exactly once, when the object is created doing the initialization of the lifetime. Since they are
+ * written after the context has been constructed they are not final.
+ * <p>
+ * Lazy beans have two additional fields, a volatile field with the state of the bean and a lock that is created
+ * together with the context. Reading a lazy bean first tests the state, and only if the bean is not ready for use, takes
+ * the lock of the bean and creates, initializes and if the lifetime is running, starts the bean. Once ready, reading a
+ * lazy bean is a volatile read of the state and of the phase of the lifetime followed by a field read.
+ */
+public final class LifetimeStoreLayout {
+
+    /** A layout without any entries, every context has the same (empty) instance. */
+    static final LifetimeStoreLayout EMPTY = new LifetimeStoreLayout();
+
+    /** The descriptor of PackedExtensionContext. */
+    private static final ClassDesc CD_CONTEXT = desc(PackedExtensionContext.class);
+
+    /** The type of the constructor of generated classes. */
+    private static final MethodType CONSTRUCTOR_TYPE = MethodType.methodType(void.class, LifetimeStoreLayout.class);
+
+    /** Whether or not reads of non-lazy entries check that the entry has been initialized, enabled with assertions. */
+    private static final boolean CHECK_READS = LifetimeStoreLayout.class.desiredAssertionStatus();
+
+    /** A MethodHandle for invoking {@link #checkInitialized(int, Object)}. */
+    private static final MethodHandle MH_CHECK_INITIALIZED;
+
+    /** A MethodHandle for invoking {@link #initializeLazy(int, ExtensionContext)}. */
+    private static final MethodHandle MH_INITIALIZE_LAZY;
+
+    /** A MethodHandle for invoking {@link #isReady(int, ExtensionContext)}. */
+    private static final MethodHandle MH_IS_READY;
+
+    /** The state of a lazy bean that has not been created. */
+    private static final int NEW = 0;
+
+    /** The state of a lazy bean that has been created and initialized. */
+    private static final int INITIALIZED = 1;
+
+    /** The state of a lazy bean whose start operations are being invoked. */
+    private static final int STARTING = 2;
+
+    /** The state of a lazy bean whose start operations have been invoked. */
+    private static final int STARTED = 3;
+
+    /** The state of a lazy bean whose stop operations have been invoked. */
+    private static final int STOPPED = 4;
+
+    static {
+        Lookup lookup = MethodHandles.lookup();
+        try {
+            MH_CHECK_INITIALIZED = lookup.findVirtual(LifetimeStoreLayout.class, "checkInitialized",
+                    MethodType.methodType(Object.class, int.class, Object.class));
+            MH_INITIALIZE_LAZY = lookup.findVirtual(LifetimeStoreLayout.class, "initializeLazy",
+                    MethodType.methodType(Object.class, int.class, ExtensionContext.class));
+            MH_IS_READY = lookup.findStatic(LifetimeStoreLayout.class, "isReady", MethodType.methodType(boolean.class, int.class, ExtensionContext.class));
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    /** The entries of the store. */
+    private final List<LifetimeStoreEntry> entries;
+
+    /** Creates new instances of the generated class, (LifetimeStoreLayout)PackedExtensionContext. */
+    private final MethodHandle constructor;
+
+    /** Reads each field, (ExtensionContext)T where T is the type of the field. */
+    private final MethodHandle[] getters;
+
+    /** The lock field of each lazy bean, (PackedExtensionContext)Object, null for other entries. */
+    private final @Nullable MethodHandle[] locks;
+
+    /** Reads each object, the getter followed by a null check, or creating the bean if the entry is a lazy bean. */
+    private final MethodHandle[] readers;
+
+    /** The state field of each lazy bean, null for other entries. */
+    private final @Nullable VarHandle[] states;
+
+    /** Writes each field, (PackedExtensionContext, Object)void. */
+    private final MethodHandle[] writers;
+
+    private LifetimeStoreLayout() {
+        this.entries = List.of();
+        this.constructor = null;
+        this.getters = new MethodHandle[0];
+        this.locks = new MethodHandle[0];
+        this.readers = new MethodHandle[0];
+        this.writers = new MethodHandle[0];
+        this.states = new VarHandle[0];
+    }
+
+    /**
+     * Creates a new layout, generating a class for the specified entries.
+     *
+     * @param entries
+     *            the entries of the store
+     */
+    private LifetimeStoreLayout(List<LifetimeStoreEntry> entries) {
+        this.entries = List.copyOf(entries);
+        int size = entries.size();
+        Class<?>[] types = new Class<?>[size];
+        for (int i = 0; i < size; i++) {
+            types[i] = fieldType(entries.get(i));
+        }
+
+        ClassDesc cd = ClassDesc.of(PackedExtensionContext.class.getPackageName(), "PackedExtensionContext$$Store");
+        byte[] bytes = ClassFile.of().build(cd, clb -> {
+            clb.withFlags(ACC_PUBLIC | ACC_FINAL | ACC_SYNTHETIC);
+            clb.withSuperclass(CD_CONTEXT);
+            for (int i = 0; i < size; i++) {
+                clb.withField(fieldName(i), desc(types[i]), ACC_SYNTHETIC);
+                if (lazy(i) != null) {
+                    clb.withField(stateFieldName(i), desc(int.class), ACC_SYNTHETIC | ACC_VOLATILE);
+                    clb.withField(lockFieldName(i), CD_Object, ACC_SYNTHETIC | ACC_FINAL);
+                }
+            }
+            MethodTypeDesc init = MethodTypeDesc.of(CD_void, desc(LifetimeStoreLayout.class));
+            clb.withMethodBody(INIT_NAME, init, ACC_PUBLIC, cb -> {
+                cb.aload(0);
+                cb.aload(1);
+                cb.invokespecial(CD_CONTEXT, INIT_NAME, init);
+                // this.l<i> = new Object() for each lazy bean
+                for (int i = 0; i < size; i++) {
+                    if (lazy(i) != null) {
+                        cb.aload(0);
+                        cb.new_(CD_Object);
+                        cb.dup();
+                        cb.invokespecial(CD_Object, INIT_NAME, MTD_void);
+                        cb.putfield(cd, lockFieldName(i), CD_Object);
+                    }
+                }
+                cb.return_();
+            });
+        });
+
+        try {
+            Lookup lookup = MethodHandles.lookup().defineHiddenClass(bytes, true);
+            Class<?> c = lookup.lookupClass();
+            MethodHandle ctor = lookup.findConstructor(c, CONSTRUCTOR_TYPE);
+            this.constructor = ctor.asType(MethodType.methodType(PackedExtensionContext.class, LifetimeStoreLayout.class));
+            this.getters = new MethodHandle[size];
+            this.locks = new MethodHandle[size];
+            this.readers = new MethodHandle[size];
+            this.writers = new MethodHandle[size];
+            this.states = new VarHandle[size];
+            for (int i = 0; i < size; i++) {
+                MethodType readerType = MethodType.methodType(types[i], ExtensionContext.class);
+                MethodHandle getter = lookup.findGetter(c, fieldName(i), types[i]);
+                getters[i] = MethodHandles.explicitCastArguments(getter, readerType);
+                MethodHandle setter = lookup.findSetter(c, fieldName(i), types[i]);
+                writers[i] = setter.asType(MethodType.methodType(void.class, PackedExtensionContext.class, Object.class));
+                if (lazy(i) == null) {
+                    if (CHECK_READS) {
+                        // (ExtensionContext)T -> checkInitialized(i, field)
+                        MethodHandle check = MethodHandles.insertArguments(MH_CHECK_INITIALIZED, 0, this, i);
+                        check = MethodHandles.explicitCastArguments(check, MethodType.methodType(types[i], types[i]));
+                        readers[i] = MethodHandles.filterReturnValue(getters[i], check);
+                    } else {
+                        // (ExtensionContext)T -> field
+                        readers[i] = getters[i];
+                    }
+                } else {
+                    // (ExtensionContext)T -> isReady(state, context) ? field : initializeLazy(i, context)
+                    states[i] = lookup.findVarHandle(c, stateFieldName(i), int.class);
+                    locks[i] = lookup.findGetter(c, lockFieldName(i), Object.class)
+                            .asType(MethodType.methodType(Object.class, PackedExtensionContext.class));
+                    MethodHandle state = MethodHandles.explicitCastArguments(states[i].toMethodHandle(VarHandle.AccessMode.GET_VOLATILE),
+                            MethodType.methodType(int.class, ExtensionContext.class));
+                    // The state is read before the phase of the lifetime
+                    MethodHandle test = MethodHandles.foldArguments(MH_IS_READY, state);
+                    MethodHandle initialize = MethodHandles.explicitCastArguments(MethodHandles.insertArguments(MH_INITIALIZE_LAZY, 0, this, i), readerType);
+                    readers[i] = MethodHandles.guardWithTest(test, getters[i], initialize);
+                }
+            }
+        } catch (ReflectiveOperationException e) {
+            throw new Error("Could not generate lifetime store", e);
+        }
+    }
+
+    /** {@return a new extension context with an empty field for each entry} */
+    public ExtensionContext newContext() {
+        if (entries.isEmpty()) {
+            return PackedExtensionContext.EMPTY;
+        }
+        try {
+            return (PackedExtensionContext) constructor.invokeExact(this);
+        } catch (Throwable e) {
+            throw ThrowableUtil.orUndeclared(e);
+        }
+    }
+
+    /**
+     * Returns a method handle that reads the object at the specified index. If the entry is a lazy bean that has not yet
+     * been created, the bean is created and initialized before it is returned.
+     *
+     * @param index
+     *            the index of the entry
+     * @return a method handle of type (ExtensionContext)T, where T is the field type of the entry
+     */
+    public MethodHandle reader(int index) {
+        return readers[index];
+    }
+
+    /** {@return the number of entries in the store} */
+    int size() {
+        return entries.size();
+    }
+
+    /** Reads the object at the specified index, without creating lazy beans. */
+    Object read(PackedExtensionContext context, int index) {
+        try {
+            return getters[index].invoke(context);
+        } catch (Throwable e) {
+            throw ThrowableUtil.orUndeclared(e);
+        }
+    }
+
+    /** Writes the object at the specified index, the field must not have been written before. */
+    void write(PackedExtensionContext context, int index, Object instance) {
+        if (read(context, index) != null) {
+            throw new IllegalStateException("Entry " + index + " has already been initialized");
+        }
+        try {
+            writers[index].invokeExact(context, instance);
+        } catch (Throwable e) {
+            throw ThrowableUtil.orUndeclared(e);
+        }
+    }
+
+    /**
+     * Makes a lazy bean ready for use, invoked when a lazy bean is read from a context and it is not ready.
+     * <p>
+     * The bean is created and initialized, and if the lifetime is running, started, while holding the lock of the bean.
+     * Other threads reading the bean wait until the bean is ready, so they never see a bean that has not been started in
+     * a running lifetime. If the bean is read by one of its own initialization or start operations, the partially
+     * initialized bean is returned, just as it would be when initializing a lifetime eagerly. If initialization fails,
+     * the bean is reset, and the next read will try to create the bean again. If the start operations fail, the bean
+     * stays initialized, and the next read will try to start the bean again.
+     *
+     * @param index
+     *            the index of the bean
+     * @param ec
+     *            the context to read the bean from
+     * @return the bean instance
+     * @throws IllegalStateException
+     *             if the bean has not been created and the lifetime is stopping
+     */
+    private Object initializeLazy(int index, ExtensionContext ec) {
+        PackedExtensionContext context = (PackedExtensionContext) ec;
+        synchronized (lock(context, index)) {
+            int state = (int) states[index].getVolatile(context);
+            if (state == NEW) {
+                Object instance = read(context, index);
+                if (instance != null) {
+                    return instance; // Read by the bean's own initialization operations
+                }
+                if (context.phase == PackedExtensionContext.STOPPING) {
+                    throw new IllegalStateException("Lazy bean " + entries.get(index) + " cannot be created while its lifetime is stopping");
+                }
+                try {
+                    for (InvokableLifecycleOperationHandle<AbstractInitializingOperationHandle> h : lazy(index).initializers) {
+                        h.methodHandle.invokeExact(ec);
+                    }
+                } catch (Throwable e) {
+                    clear(context, index);
+                    throw ThrowableUtil.orUndeclared(e);
+                }
+                state = INITIALIZED;
+                states[index].setVolatile(context, INITIALIZED);
+            }
+            if (state == INITIALIZED && context.phase == PackedExtensionContext.RUNNING) {
+                startLocked(context, index, null);
+            }
+        }
+        return read(context, index);
+    }
+
+    /**
+     * Invokes the start operations of a lazy bean, if it has been initialized but not yet started.
+     *
+     * @param context
+     *            the context of the lifetime
+     * @param index
+     *            the index of the bean
+     * @param runtime
+     *            the runtime of the lifetime if started together with the lifetime, otherwise null
+     */
+    void start(PackedExtensionContext context, int index, @Nullable RegionalManagedLifetime runtime) {
+        // Either the thread that created the bean or the thread starting the lifetime, whichever comes first
+        synchronized (lock(context, index)) {
+            if ((int) states[index].getVolatile(context) == INITIALIZED) {
+                startLocked(context, index, runtime);
+            }
+        }
+    }
+
+    /** Invokes the start operations of an initialized lazy bean, while holding the lock of the bean. */
+    private void startLocked(PackedExtensionContext context, int index, @Nullable RegionalManagedLifetime runtime) {
+        states[index].setVolatile(context, STARTING);
+        try {
+            new StartRunner(lazy(index).starters, context, runtime).start();
+        } catch (Throwable e) {
+            states[index].setVolatile(context, INITIALIZED);
+            throw e;
+        }
+        states[index].setVolatile(context, STARTED);
+    }
+
+    /**
+     * Invokes the stop operations of a lazy bean, if it has been started.
+     *
+     * @param context
+     *            the context of the lifetime
+     * @param index
+     *            the index of the bean
+     * @param runtime
+     *            the runtime of the lifetime
+     */
+    void stop(PackedExtensionContext context, int index, RegionalManagedLifetime runtime) {
+        synchronized (lock(context, index)) {
+            if ((int) states[index].getVolatile(context) == STARTED) {
+                states[index].setVolatile(context, STOPPED);
+                new StopRunner(lazy(index).stoppers, context, runtime).start();
+            }
+        }
+    }
+
+    /**
+     * Returns the specified object read from the entry at the specified index, failing if it has not been initialized.
+     *
+     * @param index
+     *            the index of the entry
+     * @param value
+     *            the value of the field
+     * @return the value
+     * @throws InternalExtensionException
+     *             if the value is null
+     */
+    private Object checkInitialized(int index, @Nullable Object value) {
+        if (value == null) {
+            throw new InternalExtensionException("Entry with index " + index + " (" + entries.get(index) + ") has not been initialized");
+        }
+        return value;
+    }
+
+    /** Clears the object at the specified index, after a lazy bean has failed to initialize. */
+    private void clear(PackedExtensionContext context, int index) {
+        try {
+            writers[index].invokeExact(context, (Object) null);
+        } catch (Throwable e) {
+            throw ThrowableUtil.orUndeclared(e);
+        }
+    }
+
+    /** {@return the lock of the lazy bean at the specified index} */
+    private Object lock(PackedExtensionContext context, int index) {
+        try {
+            return locks[index].invokeExact(context);
+        } catch (Throwable e) {
+            throw ThrowableUtil.orUndeclared(e);
+        }
+    }
+
+    /** {@return the lifecycle of the entry at the specified index if it is a lazy bean, otherwise null} */
+    @Nullable
+    private LazyBeanLifecycle lazy(int index) {
+        return entries.get(index) instanceof BeanSetup b ? b.lazy : null;
+    }
+
+    /**
+     * Creates a new layout for the specified entries.
+     *
+     * @param entries
+     *            the entries of the store
+     * @return the new layout
+     */
+    public static LifetimeStoreLayout of(List<LifetimeStoreEntry> entries) {
+        return entries.isEmpty() ? EMPTY : new LifetimeStoreLayout(entries);
+    }
+
+    private static ClassDesc desc(Class<?> type) {
+        return ClassDesc.ofDescriptor(type.descriptorString());
+    }
+
+    private static String fieldName(int index) {
+        return "e" + index;
+    }
+
+    private static String stateFieldName(int index) {
+        return "s" + index;
+    }
+
+    private static String lockFieldName(int index) {
+        return "l" + index;
+    }
+
+    /**
+     * Returns whether or not a lazy bean can be returned without taking its lock. A bean that has been started is always
+     * ready. A bean that has only been initialized is ready until the lifetime is started, after that it must be started
+     * first. The phase is read after the state, so a bean that is started concurrently with the lifetime is never
+     * returned unstarted once the lifetime is running.
+     *
+     * @param state
+     *            the state of the bean
+     * @param context
+     *            the context of the lifetime
+     * @return whether or not the bean is ready
+     */
+    private static boolean isReady(int state, ExtensionContext context) {
+        return state >= STARTED || (state == INITIALIZED && ((PackedExtensionContext) context).phase == PackedExtensionContext.INITIALIZING);
+    }
+
+    /** {@return the type of the field for the specified entry} */
+    private static Class<?> fieldType(LifetimeStoreEntry entry) {
+        Class<?> type = switch (entry) {
+        case BeanSetup b -> b.bean.beanClass;
+        case PackedSidehandle s -> s.sidehandleBean.bean.beanClass;
+        case InternalStoreEntry e -> e.type();
+        };
+        if (type.isHidden() || type.isPrimitive()) {
+            return Object.class;
+        }
+        // The generated class is defined by the class loader of this module, which must be able to resolve the type
+        try {
+            if (Class.forName(type.getName(), false, LifetimeStoreLayout.class.getClassLoader()) == type) {
+                return type;
+            }
+        } catch (ClassNotFoundException | LinkageError ignore) {}
+        return Object.class;
+    }
+}
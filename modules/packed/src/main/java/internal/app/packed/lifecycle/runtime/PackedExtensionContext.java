@@ -19,70 +19,71 @@ import app.packed.bean.BeanIntrospector;
 import app.packed.bean.BeanTrigger.AutoService;
 import app.packed.binding.Key;
 import app.packed.extension.BaseExtension;
-import app.packed.extension.InternalExtensionException;
-import internal.app.packed.ValueBased;
 import internal.app.packed.extension.ExtensionContext;
-import internal.app.packed.lifecycle.lifetime.LifetimeStore;
 import internal.app.packed.lifecycle.lifetime.LifetimeStoreIndex;
 
 /**
- * All strongly connected components relate to the same pod.
+ * The objects of a single instance of a container lifetime.
+ * <p>
+ * Every container lifetime has a {@link LifetimeStoreLayout}, which generates a hidden subclass of this class with a
+ * typed field for each object in the lifetime.
  */
 @AutoService(introspector = PackedExtensionContextBeanIntrospector.class)
-@ValueBased
-public final class PackedExtensionContext implements ExtensionContext {
+public abstract non-sealed class PackedExtensionContext implements ExtensionContext {
 
-    public static final ExtensionContext EMPTY = new PackedExtensionContext(null, 0);
+    /** A context without any objects. */
+    public static final ExtensionContext EMPTY = new Empty();
 
-    final Object[] objects;
+    /** The layout of the context. */
+    final LifetimeStoreLayout layout;
 
-    final LifetimeStore store;
-    private PackedExtensionContext(LifetimeStore store, int size) {
-        objects = new Object[size];
-        this.store=store;
+    /** The phase of a lifetime that is being initialized, or that has not been started. */
+    static final int INITIALIZING = 0;
 
-    }
+    /** The phase of a lifetime that has been started. */
+    static final int RUNNING = 1;
 
-    public static ExtensionContext create(LifetimeStore store, int size) {
-        if (size == 0) {
-            return EMPTY;
-        } else {
-            return new PackedExtensionContext(store, size);
-        }
+    /** The phase of a lifetime that is stopping, or has been stopped. */
+    static final int STOPPING = 2;
+
+    /** The phase of the lifetime, only maintained if the lifetime has lazy beans. */
+    volatile int phase;
+
+    /**
+     * Creates a new context, only invoked by generated subclasses.
+     *
+     * @param layout
+     *            the layout of the context
+     */
+    protected PackedExtensionContext(LifetimeStoreLayout layout) {
+        this.layout = layout;
     }
 
     public void print() {
         IO.println("--");
-        for (int i = 0; i < objects.length; i++) {
-            IO.println(i + " = " + objects[i]);
+        for (int i = 0; i < layout.size(); i++) {
+            IO.println(i + " = " + layout.read(this, i));
         }
 
         IO.println("--");
     }
 
-    public Object read(int index) {
-        Object value = objects[index];
-        if (value == null) {
-            System.out.println(store.entries.get(index));
-            throw new InternalExtensionException("Bean with index " + index + " has not been initialized");
-        }
-        return value;
-        // IO.println("Reading index " + index + " value= " + value);
-        // new Exception().printStackTrace();
-    }
-
     public void storeObject(LifetimeStoreIndex index, Object instance) {
-        int ind = index.index;
-        if (objects[ind] != null) {
-            throw new IllegalStateException();
-        }
-        objects[ind] = instance;
+        layout.write(this, index.index, instance);
     }
 
     /** {@inheritDoc} */
     @Override
     public String toString() {
-        return "ConstantPool [size = " + objects.length + "]";
+        return "ConstantPool [size = " + layout.size() + "]";
+    }
+
+    /** A context without any objects. */
+    private static final class Empty extends PackedExtensionContext {
+
+        private Empty() {
+            super(LifetimeStoreLayout.EMPTY);
+        }
     }
 }
 
@@ -24,7 +24,6 @@ import java.util.concurrent.locks.Condition;
 import java.util.concurrent.locks.ReentrantLock;
 
 import app.packed.application.ManagedApplicationRuntime;
-import app.packed.lifecycle.LifecycleKind;
 import app.packed.lifecycle.RunState;
 import app.packed.lifecycle.sandbox.StopOption;
 import app.packed.lifecycle.sandbox.errorhandling.UnhandledApplicationException;
@@ -117,7 +116,7 @@ public final class RegionalManagedLifetime implements ManagedApplicationRuntime
         }
 
         try {
-            runner.container.lifetime.initialize(runner.pool());
+            runner.plan.initialize(runner.pool());
         } catch (Throwable t) {
             this.throwable = t;
             lock.lock();
@@ -152,7 +151,7 @@ public final class RegionalManagedLifetime implements ManagedApplicationRuntime
             throw new IllegalArgumentException("INITIALIZING is not a valid launch state");
         }
 
-        if (runner.container.application.template.lifecycleKind() != LifecycleKind.MANAGED && desiredState != RunState.INITIALIZED) {
+        if (!runner.plan.isManaged && desiredState != RunState.INITIALIZED) {
             throw new IllegalArgumentException("Unmanaged applications and containers can only launch with runstate INITIALIZED, was " + desiredState);
         }
 
@@ -260,7 +259,7 @@ public final class RegionalManagedLifetime implements ManagedApplicationRuntime
         }
 
         // Boer vel spawnes????
-        OldEntryPointSetup ep = runner.container.lifetime.entryPoints.entryPoint;
+        OldEntryPointSetup ep = runner.plan.entryPoint;
 
         if (ep != null) {
             ep.enter(runner);
@@ -15,18 +15,19 @@
  */
 package internal.app.packed.lifecycle.runtime;
 
+import java.time.Duration;
 import java.util.Collection;
+import java.util.List;
 import java.util.concurrent.Callable;
-import java.util.concurrent.Executors;
-import java.util.concurrent.StructureViolationException;
-import java.util.concurrent.StructuredTaskScope;
-import java.util.concurrent.StructuredTaskScope.Joiner;
+
+import org.jspecify.annotations.Nullable;
 
 import app.packed.lifecycle.StartContext;
 import internal.app.packed.ValueBased;
 import internal.app.packed.extension.ExtensionContext;
 import internal.app.packed.lifecycle.InvokableLifecycleOperationHandle;
 import internal.app.packed.lifecycle.LifecycleOperationHandle.StartOperationHandle;
+import internal.app.packed.lifecycle.lifetime.BeanLifecycleNode;
 import internal.app.packed.util.ThrowableUtil;
 
 /**
@@ -34,6 +35,9 @@ import internal.app.packed.util.ThrowableUtil;
  */
 final class StartRunner {
 
+    /** The name of task scopes and threads created when starting. */
+    private static final String NAME = "AppStart";
+
     final Collection<InvokableLifecycleOperationHandle<StartOperationHandle>> operations;
 
     /** The runtime component node we are building. */
@@ -42,83 +46,110 @@ final class StartRunner {
     /** If the application is stateful, the applications runtime. */
     final RegionalManagedLifetime runtime;
 
-    final Thread startingThread = Thread.currentThread();
-
-    /** A structured task scope, used if forking. */
-    StructuredTaskScope<Void, Void> ts;
-
     StartRunner(Collection<InvokableLifecycleOperationHandle<StartOperationHandle>> methodHandles, ExtensionContext pool, RegionalManagedLifetime runtime) {
         this.operations = methodHandles;
         this.pool = pool;
         this.runtime = runtime;
     }
 
-    private void run(InvokableLifecycleOperationHandle<StartOperationHandle> h) {
-        try {
-            h.methodHandle.invokeExact(pool, (StartContext) new PackedOnStartContext(this));
-        } catch (Throwable e) {
-            throw ThrowableUtil.orUndeclared(e);
+    /**
+     * Runs the specified operation on the current thread, or forks it if the operation is forked.
+     *
+     * @param h
+     *            the operation to run
+     * @param forks
+     *            the forks of the current thread
+     */
+    private void runOrFork(InvokableLifecycleOperationHandle<StartOperationHandle> h, LifecycleForks forks) {
+        if (h.handle.fork) {
+            forks.fork(() -> run(h, null));
+        } else {
+            run(h, forks);
         }
     }
 
-    void start() {
-        long start = System.currentTimeMillis();
-
-        for (InvokableLifecycleOperationHandle<StartOperationHandle> h : operations) {
-            if (h.handle.fork) {
-                ts().fork(() -> run(h));
+    /**
+     * Runs the specified operation.
+     *
+     * @param h
+     *            the operation to run
+     * @param forks
+     *            the forks of the current thread, or null if the operation must wait for the tasks it forks itself
+     */
+    private void run(InvokableLifecycleOperationHandle<StartOperationHandle> h, @Nullable LifecycleForks forks) {
+        long start = System.nanoTime();
+        try {
+            Duration timeout = h.handle.timeout;
+            if (timeout != null) {
+                // The tasks forked by the operation must complete within the timeout as well
+                LifecycleGraphRunner.runWithTimeout(NAME, timeout, () -> invokeAndJoin(h));
+            } else if (forks != null) {
+                invoke(h, forks);
             } else {
-                run(h);
+                invokeAndJoin(h);
             }
+        } finally {
+            h.handle.lastInvocationNanos = System.nanoTime() - start;
         }
-        StructuredTaskScope<Void, Void> sts = ts;
-        if (sts != null) {
-            try {
-                IO.println(Thread.currentThread() == startingThread);
-                IO.println(ts.toString());
-                System.out.println("TRYING TO JOIN " + Thread.currentThread());
-                ts.join();
-                IO.println("Joined " + (System.currentTimeMillis() - start));
-            } catch (InterruptedException e) {
-                e.printStackTrace();
-            }
+    }
+
+    /** Invokes the specified operation with its own forks, and waits for the tasks it forks. */
+    private void invokeAndJoin(InvokableLifecycleOperationHandle<StartOperationHandle> h) {
+        LifecycleForks f = new LifecycleForks(NAME);
+        try {
+            invoke(h, f);
+            f.join();
+        } finally {
+            f.close();
         }
-        // IO.println("Start finished");
     }
 
-    StructuredTaskScope<Void, Void> ts() {
-        StructuredTaskScope<Void, Void> sts = ts;
-        if (sts != null) {
-            return sts;
+    private void invoke(InvokableLifecycleOperationHandle<StartOperationHandle> h, LifecycleForks forks) {
+        try {
+            h.methodHandle.invokeExact(pool, (StartContext) new PackedOnStartContext(forks));
+        } catch (Throwable e) {
+            throw ThrowableUtil.orUndeclared(e);
         }
-        // Only the starting thread should create the task scope
-        if (Thread.currentThread() != startingThread) {
-            throw new StructureViolationException();
+    }
+
+    /**
+     * Starts the beans in the specified lifecycle graph concurrently, instead of in the order of {@link #operations}.
+     *
+     * @param graph
+     *            the lifecycle graph of the lifetime
+     * @param maxParallelism
+     *            the maximum number of operations that may run at the same time
+     */
+    void startConcurrently(List<BeanLifecycleNode> graph, int maxParallelism) {
+        new LifecycleGraphRunner<StartOperationHandle>(NAME, graph, false, maxParallelism, BeanLifecycleNode::starters, this::runOrFork).run();
+    }
+
+    void start() {
+        LifecycleForks forks = new LifecycleForks(NAME);
+        try {
+            for (InvokableLifecycleOperationHandle<StartOperationHandle> h : operations) {
+                runOrFork(h, forks);
+            }
+            forks.join();
+        } finally {
+            forks.close();
         }
-        System.out.println("!!!!!!!!!!!! Creating new scope for thread " + Thread.currentThread());
-        return ts = StructuredTaskScope.open(Joiner.awaitAllSuccessfulOrThrow(),
-                c -> c.withName("AppStart").withThreadFactory(Thread.ofVirtual().name("CoolAppStartin", 0).factory()));
     }
 
     @ValueBased
-    record PackedOnStartContext(StartRunner runner) implements StartContext {
+    record PackedOnStartContext(LifecycleForks forks) implements StartContext {
 
 //        @Override
 //        public void fail(Throwable cause) {}
 
-        @SuppressWarnings({ "unchecked", "rawtypes" })
         @Override
         public void fork(Callable<?> callable) {
-            runner.ts().fork((Callable) callable);
+            forks.fork(callable);
         }
 
-        @SuppressWarnings({ "unchecked", "rawtypes" })
         @Override
         public void fork(Runnable runnable) {
-            if (Thread.currentThread() != runner.startingThread) {
-                throw new IllegalStateException("Operation is already forked");
-            }
-            runner.ts().fork((Callable) Executors.callable(runnable));
+            forks.fork(runnable);
         }
 
 //        @Override
@@ -15,16 +15,16 @@
  */
 package internal.app.packed.lifecycle.runtime;
 
+import java.time.Duration;
 import java.util.Collection;
-import java.util.concurrent.StructureViolationException;
-import java.util.concurrent.StructuredTaskScope;
-import java.util.concurrent.StructuredTaskScope.Joiner;
+import java.util.List;
 
 import app.packed.lifecycle.StopContext;
 import app.packed.lifecycle.StopInfo;
 import internal.app.packed.extension.ExtensionContext;
 import internal.app.packed.lifecycle.InvokableLifecycleOperationHandle;
 import internal.app.packed.lifecycle.LifecycleOperationHandle.StopOperationHandle;
+import internal.app.packed.lifecycle.lifetime.BeanLifecycleNode;
 import internal.app.packed.util.ThrowableUtil;
 
 /**
@@ -34,7 +34,8 @@ import internal.app.packed.util.ThrowableUtil;
 
 final class StopRunner {
 
-    final Thread startingThread = Thread.currentThread();
+    /** The name of task scopes and threads created when stopping. */
+    private static final String NAME = "AppStopping";
 
     final Collection<InvokableLifecycleOperationHandle<StopOperationHandle>> operations;
 
@@ -44,9 +45,6 @@ final class StopRunner {
     /** If the application is stateful, the applications runtime. */
     final RegionalManagedLifetime runtime;
 
-    /** A structured task scope, used if forking. */
-    StructuredTaskScope<Void, Void> ts;
-
     @SuppressWarnings("unchecked")
     StopRunner(Collection<?> methodHandles, ExtensionContext pool, RegionalManagedLifetime runtime) {
         this.operations = (Collection<InvokableLifecycleOperationHandle<StopOperationHandle>>) methodHandles;
@@ -54,8 +52,37 @@ final class StopRunner {
         this.runtime = runtime;
     }
 
-    private Void run(InvokableLifecycleOperationHandle<StopOperationHandle> h) {
+    /**
+     * Runs the specified operation on the current thread, or forks it if the operation is forked.
+     *
+     * @param h
+     *            the operation to run
+     * @param forks
+     *            the forks of the current thread
+     */
+    private void runOrFork(InvokableLifecycleOperationHandle<StopOperationHandle> h, LifecycleForks forks) {
+        if (h.handle.fork) {
+            forks.fork(() -> run(h));
+        } else {
+            run(h);
+        }
+    }
+
+    private void run(InvokableLifecycleOperationHandle<StopOperationHandle> h) {
+        long start = System.nanoTime();
+        try {
+            Duration timeout = h.handle.timeout;
+            if (timeout == null) {
+                invoke(h);
+            } else {
+                LifecycleGraphRunner.runWithTimeout(NAME, timeout, () -> invoke(h));
+            }
+        } finally {
+            h.handle.lastInvocationNanos = System.nanoTime() - start;
+        }
+    }
 
+    private void invoke(InvokableLifecycleOperationHandle<StopOperationHandle> h) {
         try {
             h.methodHandle.invokeExact(pool, (StopContext) new StopContext() {
 
@@ -74,44 +101,30 @@ final class StopRunner {
             runtime.start();
             throw ThrowableUtil.orUndeclared(e);
         }
-        return null;
     }
 
-    void start() {
-        long start = System.currentTimeMillis();
-    //    IO.println("Starting app from " + Thread.currentThread());
-        // Run all Startup methods
-        // We run in a OnStartContext
-        for (InvokableLifecycleOperationHandle<StopOperationHandle> h : operations) {
-            if (h.handle.fork) {
-                ts().fork(() -> run(h));
-            } else {
-                run(h);
-            }
-        }
-        StructuredTaskScope<Void, Void> sts = ts;
-        if (sts != null) {
-            try {
-                ts.join();
-                IO.println("Joined " + (System.currentTimeMillis() - start));
-            } catch (InterruptedException e) {
-                e.printStackTrace();
-            }
-        }
-  //      IO.println("Start finished");
+    /**
+     * Stops the beans in the specified lifecycle graph concurrently, in reverse dependency order.
+     *
+     * @param graph
+     *            the lifecycle graph of the lifetime
+     * @param maxParallelism
+     *            the maximum number of operations that may run at the same time
+     */
+    void stopConcurrently(List<BeanLifecycleNode> graph, int maxParallelism) {
+        new LifecycleGraphRunner<StopOperationHandle>(NAME, graph, true, maxParallelism, BeanLifecycleNode::stoppers, this::runOrFork).run();
     }
 
-    StructuredTaskScope<Void, Void> ts() {
-        StructuredTaskScope<Void, Void> sts = ts;
-        if (sts != null) {
-            return sts;
-        }
-        // Only the starting thread should create the task scope
-        if (Thread.currentThread() != startingThread) {
-            throw new StructureViolationException();
+    void start() {
+        LifecycleForks forks = new LifecycleForks(NAME);
+        try {
+            for (InvokableLifecycleOperationHandle<StopOperationHandle> h : operations) {
+                runOrFork(h, forks);
+            }
+            forks.join();
+        } finally {
+            forks.close();
         }
-        return ts = StructuredTaskScope.open(Joiner.awaitAllSuccessfulOrThrow(),
-                c -> c.withName("AppStopping").withThreadFactory(Thread.ofVirtual().name("CoolAppStartin", 0).factory()));
     }
 
     record PackedOnStopContext(StopRunner runner, StopOperationHandle handle) implements StopContext {
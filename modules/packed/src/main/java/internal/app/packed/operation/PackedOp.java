@@ -201,6 +201,21 @@ public abstract sealed class PackedOp<R> implements Op<R> permits IntermediateOp
         }
     }
 
+    /**
+     * Creates an op that invokes the specified method handle. The type of the op is the exact type of the method handle.
+     * <p>
+     * Used by extensions that must create ops whose types are only known at runtime, and therefore cannot be captured by
+     * a {@link CapturingOp}.
+     *
+     * @param methodHandle
+     *            the method handle to invoke
+     * @return the new op
+     */
+    public static PackedOp<?> ofMethodHandle(MethodHandle methodHandle) {
+        requireNonNull(methodHandle, "methodHandle is null");
+        return new TerminalOp.MethodHandleInvoke<>(methodHandle);
+    }
+
     /** Record containing all the information needed to create an operation setup. */
     public record NewOperation(BeanSetup bean, ExtensionSetup operator, PackedOperationTemplate template,
             Function<? super OperationInstaller, OperationHandle<?>> newHandle, @Nullable EmbeddedIntoOperation embeddedIn,
@@ -17,6 +17,8 @@ package internal.app.packed.service;
 
 import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 
 import app.packed.service.CircularDependencyException;
 import internal.app.packed.bean.BeanSetup;
@@ -24,103 +26,218 @@ import internal.app.packed.container.ContainerSetup;
 import internal.app.packed.service.ServiceProviderSetup.NamespaceServiceProviderHandle;
 
 /**
- * A service multi-composer is responsible for managing 1 or more {@link ServiceManager0 service composers} that are
- * directly connected and part of the same build.
+ * Finds dependency circles between service providers, either within the same container or across containers that are
+ * not in a parent-child relationship.
  * <p>
- * This class server two main purposes:
- *
- * Finds dependency circles either within the same container or across containers that are not in a parent-child
- * relationship.
- *
- * Responsible for invoking the callback for every DependencyNode. We do this here, because we guarantee that all
- * dependants of a dependant are always invoked before the dependant itself.
+ * The providers of all containers in a container tree are treated as a single graph. A provider has an edge to every
+ * provider of every bean that has a binding to it. Cycles are found using an iterative version of Tarjan's strongly
+ * connected components algorithm. Which visits every provider and every edge exactly once, and does not recurse no
+ * matter how deep provider chains are. Every strongly connected component with more than one provider (or a single
+ * provider that depends on itself) contains at least one cycle. One cycle is reported for each such component.
  */
 public final class CircularServiceDependencyChecker {
 
-    private static void dependencyCyclesFind(ArrayDeque<NamespaceServiceProviderHandle> stack, ArrayDeque<NamespaceServiceProviderHandle> dependencies, ContainerSetup container) {
-        for (NamespaceServiceProviderHandle node : container.servicesMain().providers) {
-            if (!node.hasBeenCheckForDependencyCycles) { // only process those nodes that have not been visited yet
-                detectCycle(node, stack, dependencies);
-            }
-        }
+    /** All providers in the graph, indexed by {@link NamespaceServiceProviderHandle#dependencyGraphIndex}. */
+    private final ArrayList<NamespaceServiceProviderHandle> nodes = new ArrayList<>();
+
+    /** The outgoing edges of each provider. */
+    private final ArrayList<int[]> edges = new ArrayList<>();
 
-        // Process nodes in children
-        for (ContainerSetup e = container.treeFirstChild; e != null; e = e.treeNextSibling) {
-            dependencyCyclesFind(stack, dependencies, e);
+    private CircularServiceDependencyChecker() {}
+
+    /**
+     * Returns the index of the specified provider, adding it to the graph if it has not already been added.
+     *
+     * @param provider
+     *            the provider
+     * @return the index of the provider
+     */
+    private int indexOf(NamespaceServiceProviderHandle provider) {
+        int index = provider.dependencyGraphIndex;
+        // The index might be stale, if the provider has previously been checked as part of another graph
+        if (index >= 0 && index < nodes.size() && nodes.get(index) == provider) {
+            return index;
         }
+        index = nodes.size();
+        provider.dependencyGraphIndex = index;
+        nodes.add(provider);
+        return index;
     }
 
-    public static void dependencyCyclesFind(ContainerSetup container) {
-        ArrayDeque<NamespaceServiceProviderHandle> stack = new ArrayDeque<>();
-        ArrayDeque<NamespaceServiceProviderHandle> dependencies = new ArrayDeque<>();
-        dependencyCyclesFind(stack, dependencies, container);
+    /** Adds all providers in the specified container tree, and any provider reachable from them, to the graph. */
+    private void addAll(ContainerSetup root) {
+        ArrayDeque<ContainerSetup> containers = new ArrayDeque<>();
+        containers.push(root);
+        while (!containers.isEmpty()) {
+            ContainerSetup container = containers.pop();
+            for (NamespaceServiceProviderHandle node : container.servicesMain().providers) {
+                indexOf(node);
+            }
+            for (ContainerSetup e = container.treeFirstChild; e != null; e = e.treeNextSibling) {
+                containers.push(e);
+            }
+        }
+
+        // Resolve the edges of every provider, this might add new providers to the graph
+        int[] buffer = new int[16];
+        for (int i = 0; i < nodes.size(); i++) {
+            int count = 0;
+            for (ServiceBindingSetup binding : nodes.get(i).bindings) {
+                BeanSetup bean = binding.operation.bean;
+                for (NamespaceServiceProviderHandle next : bean.operations.serviceProviders) {
+                    if (count == buffer.length) {
+                        buffer = Arrays.copyOf(buffer, count * 2);
+                    }
+                    buffer[count++] = indexOf(next);
+                }
+            }
+            edges.add(Arrays.copyOf(buffer, count));
+        }
     }
 
     /**
-     * Recursively invoked for each node.
+     * Finds all strongly connected components in the graph using an iterative version of Tarjan's algorithm.
      *
-     * @param stack
-     *            the stack of all visited dependencies so far
-     * @param dependencies
-     *            the stack of locally visited dependencies so far
-     * @param entry
-     *            the node to visit
-     * @return stuff
-     * @throws BuildException
-     *             if there is a cycle in the graph
+     * @return a message describing a cycle in each component that contains one
      */
-    private static void detectCycle(NamespaceServiceProviderHandle ps, ArrayDeque<NamespaceServiceProviderHandle> stack, ArrayDeque<NamespaceServiceProviderHandle> dependencies) {
-        ArrayList<ServiceBindingSetup> bindings = ps.bindings;
-        if (bindings.isEmpty()) {
-            return; // leaf
-        }
+    private ArrayList<String> findCycles() {
+        int size = nodes.size();
+        int[] index = new int[size];
+        Arrays.fill(index, -1);
+        int[] lowLink = new int[size];
+        boolean[] onStack = new boolean[size];
+        int[] stack = new int[size];
+        int stackSize = 0;
 
-        // We have both bindings and provide
+        // The explicit call stack, the node being visited and the next edge of the node to follow
+        int[] callNode = new int[size];
+        int[] callEdge = new int[size];
 
-        stack.push(ps);
-        for (ServiceBindingSetup binding : bindings) {
-            BeanSetup bean = binding.operation.bean;
-            for (NamespaceServiceProviderHandle next : bean.operations.serviceProviders) {
-                if (next.hasBeenCheckForDependencyCycles) {
+        int[] component = new int[size];
+        ArrayList<String> cycles = new ArrayList<>();
+        int counter = 0;
+        for (int start = 0; start < size; start++) {
+            if (index[start] >= 0) {
+                continue;
+            }
+            int depth = 0;
+            callNode[0] = start;
+            callEdge[0] = 0;
+            index[start] = lowLink[start] = counter++;
+            stack[stackSize++] = start;
+            onStack[start] = true;
+
+            while (depth >= 0) {
+                int v = callNode[depth];
+                int[] e = edges.get(v);
+                if (callEdge[depth] < e.length) {
+                    int w = e[callEdge[depth]++];
+                    if (index[w] < 0) {
+                        index[w] = lowLink[w] = counter++;
+                        stack[stackSize++] = w;
+                        onStack[w] = true;
+                        depth++;
+                        callNode[depth] = w;
+                        callEdge[depth] = 0;
+                    } else if (onStack[w]) {
+                        lowLink[v] = Math.min(lowLink[v], index[w]);
+                    }
                     continue;
                 }
 
-                dependencies.push(next);
-                if (stack.contains(next)) {
-                    // clear links not part of the circle, for example, for A->B->C->B we want to remove A
-                    while (stack.peekLast() != next) {
-                        stack.pollLast();
-                        dependencies.pollLast();
+                // All edges of v have been followed
+                if (lowLink[v] == index[v]) {
+                    int count = 0;
+                    int w;
+                    do {
+                        w = stack[--stackSize];
+                        onStack[w] = false;
+                        component[w] = v;
+                        count++;
+                    } while (w != v);
+                    if (count > 1 || contains(e, v)) {
+                        cycles.add(createErrorMessage(findCycle(v, component)));
                     }
+                }
+                depth--;
+                if (depth >= 0) {
+                    int parent = callNode[depth];
+                    lowLink[parent] = Math.min(lowLink[parent], lowLink[v]);
+                }
+            }
+        }
+        return cycles;
+    }
 
-                    // Create a proper error me
-                    String errorMsg = createErrorMessage(dependencies);
-                    throw new CircularDependencyException(errorMsg);
+    /**
+     * Finds the shortest cycle that starts and ends with the specified provider, only following edges within its strongly
+     * connected component.
+     *
+     * @param root
+     *            the root of the component
+     * @param component
+     *            the root of the component of each provider
+     * @return the providers of the cycle, starting with the successor of the root and ending with the root
+     */
+    private List<NamespaceServiceProviderHandle> findCycle(int root, int[] component) {
+        int[] previous = new int[nodes.size()];
+        Arrays.fill(previous, -1);
+        ArrayDeque<Integer> queue = new ArrayDeque<>();
+        queue.add(root);
+        search: while (!queue.isEmpty()) {
+            int v = queue.poll();
+            for (int w : edges.get(v)) {
+                if (component[w] == root && previous[w] < 0) {
+                    previous[w] = v;
+                    if (w == root) {
+                        break search;
+                    }
+                    queue.add(w);
                 }
-                detectCycle(next, stack, dependencies);
-                dependencies.pop();
             }
+        }
 
+        ArrayList<NamespaceServiceProviderHandle> cycle = new ArrayList<>();
+        int v = root;
+        do {
+            cycle.add(nodes.get(v));
+            v = previous[v];
+        } while (v != root);
+        return cycle.reversed();
+    }
+
+    public static void dependencyCyclesFind(ContainerSetup container) {
+        CircularServiceDependencyChecker checker = new CircularServiceDependencyChecker();
+        checker.addAll(container);
+        ArrayList<String> cycles = checker.findCycles();
+        if (!cycles.isEmpty()) {
+            throw new CircularDependencyException(String.join("\n", cycles));
         }
-        stack.pop();
+    }
 
+    private static boolean contains(int[] array, int value) {
+        for (int i : array) {
+            if (i == value) {
+                return true;
+            }
+        }
+        return false;
     }
 
-    private static String createErrorMessage(ArrayDeque<NamespaceServiceProviderHandle> dependencies) {
+    private static String createErrorMessage(List<NamespaceServiceProviderHandle> dependencies) {
         int size = dependencies.size();
         StringBuilder sb = new StringBuilder("Circular dependencies between " + size + " services: ");
         if (size == 2) {
-            sb.append(dependencies.pollLast().key());
+            sb.append(dependencies.get(0).key());
             sb.append(" <-> ");
-            sb.append(dependencies.pollLast().key());
+            sb.append(dependencies.get(1).key());
         } else {
-            NamespaceServiceProviderHandle e = dependencies.pollLast();
-            do {
-                sb.append(e.key());
-                if (!dependencies.isEmpty()) {
+            for (int i = 0; i < size; i++) {
+                sb.append(dependencies.get(i).key());
+                if (i < size - 1) {
                     sb.append(" -> ");
                 }
-            } while ((e = dependencies.pollLast()) != null);
+            }
         }
         return sb.toString();
     }
@@ -15,8 +15,11 @@
  */
 package internal.app.packed.service;
 
+import java.lang.invoke.MethodHandle;
+
 import app.packed.binding.Key;
 import org.jspecify.annotations.Nullable;
+import internal.app.packed.invoke.ServiceSupport;
 import internal.app.packed.operation.OperationSetup;
 import internal.app.packed.service.util.ServicePath;
 
@@ -35,9 +38,29 @@ public final class ExportedService {
     @Nullable
     public final ServicePath path;
 
+    /** The method handle that provides the service, or null if it has not been generated yet. */
+    @Nullable
+    private volatile MethodHandle methodHandle;
+
     ExportedService(OperationSetup os, Key<?> key) {
         this.operation = os;
         this.key = key;
         this.path = null;
     }
+
+    /**
+     * Returns a method handle that provides the service, generating it if needed.
+     * <p>
+     * The method handle is normally generated together with the rest of the code of the bean that provides the service,
+     * see {@link MainServiceNamespaceHandle#export(Key, OperationSetup)}.
+     *
+     * @return the method handle
+     */
+    public MethodHandle methodHandle() {
+        MethodHandle mh = methodHandle;
+        if (mh == null) {
+            mh = methodHandle = ServiceSupport.toExportedService(operation);
+        }
+        return mh;
+    }
 }
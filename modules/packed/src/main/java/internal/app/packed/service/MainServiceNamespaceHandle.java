@@ -16,22 +16,17 @@
 package internal.app.packed.service;
 
 import java.util.Iterator;
-import java.util.Map;
 
 import org.jspecify.annotations.Nullable;
 
 import app.packed.binding.DublicateKeyProvisionException;
 import app.packed.binding.Key;
 import app.packed.service.ServiceContract;
-import app.packed.service.ServiceLocator;
 import internal.app.packed.binding.BindingProvider;
 import internal.app.packed.container.ContainerSetup;
-import internal.app.packed.extension.ExtensionContext;
-import internal.app.packed.invoke.MethodHandleInvoker.ExportedServiceWrapper;
-import internal.app.packed.invoke.ServiceSupport;
 import internal.app.packed.operation.OperationSetup;
 import internal.app.packed.service.ServiceProviderSetup.NamespaceServiceProviderHandle;
-import internal.app.packed.service.util.PackedServiceLocator;
+import internal.app.packed.service.util.ExportedServiceTable;
 import internal.app.packed.service.util.ServiceMap;
 
 /** Manages services in a single container. */
@@ -40,9 +35,9 @@ public final class MainServiceNamespaceHandle extends ServiceNamespaceHandle {
     // All provided services are automatically exported
     public boolean exportAll;
 
-    /** A map of exported service method method handles, must be computed. */
+    /** A table of exported services, computed in the code generating phase. */
     @Nullable
-    private Map<Key<?>, ExportedServiceWrapper> exportedServices;
+    private ExportedServiceTable exportedServices;
 
     /** Exported services from the container. */
     public final ServiceMap<ExportedService> exports = new ServiceMap<>();
@@ -54,7 +49,7 @@ public final class MainServiceNamespaceHandle extends ServiceNamespaceHandle {
         this.parent = parent;
 
         if (container != null && container.isApplicationRoot()) {
-            container.application.addCodegenAction(() -> exportedServices = exportedServices());
+            container.application.addCodegenAction(() -> exportedServices());
         }
     }
 
@@ -66,11 +61,18 @@ public final class MainServiceNamespaceHandle extends ServiceNamespaceHandle {
             // A service with the key has already been exported
             throw new DublicateKeyProvisionException("Jmm " + es.key);
         }
+        // Generate the code for the service together with the code of the bean, which may be done in parallel
+        operation.bean.container.application.addCodegenAction(operation.bean, es::methodHandle);
         return es;
     }
 
-    public Map<Key<?>, ExportedServiceWrapper> exportedServices() {
-        return exports.toUnmodifiableMap(n -> ServiceSupport.toExportedService(n.operation));
+    /** {@return a table of the exported services, computed on first invocation} */
+    public ExportedServiceTable exportedServices() {
+        ExportedServiceTable t = exportedServices;
+        if (t == null) {
+            t = exportedServices = new ExportedServiceTable(exports.toUnmodifiableMap(ExportedService::methodHandle));
+        }
+        return t;
     }
 
     public ServiceContract newContract() {
@@ -99,12 +101,10 @@ public final class MainServiceNamespaceHandle extends ServiceNamespaceHandle {
         return builder.build();
     }
 
-    public ServiceLocator newExportedServiceLocator(ExtensionContext context) {
-        Map<Key<?>, ExportedServiceWrapper> m = exportedServices;
-        if (m == null) {
-            throw new UnsupportedOperationException("Exported services not available");
-        }
-        return new PackedServiceLocator(context, m);
+    /** {@return the table of exported services, or null if it was not computed in the code generating phase} */
+    @Nullable
+    public ExportedServiceTable exportedServicesIfAvailable() {
+        return exportedServices;
     }
 
     /**
@@ -119,8 +119,8 @@ public sealed interface ServiceProviderSetup {
         /** All bindings that uses this provider. */
         public final ArrayList<ServiceBindingSetup> bindings = new ArrayList<>();
 
-        /** Used for checking for dependency cycles. */
-        public boolean hasBeenCheckForDependencyCycles;
+        /** Used by {@link CircularServiceDependencyChecker}, the index of this provider in the dependency graph. */
+        int dependencyGraphIndex = -1;
 
         private final Key<?> key;
 
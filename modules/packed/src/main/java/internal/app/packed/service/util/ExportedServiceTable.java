@@ -0,0 +1,273 @@
+/*
+ * Copyright (c) 2026 Kasper Nielsen.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package internal.app.packed.service.util;
+
+import java.lang.invoke.MethodHandle;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.jspecify.annotations.Nullable;
+
+import app.packed.binding.Key;
+import app.packed.service.ServiceLocator;
+import internal.app.packed.extension.ExtensionContext;
+import internal.app.packed.invoke.MethodHandleInvoker.ExportedServiceWrapper;
+import internal.app.packed.util.types.ClassUtil;
+
+/**
+ * An immutable table of exported services, created once in the code generating phase of the application and shared by
+ * every {@link PackedServiceLocator} created for the container.
+ * <p>
+ * Every service has an index in the table. Services are created using a single {@link ExportedServiceWrapper} for the
+ * whole table, that takes the index of the service to create. Services are looked up using a {@link PerfectHash minimal perfect hash} over
+ * the hash codes of the exported keys, in which case the index of a service is its slot in the hash function. A lookup
+ * is a couple of array reads and a single {@code equals} call. In addition, services with unqualified keys whose type
+ * is a plain class are indexed by the class itself. Looking them up by class does not need to create a key, and is a
+ * single array probe followed by an identity comparison.
+ * <p>
+ * If the hash codes of the keys (or classes) are not distinct, the table falls back to a regular map lookup.
+ * <p>
+ * Finally, the table contains a type index, that maps every super class and interface of the raw type of every key to
+ * the services whose raw type is assignable to it. Which is used for {@link ServiceLocator#selectAssignableTo(Class)}.
+ */
+public final class ExportedServiceTable {
+
+    /** An empty table. */
+    public static final ExportedServiceTable EMPTY = new ExportedServiceTable(Map.of());
+
+    /** No services. */
+    static final int[] NONE = new int[0];
+
+    /** The keys of the exported services, used for {@link #keys()}. */
+    private final Set<Key<?>> keySet;
+
+    /** The perfect hash function for keys, or null if not available. */
+    @Nullable
+    private final PerfectHash keyHash;
+
+    /** Maps keys to the index of their service, only used if {@link #keyHash} is not available. */
+    @Nullable
+    private final Map<Key<?>, Integer> keyIndexes;
+
+    /** The key of each service. */
+    private final Key<?>[] keys;
+
+    /** Creates the service at each index. */
+    private final ExportedServiceWrapper wrapper;
+
+    /** The indexes of all services. */
+    private final int[] all;
+
+    /** The perfect hash function for unqualified class keys, or null if not available. */
+    @Nullable
+    private final PerfectHash classHash;
+
+    /** The class stored in each slot of {@link #classHash}. */
+    private final Class<?>[] classes;
+
+    /** The index of the service for each slot of {@link #classHash}. */
+    private final int[] classIndexes;
+
+    /** Maps types to the (sorted) indexes of all services whose raw type is assignable to the type. */
+    private final Map<Class<?>, int[]> assignableTo;
+
+    /**
+     * Creates a new table.
+     *
+     * @param services
+     *            the services to include, mapped to method handles of type {@code (ExtensionContext)Object} that creates
+     *            them
+     */
+    public ExportedServiceTable(Map<Key<?>, MethodHandle> services) {
+        this.keySet = Set.copyOf(services.keySet());
+
+        int n = services.size();
+        Key<?>[] k = new Key<?>[n];
+        MethodHandle[] s = new MethodHandle[n];
+        int[] hashes = new int[n];
+        int i = 0;
+        for (Map.Entry<Key<?>, MethodHandle> e : services.entrySet()) {
+            k[i] = e.getKey();
+            s[i] = e.getValue();
+            hashes[i++] = e.getKey().hashCode();
+        }
+
+        // Order the services by their slot in the perfect hash function, if available
+        int[] slots = new int[n];
+        this.keyHash = PerfectHash.of(hashes, slots);
+        MethodHandle[] mhs;
+        if (keyHash == null) {
+            this.keys = k;
+            mhs = s;
+            HashMap<Key<?>, Integer> m = new HashMap<>();
+            for (int j = 0; j < n; j++) {
+                m.put(k[j], j);
+            }
+            this.keyIndexes = m;
+        } else {
+            this.keys = new Key<?>[n];
+            mhs = new MethodHandle[n];
+            for (int j = 0; j < n; j++) {
+                keys[slots[j]] = k[j];
+                mhs[slots[j]] = s[j];
+            }
+            this.keyIndexes = null;
+        }
+        this.wrapper = ExportedServiceWrapper.of(Arrays.asList(mhs));
+        this.all = new int[n];
+        Arrays.setAll(all, j -> j);
+
+        // Index unqualified class keys by their class
+        ArrayList<Integer> byClass = new ArrayList<>();
+        for (int j = 0; j < n; j++) {
+            if (!keys[j].isQualified() && keys[j].type() instanceof Class<?>) {
+                byClass.add(j);
+            }
+        }
+        int c = byClass.size();
+        int[] classHashes = new int[c];
+        for (int j = 0; j < c; j++) {
+            classHashes[j] = keys[byClass.get(j)].rawType().hashCode();
+        }
+        int[] classSlots = new int[c];
+        this.classHash = PerfectHash.of(classHashes, classSlots);
+        this.classes = new Class<?>[c];
+        this.classIndexes = new int[c];
+        if (classHash != null) {
+            for (int j = 0; j < c; j++) {
+                classes[classSlots[j]] = keys[byClass.get(j)].rawType();
+                classIndexes[classSlots[j]] = byClass.get(j);
+            }
+        }
+
+        // Index all super types of every key
+        HashMap<Class<?>, ArrayList<Integer>> types = new HashMap<>();
+        HashSet<Class<?>> visited = new HashSet<>();
+        for (int j = 0; j < n; j++) {
+            visited.clear();
+            addSuperTypes(keys[j].rawType(), visited);
+            for (Class<?> t : visited) {
+                types.computeIfAbsent(t, _ -> new ArrayList<>()).add(j);
+            }
+        }
+        HashMap<Class<?>, int[]> a = new HashMap<>();
+        types.forEach((t, l) -> a.put(t, l.stream().mapToInt(Integer::intValue).toArray()));
+        this.assignableTo = Map.copyOf(a);
+    }
+
+    /**
+     * Returns the index of the service with the specified key.
+     *
+     * @param key
+     *            the key of the service
+     * @return the index of the service, or -1 if no service with the key has been exported
+     */
+    public int indexOf(Key<?> key) {
+        PerfectHash h = keyHash;
+        if (h == null) {
+            return keyIndexes.getOrDefault(key, -1);
+        }
+        int slot = h.slot(key.hashCode());
+        return key.equals(keys[slot]) ? slot : -1;
+    }
+
+    /**
+     * Returns the index of the service with an unqualified key of the specified class.
+     *
+     * @param type
+     *            the class of the key
+     * @return the index of the service, or -1 if no service with the key has been exported
+     */
+    public int indexOf(Class<?> type) {
+        PerfectHash h = classHash;
+        if (h != null) {
+            int slot = h.slot(type.hashCode());
+            if (classes[slot] == type) {
+                return classIndexes[slot];
+            }
+        }
+        // We need to create the key to check the few cases where a class is converted, for example, primitive types
+        return indexOf(Key.of(type));
+    }
+
+    /**
+     * Creates an instance of the service at the specified index.
+     *
+     * @param index
+     *            the index of the service
+     * @param context
+     *            the context to create the service in
+     * @return the service instance
+     */
+    Object create(int index, ExtensionContext context) {
+        return wrapper.create(index, context);
+    }
+
+    /** {@return the key of the service at the specified index} */
+    Key<?> key(int index) {
+        return keys[index];
+    }
+
+    /**
+     * Returns the indexes of all services whose raw type is assignable to the specified type.
+     * <p>
+     * As keys never have a primitive type, primitive types are boxed. For example, {@code int.class} selects services
+     * with the key {@code Integer}.
+     *
+     * @param type
+     *            the type
+     * @return the sorted indexes of the services, must not be modified
+     */
+    int[] assignableTo(Class<?> type) {
+        return assignableTo.getOrDefault(ClassUtil.box(type), NONE);
+    }
+
+    /** {@return the indexes of all services, must not be modified} */
+    int[] all() {
+        return all;
+    }
+
+    /** {@return whether or not the table contains any services} */
+    public boolean isEmpty() {
+        return keys.length == 0;
+    }
+
+    /** {@return the keys of all services in the table} */
+    public Set<Key<?>> keys() {
+        return keySet;
+    }
+
+    /** {@return the number of services in the table} */
+    public int size() {
+        return keys.length;
+    }
+
+    private static void addSuperTypes(@Nullable Class<?> type, HashSet<Class<?>> visited) {
+        if (type != null && visited.add(type)) {
+            addSuperTypes(type.getSuperclass(), visited);
+            for (Class<?> i : type.getInterfaces()) {
+                addSuperTypes(i, visited);
+            }
+            if (type.isInterface()) {
+                visited.add(Object.class);
+            }
+        }
+    }
+}
@@ -17,47 +17,113 @@ package internal.app.packed.service.util;
 
 import static java.util.Objects.requireNonNull;
 
-import java.util.Map;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.NoSuchElementException;
 import java.util.Optional;
 import java.util.Set;
 
+import org.jspecify.annotations.Nullable;
+
 import app.packed.binding.Key;
 import app.packed.binding.Provider;
 import app.packed.service.ServiceLocator;
 import app.packed.service.ServiceSelection;
 import internal.app.packed.extension.ExtensionContext;
-import internal.app.packed.invoke.MethodHandleInvoker.ExportedServiceWrapper;
 
 /** Default implementation of ServiceLocator. */
-public record PackedServiceLocator(ExtensionContext context, Map<Key<?>, ExportedServiceWrapper> entries) implements ServiceLocator {
+public final class PackedServiceLocator implements ServiceLocator {
+
+    public static final Key<ExportedServiceTable> KEY = new Key<>() {};
+
+    /** A VarHandle for the elements of {@link #providers}. */
+    private static final VarHandle PROVIDERS = MethodHandles.arrayElementVarHandle(Provider[].class);
+
+    /** The context that services are created in. */
+    private final ExtensionContext context;
+
+    /** The exported services. */
+    private final ExportedServiceTable entries;
+
+    /**
+     * Providers that have been requested via {@link #findProvider(Key)}, indexed by the index of the service in the
+     * table. Providers are bound to the context of this locator, so they cannot be shared via the table. The array is
+     * created on first use, as most locators never look up any providers. Elements are set with a compare-and-exchange,
+     * so concurrent lookups of the same key always return the same provider.
+     */
+    @Nullable
+    private volatile Provider<?>[] providers;
 
-    public static final Key<Map<Key<?>, ExportedServiceWrapper>> KEY = new Key<>() {};
+    public PackedServiceLocator(ExtensionContext context, ExportedServiceTable entries) {
+        this.context = requireNonNull(context);
+        this.entries = requireNonNull(entries);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public <T> T use(Class<T> key) {
+        requireNonNull(key, "key is null");
+        int index = entries.indexOf(key);
+        if (index < 0) {
+            throw new NoSuchElementException("A service with the specified key does not exist, key = " + Key.of(key));
+        }
+        @SuppressWarnings("unchecked")
+        T t = (T) entries.create(index, context);
+        return t;
+    }
 
     /** {@inheritDoc} */
     @Override
     public <T> T use(Key<T> key) {
-        return ServiceLocator.super.use(key);
+        requireNonNull(key, "key is null");
+        int index = entries.indexOf(key);
+        if (index < 0) {
+            throw new NoSuchElementException("A service with the specified key does not exist, key = " + key);
+        }
+        @SuppressWarnings("unchecked")
+        T t = (T) entries.create(index, context);
+        return t;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public boolean contains(Class<?> key) {
+        requireNonNull(key, "key is null");
+        return entries.indexOf(key) >= 0;
     }
 
     /** {@inheritDoc} */
     @Override
     public boolean contains(Key<?> key) {
-        return entries.containsKey(key);
+        return entries.indexOf(key) >= 0;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public <T> Optional<T> find(Class<T> key) {
+        requireNonNull(key, "key is null");
+        int index = entries.indexOf(key);
+        if (index < 0) {
+            return Optional.empty();
+        }
+        @SuppressWarnings("unchecked")
+        T t = (T) entries.create(index, context);
+        return Optional.of(t);
     }
 
     /** {@inheritDoc} */
     @Override
     public <T> Optional<T> find(Key<T> key) {
         requireNonNull(key, "key is null");
-        ExportedServiceWrapper provider = entries.get(key);
+        int index = entries.indexOf(key);
 
         // Test if a provider was found that matches the specified key
-        if (provider == null) {
+        if (index < 0) {
             return Optional.empty();
         }
 
         @SuppressWarnings("unchecked")
-        T t = (T) provider.create(context);
+        T t = (T) entries.create(index, context);
         return Optional.of(t);
     }
 
@@ -74,39 +140,68 @@ public record PackedServiceLocator(ExtensionContext context, Map<Key<?>, Exporte
     }
 
     /** {@inheritDoc} */
+    @SuppressWarnings("unchecked")
     @Override
     public <T> Optional<Provider<T>> findProvider(Key<T> key) {
         requireNonNull(key, "key is null");
-        ExportedServiceWrapper provider = entries.get(key);
-        if (provider == null) {
+        int index = entries.indexOf(key);
+        if (index < 0) {
             return Optional.empty();
         }
-        Provider<T> p = new Provider<>() {
+        Provider<?>[] p = providers();
+        Provider<?> provider = (Provider<?>) PROVIDERS.getAcquire(p, index);
+        if (provider == null) {
+            // If another thread won the race, its provider is returned and ours is discarded
+            Provider<?> newProvider = new ExportedServiceProvider<>(entries, index, context);
+            provider = (Provider<?>) PROVIDERS.compareAndExchangeRelease(p, index, (Provider<?>) null, newProvider);
+            if (provider == null) {
+                provider = newProvider;
+            }
+        }
+        return Optional.of((Provider<T>) provider);
+    }
 
-            @SuppressWarnings("unchecked")
-            @Override
-            public T provide() {
-                return (T) provider.create(context);
+    /** {@return the array of providers that have been requested, creating it if needed} */
+    private Provider<?>[] providers() {
+        Provider<?>[] p = providers;
+        if (p == null) {
+            synchronized (this) {
+                p = providers;
+                if (p == null) {
+                    p = providers = new Provider<?>[entries.size()];
+                }
             }
-        };
-        return Optional.of(p);
+        }
+        return p;
     }
 
     /** {@inheritDoc} */
     @Override
     public Set<Key<?>> keys() {
-        return entries.keySet();
+        return entries.keys();
     }
 
     /** {@inheritDoc} */
     @Override
     public ServiceSelection<?> selectAll() {
-        throw new UnsupportedOperationException();
+        return new PackedServiceSelection<>(context, entries, entries.all());
     }
 
     /** {@inheritDoc} */
     @Override
     public <T> ServiceSelection<T> selectAssignableTo(Class<T> type) {
-        throw new UnsupportedOperationException();
+        requireNonNull(type, "type is null");
+        return new PackedServiceSelection<>(context, entries, entries.assignableTo(type));
+    }
+
+    /** A provider of an exported service. */
+    record ExportedServiceProvider<T>(ExportedServiceTable table, int index, ExtensionContext context) implements Provider<T> {
+
+        /** {@inheritDoc} */
+        @SuppressWarnings("unchecked")
+        @Override
+        public T provide() {
+            return (T) table.create(index, context);
+        }
     }
 }
@@ -0,0 +1,189 @@
+/*
+ * Copyright (c) 2026 Kasper Nielsen.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package internal.app.packed.service.util;
+
+import static java.util.Objects.requireNonNull;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import app.packed.binding.Key;
+import app.packed.binding.Provider;
+import app.packed.service.ServiceSelection;
+import internal.app.packed.extension.ExtensionContext;
+
+/**
+ * Default implementation of {@link ServiceSelection}.
+ * <p>
+ * A selection is a sorted array of indexes into an {@link ExportedServiceTable}. Creating a selection never creates any
+ * service instances. Instances are only created for the services that are actually iterated, streamed or looked up.
+ */
+final class PackedServiceSelection<S> implements ServiceSelection<S> {
+
+    /** The context that services are created in. */
+    private final ExtensionContext context;
+
+    /** The table containing the selected services. */
+    private final ExportedServiceTable table;
+
+    /** The sorted indexes of the selected services in the table. */
+    private final int[] indexes;
+
+    PackedServiceSelection(ExtensionContext context, ExportedServiceTable table, int[] indexes) {
+        this.context = context;
+        this.table = table;
+        this.indexes = indexes;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public boolean contains(Class<?> key) {
+        requireNonNull(key, "key is null");
+        return isSelected(table.indexOf(key));
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public boolean contains(Key<?> key) {
+        requireNonNull(key, "key is null");
+        return isSelected(table.indexOf(key));
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public <T> Optional<Provider<T>> findProvider(Key<T> key) {
+        requireNonNull(key, "key is null");
+        int index = table.indexOf(key);
+        if (!isSelected(index)) {
+            return Optional.empty();
+        }
+        return Optional.of(new PackedServiceLocator.ExportedServiceProvider<>(table, index, context));
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public boolean isEmpty() {
+        return indexes.length == 0;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Iterator<S> iterator() {
+        return new Iterator<>() {
+            int next;
+
+            @Override
+            public boolean hasNext() {
+                return next < indexes.length;
+            }
+
+            @Override
+            public S next() {
+                if (next == indexes.length) {
+                    throw new NoSuchElementException();
+                }
+                return create(indexes[next++]);
+            }
+        };
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Set<Key<?>> keys() {
+        LinkedHashSet<Key<?>> keys = new LinkedHashSet<>();
+        for (int index : indexes) {
+            keys.add(table.key(index));
+        }
+        return Set.copyOf(keys);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public ServiceSelection<S> selectAll() {
+        return this;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public <T> ServiceSelection<T> selectAssignableTo(Class<T> type) {
+        requireNonNull(type, "type is null");
+        return new PackedServiceSelection<>(context, table, intersect(indexes, table.assignableTo(type)));
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public int size() {
+        return indexes.length;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Stream<S> stream() {
+        return Arrays.stream(indexes).mapToObj(this::create);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Stream<Provider<S>> streamOfProviders() {
+        return Arrays.stream(indexes).mapToObj(i -> new PackedServiceLocator.ExportedServiceProvider<>(table, i, context));
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public List<S> toList() {
+        ArrayList<S> result = new ArrayList<>(indexes.length);
+        for (int index : indexes) {
+            result.add(create(index));
+        }
+        return List.copyOf(result);
+    }
+
+    /** Creates a new instance of the service at the specified index in the table. */
+    @SuppressWarnings("unchecked")
+    private S create(int index) {
+        return (S) table.create(index, context);
+    }
+
+    /** {@return whether or not the service at the specified index in the table is part of this selection} */
+    private boolean isSelected(int index) {
+        return index >= 0 && Arrays.binarySearch(indexes, index) >= 0;
+    }
+
+    /** {@return the indexes present in both of the specified sorted arrays} */
+    static int[] intersect(int[] a, int[] b) {
+        int[] result = new int[Math.min(a.length, b.length)];
+        int i = 0, j = 0, n = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] < b[j]) {
+                i++;
+            } else if (a[i] > b[j]) {
+                j++;
+            } else {
+                result[n++] = a[i];
+                i++;
+                j++;
+            }
+        }
+        return n == result.length ? result : Arrays.copyOf(result, n);
+    }
+}
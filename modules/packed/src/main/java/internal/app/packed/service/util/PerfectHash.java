@@ -0,0 +1,168 @@
+/*
+ * Copyright (c) 2026 Kasper Nielsen.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package internal.app.packed.service.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import org.jspecify.annotations.Nullable;
+
+/**
+ * A minimal perfect hash function over a fixed set of distinct hash codes.
+ * <p>
+ * The function is built using the hash and displace algorithm. Hash codes are first distributed into buckets. Buckets
+ * with more than one hash code are assigned a seed, that makes the hash codes in the bucket land in free slots when
+ * hashed with the seed. Buckets with a single hash code are placed directly into the remaining free slots. A lookup is
+ * therefore at most two array reads and a hash mix.
+ * <p>
+ * A perfect hash function does not check membership. Callers must compare the element stored in the returned slot with
+ * the element they are looking up.
+ */
+final class PerfectHash {
+
+    /** The maximum number of seeds we try for a single bucket, before giving up. */
+    private static final int MAX_SEED = 1 << 16;
+
+    /** For each bucket, either a seed (positive) or an encoded slot (negative). */
+    private final int[] displacements;
+
+    private PerfectHash(int[] displacements) {
+        this.displacements = displacements;
+    }
+
+    /**
+     * Returns the slot of the specified hash code. If the hash code was not part of the hash codes the function was built
+     * for, an arbitrary slot is returned.
+     *
+     * @param hash
+     *            the hash code
+     * @return the slot of the hash code, in the range {@code [0, size)}
+     */
+    int slot(int hash) {
+        int[] d = displacements;
+        int n = d.length;
+        int seed = d[index(mix(hash, 0), n)];
+        return seed < 0 ? -seed - 1 : index(mix(hash, seed), n);
+    }
+
+    /**
+     * Creates a new minimal perfect hash function over the specified hash codes.
+     *
+     * @param hashes
+     *            the hash codes, the slot of {@code hashes[i]} is written to {@code slots[i]}
+     * @param slots
+     *            an array to receive the slot of each hash code
+     * @return the function, or null if the hash codes are not distinct or a function could not be found
+     */
+    @Nullable
+    static PerfectHash of(int[] hashes, int[] slots) {
+        int n = hashes.length;
+        if (n == 0) {
+            return null;
+        }
+
+        // Hash codes must be distinct, otherwise no seed can tell them apart
+        int[] sorted = hashes.clone();
+        Arrays.sort(sorted);
+        for (int i = 1; i < n; i++) {
+            if (sorted[i] == sorted[i - 1]) {
+                return null;
+            }
+        }
+
+        // Distribute the hash codes into buckets
+        @SuppressWarnings("unchecked")
+        ArrayList<Integer>[] buckets = new ArrayList[n];
+        for (int i = 0; i < n; i++) {
+            int b = index(mix(hashes[i], 0), n);
+            if (buckets[b] == null) {
+                buckets[b] = new ArrayList<>(2);
+            }
+            buckets[b].add(i);
+        }
+
+        // Process the largest buckets first, as they are the hardest to place
+        Integer[] order = new Integer[n];
+        for (int i = 0; i < n; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> Integer.compare(size(buckets[b]), size(buckets[a])));
+
+        int[] displacements = new int[n];
+        boolean[] occupied = new boolean[n];
+        int[] candidate = new int[n];
+        int next = 0;
+        for (; next < n && size(buckets[order[next]]) > 1; next++) {
+            ArrayList<Integer> bucket = buckets[order[next]];
+            int seed = 1;
+            for (;; seed++) {
+                if (seed == MAX_SEED) {
+                    return null;
+                }
+                int placed = 0;
+                for (; placed < bucket.size(); placed++) {
+                    int s = index(mix(hashes[bucket.get(placed)], seed), n);
+                    if (occupied[s]) {
+                        break;
+                    }
+                    occupied[s] = true;
+                    candidate[placed] = s;
+                }
+                if (placed == bucket.size()) {
+                    break;
+                }
+                // Undo the partial placement and try the next seed
+                for (int j = 0; j < placed; j++) {
+                    occupied[candidate[j]] = false;
+                }
+            }
+            displacements[order[next]] = seed;
+            for (int j = 0; j < bucket.size(); j++) {
+                slots[bucket.get(j)] = candidate[j];
+            }
+        }
+
+        // Place buckets with a single hash code in the remaining free slots
+        int free = 0;
+        for (; next < n && size(buckets[order[next]]) == 1; next++) {
+            while (occupied[free]) {
+                free++;
+            }
+            occupied[free] = true;
+            displacements[order[next]] = -free - 1;
+            slots[buckets[order[next]].getFirst()] = free;
+        }
+        return new PerfectHash(displacements);
+    }
+
+    private static int index(int hash, int n) {
+        return (hash & 0x7FFF_FFFF) % n;
+    }
+
+    private static int mix(int hash, int seed) {
+        int h = hash ^ (seed * 0x9E37_79B9);
+        h ^= h >>> 16;
+        h *= 0x85EB_CA6B;
+        h ^= h >>> 13;
+        h *= 0xC2B2_AE35;
+        h ^= h >>> 16;
+        return h;
+    }
+
+    private static int size(@Nullable ArrayList<Integer> bucket) {
+        return bucket == null ? 0 : bucket.size();
+    }
+}
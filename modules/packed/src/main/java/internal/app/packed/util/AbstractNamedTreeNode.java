@@ -20,14 +20,23 @@ import java.util.HashMap;
 import org.jspecify.annotations.Nullable;
 
 /**
- * A tree node with a name. It only checks that no children have identical names
+ * A tree node with a name. It only checks that no children have identical names.
+ * <p>
+ * The map of child names is only created once the first child is named. When a child is added with a name that is
+ * already in use, a counter is appended to the name. The last counter used for each name is remembered, so adding many
+ * children with the same name takes constant time per child.
  */
 public class AbstractNamedTreeNode<T extends AbstractNamedTreeNode<T>> extends AbstractTreeNode<T> {
 
     protected String name;
 
-    /** Maintains unique names for child containers. */
-    protected final HashMap<String, T> treeChildren = new HashMap<>();
+    /** Maintains unique names for child nodes, or null if no child has been named. */
+    @Nullable
+    private HashMap<String, T> treeChildren;
+
+    /** The last counter that was appended to each name that has been used by more than one child. */
+    @Nullable
+    private HashMap<String, int[]> treeChildNameCounters;
 
     /**
      * @param treeParent
@@ -36,4 +45,83 @@ public class AbstractNamedTreeNode<T extends AbstractNamedTreeNode<T>> extends A
         super(treeParent);
     }
 
+    /**
+     * Adds a child with a unique name based on the specified name. If the specified name is already used by another
+     * child, a counter is appended to it.
+     *
+     * @param name
+     *            the name of the child
+     * @param child
+     *            the child
+     * @return the unique name of the child
+     */
+    protected final String treeChildAdd(String name, T child) {
+        HashMap<String, T> c = treeChildren;
+        if (c == null) {
+            c = treeChildren = new HashMap<>();
+        }
+        if (c.putIfAbsent(name, child) == null) {
+            return name;
+        }
+
+        HashMap<String, int[]> counters = treeChildNameCounters;
+        if (counters == null) {
+            counters = treeChildNameCounters = new HashMap<>();
+        }
+        int[] counter = counters.computeIfAbsent(name, _ -> new int[1]);
+        String n;
+        do {
+            n = name + ++counter[0];
+        } while (c.putIfAbsent(n, child) != null);
+        return n;
+    }
+
+    /**
+     * Adds a child with the specified name, if no other child is using it.
+     *
+     * @param name
+     *            the name of the child
+     * @param child
+     *            the child
+     * @return whether or not the child was added
+     */
+    protected final boolean treeChildAddIfAbsent(String name, T child) {
+        HashMap<String, T> c = treeChildren;
+        if (c == null) {
+            c = treeChildren = new HashMap<>();
+        }
+        return c.putIfAbsent(name, child) == null;
+    }
+
+    /**
+     * Makes room for the specified number of additional named children, without the need for rehashing.
+     *
+     * @param additional
+     *            the number of additional children
+     */
+    protected final void treeChildEnsureCapacity(int additional) {
+        HashMap<String, T> c = treeChildren;
+        if (additional <= 0) {
+            return;
+        } else if (c == null) {
+            treeChildren = HashMap.newHashMap(additional);
+        } else {
+            HashMap<String, T> n = HashMap.newHashMap(c.size() + additional);
+            n.putAll(c);
+            treeChildren = n;
+        }
+    }
+
+    /**
+     * Removes the child with the specified name.
+     *
+     * @param name
+     *            the name of the child
+     */
+    protected final void treeChildRemove(String name) {
+        HashMap<String, T> c = treeChildren;
+        if (c != null) {
+            c.remove(name);
+        }
+    }
 }
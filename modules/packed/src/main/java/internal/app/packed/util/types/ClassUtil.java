@@ -132,4 +132,21 @@ public class ClassUtil {
         }
         return type;
     }
+
+    /**
+     * Tests if a value of one type can be converted to another type without a cast. That is, using only an identity,
+     * boxing, unboxing or reference widening conversion. A primitive value is never widened to another primitive type.
+     *
+     * @param from
+     *            the type of the value
+     * @param to
+     *            the type to convert the value to
+     * @return whether or not the value can be converted without a cast
+     */
+    public static boolean isConvertibleWithoutCast(Class<?> from, Class<?> to) {
+        if (to.isPrimitive()) {
+            return from == to || from == box(to);
+        }
+        return from != void.class && to.isAssignableFrom(box(from));
+    }
 }
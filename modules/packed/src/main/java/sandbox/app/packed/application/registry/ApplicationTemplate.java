@@ -37,4 +37,19 @@ public sealed interface ApplicationTemplate<H extends ApplicationHandle<?, ?>> p
             Function<? super ApplicationInstaller<H>, ? extends H> handleFactory) {
         return new PackedApplicationTemplate<>(LifecycleKind.MANAGED, bean, handleClass, handleFactory);
     }
+
+    /**
+     * Returns a new template that generates invokers for the operations of applications as hidden classes.
+     * <p>
+     * By default, invokers are composed from method handle combinators. With this option the invokers of the operations
+     * of a bean are instead static methods on a single hidden class defined in the package of the bean. Where possible,
+     * an invoker calls the method or reads the field of the bean directly. This gives the JIT straight-line code that is
+     * easier to inline than combinator chains, at the cost of defining a class per bean when the application is built.
+     * <p>
+     * Hidden classes can only be defined for beans whose package is open to this framework. Invokers for other beans are
+     * generated as usual.
+     *
+     * @return the new template
+     */
+    ApplicationTemplate<H> withHiddenClassInvokers();
 }
@@ -0,0 +1,94 @@
+/*
+ * Copyright (c) 2026 Kasper Nielsen.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package internal.app.packed.bean.introspection;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import app.packed.lifecycle.Initialize;
+import internal.app.packed.bean.introspection.BeanClassIndex.Entry;
+
+/** Tests {@link BeanClassIndex}. */
+public class BeanClassIndexTest {
+
+    @Test
+    public void index() {
+        Entry e = Entry.parse(Stub.class, "F f\nM a ()V\nM b (I)V\n");
+        assertNotNull(e);
+        assertThat(e.fields()).containsExactly("f");
+        assertThat(e.methods()).hasSize(2);
+    }
+
+    @Test
+    public void malformedIndex() {
+        assertNull(Entry.parse(Stub.class, "M a\n"));
+        assertNull(Entry.parse(Stub.class, "X a ()V\n"));
+    }
+
+    /** An index is only used if it is in the same class path entry as the class file. */
+    @Test
+    public void sameClassPathEntry(@TempDir Path dir) throws IOException {
+        Path index = dir.resolve(BeanClassIndex.INDEX_LOCATION + Stub.class.getName());
+        Files.createDirectories(index.getParent());
+        Files.writeString(index, "M a ()V\n");
+        try (URLClassLoader loader = new URLClassLoader(new URL[] { dir.toUri().toURL() }, BeanClassIndexTest.class.getClassLoader())) {
+            // The class file of Stub is in the test output, not in dir
+            assertNull(BeanClassIndex.findIndex(loader, Stub.class.getName()));
+
+            Path classFile = dir.resolve("test/Other.class");
+            Files.createDirectories(classFile.getParent());
+            Files.write(classFile, new byte[0]);
+            Path otherIndex = dir.resolve(BeanClassIndex.INDEX_LOCATION + "test.Other");
+            Files.writeString(otherIndex, "");
+            assertEquals(otherIndex.toUri().toURL(), BeanClassIndex.findIndex(loader, "test.Other"));
+        }
+    }
+
+    /** Without a valid index, the bean class is scanned using reflection. */
+    @Test
+    public void reflectionFallback() {
+        assertNull(Entry.readResource(Stub.class));
+        assertThat(BeanClassModel.of(Stub.class).methods).hasSize(2);
+    }
+
+    static class Stub {
+
+        @Deprecated
+        String f;
+
+        int g;
+
+        @Initialize
+        void a() {}
+
+        @Initialize
+        @Deprecated
+        void b(int i) {}
+
+        void c() {}
+    }
+}
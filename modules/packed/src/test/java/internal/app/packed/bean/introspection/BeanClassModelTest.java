@@ -0,0 +1,131 @@
+/*
+ * Copyright (c) 2026 Kasper Nielsen.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package internal.app.packed.bean.introspection;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import app.packed.application.App;
+import app.packed.assembly.BaseAssembly;
+import app.packed.lifecycle.Initialize;
+
+/** Tests that {@link BeanClassModel} is shared between all beans of the same class. */
+public class BeanClassModelTest {
+
+    /** The number of times {@link Counted#init()} has been invoked. */
+    public static final AtomicInteger INITIALIZED = new AtomicInteger();
+
+    @BeforeEach
+    public void clear() {
+        INITIALIZED.set(0);
+    }
+
+    /** The model of a class is created once and then returned on every lookup. */
+    @Test
+    public void sameModel() {
+        BeanClassModel model = BeanClassModel.of(Counted.class);
+        assertThat(BeanClassModel.of(Counted.class)).isSameAs(model);
+        assertThat(model.methods).hasSize(1);
+
+        App.run(new BaseAssembly() {
+            @Override
+            protected void build() {
+                install(Counted.class);
+                install(Counted.class);
+            }
+        });
+        assertThat(INITIALIZED).hasValue(2);
+        assertThat(BeanClassModel.of(Counted.class)).isSameAs(model);
+    }
+
+    /**
+     * The members of a class are only scanned for the first bean of the class. Every scan starts by looking for an index,
+     * so we count the index lookups on a class loader that has its own copy of the bean class.
+     */
+    @Test
+    public void scannedOncePerClass() throws Exception {
+        CountingLoader loader = new CountingLoader();
+        Class<?> beanClass = loader.loadClass(Counted.class.getName());
+        assertThat(beanClass).isNotSameAs(Counted.class);
+
+        App.run(new BaseAssembly() {
+            @Override
+            protected void build() {
+                install(beanClass);
+                install(beanClass);
+                install(beanClass);
+            }
+        });
+        assertThat(INITIALIZED).hasValue(3);
+        assertThat(loader.indexLookups).hasValue(1);
+        assertThat(BeanClassModel.of(beanClass).methods).hasSize(1);
+        assertThat(loader.indexLookups).hasValue(1);
+    }
+
+    public static class Counted {
+
+        @Initialize
+        public void init() {
+            INITIALIZED.incrementAndGet();
+        }
+    }
+
+    /** A class loader that defines its own copy of {@link Counted}, and counts lookups of bean indexes. */
+    static final class CountingLoader extends ClassLoader {
+
+        final AtomicInteger indexLookups = new AtomicInteger();
+
+        CountingLoader() {
+            super(BeanClassModelTest.class.getClassLoader());
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public URL getResource(String name) {
+            if (name.startsWith(BeanClassIndex.INDEX_LOCATION)) {
+                indexLookups.incrementAndGet();
+            }
+            return super.getResource(name);
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+            if (!name.equals(Counted.class.getName())) {
+                return super.loadClass(name, resolve);
+            }
+            synchronized (getClassLoadingLock(name)) {
+                Class<?> c = findLoadedClass(name);
+                if (c == null) {
+                    try (InputStream is = getParent().getResourceAsStream(name.replace('.', '/') + ".class")) {
+                        byte[] bytes = is.readAllBytes();
+                        c = defineClass(name, bytes, 0, bytes.length);
+                    } catch (IOException e) {
+                        throw new ClassNotFoundException(name, e);
+                    }
+                }
+                return c;
+            }
+        }
+    }
+}
@@ -0,0 +1,139 @@
+/*
+ * Copyright (c) 2026 Kasper Nielsen.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package internal.app.packed.invoke;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import app.packed.assembly.BaseAssembly;
+import app.packed.bean.Bean;
+import app.packed.bean.BeanConfiguration;
+import app.packed.build.BuildGoal;
+import app.packed.lifecycle.Initialize;
+import app.packed.lifecycle.LifecycleKind;
+import app.packed.lifecycle.RunState;
+import app.packed.operation.Op0;
+import internal.app.packed.application.PackedApplicationTemplate;
+import internal.app.packed.bean.BeanSetup;
+import internal.app.packed.invoke.MethodHandleInvoker.ApplicationBaseLauncher;
+import internal.app.packed.lifecycle.runtime.ApplicationLaunchContext;
+
+/** Tests {@link HiddenClassInvokerGenerator}. */
+public class HiddenClassInvokerGeneratorTest {
+
+    static final AtomicInteger COUNT = new AtomicInteger();
+
+    /** Builds and initializes an application that uses hidden class invokers, returning the single bean installed. */
+    static BeanSetup launch(TestAssembly assembly) {
+        COUNT.set(0);
+        var handle = PackedApplicationTemplate.of(LifecycleKind.UNMANAGED, Bean.of()).withHiddenClassInvokers()
+                .newInstaller(null, BuildGoal.LAUNCH, ApplicationBaseLauncher.EMPTY).install(assembly);
+        ApplicationLaunchContext.launch(handle, RunState.INITIALIZED);
+        return BeanSetup.crack(assembly.bean);
+    }
+
+    /** All invokers of a bean are defined on a single hidden class. */
+    @Test
+    public void singleClassPerBean() {
+        BeanSetup bean = launch(new TestAssembly() {
+            @Override
+            protected void build() {
+                bean = install(ThreeMethods.class);
+            }
+        });
+        assertThat(COUNT).hasValue(3);
+
+        BeanInvokerClass c = bean.invokerClass.orElseThrow();
+        assertThat(c.invokerClass()).isNotNull();
+        assertThat(c.invokerClass().isHidden()).isTrue();
+        assertThat(c.invokerClass().getNestHost()).isSameAs(ThreeMethods.class.getNestHost());
+        assertThat(c.invokers()).hasSize(3);
+        assertThat(c.invokerClass().getDeclaredMethods()).hasSize(3);
+    }
+
+    /** Methods on beans whose bean class is an interface must be invoked using invokeinterface. */
+    @Test
+    public void interfaceBean() {
+        BeanSetup bean = launch(new TestAssembly() {
+            @Override
+            protected void build() {
+                bean = install(new Op0<Iface>(() -> new Impl()) {});
+            }
+        });
+        assertThat(bean.bean.beanClass).isSameAs(Iface.class);
+        assertThat(COUNT).hasValue(1);
+        assertThat(bean.invokerClass.orElseThrow().invokers()).hasSize(1);
+    }
+
+    /** Operations that use embedded operations are not generated, as that would require generating other operations. */
+    @Test
+    public void embeddedOperationsNotSupported() {
+        BeanSetup bean = launch(new TestAssembly() {
+            @Override
+            protected void build() {
+                install(Dependency.class).provide();
+                bean = install(UsesDependency.class);
+            }
+        });
+        assertThat(COUNT).hasValue(1);
+        assertThat(bean.invokerClass.orElseThrow().invokers()).isEmpty();
+    }
+
+    static abstract class TestAssembly extends BaseAssembly {
+        BeanConfiguration<?> bean;
+    }
+
+    public static class ThreeMethods {
+
+        @Initialize
+        public void a() {
+            COUNT.incrementAndGet();
+        }
+
+        @Initialize
+        void b() {
+            COUNT.incrementAndGet();
+        }
+
+        @Initialize
+        private void c() {
+            COUNT.incrementAndGet();
+        }
+    }
+
+    public interface Iface {
+
+        @Initialize
+        default void init() {
+            COUNT.incrementAndGet();
+        }
+    }
+
+    public static class Impl implements Iface {}
+
+    public static class Dependency {}
+
+    public static class UsesDependency {
+
+        @Initialize
+        public void init(Dependency d) {
+            COUNT.incrementAndGet();
+        }
+    }
+}
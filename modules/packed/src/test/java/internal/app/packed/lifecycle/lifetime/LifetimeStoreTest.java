@@ -0,0 +1,95 @@
+/*
+ * Copyright (c) 2026 Kasper Nielsen.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package internal.app.packed.lifecycle.lifetime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.lang.invoke.MethodHandle;
+
+import org.junit.jupiter.api.Test;
+
+import app.packed.extension.InternalExtensionException;
+import internal.app.packed.extension.ExtensionContext;
+import internal.app.packed.lifecycle.lifetime.LifetimeStoreEntry.InternalStoreEntry;
+import internal.app.packed.lifecycle.runtime.LifetimeStoreLayout;
+import internal.app.packed.lifecycle.runtime.PackedExtensionContext;
+
+/** Tests {@link LifetimeStore}. */
+public class LifetimeStoreTest {
+
+    @Test
+    public void readWrite() throws Throwable {
+        LifetimeStore store = new LifetimeStore();
+        LifetimeStoreIndex s = store.add(new InternalStoreEntry(String.class));
+        LifetimeStoreIndex i = store.add(new InternalStoreEntry(Integer.class));
+
+        ExtensionContext context = store.newRuntimePool();
+        ((PackedExtensionContext) context).storeObject(s, "foo");
+        ((PackedExtensionContext) context).storeObject(i, 123);
+
+        MethodHandle readString = store.reader(s);
+        assertEquals(String.class, readString.type().returnType());
+        assertEquals("foo", (String) readString.invokeExact(context));
+        assertEquals(Integer.valueOf(123), (Integer) store.reader(i).invokeExact(context));
+    }
+
+    /** Entries cannot be added once the layout has been generated, as the generated class has no field for them. */
+    @Test
+    public void addAfterLayout() {
+        LifetimeStore store = new LifetimeStore();
+        store.add(new InternalStoreEntry(String.class));
+        store.layout();
+
+        IllegalStateException e = assertThrows(IllegalStateException.class, () -> store.add(new InternalStoreEntry(Integer.class)));
+        assertThat(e).hasMessageContaining("after its layout has been generated");
+    }
+
+    /**
+     * Reading an entry that has not been written fails if assertions are enabled, otherwise the reader is a plain field
+     * read that returns null.
+     */
+    @Test
+    public void readUninitialized() throws Throwable {
+        LifetimeStore store = new LifetimeStore();
+        store.add(new InternalStoreEntry(String.class));
+        LifetimeStoreIndex index = store.add(new InternalStoreEntry(Integer.class));
+
+        ExtensionContext context = store.newRuntimePool();
+        MethodHandle reader = store.reader(index);
+        if (!LifetimeStoreLayout.class.desiredAssertionStatus()) {
+            assertThat((Integer) reader.invokeExact(context)).isNull();
+            return;
+        }
+        InternalExtensionException e = assertThrows(InternalExtensionException.class, () -> {
+            Integer _ = (Integer) reader.invokeExact(context);
+        });
+        assertThat(e).hasMessageContaining("Entry with index 1");
+        assertThat(e).hasMessageContaining("has not been initialized");
+    }
+
+    /** An entry can only be written once. */
+    @Test
+    public void writeTwice() {
+        LifetimeStore store = new LifetimeStore();
+        LifetimeStoreIndex index = store.add(new InternalStoreEntry(String.class));
+
+        PackedExtensionContext context = (PackedExtensionContext) store.newRuntimePool();
+        context.storeObject(index, "foo");
+        assertThrows(IllegalStateException.class, () -> context.storeObject(index, "bar"));
+    }
+}
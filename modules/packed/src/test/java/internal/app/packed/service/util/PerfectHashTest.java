@@ -0,0 +1,57 @@
+/*
+ * Copyright (c) 2026 Kasper Nielsen.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package internal.app.packed.service.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.LinkedHashSet;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/** Tests {@link PerfectHash}. */
+public class PerfectHashTest {
+
+    /** Tests that every hash code is mapped to a distinct slot. */
+    @Test
+    public void distinctSlots() {
+        Random r = new Random(4711);
+        for (int n : new int[] { 1, 2, 3, 17, 1000, 20000 }) {
+            LinkedHashSet<Integer> set = new LinkedHashSet<>();
+            while (set.size() < n) {
+                set.add(r.nextInt());
+            }
+            int[] hashes = set.stream().mapToInt(Integer::intValue).toArray();
+            int[] slots = new int[n];
+            PerfectHash h = PerfectHash.of(hashes, slots);
+            assertThat(h).isNotNull();
+
+            boolean[] used = new boolean[n];
+            for (int i = 0; i < n; i++) {
+                assertThat(h.slot(hashes[i])).isEqualTo(slots[i]);
+                assertThat(used[slots[i]]).isFalse();
+                used[slots[i]] = true;
+            }
+        }
+    }
+
+    /** Tests that no function is created for empty or duplicate hash codes. */
+    @Test
+    public void unsupported() {
+        assertThat(PerfectHash.of(new int[0], new int[0])).isNull();
+        assertThat(PerfectHash.of(new int[] { 1, 2, 1 }, new int[3])).isNull();
+    }
+}
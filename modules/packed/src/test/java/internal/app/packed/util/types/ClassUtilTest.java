@@ -97,4 +97,21 @@ public class ClassUtilTest {
         assertThat(ClassUtil.box(short.class)).isSameAs(Short.class);
         assertThat(ClassUtil.box(void.class)).isSameAs(Void.class);
     }
+
+    /** Tests {@link ClassUtil#isConvertibleWithoutCast(Class, Class)}. */
+    @Test
+    public void isConvertibleWithoutCast() {
+        assertThat(ClassUtil.isConvertibleWithoutCast(int.class, int.class)).isTrue();
+        assertThat(ClassUtil.isConvertibleWithoutCast(int.class, Integer.class)).isTrue();
+        assertThat(ClassUtil.isConvertibleWithoutCast(Integer.class, int.class)).isTrue();
+        assertThat(ClassUtil.isConvertibleWithoutCast(int.class, Number.class)).isTrue();
+        assertThat(ClassUtil.isConvertibleWithoutCast(String.class, CharSequence.class)).isTrue();
+
+        assertThat(ClassUtil.isConvertibleWithoutCast(int.class, long.class)).isFalse();
+        assertThat(ClassUtil.isConvertibleWithoutCast(Integer.class, long.class)).isFalse();
+        assertThat(ClassUtil.isConvertibleWithoutCast(long.class, Integer.class)).isFalse();
+        assertThat(ClassUtil.isConvertibleWithoutCast(Number.class, int.class)).isFalse();
+        assertThat(ClassUtil.isConvertibleWithoutCast(Object.class, String.class)).isFalse();
+        assertThat(ClassUtil.isConvertibleWithoutCast(void.class, Object.class)).isFalse();
+    }
 }
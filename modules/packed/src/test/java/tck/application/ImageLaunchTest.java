@@ -0,0 +1,97 @@
+/*
+ * Copyright (c) 2026 Kasper Nielsen.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tck.application;
+
+import static app.packed.extension.SidehandleBinding.Kind.FROM_CONTEXT;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import app.packed.application.BootstrapApp;
+import app.packed.assembly.BaseAssembly;
+import app.packed.bean.Bean;
+import app.packed.container.Wirelets;
+import app.packed.extension.SidehandleBinding;
+import app.packed.lifecycle.Initialize;
+import app.packed.lifecycle.LifecycleKind;
+import app.packed.lifecycle.RunState;
+import app.packed.service.ServiceLocator;
+
+/** Tests launching the same reusable image a number of times. */
+public class ImageLaunchTest {
+
+    /** An application that exposes its services. */
+    static final BootstrapApp<Instance> APP = BootstrapApp.of(LifecycleKind.UNMANAGED, Bean.of(Instance.class));
+
+    /** Every launch has its own beans and service locator, and a single service locator per launch. */
+    @Test
+    public void launchRepeatedly() {
+        BootstrapApp.Image<Instance> image = APP.imageOf(new BaseAssembly() {
+            @Override
+            protected void build() {
+                install(Counter.class).export();
+            }
+        }, Wirelets.resuableImage());
+
+        ArrayList<Instance> instances = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            Instance instance = image.launch(RunState.INITIALIZED);
+            assertThat(instance.services).isSameAs(instance.services2);
+
+            Counter counter = instance.services.use(Counter.class);
+            assertThat(counter.values).containsExactly("initialized");
+            counter.values.add("launch " + i);
+            assertThat(instance.services.use(Counter.class)).isSameAs(counter);
+
+            for (Instance previous : instances) {
+                assertThat(previous.services).isNotSameAs(instance.services);
+                assertThat(previous.services.use(Counter.class)).isNotSameAs(counter);
+            }
+            instances.add(instance);
+        }
+
+        // Changes made to the beans of one launch are not seen by any other launch
+        for (int i = 0; i < instances.size(); i++) {
+            assertThat(instances.get(i).services.use(Counter.class).values).containsExactly("initialized", "launch " + i);
+        }
+    }
+
+    /** The application interface, with two bindings of the service locator of the launch. */
+    public static final class Instance {
+
+        final ServiceLocator services;
+
+        final ServiceLocator services2;
+
+        Instance(@SidehandleBinding(FROM_CONTEXT) ServiceLocator services, @SidehandleBinding(FROM_CONTEXT) ServiceLocator services2) {
+            this.services = services;
+            this.services2 = services2;
+        }
+    }
+
+    public static class Counter {
+
+        final List<String> values = new ArrayList<>();
+
+        @Initialize
+        public void initialize() {
+            values.add("initialized");
+        }
+    }
+}
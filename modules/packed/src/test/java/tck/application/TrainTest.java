@@ -0,0 +1,116 @@
+/*
+ * Copyright (c) 2026 Kasper Nielsen.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tck.application;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import app.packed.application.App;
+import app.packed.application.BootstrapApp;
+import app.packed.assembly.BaseAssembly;
+import app.packed.bean.Bean;
+import app.packed.build.BuildGoal;
+import app.packed.build.BuildProcess;
+import app.packed.lifecycle.Initialize;
+import app.packed.lifecycle.LifecycleKind;
+import app.packed.lifecycle.Start;
+import app.packed.lifecycle.Stop;
+
+/** Tests {@link BootstrapApp#train(app.packed.assembly.Assembly, app.packed.container.Wirelet...)}. */
+public class TrainTest {
+
+    /** Lifecycle events in the order they happened. */
+    static final List<String> EVENTS = new ArrayList<>();
+
+    @BeforeEach
+    public void clear() {
+        EVENTS.clear();
+    }
+
+    /** A managed application is built with the TRAIN goal, and is initialized, started and stopped before train returns. */
+    @Test
+    public void managed() {
+        BootstrapApp<Void> app = BootstrapApp.of(LifecycleKind.MANAGED, Bean.of());
+        app.train(new ManagedAssembly());
+        assertThat(EVENTS).containsExactly("build TRAIN", "initialize", "start", "stop");
+    }
+
+    @Test
+    public void appTrain() {
+        App.train(new ManagedAssembly());
+        assertThat(EVENTS).containsExactly("build TRAIN", "initialize", "start", "stop");
+    }
+
+    /** An unmanaged application is only initialized. */
+    @Test
+    public void unmanaged() {
+        BootstrapApp<Void> app = BootstrapApp.of(LifecycleKind.UNMANAGED, Bean.of());
+        app.train(new BaseAssembly() {
+            @Override
+            protected void build() {
+                EVENTS.add("build " + BuildProcess.current().goal());
+                install(UnmanagedBean.class);
+            }
+        });
+        assertThat(EVENTS).containsExactly("build TRAIN", "initialize");
+    }
+
+    /** A training run generates code, so it exercises the same code as a normal launch. */
+    @Test
+    public void goalIsCodeGenerating() {
+        assertThat(BuildGoal.TRAIN.isCodeGenerating()).isTrue();
+    }
+
+    static class ManagedAssembly extends BaseAssembly {
+
+        @Override
+        protected void build() {
+            EVENTS.add("build " + BuildProcess.current().goal());
+            install(ManagedBean.class);
+        }
+    }
+
+    public static class ManagedBean {
+
+        @Initialize
+        public void initialize() {
+            EVENTS.add("initialize");
+        }
+
+        @Start
+        public void start() {
+            EVENTS.add("start");
+        }
+
+        @Stop
+        public void stop() {
+            EVENTS.add("stop");
+        }
+    }
+
+    public static class UnmanagedBean {
+
+        @Initialize
+        public void initialize() {
+            EVENTS.add("initialize");
+        }
+    }
+}
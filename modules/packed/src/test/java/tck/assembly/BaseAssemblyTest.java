@@ -15,12 +15,15 @@
  */
 package tck.assembly;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 import org.junit.jupiter.api.Test;
 
 import app.packed.application.App;
+import app.packed.application.ApplicationMirror;
 import app.packed.assembly.BaseAssembly;
+import app.packed.container.ContainerMirror;
 import tck.AppAppTest;
 import tck.TckAssemblies.HelloWorldAssembly;
 
@@ -54,4 +57,19 @@ public class BaseAssemblyTest extends AppAppTest {
         };
         assertThatThrownBy(() -> App.run(b)).isExactlyInstanceOf(IllegalStateException.class);
     }
+
+    /** Tests that containers linked with the same name get a counter appended to the name. */
+    @Test
+    public void linkAllNames() {
+        ApplicationMirror m = App.mirrorOf(new BaseAssembly() {
+            @Override
+            protected void build() {
+                link(new HelloWorldAssembly(), "test");
+                linkAll(3, _ -> new HelloWorldAssembly(), "test");
+                link(new HelloWorldAssembly(), "test");
+            }
+        });
+        assertThat(m.container().applicationNode().stream().skip(1).map(ContainerMirror::name)).containsExactly("test", "test1", "test2", "test3",
+                "test4");
+    }
 }
@@ -0,0 +1,302 @@
+/*
+ * Copyright (c) 2026 Kasper Nielsen.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tck.bean;
+
+import static app.packed.extension.SidehandleBinding.Kind.FROM_CONTEXT;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import app.packed.application.BootstrapApp;
+import app.packed.application.ManagedApplicationRuntime;
+import app.packed.assembly.BaseAssembly;
+import app.packed.bean.Bean;
+import app.packed.extension.SidehandleBinding;
+import app.packed.lifecycle.Initialize;
+import app.packed.lifecycle.LifecycleKind;
+import app.packed.lifecycle.RunState;
+import app.packed.lifecycle.Start;
+import app.packed.lifecycle.Stop;
+import app.packed.service.ServiceLocator;
+
+/** Tests the lifecycle of lazy singleton beans in a managed application. */
+public class LazyBeanLifecycleTest {
+
+    /** A managed application that exposes its services. */
+    static final BootstrapApp<LazyApp> APP = BootstrapApp.of(LifecycleKind.MANAGED, Bean.of(LazyApp.class));
+
+    /** Lifecycle events in the order they happened. */
+    static final List<String> EVENTS = Collections.synchronizedList(new ArrayList<>());
+
+    @BeforeEach
+    public void clear() {
+        EVENTS.clear();
+        FailingBean.ATTEMPTS.set(0);
+        SlowBean.CREATED.set(0);
+        SlowBean.STARTED.set(0);
+        EagerBean.services = null;
+    }
+
+    /** A lazy bean that is first used after the application has started, is started before it is returned. */
+    @Test
+    public void deferredStartStop() {
+        LazyApp app = APP.launch(RunState.RUNNING, new BaseAssembly() {
+            @Override
+            protected void build() {
+                install(LazyBean.class).lazy().export();
+            }
+        });
+        assertThat(EVENTS).isEmpty();
+
+        LazyBean b = app.services.use(LazyBean.class);
+        assertThat(EVENTS).containsExactly("initialize", "start");
+        assertThat(app.services.use(LazyBean.class)).isSameAs(b);
+
+        app.runtime.stop();
+        assertThat(EVENTS).containsExactly("initialize", "start", "stop");
+    }
+
+    /** A lazy bean that is never used, is never created, started or stopped. */
+    @Test
+    public void unused() {
+        LazyApp app = APP.launch(RunState.RUNNING, new BaseAssembly() {
+            @Override
+            protected void build() {
+                install(LazyBean.class).lazy().export();
+            }
+        });
+        app.runtime.stop();
+        assertThat(EVENTS).isEmpty();
+    }
+
+    /** If the initialization of a lazy bean fails, the next use creates the bean again. */
+    @Test
+    public void retryAfterFailedInitialize() {
+        LazyApp app = APP.launch(RunState.RUNNING, new BaseAssembly() {
+            @Override
+            protected void build() {
+                install(FailingBean.class).lazy().export();
+            }
+        });
+        assertThrows(IllegalStateException.class, () -> app.services.use(FailingBean.class));
+        assertThat(EVENTS).containsExactly("initialize");
+
+        FailingBean b = app.services.use(FailingBean.class);
+        assertThat(FailingBean.ATTEMPTS).hasValue(2);
+        assertThat(EVENTS).containsExactly("initialize", "initialize", "start");
+        assertThat(app.services.use(FailingBean.class)).isSameAs(b);
+        app.runtime.stop();
+    }
+
+    /** Threads that use a lazy bean at the same time, all see the same started bean. */
+    @Test
+    public void concurrentFirstUse() throws Exception {
+        LazyApp app = APP.launch(RunState.RUNNING, new BaseAssembly() {
+            @Override
+            protected void build() {
+                install(SlowBean.class).lazy().export();
+            }
+        });
+        int threads = 8;
+        CountDownLatch ready = new CountDownLatch(threads);
+        List<Future<SlowBean>> futures = new ArrayList<>();
+        try (ExecutorService es = Executors.newFixedThreadPool(threads)) {
+            for (int i = 0; i < threads; i++) {
+                futures.add(es.submit(() -> {
+                    ready.countDown();
+                    ready.await();
+                    SlowBean b = app.services.use(SlowBean.class);
+                    assertThat(b.started).isTrue();
+                    return b;
+                }));
+            }
+            SlowBean first = futures.get(0).get();
+            for (Future<SlowBean> f : futures) {
+                assertThat(f.get()).isSameAs(first);
+            }
+        }
+        assertThat(SlowBean.CREATED).hasValue(1);
+        assertThat(SlowBean.STARTED).hasValue(1);
+        app.runtime.stop();
+    }
+
+    /** A lazy bean that depends on another lazy bean, creates and starts it first. */
+    @Test
+    public void lazyDependsOnLazy() {
+        LazyApp app = APP.launch(RunState.RUNNING, new BaseAssembly() {
+            @Override
+            protected void build() {
+                provide(LazyB.class).lazy();
+                install(LazyA.class).lazy().export();
+            }
+        });
+        LazyA a = app.services.use(LazyA.class);
+        assertThat(EVENTS).containsExactly("initialize B", "start B", "initialize A", "start A");
+        assertThat(a.b).isNotNull();
+
+        app.runtime.stop();
+        assertThat(EVENTS).containsExactly("initialize B", "start B", "initialize A", "start A", "stop A", "stop B");
+    }
+
+    /** A lazy bean that has not been used when the application is stopped, cannot be created by stop operations. */
+    @Test
+    public void notCreatedWhileStopping() {
+        LazyApp app = APP.launch(RunState.RUNNING, new BaseAssembly() {
+            @Override
+            protected void build() {
+                install(EagerBean.class);
+                install(LazyBean.class).lazy().export();
+            }
+        });
+        EagerBean.services = app.services;
+        app.runtime.stop();
+        assertThat(EVENTS).containsExactly("stop eager", IllegalStateException.class.getSimpleName());
+    }
+
+    /** The application interface, holding the services and the runtime of the application. */
+    public static final class LazyApp {
+
+        final ManagedApplicationRuntime runtime;
+
+        final ServiceLocator services;
+
+        LazyApp(@SidehandleBinding(FROM_CONTEXT) ManagedApplicationRuntime runtime, @SidehandleBinding(FROM_CONTEXT) ServiceLocator services) {
+            this.runtime = runtime;
+            this.services = services;
+        }
+    }
+
+    public static class LazyBean {
+
+        @Initialize
+        public void initialize() {
+            EVENTS.add("initialize");
+        }
+
+        @Start
+        public void start() {
+            EVENTS.add("start");
+        }
+
+        @Stop
+        public void stop() {
+            EVENTS.add("stop");
+        }
+    }
+
+    public static class FailingBean {
+        static final AtomicInteger ATTEMPTS = new AtomicInteger();
+
+        @Initialize
+        public void initialize() {
+            EVENTS.add("initialize");
+            if (ATTEMPTS.incrementAndGet() == 1) {
+                throw new IllegalStateException("First attempt fails");
+            }
+        }
+
+        @Start
+        public void start() {
+            EVENTS.add("start");
+        }
+    }
+
+    public static class SlowBean {
+        static final AtomicInteger CREATED = new AtomicInteger();
+        static final AtomicInteger STARTED = new AtomicInteger();
+
+        volatile boolean started;
+
+        public SlowBean() {
+            CREATED.incrementAndGet();
+        }
+
+        @Start
+        public void start() throws InterruptedException {
+            // Gives other threads time to read the bean before it has been started
+            Thread.sleep(50);
+            STARTED.incrementAndGet();
+            started = true;
+        }
+    }
+
+    public static class LazyA {
+
+        final LazyB b;
+
+        public LazyA(LazyB b) {
+            this.b = b;
+        }
+
+        @Initialize
+        public void initialize() {
+            EVENTS.add("initialize A");
+        }
+
+        @Start
+        public void start() {
+            EVENTS.add("start A");
+        }
+
+        @Stop
+        public void stop() {
+            EVENTS.add("stop A");
+        }
+    }
+
+    public static class LazyB {
+
+        @Initialize
+        public void initialize() {
+            EVENTS.add("initialize B");
+        }
+
+        @Start
+        public void start() {
+            EVENTS.add("start B");
+        }
+
+        @Stop
+        public void stop() {
+            EVENTS.add("stop B");
+        }
+    }
+
+    public static class EagerBean {
+        static volatile ServiceLocator services;
+
+        @Stop
+        public void stop() {
+            EVENTS.add("stop eager");
+            try {
+                services.use(LazyBean.class);
+            } catch (IllegalStateException e) {
+                EVENTS.add(e.getClass().getSimpleName());
+            }
+        }
+    }
+}
@@ -0,0 +1,73 @@
+/*
+ * Copyright (c) 2026 Kasper Nielsen.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tck.bean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import app.packed.lifecycle.Initialize;
+import tck.ServiceLocatorAppTest;
+
+/** Tests lazy singleton beans. */
+public class LazyBeanTest extends ServiceLocatorAppTest {
+
+    @Test
+    public void lazy() {
+        LazyBean.CREATED.set(0);
+        LazyBean.INITIALIZED.set(0);
+        install(LazyBean.class).lazy().export();
+        assertThat(mirrors().bean().isLazy()).isTrue();
+
+        app();
+        assertThat(LazyBean.CREATED).hasValue(0);
+        assertThat(LazyBean.INITIALIZED).hasValue(0);
+
+        LazyBean b = app().use(LazyBean.class);
+        assertThat(LazyBean.CREATED).hasValue(1);
+        assertThat(LazyBean.INITIALIZED).hasValue(1);
+        assertThat(app().use(LazyBean.class)).isSameAs(b);
+        assertThat(LazyBean.CREATED).hasValue(1);
+    }
+
+    @Test
+    public void notLazy() {
+        install(LazyBean.class);
+        assertThat(mirrors().bean().isLazy()).isFalse();
+    }
+
+    @Test
+    public void instanceCannotBeLazy() {
+        assertThrows(UnsupportedOperationException.class, () -> installInstance(new LazyBean()).lazy());
+    }
+
+    public static class LazyBean {
+        static final AtomicInteger CREATED = new AtomicInteger();
+        static final AtomicInteger INITIALIZED = new AtomicInteger();
+
+        public LazyBean() {
+            CREATED.incrementAndGet();
+        }
+
+        @Initialize
+        public void initialize() {
+            INITIALIZED.incrementAndGet();
+        }
+    }
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright (c) 2026 Kasper Nielsen.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tck.bean.hooks;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+
+import org.junit.jupiter.api.Test;
+
+import app.packed.operation.OperationHandle;
+import tck.AppAppTest;
+import tck.HookTestingExtension.MethodHook;
+
+/**
+ *
+ */
+public class OnAnnotatedMethodTest extends AppAppTest {
+
+    static final MethodHandle MH_INCREMENT;
+    static final MethodHandle MH_DOUBLE;
+
+    static {
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            MH_INCREMENT = lookup.findStatic(OnAnnotatedMethodTest.class, "increment", MethodType.methodType(int.class, int.class));
+            MH_DOUBLE = lookup.findStatic(OnAnnotatedMethodTest.class, "doubleIt", MethodType.methodType(int.class, int.class));
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    static int increment(int i) {
+        return i + 1;
+    }
+
+    static int doubleIt(int i) {
+        return i * 2;
+    }
+
+    @Test
+    public void intercept() throws Throwable {
+        hooks().onAnnotatedMethod((_, b) -> {
+            // Interceptors are applied in the order they are added
+            b.intercept((_, invoker) -> MethodHandles.filterReturnValue(invoker, MH_INCREMENT));
+            b.intercept((o, invoker) -> {
+                assertEquals("foo", o.name());
+                return MethodHandles.filterReturnValue(invoker, MH_DOUBLE);
+            });
+            add(b.newOperation().returnType(int.class).install(OperationHandle::new));
+        });
+
+        record BeanX() {
+
+            @MethodHook
+            public int foo() {
+                return 10;
+            }
+        }
+        installInstance(new BeanX());
+
+        invoker().invokeEquals(22);
+    }
+
+    @Test
+    public void interceptorReturningInvoker() throws Throwable {
+        hooks().onAnnotatedMethod((_, b) -> {
+            b.intercept((_, invoker) -> invoker);
+            add(b.newOperation().returnType(int.class).install(OperationHandle::new));
+        });
+
+        record BeanX() {
+
+            @MethodHook
+            public int foo() {
+                return 10;
+            }
+        }
+        installInstance(new BeanX());
+
+        invoker().invokeEquals(10);
+    }
+}
@@ -0,0 +1,73 @@
+/*
+ * Copyright (c) 2026 Kasper Nielsen.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tck.bean.hooks;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.Test;
+
+import app.packed.bean.BeanTrigger.AutoService;
+import app.packed.operation.Op0;
+import app.packed.operation.OperationHandle;
+import tck.AppAppTest;
+import tck.HookTestingExtension.MethodHook;
+import tck.HookTestingExtensionBeanIntrospector;
+
+/** Tests binding a variable to an op, where the return type of the op is not the type of the variable. */
+public class OnVariableBindOpTest extends AppAppTest {
+
+    /** Binds the variable of every invoked method hook to the specified op. */
+    private void bindGreeting(Op0<?> op) {
+        hooks().onVariableType((_, v) -> v.bindOp(op));
+        hooks().onAnnotatedMethod((_, b) -> add(b.newOperation().returnType(String.class).install(OperationHandle::new)));
+        installInstance(new GreetingBean());
+    }
+
+    /** An op returning a subtype of the variable is bound without a cast. */
+    @Test
+    public void subtype() throws Throwable {
+        bindGreeting(new Op0<Hello>(() -> new Hello("hello")) {});
+        invoker().invokeEquals("hello");
+    }
+
+    /** An op returning a super type of the variable would need a cast, and is rejected when binding it. */
+    @Test
+    public void supertypeIsRejected() {
+        Op0<Object> op = new Op0<>(() -> new Hello("hello")) {};
+        hooks().onVariableType((_, v) -> {
+            assertThrows(ClassCastException.class, () -> v.bindOp(op));
+            v.bindOp(new Op0<Hello>(() -> new Hello("fallback")) {});
+        });
+        hooks().onAnnotatedMethod((_, b) -> add(b.newOperation().returnType(String.class).install(OperationHandle::new)));
+        installInstance(new GreetingBean());
+        invoker().invokeEquals("fallback");
+    }
+
+    @AutoService(introspector = HookTestingExtensionBeanIntrospector.class)
+    public interface Greeting {
+        String text();
+    }
+
+    public record Hello(String text) implements Greeting {}
+
+    public static class GreetingBean {
+
+        @MethodHook
+        public String greet(Greeting greeting) {
+            return greeting.text();
+        }
+    }
+}
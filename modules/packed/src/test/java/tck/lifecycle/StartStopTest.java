@@ -0,0 +1,138 @@
+/*
+ * Copyright (c) 2026 Kasper Nielsen.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tck.lifecycle;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import app.packed.application.App;
+import app.packed.assembly.BaseAssembly;
+import app.packed.container.Wirelet;
+import app.packed.container.Wirelets;
+import app.packed.lifecycle.LifecycleException;
+import app.packed.lifecycle.Start;
+import app.packed.lifecycle.StartContext;
+import app.packed.lifecycle.Stop;
+
+/** Tests forking and timeouts of start and stop operations, both when run in order and when run concurrently. */
+public class StartStopTest {
+
+    static final List<String> EVENTS = Collections.synchronizedList(new ArrayList<>());
+
+    static void run(Wirelet... wirelets) {
+        EVENTS.clear();
+        App.run(new BaseAssembly() {
+            @Override
+            protected void build() {
+                install(Forking.class).provide();
+                install(ForkedWithTimeout.class).provide();
+                install(Dependant.class);
+            }
+        }, wirelets);
+    }
+
+    @Test
+    public void forkInOrder() {
+        run();
+        assertThat(EVENTS).contains("task", "forked", "forkedTask", "timeoutTask", "stopped");
+        assertThat(EVENTS.indexOf("task")).isLessThan(EVENTS.indexOf("stopped"));
+    }
+
+    @Test
+    public void forkConcurrently() {
+        for (int i = 0; i < 10; i++) {
+            run(Wirelets.startStopInParallel(4));
+            assertThat(EVENTS).contains("task", "forked", "forkedTask", "timeoutTask", "stopped");
+            // Forked tasks complete before the beans that depend on the bean are started
+            assertThat(EVENTS.indexOf("task")).isLessThan(EVENTS.indexOf("dependant"));
+            assertThat(EVENTS.indexOf("forkedTask")).isLessThan(EVENTS.indexOf("dependant"));
+            assertThat(EVENTS.indexOf("timeoutTask")).isLessThan(EVENTS.indexOf("dependant"));
+        }
+    }
+
+    @Test
+    public void timeout() {
+        assertThatThrownBy(() -> App.run(new BaseAssembly() {
+            @Override
+            protected void build() {
+                install(Slow.class);
+            }
+        })).isInstanceOf(LifecycleException.class).hasMessageContaining("did not complete within");
+    }
+
+    @Test
+    public void timeoutConcurrently() {
+        assertThatThrownBy(() -> App.run(new BaseAssembly() {
+            @Override
+            protected void build() {
+                install(Slow.class);
+            }
+        }, Wirelets.startStopInParallel(2))).isInstanceOf(LifecycleException.class).hasMessageContaining("did not complete within");
+    }
+
+    /** Forks a task from a start operation, and has a start operation that is forked itself. */
+    public static class Forking {
+
+        @Start
+        public void start(StartContext context) {
+            context.fork(() -> EVENTS.add("task"));
+        }
+
+        @Start(fork = true)
+        public void forked(StartContext context) {
+            EVENTS.add("forked");
+            context.fork(() -> EVENTS.add("forkedTask"));
+        }
+
+        @Stop
+        public void stop() {
+            EVENTS.add("stopped");
+        }
+    }
+
+    /** Forks a task from a start operation with a timeout. */
+    public static class ForkedWithTimeout {
+
+        @Start(timeout = "PT10S")
+        public void start(StartContext context) {
+            context.fork(() -> EVENTS.add("timeoutTask"));
+        }
+    }
+
+    public static class Dependant {
+
+        public Dependant(Forking f, ForkedWithTimeout t) {}
+
+        @Start
+        public void start() {
+            EVENTS.add("dependant");
+        }
+    }
+
+    public static class Slow {
+
+        @Start(timeout = "PT0.05S")
+        public void start() throws InterruptedException {
+            Thread.sleep(10_000);
+        }
+    }
+}
@@ -0,0 +1,122 @@
+/*
+ * Copyright (c) 2026 Kasper Nielsen.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tck.service;
+
+import static java.lang.classfile.ClassFile.ACC_PUBLIC;
+import static java.lang.constant.ConstantDescs.CD_Object;
+import static java.lang.constant.ConstantDescs.CD_void;
+import static java.lang.constant.ConstantDescs.INIT_NAME;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.lang.classfile.ClassFile;
+import java.lang.constant.ClassDesc;
+import java.lang.constant.MethodTypeDesc;
+import java.lang.invoke.MethodHandles;
+
+import org.junit.jupiter.api.Test;
+
+import app.packed.service.CircularDependencyException;
+import tck.AppAppTest;
+
+/** Tests that circular dependencies between services are detected. */
+public class CircularDependencyTest extends AppAppTest {
+
+    /** The number of services in {@link #deepChain()}. */
+    static final int CHAIN_LENGTH = 2_000;
+
+    /** A service that depends on itself. */
+    @Test
+    public void selfLoop() {
+        install(SelfLoop.class).provide();
+
+        CircularDependencyException e = assertThrows(CircularDependencyException.class, () -> app());
+        assertThat(e).hasMessageContaining("Circular dependencies between 1 services");
+    }
+
+    /** Two services that depend on each other. */
+    @Test
+    public void cycle() {
+        install(Ping.class).provide();
+        install(Pong.class).provide();
+
+        CircularDependencyException e = assertThrows(CircularDependencyException.class, () -> app());
+        assertThat(e).hasMessageContaining("Circular dependencies between 2 services").hasMessageContaining(" <-> ");
+    }
+
+    /** A cycle through three services, with a service outside of the cycle depending on it. */
+    @Test
+    public void cycleWithTail() {
+        install(Tail.class).provide();
+        install(X.class).provide();
+        install(Y.class).provide();
+        install(Z.class).provide();
+
+        CircularDependencyException e = assertThrows(CircularDependencyException.class, () -> app());
+        assertThat(e).hasMessageContaining("Circular dependencies between 3 services").hasMessageNotContaining("Tail");
+    }
+
+    /** A long chain of services where the last service depends on the first. Cycles are found without recursion. */
+    @Test
+    public void deepChain() throws Exception {
+        for (Class<?> c : defineChain(CHAIN_LENGTH)) {
+            install(c).provide();
+        }
+
+        CircularDependencyException e = assertThrows(CircularDependencyException.class, () -> app());
+        assertThat(e).hasMessageContaining("Circular dependencies between " + CHAIN_LENGTH + " services");
+    }
+
+    /**
+     * Defines the specified number of classes. Each class has a single constructor that takes the next class, the last
+     * class takes the first class.
+     */
+    private static Class<?>[] defineChain(int length) throws IllegalAccessException {
+        String prefix = CircularDependencyTest.class.getName() + "$Chain" + System.nanoTime() + "_";
+        ClassDesc[] descs = new ClassDesc[length];
+        for (int i = 0; i < length; i++) {
+            descs[i] = ClassDesc.of(prefix + i);
+        }
+        Class<?>[] classes = new Class<?>[length];
+        for (int i = 0; i < length; i++) {
+            ClassDesc next = descs[(i + 1) % length];
+            byte[] bytes = ClassFile.of().build(descs[i], cb -> {
+                cb.withFlags(ACC_PUBLIC);
+                cb.withMethodBody(INIT_NAME, MethodTypeDesc.of(CD_void, next), ACC_PUBLIC, mb -> {
+                    mb.aload(0);
+                    mb.invokespecial(CD_Object, INIT_NAME, MethodTypeDesc.of(CD_void));
+                    mb.return_();
+                });
+            });
+            classes[i] = MethodHandles.lookup().defineClass(bytes);
+        }
+        return classes;
+    }
+
+    public record SelfLoop(SelfLoop self) {}
+
+    public record Ping(Pong pong) {}
+
+    public record Pong(Ping ping) {}
+
+    public record Tail(X x) {}
+
+    public record X(Y y) {}
+
+    public record Y(Z z) {}
+
+    public record Z(X x) {}
+}
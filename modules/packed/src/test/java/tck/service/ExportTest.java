@@ -15,6 +15,7 @@
  */
 package tck.service;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static tck.service.ServiceLocatorAsserts.testNotPresent;
 import static tck.service.ServiceLocatorAsserts.testPresent;
 import static testutil.stubs.Letters.A0;
@@ -25,6 +26,7 @@ import static testutil.stubs.Letters.D0;
 import org.junit.jupiter.api.Test;
 
 import app.packed.binding.Key;
+import app.packed.binding.Provider;
 import app.packed.service.ProvidableBeanConfiguration;
 import app.packed.service.ServiceLocator;
 import tck.ServiceLocatorAppTest;
@@ -78,4 +80,37 @@ public class ExportTest extends ServiceLocatorAppTest {
         // Different instance
         testPresent(app(), Key.of(B.class), e -> e != old.use(B.class));
     }
+
+    /** Every exported service is created by the same table, make sure the right service is created for each key. */
+    @Test
+    public void manyServices() {
+        installInstance(A0).export();
+        installInstance(B0).export();
+        installInstance(C0).export();
+        install(D.class).export();
+
+        ServiceLocator sl = app();
+        assertThat(sl.size()).isEqualTo(4);
+        assertThat(sl.use(A.class)).isSameAs(A0);
+        assertThat(sl.use(B.class)).isSameAs(B0);
+        assertThat(sl.use(C.class)).isSameAs(C0);
+        assertThat(sl.use(D.class)).isSameAs(sl.use(new Key<D>() {}));
+    }
+
+    /** Providers are created at most once per key. */
+    @Test
+    public void providers() {
+        installInstance(A0).export();
+        install(B.class).export();
+
+        ServiceLocator sl = app();
+        Provider<A> a = sl.findProvider(Key.of(A.class)).get();
+        assertThat(sl.findProvider(Key.of(A.class)).get()).isSameAs(a);
+        assertThat(a.provide()).isSameAs(A0);
+
+        Provider<B> b = sl.findProvider(Key.of(B.class)).get();
+        assertThat(b).isNotSameAs(a);
+        assertThat(sl.findProvider(Key.of(B.class)).get()).isSameAs(b);
+        assertThat(b.provide()).isSameAs(sl.use(B.class));
+    }
 }
@@ -0,0 +1,88 @@
+/*
+ * Copyright (c) 2026 Kasper Nielsen.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tck.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static testutil.stubs.Letters.A0;
+import static testutil.stubs.Letters.B0;
+
+import org.junit.jupiter.api.Test;
+
+import app.packed.binding.Key;
+import app.packed.operation.Op0;
+import app.packed.service.ServiceLocator;
+import app.packed.service.ServiceSelection;
+import tck.ServiceLocatorAppTest;
+import testutil.stubs.Letters.A;
+import testutil.stubs.Letters.AExt;
+import testutil.stubs.Letters.B;
+
+/** Tests {@link ServiceLocator#selectAll()} and {@link ServiceLocator#selectAssignableTo(Class)}. */
+public class ServiceSelectionTest extends ServiceLocatorAppTest {
+
+    static final AExt AEXT = new AExt();
+
+    private void exportServices() {
+        installInstance(A0).export();
+        installInstance(AEXT).export();
+        installInstance(B0).export();
+        install(new Op0<Integer>(() -> 5) {}).export();
+    }
+
+    @Test
+    public void selectAll() {
+        exportServices();
+        ServiceLocator sl = app();
+
+        ServiceSelection<?> all = sl.selectAll();
+        assertThat(all.size()).isEqualTo(4);
+        assertThat(all.keys()).containsExactlyInAnyOrder(Key.of(A.class), Key.of(AExt.class), Key.of(B.class), Key.of(Integer.class));
+        assertThat(all.toList()).containsExactlyInAnyOrder(A0, AEXT, B0, 5);
+        assertThat(all.selectAll()).isSameAs(all);
+
+        // Selecting all services again creates an equivalent selection
+        assertThat(sl.selectAll().toList()).containsExactlyElementsOf(all.toList());
+    }
+
+    @Test
+    public void selectAssignableTo() {
+        exportServices();
+        ServiceLocator sl = app();
+
+        ServiceSelection<A> a = sl.selectAssignableTo(A.class);
+        assertThat(a.toList()).containsExactlyInAnyOrder(A0, AEXT);
+        assertThat(a.contains(B.class)).isFalse();
+        assertThat(a.findProvider(Key.of(AExt.class)).get().provide()).isSameAs(AEXT);
+        assertThat(a.streamOfProviders().map(p -> p.provide())).containsExactlyInAnyOrder(A0, AEXT);
+
+        assertThat(sl.selectAssignableTo(AExt.class).toList()).containsExactly(AEXT);
+        assertThat(sl.selectAssignableTo(A.class).selectAssignableTo(AExt.class).toList()).containsExactly(AEXT);
+        assertThat(sl.selectAssignableTo(Object.class).size()).isEqualTo(4);
+        assertThat(sl.selectAssignableTo(String.class).isEmpty()).isTrue();
+    }
+
+    /** Keys never have primitive types, so primitive types select the services of the boxed type. */
+    @Test
+    public void selectAssignableToPrimitive() {
+        exportServices();
+        ServiceLocator sl = app();
+
+        assertThat(sl.selectAssignableTo(int.class).toList()).containsExactly(5);
+        assertThat(sl.selectAssignableTo(Number.class).toList()).containsExactly(5);
+        assertThat(sl.selectAssignableTo(long.class).isEmpty()).isTrue();
+        assertThat(sl.selectAll().selectAssignableTo(int.class).toList()).containsExactly(5);
+    }
+}
@@ -0,0 +1,178 @@
+/*
+ * Copyright (c) 2026 Kasper Nielsen.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tck.wirelets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import app.packed.assembly.BaseAssembly;
+import app.packed.container.Wirelets;
+import app.packed.lifecycle.Initialize;
+import app.packed.service.Provide;
+import app.packed.service.ServiceLocator;
+
+/** Tests the wirelets that build or run parts of an application in parallel. */
+public class ParallelWireletTest {
+
+    /** Beans whose code depends on the code of other beans. Built a number of times to try different interleavings. */
+    @Test
+    public void codegenInParallel() {
+        for (int i = 0; i < 10; i++) {
+            Node.INITIALIZED.set(0);
+            ServiceLocator l = ServiceLocator.of(new ChainAssembly(), Wirelets.codegenInParallel());
+            assertThat(Node.INITIALIZED).hasValue(ChainAssembly.NODES);
+            assertThat(l.use(C.class).b().a()).isNotNull();
+        }
+    }
+
+    /** Exported services are generated together with the code of the beans that provide them. */
+    @Test
+    public void codegenInParallelExports() {
+        for (int i = 0; i < 10; i++) {
+            ServiceLocator l = ServiceLocator.of(new BaseAssembly() {
+                @Override
+                protected void build() {
+                    exportAll();
+                    install(A.class).provide();
+                    install(B.class).provide();
+                    install(C.class).provide();
+                    install(D.class);
+                }
+            }, Wirelets.codegenInParallel());
+            assertThat(l.use(C.class).b()).isSameAs(l.use(B.class));
+            assertThat(l.use(B.class).a()).isSameAs(l.use(A.class));
+            assertThat(l.use(Integer.class)).isEqualTo(3);
+        }
+    }
+
+    /** Beans are initialized after the beans they depend on. */
+    @Test
+    public void initializeInParallel() {
+        for (int i = 0; i < 10; i++) {
+            Init.ORDER.clear();
+            ServiceLocator.of(new BaseAssembly() {
+                @Override
+                protected void build() {
+                    install(Init3.class);
+                    install(Init2.class).provide();
+                    install(Init1.class).provide();
+                    for (int j = 0; j < 8; j++) {
+                        install(Init.class).allowMultiClass();
+                    }
+                }
+            }, Wirelets.initializeInParallel());
+            assertThat(Init.ORDER).hasSize(11);
+            assertThat(Init.ORDER.indexOf("1")).isLessThan(Init.ORDER.indexOf("2"));
+            assertThat(Init.ORDER.indexOf("2")).isLessThan(Init.ORDER.indexOf("3"));
+        }
+    }
+
+    /** A failing bean cancels the initialization of the beans that depend on it, and the failure is rethrown. */
+    @Test
+    public void initializeInParallelFailure() {
+        Init.ORDER.clear();
+        assertThatThrownBy(() -> ServiceLocator.of(new BaseAssembly() {
+            @Override
+            protected void build() {
+                install(Failing.class).provide();
+                install(DependsOnFailing.class);
+            }
+        }, Wirelets.initializeInParallel())).hasStackTraceContaining("Initialization failed");
+        assertThat(Init.ORDER).isEmpty();
+    }
+
+    /** Three beans depending on each other, a bean providing a service via a method, and a number of beans using both. */
+    static class ChainAssembly extends BaseAssembly {
+
+        static final int NODES = 32;
+
+        @Override
+        protected void build() {
+            install(A.class).provide();
+            install(B.class).provide();
+            install(C.class).export();
+            install(D.class);
+            for (int i = 0; i < NODES; i++) {
+                install(Node.class).allowMultiClass();
+            }
+        }
+    }
+
+    public record A() {}
+
+    public record B(A a) {}
+
+    public record C(B b) {}
+
+    public static class D {
+
+        @Provide
+        public Integer value(C c) {
+            return 3;
+        }
+    }
+
+    public static class Init {
+        static final List<String> ORDER = Collections.synchronizedList(new ArrayList<>());
+
+        @Initialize
+        public void init() {
+            ORDER.add(getClass() == Init.class ? "0" : getClass().getSimpleName().substring(4));
+        }
+    }
+
+    public static class Init1 extends Init {}
+
+    public static class Init2 extends Init {
+        public Init2(Init1 i) {}
+    }
+
+    public static class Init3 extends Init {
+        public Init3(Init2 i) {}
+    }
+
+    public static class Failing {
+
+        @Initialize
+        public void init() {
+            throw new IllegalStateException("Initialization failed");
+        }
+    }
+
+    public static class DependsOnFailing extends Init {
+        public DependsOnFailing(Failing f) {}
+    }
+
+    public static class Node {
+        static final AtomicInteger INITIALIZED = new AtomicInteger();
+
+        public Node(B b, Integer value) {
+            assertThat(value).isEqualTo(3);
+        }
+
+        @Initialize
+        public void init() {
+            INITIALIZED.incrementAndGet();
+        }
+    }
+}